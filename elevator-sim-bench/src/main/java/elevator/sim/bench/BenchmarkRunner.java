@@ -0,0 +1,65 @@
+package elevator.sim.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.io.IOException;
+
+/**
+ * Entry point of the benchmark jar. Accepts the same command line as JMH's own launcher (benchmark patterns, <code>-p</code>, <code>-f</code>, <code>-rf json</code> and so on), and always adds the GC profiler, so every
+ * run reports the allocation rate and bytes allocated per operation next to the timings.
+ */
+public final class BenchmarkRunner
+{
+    private static final String GC_PROFILER = "gc";
+
+    /**
+     * Declared private to prevent instantiation.
+     */
+    private BenchmarkRunner()
+    {
+    }
+
+    /**
+     * Runs the selected benchmarks.
+     *
+     * @param args JMH command line options.
+     * @throws CommandLineOptionException if the options are malformed.
+     * @throws RunnerException if a benchmark fails.
+     * @throws IOException if the help text cannot be written.
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException, IOException
+    {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp())
+        {
+            commandLineOptions.showHelp();
+            return;
+        }
+
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLineOptions);
+        boolean gcProfilerRequested = false;
+        for (final ProfilerConfig profiler : commandLineOptions.getProfilers())
+        {
+            gcProfilerRequested |= GC_PROFILER.equals(profiler.getKlass()) || GCProfiler.class.getName().equals(profiler.getKlass());
+        }
+        if (!gcProfilerRequested)
+        {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        final Runner runner = new Runner(options.build());
+        if (commandLineOptions.shouldList())
+        {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
@@ -0,0 +1,61 @@
+package elevator.sim.bench;
+
+import elevator.sim.core.Scenario;
+
+import java.util.Random;
+
+/**
+ * Generates the seeded, random {@linkplain Scenario Scenarios} the benchmarks run on, so every run and every benchmark sees the same input for the same parameters.
+ */
+public final class BenchmarkScenarios
+{
+    /**
+     * Declared private to prevent instantiation.
+     */
+    private BenchmarkScenarios()
+    {
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param riderCount The number of moves (must be positive).
+     * @param floorCount The number of floors in the building (must be at least 2).
+     * @return Non-null Scenario of moves between uniformly random, distinct floors.
+     */
+    public static Scenario randomScenario(final Random random, final int riderCount, final int floorCount)
+    {
+        final Scenario.Builder builder = Scenario.builder();
+        for (int moveIndex = 0; moveIndex < riderCount; moveIndex++)
+        {
+            final int originatingFloor = 1 + random.nextInt(floorCount);
+            builder.addMove(originatingFloor, 1 + (originatingFloor + random.nextInt(floorCount - 1)) % floorCount);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param riderCount The number of riders (must be positive).
+     * @param floorCount The number of floors in the building (must be at least 2).
+     * @return Non-null scenario line in the input format, e.g. <code>8:3-6,4-6</code>.
+     */
+    public static String randomLine(final Random random, final int riderCount, final int floorCount)
+    {
+        final StringBuilder line = new StringBuilder();
+        for (int rider = 0; rider < riderCount; rider++)
+        {
+            final int originatingFloor = 1 + random.nextInt(floorCount);
+            if (rider == 0)
+            {
+                // The initial floor becomes a move to the first pickup, so it must be a different floor.
+                line.append(1 + (originatingFloor + random.nextInt(floorCount - 1)) % floorCount).append(':');
+            }
+            else
+            {
+                line.append(',');
+            }
+            line.append(originatingFloor).append('-').append(1 + (originatingFloor + random.nextInt(floorCount - 1)) % floorCount);
+        }
+        return line.toString();
+    }
+}
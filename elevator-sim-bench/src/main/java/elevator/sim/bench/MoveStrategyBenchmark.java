@@ -0,0 +1,116 @@
+package elevator.sim.bench;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveByLocalSearch;
+import elevator.sim.core.strategy.MoveByLookSweep;
+import elevator.sim.core.strategy.MoveByNearestRequest;
+import elevator.sim.core.strategy.MoveByOptimalRoute;
+import elevator.sim.core.strategy.MoveByRequestsInSameDirection;
+import elevator.sim.core.strategy.MoveBySingleRequest;
+import elevator.sim.core.strategy.MoveStrategies;
+import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.strategy.PrimitiveMoveStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures planning a single scenario with the strategy of each mode, for scenarios of ten to a million riders in a building of {@value #FLOOR_COUNT} floors. The primitive benchmark reuses one
+ * {@linkplain FloorSequence}, as the streaming elevator does; the list benchmark goes through the boxed {@linkplain MoveStrategy} interface with its List of {@linkplain MoveCommand MoveCommands}. <p />
+ * Modes A, B, C and F run by default. Mode D only searches scenarios of up to {@value MoveByOptimalRoute#DEFAULT_RIDER_CEILING} riders and mode E runs {@value MoveByLocalSearch#DEFAULT_ITERATIONS} search
+ * iterations per scenario, so they are best selected with small sizes, e.g. <code>-p mode=D,E -p riders=10,20</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveStrategyBenchmark
+{
+    private static final int FLOOR_COUNT = 200;
+
+    @Param({"A", "B", "C", "F"})
+    public String mode;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int riders;
+
+    private PrimitiveMoveStrategy primitiveStrategy;
+    private MoveStrategy moveStrategy;
+    private Scenario scenario;
+    private List<MoveCommand> moveCommands;
+    private final FloorSequence moveSequence = new FloorSequence();
+
+    /**
+     * Creates the strategy of the selected mode and the scenario to plan.
+     */
+    @Setup
+    public void createScenario()
+    {
+        moveStrategy = createStrategy(mode);
+        primitiveStrategy = MoveStrategies.asPrimitive(moveStrategy);
+        scenario = BenchmarkScenarios.randomScenario(new Random(riders), riders, FLOOR_COUNT);
+        moveCommands = scenario.getMoveCommands();
+    }
+
+    /**
+     * @return The FloorSequence the scenario was planned into.
+     */
+    @Benchmark
+    public FloorSequence primitive()
+    {
+        primitiveStrategy.getMoveSequence(scenario, moveSequence);
+        return moveSequence;
+    }
+
+    /**
+     * @return The planned floors.
+     */
+    @Benchmark
+    public ImmutableList<Integer> list()
+    {
+        return moveStrategy.getMoveSequence(moveCommands);
+    }
+
+    /**
+     * @param mode The mode letter, as given on the command line.
+     * @return Non-null MoveStrategy of the mode, with its default settings.
+     * @throws IllegalArgumentException if the mode is not known.
+     */
+    static MoveStrategy createStrategy(final String mode)
+    {
+        switch (mode)
+        {
+            case "A":
+                return new MoveBySingleRequest();
+            case "B":
+                return new MoveByRequestsInSameDirection();
+            case "C":
+                return new MoveByLookSweep();
+            case "D":
+                return new MoveByOptimalRoute();
+            case "E":
+                return new MoveByLocalSearch();
+            case "F":
+                return new MoveByNearestRequest();
+            default:
+                throw new IllegalArgumentException("Unknown mode: [" + mode + "].");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package elevator.sim.bench;
+
+import com.google.common.io.ByteStreams;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.MoveBySingleRequest;
+import elevator.sim.core.streaming.ChannelOutputSink;
+import elevator.sim.core.streaming.FlushPolicy;
+import elevator.sim.core.streaming.OutputSink;
+import elevator.sim.core.streaming.StreamingOutputElevator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting and writing results through the {@linkplain StreamingOutputElevator} and a {@linkplain ChannelOutputSink} that discards its output, per scenario of one to twenty riders. The elevator plans with
+ * {@linkplain MoveBySingleRequest}, the cheapest strategy, so the score is dominated by formatting the floors, copying them into the sink's buffer and, depending on the flush policy, the channel writes; with several
+ * planning threads it also covers the reorder buffer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputBenchmark
+{
+    private static final int SCENARIOS = 10000;
+    private static final int FLOOR_COUNT = 100;
+    private static final int MAXIMUM_RIDERS_PER_SCENARIO = 20;
+
+    @Param({"end", "scenario"})
+    public String flush;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private List<Scenario> scenarios;
+    private OutputSink outputSink;
+    private StreamingOutputElevator elevator;
+
+    /**
+     * Generates the scenarios and opens the discarding sink.
+     */
+    @Setup
+    public void createElevator()
+    {
+        final Random random = new Random(SCENARIOS);
+        scenarios = new ArrayList<>(SCENARIOS);
+        for (int scenarioIndex = 0; scenarioIndex < SCENARIOS; scenarioIndex++)
+        {
+            scenarios.add(BenchmarkScenarios.randomScenario(random, 1 + random.nextInt(MAXIMUM_RIDERS_PER_SCENARIO), FLOOR_COUNT));
+        }
+        outputSink = ChannelOutputSink.toStream(ByteStreams.nullOutputStream(), FlushPolicy.parse(flush));
+        elevator = new StreamingOutputElevator(new MoveBySingleRequest(), outputSink, threads);
+    }
+
+    /**
+     * Closes the sink.
+     *
+     * @throws IOException if the sink cannot be closed.
+     */
+    @TearDown
+    public void closeSink() throws IOException
+    {
+        outputSink.close();
+    }
+
+    /**
+     * Runs every scenario, writing its result to the sink, and flushes the sink.
+     */
+    @Benchmark
+    @OperationsPerInvocation(SCENARIOS)
+    public void runScenarios()
+    {
+        elevator.runScenarios(scenarios.iterator());
+    }
+}
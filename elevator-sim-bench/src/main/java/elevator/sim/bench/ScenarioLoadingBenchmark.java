@@ -0,0 +1,145 @@
+package elevator.sim.bench;
+
+import elevator.sim.core.Scenario;
+import elevator.sim.scenario.BinaryScenarioWriter;
+import elevator.sim.scenario.ScenarioLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures loading a whole scenario file through {@linkplain ScenarioLoader}, for plain text, gzip- and zlib-compressed text and the binary format, both sequentially and through the pipelined reader. The file is
+ * generated once per trial in the temporary directory and holds lines of one to twenty riders, like the sample scenario files. Comparing the formats shows what decompression adds on top of parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScenarioLoadingBenchmark
+{
+    private static final int FLOOR_COUNT = 100;
+    private static final int MAXIMUM_RIDERS_PER_LINE = 20;
+    private static final int PARSE_THREADS = 2;
+    private static final int PARSE_QUEUE = 16;
+
+    @Param({"text", "gzip", "deflate", "binary"})
+    public String format;
+
+    @Param({"100000"})
+    public int lines;
+
+    private final ScenarioLoader scenarioLoader = new ScenarioLoader();
+    private Path scenarioFile;
+
+    /**
+     * Writes the scenario file in the selected format.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Setup
+    public void writeScenarioFile() throws IOException
+    {
+        scenarioFile = Files.createTempFile("elevator-sim-bench", "." + format);
+        final Random random = new Random(lines);
+        try (final OutputStream output = open(new BufferedOutputStream(Files.newOutputStream(scenarioFile), 1 << 16)))
+        {
+            if ("binary".equals(format))
+            {
+                final BinaryScenarioWriter writer = new BinaryScenarioWriter(output);
+                for (int line = 0; line < lines; line++)
+                {
+                    writer.write(BenchmarkScenarios.randomScenario(random, 1 + random.nextInt(MAXIMUM_RIDERS_PER_LINE), FLOOR_COUNT));
+                }
+                writer.close();
+            }
+            else
+            {
+                final Writer writer = new OutputStreamWriter(output, StandardCharsets.US_ASCII);
+                for (int line = 0; line < lines; line++)
+                {
+                    writer.write(BenchmarkScenarios.randomLine(random, 1 + random.nextInt(MAXIMUM_RIDERS_PER_LINE), FLOOR_COUNT));
+                    writer.write('\n');
+                }
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * Deletes the scenario file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @TearDown
+    public void deleteScenarioFile() throws IOException
+    {
+        Files.deleteIfExists(scenarioFile);
+    }
+
+    /**
+     * @return The total number of moves loaded, reading and parsing on the calling thread (decompression runs ahead on its own thread).
+     */
+    @Benchmark
+    public long stream()
+    {
+        try (final Stream<Scenario> scenarios = scenarioLoader.streamScenariosFromFile(scenarioFile))
+        {
+            return scenarios.mapToLong(Scenario::getMoveCount).sum();
+        }
+    }
+
+    /**
+     * @return The total number of moves loaded, parsing batches of lines on background threads.
+     */
+    @Benchmark
+    public long pipeline()
+    {
+        try (final Stream<Scenario> scenarios = scenarioLoader.streamScenariosFromFileInPipeline(scenarioFile, PARSE_THREADS, PARSE_QUEUE))
+        {
+            return scenarios.mapToLong(Scenario::getMoveCount).sum();
+        }
+    }
+
+    /**
+     * @param output The stream writing the file.
+     * @return Non-null stream compressing into the given one as the selected format requires.
+     * @throws IOException if the compression header cannot be written.
+     */
+    private OutputStream open(final OutputStream output) throws IOException
+    {
+        switch (format)
+        {
+            case "gzip":
+                return new GZIPOutputStream(output, 1 << 16);
+            case "deflate":
+                return new DeflaterOutputStream(output);
+            default:
+                return output;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package elevator.sim.scenario;
+
+import elevator.sim.bench.BenchmarkScenarios;
+import elevator.sim.core.Scenario;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing single scenario lines with the {@linkplain ScenarioLineParser} the loaders use, from a line of one rider to a line of a thousand. Lines are parsed in turn from a pool of distinct lines, so branch
+ * prediction cannot learn a single line. Lives in the loader's package since the parser is package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScenarioParsingBenchmark
+{
+    private static final int LINE_POOL_SIZE = 1024;
+    private static final int FLOOR_COUNT = 100;
+
+    @Param({"1", "10", "100", "1000"})
+    public int riders;
+
+    private final ScenarioLineParser parser = new ScenarioLineParser();
+    private String[] lines;
+    private int nextLine;
+
+    /**
+     * Generates the pool of lines.
+     */
+    @Setup
+    public void generateLines()
+    {
+        final Random random = new Random(riders);
+        lines = new String[LINE_POOL_SIZE];
+        for (int lineIndex = 0; lineIndex < LINE_POOL_SIZE; lineIndex++)
+        {
+            lines[lineIndex] = BenchmarkScenarios.randomLine(random, riders, FLOOR_COUNT);
+        }
+    }
+
+    /**
+     * @return The Scenario parsed from the next line of the pool.
+     */
+    @Benchmark
+    public Scenario parseLine()
+    {
+        final int lineIndex = nextLine;
+        nextLine = (lineIndex + 1) & (LINE_POOL_SIZE - 1);
+        return parser.parse(lines[lineIndex], lineIndex + 1);
+    }
+}
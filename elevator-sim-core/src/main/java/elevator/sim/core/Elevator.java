@@ -1,11 +1,14 @@
 package elevator.sim.core;
 
+import com.google.common.base.Preconditions;
+
+import java.util.Iterator;
 import java.util.List;
 
 /**
- * Represents an elevator capable of running {@linkplain Scenario Scenarios}.
+ * Represents an elevator capable of running {@linkplain Scenario Scenarios}. Elevators that plan on threads of their own keep them from one run to the next, and release them when closed.
  */
-public interface Elevator
+public interface Elevator extends AutoCloseable
 {
     /**
      * Runs a single {@linkplain Scenario}.
@@ -15,9 +18,38 @@ public interface Elevator
     public void runScenario(Scenario scenario);
 
     /**
-     * Runs the given {@linkplain Scenario Scenarios}.
+     * Runs the given {@linkplain Scenario Scenarios}. By default, each Scenario is run in turn through {@linkplain #runScenarios(Iterator)}.
+     *
+     * @param scenarios The Scenarios to run (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    default void runScenarios(final List<Scenario> scenarios)
+    {
+        Preconditions.checkArgument(scenarios != null, "scenarios: null");
+        runScenarios(scenarios.iterator());
+    }
+
+    /**
+     * Runs the {@linkplain Scenario Scenarios} produced by the given Iterator, in order. Each Scenario is requested only once the previous one has been run, so the Scenarios need not all be held in memory at once.
+     * By default, each Scenario is passed to {@linkplain #runScenario(Scenario)}; implementations that plan ahead or write in batches override this, and must then not implement runScenario in terms of the default.
      *
-     * @param scenarios The Scenarios to run.
+     * @param scenarios The Scenarios to run (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    default void runScenarios(final Iterator<Scenario> scenarios)
+    {
+        Preconditions.checkArgument(scenarios != null, "scenarios: null");
+        while (scenarios.hasNext())
+        {
+            runScenario(scenarios.next());
+        }
+    }
+
+    /**
+     * Releases the threads the elevator plans on, if any. The elevator must not be used to run further scenarios once closed. By default, does nothing.
      */
-    void runScenarios(List<Scenario> scenarios);
+    @Override
+    default void close()
+    {
+    }
 }
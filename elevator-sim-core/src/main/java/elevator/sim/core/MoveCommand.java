@@ -23,14 +23,26 @@ public final class MoveCommand
     {
         Preconditions.checkArgument(originatingFloor != null, "originatingFloor: null");
         Preconditions.checkArgument(destinationFloor != null, "destinationFloor: null");
-        Preconditions.checkArgument(originatingFloor > 0, "originatingFloor: <= 0");
-        Preconditions.checkArgument(destinationFloor > 0, "destinationFloor: <= 0");
-        Preconditions.checkArgument(originatingFloor != destinationFloor, "originatingFloor and destinationFloor must be different values");
+        checkFloors(originatingFloor, destinationFloor);
 
         this.originatingFloor = originatingFloor;
         this.destinationFloor = destinationFloor;
     }
 
+    /**
+     * Validates the floors of a move, as for {@linkplain #MoveCommand(Integer, Integer)}.
+     *
+     * @param originatingFloor The originating floor for the move (must be positive).
+     * @param destinationFloor The destination floor for the move (must be positive and different from originatingFloor).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static void checkFloors(final int originatingFloor, final int destinationFloor)
+    {
+        Preconditions.checkArgument(originatingFloor > 0, "originatingFloor: <= 0");
+        Preconditions.checkArgument(destinationFloor > 0, "destinationFloor: <= 0");
+        Preconditions.checkArgument(originatingFloor != destinationFloor, "originatingFloor and destinationFloor must be different values");
+    }
+
     /**
      * @return Positive, non-null originating floor for the move.
      */
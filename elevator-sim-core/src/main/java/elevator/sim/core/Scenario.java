@@ -3,38 +3,103 @@ package elevator.sim.core;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
- * Represents an elevator simulation scenario containing a series of move commands.
+ * Represents an elevator simulation scenario containing a series of move commands. <p />
+ * The move commands are stored as a flat array of int floor pairs (originating floor, then destination floor), which costs 8 bytes per command. They can be read without boxing through
+ * {@linkplain #getMoveCount()}, {@linkplain #getOriginatingFloor(int)} and {@linkplain #getDestinationFloor(int)}, or as {@linkplain MoveCommand MoveCommands} through {@linkplain #getMoveCommandView()} (or
+ * {@linkplain #getMoveCommands()}, which copies them).
  */
 public final class Scenario
 {
-    private final ImmutableList<MoveCommand> moveCommands;
+    private static final int[] NO_FLOORS = new int[0];
+
+    private final int[] floors;
 
     /**
      * Creates a new {@linkplain Scenario}.
      *
-     * @param moveCommands List of {@linkplain MoveCommand MoveCommands} for the scenario (cannot be null, may be empty).
+     * @param moveCommands List of {@linkplain MoveCommand MoveCommands} for the scenario (cannot be null or contain null values, may be empty).
      * @throws IllegalArgumentException if parameter conditions are not met.
      */
     public Scenario(final List<MoveCommand> moveCommands)
     {
         Preconditions.checkArgument(moveCommands != null, "moveCommands: null");
 
-        // copyOf is smarter/faster than one might think! https://github.com/google/guava/wiki/ImmutableCollectionsExplained
-        //
-        // Also, to see why I'm using List as the parameter, see the API docs: https://google.github.io/guava/releases/19.0/api/docs/com/google/common/collect/ImmutableCollection.html
-        // "... a parameter type of ImmutableList is generally a nuisance to callers. Instead, accept Iterable and have your method or constructor body pass it to the appropriate copyOf method itself."
-        this.moveCommands = ImmutableList.copyOf(moveCommands);
+        final int moveCount = moveCommands.size();
+        this.floors = moveCount == 0 ? NO_FLOORS : new int[moveCount * 2];
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            final MoveCommand moveCommand = moveCommands.get(moveIndex);
+            Preconditions.checkArgument(moveCommand != null, "moveCommand: null");
+            floors[moveIndex * 2] = moveCommand.getOriginatingFloor();
+            floors[moveIndex * 2 + 1] = moveCommand.getDestinationFloor();
+        }
+    }
+
+    /**
+     * @param floors Packed, already validated floor pairs; ownership passes to the Scenario.
+     */
+    private Scenario(final int[] floors)
+    {
+        this.floors = floors;
+    }
+
+    /**
+     * @return A new {@linkplain Builder} for assembling a Scenario one move at a time without creating {@linkplain MoveCommand MoveCommands}.
+     */
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * @return The number of move commands in the scenario.
+     */
+    public int getMoveCount()
+    {
+        return floors.length / 2;
+    }
+
+    /**
+     * @param moveIndex Index of the move command (must be between 0 and {@linkplain #getMoveCount()}, exclusive).
+     * @return Positive originating floor of the move command.
+     * @throws IndexOutOfBoundsException if moveIndex is out of range.
+     */
+    public int getOriginatingFloor(final int moveIndex)
+    {
+        return floors[checkMoveIndex(moveIndex) * 2];
+    }
+
+    /**
+     * @param moveIndex Index of the move command (must be between 0 and {@linkplain #getMoveCount()}, exclusive).
+     * @return Positive destination floor of the move command.
+     * @throws IndexOutOfBoundsException if moveIndex is out of range.
+     */
+    public int getDestinationFloor(final int moveIndex)
+    {
+        return floors[checkMoveIndex(moveIndex) * 2 + 1];
     }
 
     /**
-     * @return Non-null, possibly empty ImmutableList of {@linkplain MoveCommand MoveCommands} for the scenario.
+     * @return Non-null, possibly empty ImmutableList of {@linkplain MoveCommand MoveCommands} for the scenario, built from the packed floors on every call. Prefer {@linkplain #getMoveCommandView()} where a List
+     * suffices.
      */
     public ImmutableList<MoveCommand> getMoveCommands()
     {
-        return moveCommands;
+        return ImmutableList.copyOf(getMoveCommandView());
+    }
+
+    /**
+     * @return Non-null, possibly empty, unmodifiable List of {@linkplain MoveCommand MoveCommands} for the scenario. The List is a view over the packed floors; each MoveCommand is created when it is requested.
+     */
+    public List<MoveCommand> getMoveCommandView()
+    {
+        return new MoveCommandView();
     }
 
     /**
@@ -48,7 +113,7 @@ public final class Scenario
 
         final Scenario scenario = (Scenario) o;
 
-        return moveCommands != null ? moveCommands.equals(scenario.moveCommands) : scenario.moveCommands == null;
+        return Arrays.equals(floors, scenario.floors);
     }
 
     /**
@@ -57,7 +122,7 @@ public final class Scenario
     @Override
     public int hashCode()
     {
-        return moveCommands != null ? moveCommands.hashCode() : 0;
+        return Arrays.hashCode(floors);
     }
 
     /**
@@ -67,7 +132,95 @@ public final class Scenario
     public String toString()
     {
         return "Scenario{" +
-                "moveCommands=" + moveCommands +
+                "moveCommands=" + getMoveCommandView() +
                 '}';
     }
+
+    /**
+     * @param moveIndex Index of a move command.
+     * @return The same index.
+     * @throws IndexOutOfBoundsException if moveIndex is out of range.
+     */
+    private int checkMoveIndex(final int moveIndex)
+    {
+        if (moveIndex < 0 || moveIndex >= floors.length / 2)
+        {
+            throw new IndexOutOfBoundsException("moveIndex: " + moveIndex + " (move count " + floors.length / 2 + ")");
+        }
+        return moveIndex;
+    }
+
+    /**
+     * Read-only List view presenting the packed floors as {@linkplain MoveCommand MoveCommands}.
+     */
+    private final class MoveCommandView extends AbstractList<MoveCommand> implements RandomAccess
+    {
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public MoveCommand get(final int index)
+        {
+            return new MoveCommand(getOriginatingFloor(index), getDestinationFloor(index));
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public int size()
+        {
+            return getMoveCount();
+        }
+    }
+
+    /**
+     * Assembles a {@linkplain Scenario} from primitive floor pairs. Builders are not thread-safe, and each may build a single Scenario.
+     */
+    public static final class Builder
+    {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] floors = NO_FLOORS;
+        private int size;
+
+        /**
+         * Declared private; use {@linkplain Scenario#builder()}.
+         */
+        private Builder()
+        {
+        }
+
+        /**
+         * Adds a move command to the scenario.
+         *
+         * @param originatingFloor The originating floor for the move (must be positive).
+         * @param destinationFloor The destination floor for the move (must be positive and different from originatingFloor).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder addMove(final int originatingFloor, final int destinationFloor)
+        {
+            MoveCommand.checkFloors(originatingFloor, destinationFloor);
+
+            if (size + 2 > floors.length)
+            {
+                floors = Arrays.copyOf(floors, Math.max(INITIAL_CAPACITY, floors.length * 2));
+            }
+            floors[size++] = originatingFloor;
+            floors[size++] = destinationFloor;
+            return this;
+        }
+
+        /**
+         * @return Non-null Scenario containing the moves added so far.
+         */
+        public Scenario build()
+        {
+            final Scenario scenario = new Scenario(size == 0 ? NO_FLOORS : size == floors.length ? floors : Arrays.copyOf(floors, size));
+            floors = NO_FLOORS;
+            size = 0;
+            return scenario;
+        }
+    }
 }
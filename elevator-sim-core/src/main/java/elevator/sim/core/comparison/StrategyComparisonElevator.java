@@ -0,0 +1,454 @@
+package elevator.sim.core.comparison;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import elevator.sim.core.Elevator;
+import elevator.sim.core.ElevatorScenarioExecutionException;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.jfr.ScenarioPlannedEvent;
+import elevator.sim.core.jfr.ScenarioWrittenEvent;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveStrategies;
+import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.strategy.PrimitiveMoveStrategy;
+import elevator.sim.core.streaming.OutputSink;
+import elevator.sim.core.streaming.StreamingOutputElevator;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Implementation of {@linkplain Elevator} that runs every {@linkplain Scenario} through several {@linkplain MoveStrategy MoveStrategies} and prints the number of floors each of them travelled to an
+ * {@linkplain OutputSink}, one line per Scenario in input order, e.g. <code>A (42) | B (40) | C (38)</code>. Along the way it totals the floors travelled by each strategy and counts the scenarios in which each travelled the
+ * fewest floors; see {@linkplain #formatSummary()}. As with {@linkplain StreamingOutputElevator}, a Scenario without any move commands ends the run, and the sink is flushed once all of the scenarios have been run. <p />
+ * Each Scenario is read only once. Scenarios are gathered into batches of at most {@value #BATCH_SCENARIOS} scenarios or {@value #BATCH_MOVES} move commands, and every strategy plans a whole batch on a thread of its
+ * own while the calling thread reads the next batch, so a run takes about as long as the slowest strategy on its own. At most two batches are held at any time. The strategies must therefore be safe to call from
+ * multiple threads, as the built-in strategies are. The planning threads are started by the first run and kept until the elevator is {@linkplain #close() closed}. Instances are not thread-safe.
+ */
+public final class StrategyComparisonElevator implements Elevator
+{
+    private static final int BATCH_SCENARIOS = 1024;
+    private static final int BATCH_MOVES = 1 << 16;
+    private static final int MINIMUM_STRATEGY_WIDTH = 8;
+
+    private final ImmutableList<String> strategyNames;
+    private final ImmutableList<PrimitiveMoveStrategy> strategies;
+    private final OutputSink outputSink;
+    private final long[] floorsTravelled;
+    private final long[] bestCounts;
+    private final long[] soleBestCounts;
+    private final StringBuilder output = new StringBuilder();
+    private long scenarioCount;
+    // Created by the first run.
+    private ExecutorService planners;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@linkplain StrategyComparisonElevator}.
+     *
+     * @param strategies The MoveStrategies to compare, by the name they are reported under (cannot be null, empty or contain null keys or values). They are reported in the iteration order of the map. Strategies that
+     * do not also implement {@linkplain PrimitiveMoveStrategy} are {@linkplain MoveStrategies#asPrimitive(MoveStrategy) adapted}.
+     * @param outputSink The {@linkplain OutputSink} to write the results of the scenarios to (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public StrategyComparisonElevator(final Map<String, ? extends MoveStrategy> strategies, final OutputSink outputSink)
+    {
+        Preconditions.checkArgument(strategies != null, "strategies: null");
+        Preconditions.checkArgument(!strategies.isEmpty(), "strategies: empty");
+        Preconditions.checkArgument(outputSink != null, "outputSink: null");
+
+        final ImmutableList.Builder<String> strategyNames = ImmutableList.builder();
+        final ImmutableList.Builder<PrimitiveMoveStrategy> primitiveStrategies = ImmutableList.builder();
+        for (final Map.Entry<String, ? extends MoveStrategy> entry : strategies.entrySet())
+        {
+            Preconditions.checkArgument(entry.getKey() != null, "strategyName: null");
+            Preconditions.checkArgument(entry.getValue() != null, "strategy: null");
+            strategyNames.add(entry.getKey());
+            primitiveStrategies.add(MoveStrategies.asPrimitive(entry.getValue()));
+        }
+        this.strategyNames = strategyNames.build();
+        this.strategies = primitiveStrategies.build();
+        this.outputSink = outputSink;
+        this.floorsTravelled = new long[strategies.size()];
+        this.bestCounts = new long[strategies.size()];
+        this.soleBestCounts = new long[strategies.size()];
+    }
+
+    /**
+     * Runs a single {@linkplain Scenario}, printing the results of the comparison to the associated {@linkplain OutputSink}.
+     *
+     * @param scenario The Scenario to run (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void runScenario(final Scenario scenario)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        runScenarios(Collections.singletonList(scenario));
+    }
+
+    /**
+     * Runs the {@linkplain Scenario Scenarios} produced by the given Iterator, printing the results of the comparison to the associated {@linkplain OutputSink} a batch at a time.
+     *
+     * @param scenarios The Scenarios to run (cannot be null or produce null values, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void runScenarios(final Iterator<Scenario> scenarios)
+    {
+        Preconditions.checkArgument(scenarios != null, "scenarios: null");
+        Preconditions.checkState(!closed, "Elevator is closed.");
+
+        if (planners == null)
+        {
+            planners = Executors.newFixedThreadPool(strategies.size(), new ThreadFactoryBuilder().setNameFormat("strategy-planner-%d").setDaemon(true).build());
+        }
+        final Batch[] batches = {new Batch(strategies.size()), new Batch(strategies.size())};
+        try
+        {
+            Batch current = batches[0];
+            boolean endOfInput = fill(current, scenarios, scenarioCount);
+            submit(current);
+            while (current.size > 0)
+            {
+                final Batch following = current == batches[0] ? batches[1] : batches[0];
+                following.clear(current.firstIndex + current.size);
+                if (!endOfInput)
+                {
+                    endOfInput = fill(following, scenarios, following.firstIndex);
+                    submit(following);
+                }
+                current.await();
+                write(current, following.size > 0);
+                current = following;
+            }
+            outputSink.flush();
+        }
+        catch (final IOException exception)
+        {
+            throw new ElevatorScenarioExecutionException("Exception occurred while writing scenario output.", exception);
+        }
+    }
+
+    /**
+     * Stops the planning threads, if they have been started.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        if (planners != null)
+        {
+            planners.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Non-null ImmutableList of the names of the compared strategies, in the order they are reported in.
+     */
+    public ImmutableList<String> getStrategyNames()
+    {
+        return strategyNames;
+    }
+
+    /**
+     * @return The number of scenarios compared so far.
+     */
+    public long getScenarioCount()
+    {
+        return scenarioCount;
+    }
+
+    /**
+     * @param strategyName The name of a compared strategy (must be one of {@linkplain #getStrategyNames()}).
+     * @return The number of floors the strategy travelled over all scenarios compared so far.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public long getFloorsTravelled(final String strategyName)
+    {
+        return floorsTravelled[getStrategyIndex(strategyName)];
+    }
+
+    /**
+     * @param strategyName The name of a compared strategy (must be one of {@linkplain #getStrategyNames()}).
+     * @return The number of scenarios in which no other strategy travelled fewer floors, ties included.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public long getBestCount(final String strategyName)
+    {
+        return bestCounts[getStrategyIndex(strategyName)];
+    }
+
+    /**
+     * @param strategyName The name of a compared strategy (must be one of {@linkplain #getStrategyNames()}).
+     * @return The number of scenarios in which the strategy travelled fewer floors than every other strategy.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public long getSoleBestCount(final String strategyName)
+    {
+        return soleBestCounts[getStrategyIndex(strategyName)];
+    }
+
+    /**
+     * Formats the totals of the scenarios compared so far as a table with one row per strategy: the floors travelled in total and per scenario, and the number of scenarios the strategy was {@linkplain #getBestCount(String)
+     * best} and {@linkplain #getSoleBestCount(String) solely best} in.
+     *
+     * @return Non-null, multi-line summary, without a trailing line separator.
+     */
+    public String formatSummary()
+    {
+        int strategyWidth = MINIMUM_STRATEGY_WIDTH;
+        for (final String strategyName : strategyNames)
+        {
+            strategyWidth = Math.max(strategyWidth, strategyName.length());
+        }
+
+        final StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Compared %d strategies over %d scenarios (best counts ties; sole best does not):%n", strategyNames.size(), scenarioCount));
+        summary.append(String.format("%-" + strategyWidth + "s %16s %10s %10s %10s", "Strategy", "Floors", "Mean", "Best", "Sole best"));
+        for (int strategyIndex = 0; strategyIndex < strategyNames.size(); strategyIndex++)
+        {
+            final double mean = scenarioCount == 0 ? 0 : (double) floorsTravelled[strategyIndex] / scenarioCount;
+            summary.append(String.format("%n%-" + strategyWidth + "s %16d %10.2f %10d %10d", strategyNames.get(strategyIndex), floorsTravelled[strategyIndex], mean, bestCounts[strategyIndex],
+                    soleBestCounts[strategyIndex]));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @param strategyName The name of a compared strategy.
+     * @return The position of the strategy in {@linkplain #strategyNames}.
+     * @throws IllegalArgumentException if the strategy is not compared.
+     */
+    private int getStrategyIndex(final String strategyName)
+    {
+        final int strategyIndex = strategyNames.indexOf(strategyName);
+        Preconditions.checkArgument(strategyIndex >= 0, "strategyName: not compared");
+        return strategyIndex;
+    }
+
+    /**
+     * Reads {@linkplain Scenario Scenarios} into an empty batch until it is full, the Iterator is exhausted or a Scenario without move commands is found.
+     *
+     * @param batch The Batch to fill.
+     * @param scenarios The Scenarios to read (cannot produce null values).
+     * @param firstIndex The position of the first Scenario of the batch in the run.
+     * @return True if no further scenarios should be read.
+     */
+    private static boolean fill(final Batch batch, final Iterator<Scenario> scenarios, final long firstIndex)
+    {
+        batch.clear(firstIndex);
+        long moveCount = 0;
+        while (batch.size < BATCH_SCENARIOS && moveCount < BATCH_MOVES && scenarios.hasNext())
+        {
+            final Scenario scenario = scenarios.next();
+            Preconditions.checkArgument(scenario != null, "scenario: null");
+            if (scenario.getMoveCount() == 0)
+            {
+                return true;
+            }
+            batch.scenarios[batch.size++] = scenario;
+            moveCount += scenario.getMoveCount();
+        }
+        return !scenarios.hasNext();
+    }
+
+    /**
+     * Hands a batch to every strategy, each of which plans all of its scenarios on a planning thread.
+     *
+     * @param batch The Batch to plan; nothing is submitted if it is empty.
+     */
+    private void submit(final Batch batch)
+    {
+        if (batch.size == 0)
+        {
+            return;
+        }
+        for (int strategyIndex = 0; strategyIndex < strategies.size(); strategyIndex++)
+        {
+            final int plannedStrategy = strategyIndex;
+            batch.planned[strategyIndex] = planners.submit(() -> plan(batch, plannedStrategy));
+        }
+    }
+
+    /**
+     * Plans every {@linkplain Scenario} of a batch with one strategy, recording the floors travelled in the batch.
+     *
+     * @param batch The Batch to plan.
+     * @param strategyIndex The position of the strategy in {@linkplain #strategies}.
+     */
+    private void plan(final Batch batch, final int strategyIndex)
+    {
+        final PrimitiveMoveStrategy strategy = strategies.get(strategyIndex);
+        final FloorSequence moveSequence = batch.moveSequences[strategyIndex];
+        final long[] batchFloorsTravelled = batch.floorsTravelled[strategyIndex];
+        for (int scenarioIndex = 0; scenarioIndex < batch.size; scenarioIndex++)
+        {
+            final Scenario scenario = batch.scenarios[scenarioIndex];
+            final ScenarioPlannedEvent event = ScenarioPlannedEvent.beginIfEnabled();
+            strategy.getMoveSequence(scenario, moveSequence);
+            if (event != null)
+            {
+                event.end();
+            }
+            batchFloorsTravelled[scenarioIndex] = moveSequence.getFloorsTravelled();
+            if (event != null && event.shouldCommit())
+            {
+                event.setScenarioIndex(batch.firstIndex + scenarioIndex);
+                event.setStrategy(strategyNames.get(strategyIndex));
+                event.setMoveCount(scenario.getMoveCount());
+                event.setPlanLength(moveSequence.size());
+                event.setFloorsTravelled(moveSequence.getFloorsTravelled());
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Writes one line per {@linkplain Scenario} of a planned batch to the associated {@linkplain OutputSink}, adding the floors travelled to the totals of each strategy.
+     *
+     * @param batch The planned Batch.
+     * @param moreScenarios True if further scenarios follow the batch, in which case its last line is terminated by a line separator.
+     * @throws IOException if the output cannot be written.
+     */
+    private void write(final Batch batch, final boolean moreScenarios) throws IOException
+    {
+        for (int scenarioIndex = 0; scenarioIndex < batch.size; scenarioIndex++)
+        {
+            long fewestFloors = Long.MAX_VALUE;
+            output.setLength(0);
+            for (int strategyIndex = 0; strategyIndex < strategies.size(); strategyIndex++)
+            {
+                final long scenarioFloors = batch.floorsTravelled[strategyIndex][scenarioIndex];
+                fewestFloors = Math.min(fewestFloors, scenarioFloors);
+                floorsTravelled[strategyIndex] += scenarioFloors;
+                if (strategyIndex > 0)
+                {
+                    output.append(" | ");
+                }
+                output.append(strategyNames.get(strategyIndex)).append(" (").append(scenarioFloors).append(')');
+            }
+            countBest(batch, scenarioIndex, fewestFloors);
+            if (scenarioIndex < batch.size - 1 || moreScenarios)
+            {
+                output.append(System.lineSeparator());
+            }
+
+            final ScenarioWrittenEvent event = ScenarioWrittenEvent.beginIfEnabled();
+            outputSink.write(output.toString());
+            if (event != null)
+            {
+                event.end();
+            }
+            if (event != null && event.shouldCommit())
+            {
+                event.setScenarioIndex(batch.firstIndex + scenarioIndex);
+                event.setBytes(output.length());
+                event.commit();
+            }
+            scenarioCount++;
+        }
+    }
+
+    /**
+     * Credits the strategies that travelled the fewest floors in a {@linkplain Scenario}.
+     *
+     * @param batch The planned Batch holding the Scenario.
+     * @param scenarioIndex The position of the Scenario in the batch.
+     * @param fewestFloors The fewest floors any strategy travelled in the Scenario.
+     */
+    private void countBest(final Batch batch, final int scenarioIndex, final long fewestFloors)
+    {
+        int bestStrategy = -1;
+        int bestStrategies = 0;
+        for (int strategyIndex = 0; strategyIndex < strategies.size(); strategyIndex++)
+        {
+            if (batch.floorsTravelled[strategyIndex][scenarioIndex] == fewestFloors)
+            {
+                bestCounts[strategyIndex]++;
+                bestStrategy = strategyIndex;
+                bestStrategies++;
+            }
+        }
+        if (bestStrategies == 1)
+        {
+            soleBestCounts[bestStrategy]++;
+        }
+    }
+
+    /**
+     * A reusable batch of {@linkplain Scenario Scenarios}, together with the floors every strategy travelled in each of them and the FloorSequence every strategy plans into.
+     */
+    private static final class Batch
+    {
+        private final Scenario[] scenarios = new Scenario[BATCH_SCENARIOS];
+        private final long[][] floorsTravelled;
+        private final FloorSequence[] moveSequences;
+        private final Future<?>[] planned;
+        private long firstIndex;
+        private int size;
+
+        /**
+         * @param strategyCount The number of strategies planning the batch.
+         */
+        private Batch(final int strategyCount)
+        {
+            this.floorsTravelled = new long[strategyCount][BATCH_SCENARIOS];
+            this.moveSequences = new FloorSequence[strategyCount];
+            this.planned = new Future<?>[strategyCount];
+            for (int strategyIndex = 0; strategyIndex < strategyCount; strategyIndex++)
+            {
+                moveSequences[strategyIndex] = new FloorSequence();
+            }
+        }
+
+        /**
+         * Empties the batch, releasing the Scenarios it held.
+         *
+         * @param firstIndex The position in the run of the first Scenario that will be added.
+         */
+        private void clear(final long firstIndex)
+        {
+            Arrays.fill(scenarios, 0, size, null);
+            this.firstIndex = firstIndex;
+            this.size = 0;
+        }
+
+        /**
+         * Waits for every strategy to finish planning the batch.
+         *
+         * @throws ElevatorScenarioExecutionException if planning failed or the wait was interrupted.
+         */
+        private void await()
+        {
+            for (final Future<?> strategyPlanned : planned)
+            {
+                try
+                {
+                    strategyPlanned.get();
+                }
+                catch (final InterruptedException exception)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new ElevatorScenarioExecutionException("Interrupted while comparing strategies.", exception);
+                }
+                catch (final ExecutionException exception)
+                {
+                    if (exception.getCause() instanceof RuntimeException)
+                    {
+                        throw (RuntimeException) exception.getCause();
+                    }
+                    throw new ElevatorScenarioExecutionException("Exception occurred while comparing strategies.", exception.getCause());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package elevator.sim.core.event;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * How long the car takes to do things, in milliseconds: travel one floor, open or close its doors, and let one rider on or off. Travel time is proportional to the number of floors covered; acceleration is not
+ * modelled.
+ */
+public final class CarTiming
+{
+    /**
+     * Default travel time per floor.
+     */
+    public static final long DEFAULT_FLOOR_MILLIS = 1500;
+
+    /**
+     * Default time to open, or to close, the doors.
+     */
+    public static final long DEFAULT_DOOR_MILLIS = 2000;
+
+    /**
+     * Default time for one rider to get on or off.
+     */
+    public static final long DEFAULT_TRANSFER_MILLIS = 1000;
+
+    private final long floorMillis;
+    private final long doorMillis;
+    private final long transferMillis;
+
+    /**
+     * Creates a new {@linkplain CarTiming}.
+     *
+     * @param floorMillis Time to travel one floor (must be positive).
+     * @param doorMillis Time to open, or to close, the doors (cannot be negative).
+     * @param transferMillis Time for one rider to get on or off (cannot be negative).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public CarTiming(final long floorMillis, final long doorMillis, final long transferMillis)
+    {
+        Preconditions.checkArgument(floorMillis > 0, "floorMillis: <= 0");
+        Preconditions.checkArgument(doorMillis >= 0, "doorMillis: < 0");
+        Preconditions.checkArgument(transferMillis >= 0, "transferMillis: < 0");
+
+        this.floorMillis = floorMillis;
+        this.doorMillis = doorMillis;
+        this.transferMillis = transferMillis;
+    }
+
+    /**
+     * @return Non-null CarTiming with the default durations.
+     */
+    public static CarTiming defaults()
+    {
+        return new CarTiming(DEFAULT_FLOOR_MILLIS, DEFAULT_DOOR_MILLIS, DEFAULT_TRANSFER_MILLIS);
+    }
+
+    /**
+     * @return The positive time to travel one floor.
+     */
+    public long getFloorMillis()
+    {
+        return floorMillis;
+    }
+
+    /**
+     * @return The non-negative time to open, or to close, the doors.
+     */
+    public long getDoorMillis()
+    {
+        return doorMillis;
+    }
+
+    /**
+     * @return The non-negative time for one rider to get on or off.
+     */
+    public long getTransferMillis()
+    {
+        return transferMillis;
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String toString()
+    {
+        return "CarTiming{" +
+                "floorMillis=" + floorMillis +
+                ", doorMillis=" + doorMillis +
+                ", transferMillis=" + transferMillis +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package elevator.sim.core.event;
+
+/**
+ * Read-only view of the car and the pending calls, given to a {@linkplain DispatchStrategy} whenever it has to decide something. Floors are <i>compressed</i>: only the floors that occur in the scenario are numbered, from
+ * 0 upwards in building order, so adjacent compressed floors may be several real floors apart. {@linkplain #getFloor(int)} maps them back to real floors. <p />
+ * A floor has a <i>call</i> when a rider is waiting there or a rider on board is bound for it.
+ */
+public interface CarView
+{
+    /**
+     * Direction value meaning the car is moving, or committed to moving, up.
+     */
+    int UP = 1;
+
+    /**
+     * Direction value meaning the car is moving, or committed to moving, down.
+     */
+    int DOWN = -1;
+
+    /**
+     * Direction value meaning the car is idle.
+     */
+    int IDLE = 0;
+
+    /**
+     * @return The current simulation time, in milliseconds.
+     */
+    long getTime();
+
+    /**
+     * @return The number of compressed floors.
+     */
+    int getFloorCount();
+
+    /**
+     * @param floorIndex A compressed floor (must be between 0 and {@linkplain #getFloorCount()}, exclusive).
+     * @return The real floor number.
+     */
+    int getFloor(int floorIndex);
+
+    /**
+     * @return The compressed floor the car is at.
+     */
+    int getPosition();
+
+    /**
+     * @return The direction of the last move: {@linkplain #UP}, {@linkplain #DOWN}, or {@linkplain #IDLE} if the car has not moved since it last ran out of calls.
+     */
+    int getDirection();
+
+    /**
+     * @param floorIndex A compressed floor (must be between 0 and {@linkplain #getFloorCount()}, exclusive).
+     * @return True if at least one rider is waiting at the floor.
+     */
+    boolean hasWaitingRiders(int floorIndex);
+
+    /**
+     * @param floorIndex A compressed floor (must be between 0 and {@linkplain #getFloorCount()}, exclusive).
+     * @return True if at least one rider on board is bound for the floor.
+     */
+    boolean hasRidersBoundFor(int floorIndex);
+
+    /**
+     * @param floorIndex A compressed floor (must be between -1 and {@linkplain #getFloorCount()}, exclusive).
+     * @return The lowest compressed floor above the given one that has a call, or -1 if there is none.
+     */
+    int nextCallAbove(int floorIndex);
+
+    /**
+     * @param floorIndex A compressed floor (must be between 0 and {@linkplain #getFloorCount()}, inclusive).
+     * @return The highest compressed floor below the given one that has a call, or -1 if there is none.
+     */
+    int nextCallBelow(int floorIndex);
+}
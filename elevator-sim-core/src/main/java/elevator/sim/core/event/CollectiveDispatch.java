@@ -0,0 +1,48 @@
+package elevator.sim.core.event;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Implementation of {@linkplain DispatchStrategy} following collective control, the event-driven counterpart of the LOOK sweep in {@linkplain elevator.sim.core.strategy.MoveByLookSweep}: the car stops at every floor
+ * with a call, keeps going in its direction while calls remain ahead, and turns around only once there are none. An idle car heads for the nearest call.
+ */
+public final class CollectiveDispatch implements DispatchStrategy
+{
+    /**
+     * {@inheritDoc}
+     *
+     * @param car The car, positioned at the floor reached (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public boolean shouldStop(final CarView car)
+    {
+        Preconditions.checkArgument(car != null, "car: null");
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param car The car (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public int selectDirection(final CarView car)
+    {
+        Preconditions.checkArgument(car != null, "car: null");
+
+        final int position = car.getPosition();
+        final boolean callsAbove = car.nextCallAbove(position) >= 0;
+        final boolean callsBelow = car.nextCallBelow(position) >= 0;
+        if (car.getDirection() == CarView.UP && callsAbove || car.getDirection() == CarView.DOWN && callsBelow)
+        {
+            return car.getDirection();
+        }
+        if (car.getDirection() == CarView.IDLE && callsAbove && callsBelow)
+        {
+            return NearestCallDispatch.towardsNearestCall(car);
+        }
+        return callsAbove ? CarView.UP : CarView.DOWN;
+    }
+}
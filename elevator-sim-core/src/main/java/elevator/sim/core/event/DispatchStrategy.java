@@ -0,0 +1,26 @@
+package elevator.sim.core.event;
+
+/**
+ * Decides how the car reacts to events as an {@linkplain EventSimulator} runs. Unlike a {@linkplain elevator.sim.core.strategy.MoveStrategy}, which plans a whole route for requests known up front, a DispatchStrategy only
+ * ever sees the calls that have arrived so far, and is consulted again every time the car reaches a floor or closes its doors. <p />
+ * Whenever the car stops, every rider bound for the floor gets off and every rider waiting there gets on, as in the route-planning strategies. Implementations must not keep per-scenario state outside of the
+ * {@linkplain CarView}, since a simulator may be reused for any number of scenarios.
+ */
+public interface DispatchStrategy
+{
+    /**
+     * Called when the moving car reaches a floor that has a call (the {@linkplain EventType#CAR_ARRIVAL} event). If the car does not stop, it carries on in its direction; it always stops once no calls remain ahead.
+     *
+     * @param car The car, positioned at the floor reached (cannot be null).
+     * @return True to stop and open the doors.
+     */
+    boolean shouldStop(CarView car);
+
+    /**
+     * Called when the car is stationary with its doors closed (after {@linkplain EventType#DOORS_CLOSED}, or when a rider arrives while it is idle), no call is pending at its own floor and calls are pending elsewhere.
+     *
+     * @param car The car (cannot be null).
+     * @return {@linkplain CarView#UP} or {@linkplain CarView#DOWN}; there must be a call in that direction.
+     */
+    int selectDirection(CarView car);
+}
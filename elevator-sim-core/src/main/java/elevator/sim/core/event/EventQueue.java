@@ -0,0 +1,242 @@
+package elevator.sim.core.event;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue of timestamped events, ordered by time and then by the order in which they were scheduled, so simultaneous events are delivered first in, first out and every run is reproducible. <p />
+ * Events are never materialized as objects: the queue is a binary heap laid out over parallel primitive arrays (time, sequence number, {@linkplain EventType} ordinal and subject), and {@linkplain #poll()} exposes the
+ * removed event through {@linkplain #getTime()}, {@linkplain #getType()} and {@linkplain #getSubject()} until the next call. Once the arrays have grown to the largest number of pending events, scheduling and polling do
+ * not allocate at all. <p />
+ * Instances are not thread-safe.
+ */
+public final class EventQueue
+{
+    private static final int INITIAL_CAPACITY = 64;
+    private static final EventType[] TYPES = EventType.values();
+
+    private long[] times = new long[INITIAL_CAPACITY];
+    private long[] sequences = new long[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] subjects = new int[INITIAL_CAPACITY];
+    private int size;
+    private long nextSequence;
+
+    private long time;
+    private EventType type;
+    private int subject;
+
+    /**
+     * Schedules an event.
+     *
+     * @param time The time the event occurs at (cannot be negative).
+     * @param type The type of the event (cannot be null).
+     * @param subject The subject of the event.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public void schedule(final long time, final EventType type, final int subject)
+    {
+        Preconditions.checkArgument(time >= 0, "time: < 0");
+        Preconditions.checkArgument(type != null, "type: null");
+
+        if (size == times.length)
+        {
+            grow();
+        }
+        siftUp(size++, time, nextSequence++, type.ordinal(), subject);
+    }
+
+    /**
+     * Removes the earliest event, which then becomes the current event.
+     *
+     * @return False if the queue was empty, in which case the current event is unchanged.
+     */
+    public boolean poll()
+    {
+        if (size == 0)
+        {
+            return false;
+        }
+
+        time = times[0];
+        type = TYPES[types[0]];
+        subject = subjects[0];
+        final int last = --size;
+        if (last > 0)
+        {
+            siftDown(times[last], sequences[last], types[last], subjects[last]);
+        }
+        return true;
+    }
+
+    /**
+     * @return The time of the current event.
+     */
+    public long getTime()
+    {
+        return time;
+    }
+
+    /**
+     * @return The type of the current event, or null before the first event has been polled.
+     */
+    public EventType getType()
+    {
+        return type;
+    }
+
+    /**
+     * @return The subject of the current event.
+     */
+    public int getSubject()
+    {
+        return subject;
+    }
+
+    /**
+     * @return The number of pending events.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return True if no events are pending.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Discards every pending event and the current event, keeping the allocated capacity.
+     */
+    public void clear()
+    {
+        size = 0;
+        nextSequence = 0;
+        time = 0;
+        type = null;
+        subject = 0;
+    }
+
+    /**
+     * Moves an event up from the given hole until its parent precedes it.
+     *
+     * @param hole The index of the empty slot to start from.
+     * @param time The time of the event.
+     * @param sequence The sequence number of the event.
+     * @param type The ordinal of the event type.
+     * @param subject The subject of the event.
+     */
+    private void siftUp(final int hole, final long time, final long sequence, final int type, final int subject)
+    {
+        int index = hole;
+        while (index > 0)
+        {
+            final int parent = (index - 1) >>> 1;
+            if (!precedes(time, sequence, parent))
+            {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        set(index, time, sequence, type, subject);
+    }
+
+    /**
+     * Moves an event down from the root, which has just been removed, until neither child precedes it.
+     *
+     * @param time The time of the event.
+     * @param sequence The sequence number of the event.
+     * @param type The ordinal of the event type.
+     * @param subject The subject of the event.
+     */
+    private void siftDown(final long time, final long sequence, final int type, final int subject)
+    {
+        int index = 0;
+        final int half = size >>> 1;
+        while (index < half)
+        {
+            int child = 2 * index + 1;
+            final int right = child + 1;
+            if (right < size && precedes(times[right], sequences[right], child))
+            {
+                child = right;
+            }
+            if (!precedes(times[child], sequences[child], time, sequence))
+            {
+                break;
+            }
+            move(child, index);
+            index = child;
+        }
+        set(index, time, sequence, type, subject);
+    }
+
+    /**
+     * @param time The time of an event.
+     * @param sequence The sequence number of the event.
+     * @param index The index of a queued event.
+     * @return True if the event is delivered before the queued one.
+     */
+    private boolean precedes(final long time, final long sequence, final int index)
+    {
+        return precedes(time, sequence, times[index], sequences[index]);
+    }
+
+    /**
+     * @param time The time of the first event.
+     * @param sequence The sequence number of the first event.
+     * @param otherTime The time of the second event.
+     * @param otherSequence The sequence number of the second event.
+     * @return True if the first event is delivered before the second.
+     */
+    private static boolean precedes(final long time, final long sequence, final long otherTime, final long otherSequence)
+    {
+        return time < otherTime || (time == otherTime && sequence < otherSequence);
+    }
+
+    /**
+     * Copies a queued event to another slot.
+     *
+     * @param from The index of the event.
+     * @param to The index of the slot.
+     */
+    private void move(final int from, final int to)
+    {
+        set(to, times[from], sequences[from], types[from], subjects[from]);
+    }
+
+    /**
+     * Stores an event in a slot.
+     *
+     * @param index The index of the slot.
+     * @param time The time of the event.
+     * @param sequence The sequence number of the event.
+     * @param type The ordinal of the event type.
+     * @param subject The subject of the event.
+     */
+    private void set(final int index, final long time, final long sequence, final int type, final int subject)
+    {
+        times[index] = time;
+        sequences[index] = sequence;
+        types[index] = type;
+        subjects[index] = subject;
+    }
+
+    /**
+     * Doubles the capacity of the heap.
+     */
+    private void grow()
+    {
+        final int capacity = times.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        types = Arrays.copyOf(types, capacity);
+        subjects = Arrays.copyOf(subjects, capacity);
+    }
+}
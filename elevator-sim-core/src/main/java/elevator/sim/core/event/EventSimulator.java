@@ -0,0 +1,508 @@
+package elevator.sim.core.event;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Discrete-event simulation of a single car serving riders who arrive over time. The simulation advances from event to event through an {@linkplain EventQueue}: riders arrive, the car reaches floors, its doors open,
+ * riders get off and on one at a time, and the doors close, each taking the time given by the {@linkplain CarTiming}. Whenever the car has a decision to make, the {@linkplain DispatchStrategy} is consulted. <p />
+ * Only the next rider's arrival is queued at any time, so the queue holds a handful of events however long the scenario is. Floors are {@linkplain CarView compressed} to those occurring in the scenario, and the car
+ * raises a {@linkplain EventType#CAR_ARRIVAL} event at each of them; travel between them still takes time in proportion to the real floors covered. Waiting riders and riders on board are kept in intrusive linked lists
+ * per floor, and pending calls in {@linkplain BitSet BitSets}, all of which are reused from one scenario to the next, so processing an event allocates nothing. <p />
+ * Instances are not thread-safe, but may run any number of scenarios one after another.
+ */
+public final class EventSimulator
+{
+    private static final int NONE = -1;
+
+    /**
+     * What the car is doing between events.
+     */
+    private enum CarState
+    {
+        /**
+         * Stationary with its doors closed and no calls to serve.
+         */
+        IDLE,
+
+        /**
+         * On its way to the next compressed floor.
+         */
+        MOVING,
+
+        /**
+         * Opening its doors.
+         */
+        OPENING,
+
+        /**
+         * Doors open while a rider gets off or on.
+         */
+        TRANSFERRING,
+
+        /**
+         * Closing its doors.
+         */
+        CLOSING
+    }
+
+    private final DispatchStrategy dispatchStrategy;
+    private final CarTiming carTiming;
+    private final EventQueue eventQueue = new EventQueue();
+    private final CarView carView = new SimulatedCarView();
+
+    private TimedScenario scenario;
+    private int riderCount;
+    private int[] floors = new int[0];
+    private int floorCount;
+    private int[] originatingIndices = new int[0];
+    private int[] destinationIndices = new int[0];
+    private int[] nextRider = new int[0];
+    private int[] firstWaitingRider = new int[0];
+    private int[] lastWaitingRider = new int[0];
+    private int[] firstBoundRider = new int[0];
+    private final BitSet waitingFloors = new BitSet();
+    private final BitSet boundFloors = new BitSet();
+
+    private long time;
+    private int position;
+    private int direction;
+    private CarState carState;
+
+    private int ridersCarried;
+    private long eventCount;
+    private long floorsTravelled;
+    private long totalWaitTime;
+    private long maximumWaitTime;
+    private long totalTripTime;
+    private long maximumTripTime;
+
+    /**
+     * Creates a new {@linkplain EventSimulator}.
+     *
+     * @param dispatchStrategy The strategy deciding where the car goes (cannot be null).
+     * @param carTiming The durations of the car's actions (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public EventSimulator(final DispatchStrategy dispatchStrategy, final CarTiming carTiming)
+    {
+        Preconditions.checkArgument(dispatchStrategy != null, "dispatchStrategy: null");
+        Preconditions.checkArgument(carTiming != null, "carTiming: null");
+
+        this.dispatchStrategy = dispatchStrategy;
+        this.carTiming = carTiming;
+    }
+
+    /**
+     * Runs a scenario until every rider has been carried to their destination.
+     *
+     * @param scenario The TimedScenario to run (cannot be null).
+     * @return Non-null SimulationReport of the run.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IllegalStateException if the DispatchStrategy chooses a direction without calls.
+     */
+    public SimulationReport run(final TimedScenario scenario)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+
+        prepare(scenario);
+        try
+        {
+            if (riderCount > 0)
+            {
+                eventQueue.schedule(scenario.getArrivalTime(0), EventType.RIDER_ARRIVAL, 0);
+            }
+            while (eventQueue.poll())
+            {
+                eventCount++;
+                time = eventQueue.getTime();
+                final int subject = eventQueue.getSubject();
+                switch (eventQueue.getType())
+                {
+                    case RIDER_ARRIVAL:
+                        riderArrived(subject);
+                        break;
+                    case CAR_ARRIVAL:
+                        carArrived(subject);
+                        break;
+                    case DOORS_OPENED:
+                        carState = CarState.TRANSFERRING;
+                        transferNextRider();
+                        break;
+                    case RIDER_EXITED:
+                        riderExited(subject);
+                        break;
+                    case RIDER_BOARDED:
+                        riderBoarded(subject);
+                        break;
+                    case DOORS_CLOSED:
+                        dispatch();
+                        break;
+                    default:
+                        throw new AssertionError("Unexpected event type: " + eventQueue.getType());
+                }
+            }
+            if (ridersCarried != riderCount)
+            {
+                throw new AssertionError("Simulation ended with " + (riderCount - ridersCarried) + " riders still waiting or on board.");
+            }
+            return new SimulationReport(riderCount, eventCount, floorsTravelled, time, totalWaitTime, maximumWaitTime, totalTripTime, maximumTripTime);
+        }
+        finally
+        {
+            // Drop the reference so a finished scenario can be collected while the simulator is kept around.
+            this.scenario = null;
+        }
+    }
+
+    /**
+     * Compresses the floors of a scenario, sizes the per-rider and per-floor state, and resets the car and the statistics.
+     *
+     * @param scenario The TimedScenario about to be run.
+     */
+    private void prepare(final TimedScenario scenario)
+    {
+        this.scenario = scenario;
+        this.riderCount = scenario.getRiderCount();
+
+        final int floorSlots = 2 * riderCount + 1;
+        if (floors.length < floorSlots)
+        {
+            floors = new int[floorSlots];
+        }
+        floors[0] = scenario.getInitialFloor();
+        for (int rider = 0; rider < riderCount; rider++)
+        {
+            floors[2 * rider + 1] = scenario.getOriginatingFloor(rider);
+            floors[2 * rider + 2] = scenario.getDestinationFloor(rider);
+        }
+        Arrays.sort(floors, 0, floorSlots);
+        floorCount = 0;
+        for (int slot = 0; slot < floorSlots; slot++)
+        {
+            if (floorCount == 0 || floors[slot] != floors[floorCount - 1])
+            {
+                floors[floorCount++] = floors[slot];
+            }
+        }
+
+        if (originatingIndices.length < riderCount)
+        {
+            originatingIndices = new int[riderCount];
+            destinationIndices = new int[riderCount];
+            nextRider = new int[riderCount];
+        }
+        for (int rider = 0; rider < riderCount; rider++)
+        {
+            originatingIndices[rider] = indexOf(scenario.getOriginatingFloor(rider));
+            destinationIndices[rider] = indexOf(scenario.getDestinationFloor(rider));
+        }
+        if (firstWaitingRider.length < floorCount)
+        {
+            firstWaitingRider = new int[floorCount];
+            lastWaitingRider = new int[floorCount];
+            firstBoundRider = new int[floorCount];
+        }
+        Arrays.fill(firstWaitingRider, 0, floorCount, NONE);
+        Arrays.fill(lastWaitingRider, 0, floorCount, NONE);
+        Arrays.fill(firstBoundRider, 0, floorCount, NONE);
+        waitingFloors.clear();
+        boundFloors.clear();
+        eventQueue.clear();
+
+        time = 0;
+        position = indexOf(scenario.getInitialFloor());
+        direction = CarView.IDLE;
+        carState = CarState.IDLE;
+        ridersCarried = 0;
+        eventCount = 0;
+        floorsTravelled = 0;
+        totalWaitTime = 0;
+        maximumWaitTime = 0;
+        totalTripTime = 0;
+        maximumTripTime = 0;
+    }
+
+    /**
+     * @param floor A real floor occurring in the current scenario.
+     * @return The compressed floor.
+     */
+    private int indexOf(final int floor)
+    {
+        return Arrays.binarySearch(floors, 0, floorCount, floor);
+    }
+
+    /**
+     * Handles {@linkplain EventType#RIDER_ARRIVAL}: the rider joins the queue at their floor, the next rider's arrival is scheduled, and an idle car is dispatched.
+     *
+     * @param rider The rider who arrived.
+     */
+    private void riderArrived(final int rider)
+    {
+        final int floorIndex = originatingIndices[rider];
+        nextRider[rider] = NONE;
+        if (lastWaitingRider[floorIndex] == NONE)
+        {
+            firstWaitingRider[floorIndex] = rider;
+        }
+        else
+        {
+            nextRider[lastWaitingRider[floorIndex]] = rider;
+        }
+        lastWaitingRider[floorIndex] = rider;
+        waitingFloors.set(floorIndex);
+
+        if (rider + 1 < riderCount)
+        {
+            eventQueue.schedule(scenario.getArrivalTime(rider + 1), EventType.RIDER_ARRIVAL, rider + 1);
+        }
+        if (carState == CarState.IDLE)
+        {
+            dispatch();
+        }
+    }
+
+    /**
+     * Handles {@linkplain EventType#CAR_ARRIVAL}: the car stops if the floor has a call and the strategy agrees (or nothing lies ahead), and otherwise carries on.
+     *
+     * @param floorIndex The compressed floor reached.
+     */
+    private void carArrived(final int floorIndex)
+    {
+        position = floorIndex;
+        final boolean callAhead = (direction == CarView.UP ? carView.nextCallAbove(position) : carView.nextCallBelow(position)) >= 0;
+        if (hasCall(position) && (!callAhead || dispatchStrategy.shouldStop(carView)))
+        {
+            openDoors();
+        }
+        else if (callAhead)
+        {
+            moveOn();
+        }
+        else
+        {
+            dispatch();
+        }
+    }
+
+    /**
+     * Decides what a stationary car with closed doors does next: open its doors to a call at its own floor, go idle if there are no calls, or set off in the direction the strategy selects.
+     *
+     * @throws IllegalStateException if the strategy selects a direction without calls.
+     */
+    private void dispatch()
+    {
+        if (hasCall(position))
+        {
+            openDoors();
+            return;
+        }
+        if (waitingFloors.isEmpty() && boundFloors.isEmpty())
+        {
+            carState = CarState.IDLE;
+            direction = CarView.IDLE;
+            return;
+        }
+
+        final int selectedDirection = dispatchStrategy.selectDirection(carView);
+        final boolean valid = selectedDirection == CarView.UP ? carView.nextCallAbove(position) >= 0 : selectedDirection == CarView.DOWN && carView.nextCallBelow(position) >= 0;
+        if (!valid)
+        {
+            throw new IllegalStateException("Dispatch strategy " + dispatchStrategy.getClass().getSimpleName() + " selected direction " + selectedDirection + " at floor " + floors[position] + " with no calls that way.");
+        }
+        direction = selectedDirection;
+        moveOn();
+    }
+
+    /**
+     * Sets off for the next compressed floor in the car's direction.
+     */
+    private void moveOn()
+    {
+        final int nextPosition = position + direction;
+        final long distance = Math.abs((long) floors[nextPosition] - floors[position]);
+        floorsTravelled += distance;
+        carState = CarState.MOVING;
+        eventQueue.schedule(time + distance * carTiming.getFloorMillis(), EventType.CAR_ARRIVAL, nextPosition);
+    }
+
+    /**
+     * Starts opening the doors at the current floor.
+     */
+    private void openDoors()
+    {
+        carState = CarState.OPENING;
+        eventQueue.schedule(time + carTiming.getDoorMillis(), EventType.DOORS_OPENED, position);
+    }
+
+    /**
+     * Starts the next rider getting off or, once nobody else is bound for this floor, on; with nobody left to move, starts closing the doors.
+     */
+    private void transferNextRider()
+    {
+        final int exitingRider = firstBoundRider[position];
+        if (exitingRider != NONE)
+        {
+            firstBoundRider[position] = nextRider[exitingRider];
+            if (firstBoundRider[position] == NONE)
+            {
+                boundFloors.clear(position);
+            }
+            eventQueue.schedule(time + carTiming.getTransferMillis(), EventType.RIDER_EXITED, exitingRider);
+            return;
+        }
+
+        final int boardingRider = firstWaitingRider[position];
+        if (boardingRider != NONE)
+        {
+            firstWaitingRider[position] = nextRider[boardingRider];
+            if (firstWaitingRider[position] == NONE)
+            {
+                lastWaitingRider[position] = NONE;
+                waitingFloors.clear(position);
+            }
+            eventQueue.schedule(time + carTiming.getTransferMillis(), EventType.RIDER_BOARDED, boardingRider);
+            return;
+        }
+
+        carState = CarState.CLOSING;
+        eventQueue.schedule(time + carTiming.getDoorMillis(), EventType.DOORS_CLOSED, position);
+    }
+
+    /**
+     * Handles {@linkplain EventType#RIDER_EXITED}: records the rider's trip and moves on to the next rider.
+     *
+     * @param rider The rider who got off.
+     */
+    private void riderExited(final int rider)
+    {
+        final long tripTime = time - scenario.getArrivalTime(rider);
+        totalTripTime += tripTime;
+        maximumTripTime = Math.max(maximumTripTime, tripTime);
+        ridersCarried++;
+        transferNextRider();
+    }
+
+    /**
+     * Handles {@linkplain EventType#RIDER_BOARDED}: records the rider's wait, adds them to the riders bound for their destination and moves on to the next rider.
+     *
+     * @param rider The rider who got on.
+     */
+    private void riderBoarded(final int rider)
+    {
+        final long waitTime = time - carTiming.getTransferMillis() - scenario.getArrivalTime(rider);
+        totalWaitTime += waitTime;
+        maximumWaitTime = Math.max(maximumWaitTime, waitTime);
+
+        final int destinationIndex = destinationIndices[rider];
+        nextRider[rider] = firstBoundRider[destinationIndex];
+        firstBoundRider[destinationIndex] = rider;
+        boundFloors.set(destinationIndex);
+        transferNextRider();
+    }
+
+    /**
+     * @param floorIndex A compressed floor.
+     * @return True if a rider is waiting at the floor or bound for it.
+     */
+    private boolean hasCall(final int floorIndex)
+    {
+        return waitingFloors.get(floorIndex) || boundFloors.get(floorIndex);
+    }
+
+    /**
+     * The {@linkplain CarView} handed to the {@linkplain DispatchStrategy}, reading the simulator's state directly.
+     */
+    private final class SimulatedCarView implements CarView
+    {
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public long getTime()
+        {
+            return time;
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public int getFloorCount()
+        {
+            return floorCount;
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public int getFloor(final int floorIndex)
+        {
+            Preconditions.checkElementIndex(floorIndex, floorCount, "floorIndex");
+            return floors[floorIndex];
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public int getPosition()
+        {
+            return position;
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public int getDirection()
+        {
+            return direction;
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public boolean hasWaitingRiders(final int floorIndex)
+        {
+            Preconditions.checkElementIndex(floorIndex, floorCount, "floorIndex");
+            return waitingFloors.get(floorIndex);
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public boolean hasRidersBoundFor(final int floorIndex)
+        {
+            Preconditions.checkElementIndex(floorIndex, floorCount, "floorIndex");
+            return boundFloors.get(floorIndex);
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public int nextCallAbove(final int floorIndex)
+        {
+            final int waiting = waitingFloors.nextSetBit(floorIndex + 1);
+            final int bound = boundFloors.nextSetBit(floorIndex + 1);
+            return waiting < 0 ? bound : bound < 0 ? waiting : Math.min(waiting, bound);
+        }
+
+        /**
+         * @inheritDoc
+         */
+        @Override
+        public int nextCallBelow(final int floorIndex)
+        {
+            return floorIndex <= 0 ? NONE : Math.max(waitingFloors.previousSetBit(floorIndex - 1), boundFloors.previousSetBit(floorIndex - 1));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package elevator.sim.core.event;
+
+/**
+ * The kinds of event an {@linkplain EventSimulator} schedules. Each event carries a single int subject, whose meaning depends on the type.
+ */
+public enum EventType
+{
+    /**
+     * A rider starts waiting at their originating floor. The subject is the rider.
+     */
+    RIDER_ARRIVAL,
+
+    /**
+     * The moving car reaches a floor, where it either stops or carries on. The subject is the {@linkplain CarView compressed floor} reached.
+     */
+    CAR_ARRIVAL,
+
+    /**
+     * The car's doors have finished opening. The subject is the compressed floor.
+     */
+    DOORS_OPENED,
+
+    /**
+     * A rider has finished getting off at their destination floor. The subject is the rider.
+     */
+    RIDER_EXITED,
+
+    /**
+     * A rider has finished boarding. The subject is the rider.
+     */
+    RIDER_BOARDED,
+
+    /**
+     * The car's doors have finished closing. The subject is the compressed floor.
+     */
+    DOORS_CLOSED
+}
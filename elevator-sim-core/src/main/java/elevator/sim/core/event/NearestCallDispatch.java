@@ -0,0 +1,61 @@
+package elevator.sim.core.event;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Implementation of {@linkplain DispatchStrategy} following shortest-seek-time-first, the event-driven counterpart of {@linkplain elevator.sim.core.strategy.MoveByNearestRequest}: whenever the car is free to choose, it
+ * heads for the nearest floor with a call, keeping its direction when the nearest calls above and below are equally far. Since a moving car cannot turn around between floors, it stops at every floor with a call on the
+ * way.
+ */
+public final class NearestCallDispatch implements DispatchStrategy
+{
+    /**
+     * {@inheritDoc}
+     *
+     * @param car The car, positioned at the floor reached (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public boolean shouldStop(final CarView car)
+    {
+        Preconditions.checkArgument(car != null, "car: null");
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param car The car (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public int selectDirection(final CarView car)
+    {
+        Preconditions.checkArgument(car != null, "car: null");
+        return towardsNearestCall(car);
+    }
+
+    /**
+     * Finds the direction of the nearest call, in real floors, preferring the car's direction on a tie and up when the car is idle.
+     *
+     * @param car The car.
+     * @return {@linkplain CarView#UP} or {@linkplain CarView#DOWN}.
+     */
+    static int towardsNearestCall(final CarView car)
+    {
+        final int position = car.getPosition();
+        final int above = car.nextCallAbove(position);
+        final int below = car.nextCallBelow(position);
+        if (above < 0 || below < 0)
+        {
+            return above >= 0 ? CarView.UP : CarView.DOWN;
+        }
+        final long distanceAbove = (long) car.getFloor(above) - car.getFloor(position);
+        final long distanceBelow = (long) car.getFloor(position) - car.getFloor(below);
+        if (distanceAbove != distanceBelow)
+        {
+            return distanceAbove < distanceBelow ? CarView.UP : CarView.DOWN;
+        }
+        return car.getDirection() == CarView.DOWN ? CarView.DOWN : CarView.UP;
+    }
+}
@@ -0,0 +1,129 @@
+package elevator.sim.core.event;
+
+/**
+ * The outcome of running a {@linkplain TimedScenario} through an {@linkplain EventSimulator}. Waiting time runs from a rider's arrival until they start boarding, and trip time from their arrival until they have got
+ * off at their destination. All times are in milliseconds.
+ */
+public final class SimulationReport
+{
+    private final int riderCount;
+    private final long eventCount;
+    private final long floorsTravelled;
+    private final long finishTime;
+    private final long totalWaitTime;
+    private final long maximumWaitTime;
+    private final long totalTripTime;
+    private final long maximumTripTime;
+
+    /**
+     * @param riderCount The number of riders carried.
+     * @param eventCount The number of events processed.
+     * @param floorsTravelled The number of floors the car travelled.
+     * @param finishTime The time the last event occurred.
+     * @param totalWaitTime The sum of every rider's waiting time.
+     * @param maximumWaitTime The longest waiting time.
+     * @param totalTripTime The sum of every rider's trip time.
+     * @param maximumTripTime The longest trip time.
+     */
+    SimulationReport(final int riderCount, final long eventCount, final long floorsTravelled, final long finishTime, final long totalWaitTime, final long maximumWaitTime, final long totalTripTime,
+                     final long maximumTripTime)
+    {
+        this.riderCount = riderCount;
+        this.eventCount = eventCount;
+        this.floorsTravelled = floorsTravelled;
+        this.finishTime = finishTime;
+        this.totalWaitTime = totalWaitTime;
+        this.maximumWaitTime = maximumWaitTime;
+        this.totalTripTime = totalTripTime;
+        this.maximumTripTime = maximumTripTime;
+    }
+
+    /**
+     * @return The number of riders carried.
+     */
+    public int getRiderCount()
+    {
+        return riderCount;
+    }
+
+    /**
+     * @return The number of events processed.
+     */
+    public long getEventCount()
+    {
+        return eventCount;
+    }
+
+    /**
+     * @return The number of (real) floors the car travelled.
+     */
+    public long getFloorsTravelled()
+    {
+        return floorsTravelled;
+    }
+
+    /**
+     * @return The time at which the last rider got off and the doors closed behind them.
+     */
+    public long getFinishTime()
+    {
+        return finishTime;
+    }
+
+    /**
+     * @return The mean waiting time, rounded down, or 0 if there were no riders.
+     */
+    public long getAverageWaitTime()
+    {
+        return riderCount == 0 ? 0 : totalWaitTime / riderCount;
+    }
+
+    /**
+     * @return The longest waiting time.
+     */
+    public long getMaximumWaitTime()
+    {
+        return maximumWaitTime;
+    }
+
+    /**
+     * @return The mean trip time, rounded down, or 0 if there were no riders.
+     */
+    public long getAverageTripTime()
+    {
+        return riderCount == 0 ? 0 : totalTripTime / riderCount;
+    }
+
+    /**
+     * @return The longest trip time.
+     */
+    public long getMaximumTripTime()
+    {
+        return maximumTripTime;
+    }
+
+    /**
+     * Appends the report in the simulator's output format, e.g. <code>riders 3 | events 29 | floors 18 | wait avg 11000 max 18000 | trip avg 44000 max 52000 | finished 57000 ms</code>.
+     *
+     * @param output The StringBuilder to append to (cannot be null).
+     * @return The given StringBuilder.
+     */
+    public StringBuilder appendTo(final StringBuilder output)
+    {
+        return output.append("riders ").append(riderCount)
+                .append(" | events ").append(eventCount)
+                .append(" | floors ").append(floorsTravelled)
+                .append(" | wait avg ").append(getAverageWaitTime()).append(" max ").append(maximumWaitTime)
+                .append(" | trip avg ").append(getAverageTripTime()).append(" max ").append(maximumTripTime)
+                .append(" | finished ").append(finishTime).append(" ms");
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String toString()
+    {
+        return appendTo(new StringBuilder()).toString();
+    }
+}
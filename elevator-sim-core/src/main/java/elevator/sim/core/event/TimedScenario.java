@@ -0,0 +1,207 @@
+package elevator.sim.core.event;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Represents a scenario in which riders arrive over time: the car starts idle at an initial floor, and each rider appears at their originating floor at a given time, in milliseconds from the start of the scenario,
+ * wanting to travel to their destination floor. Riders are ordered by arrival time. <p />
+ * Riders are stored in flat primitive arrays (12 bytes per rider), so scenarios holding a full day of traffic can be replayed without boxing. Use {@linkplain #builder(int)} to assemble one.
+ */
+public final class TimedScenario
+{
+    private static final long[] NO_TIMES = new long[0];
+    private static final int[] NO_FLOORS = new int[0];
+
+    private final int initialFloor;
+    private final long[] arrivalTimes;
+    private final int[] floors;
+
+    /**
+     * @param initialFloor The floor the car starts at.
+     * @param arrivalTimes The already validated arrival times; ownership passes to the TimedScenario.
+     * @param floors Packed, already validated floor pairs; ownership passes to the TimedScenario.
+     */
+    private TimedScenario(final int initialFloor, final long[] arrivalTimes, final int[] floors)
+    {
+        this.initialFloor = initialFloor;
+        this.arrivalTimes = arrivalTimes;
+        this.floors = floors;
+    }
+
+    /**
+     * @param initialFloor The floor the car starts at (must be positive).
+     * @return A new {@linkplain Builder} for assembling a TimedScenario one rider at a time.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static Builder builder(final int initialFloor)
+    {
+        Preconditions.checkArgument(initialFloor > 0, "initialFloor: <= 0");
+        return new Builder(initialFloor);
+    }
+
+    /**
+     * @return The positive floor the car starts at.
+     */
+    public int getInitialFloor()
+    {
+        return initialFloor;
+    }
+
+    /**
+     * @return The number of riders in the scenario.
+     */
+    public int getRiderCount()
+    {
+        return arrivalTimes.length;
+    }
+
+    /**
+     * @param rider Index of the rider (must be between 0 and {@linkplain #getRiderCount()}, exclusive).
+     * @return The non-negative time, in milliseconds, at which the rider starts waiting.
+     * @throws IndexOutOfBoundsException if rider is out of range.
+     */
+    public long getArrivalTime(final int rider)
+    {
+        return arrivalTimes[checkRider(rider)];
+    }
+
+    /**
+     * @param rider Index of the rider (must be between 0 and {@linkplain #getRiderCount()}, exclusive).
+     * @return Positive floor the rider waits at.
+     * @throws IndexOutOfBoundsException if rider is out of range.
+     */
+    public int getOriginatingFloor(final int rider)
+    {
+        return floors[checkRider(rider) * 2];
+    }
+
+    /**
+     * @param rider Index of the rider (must be between 0 and {@linkplain #getRiderCount()}, exclusive).
+     * @return Positive floor the rider travels to.
+     * @throws IndexOutOfBoundsException if rider is out of range.
+     */
+    public int getDestinationFloor(final int rider)
+    {
+        return floors[checkRider(rider) * 2 + 1];
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public boolean equals(final Object o)
+    {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final TimedScenario scenario = (TimedScenario) o;
+        return initialFloor == scenario.initialFloor && Arrays.equals(arrivalTimes, scenario.arrivalTimes) && Arrays.equals(floors, scenario.floors);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public int hashCode()
+    {
+        return 31 * (31 * initialFloor + Arrays.hashCode(arrivalTimes)) + Arrays.hashCode(floors);
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String toString()
+    {
+        final StringBuilder riders = new StringBuilder();
+        for (int rider = 0; rider < arrivalTimes.length; rider++)
+        {
+            riders.append(rider == 0 ? "" : ", ").append(arrivalTimes[rider]).append('@').append(floors[rider * 2]).append('-').append(floors[rider * 2 + 1]);
+        }
+        return "TimedScenario{" +
+                "initialFloor=" + initialFloor +
+                ", riders=[" + riders +
+                "]}";
+    }
+
+    /**
+     * @param rider Index of a rider.
+     * @return The same index.
+     * @throws IndexOutOfBoundsException if rider is out of range.
+     */
+    private int checkRider(final int rider)
+    {
+        if (rider < 0 || rider >= arrivalTimes.length)
+        {
+            throw new IndexOutOfBoundsException("rider: " + rider + " (rider count " + arrivalTimes.length + ")");
+        }
+        return rider;
+    }
+
+    /**
+     * Assembles a {@linkplain TimedScenario} from primitive rider data. Builders are not thread-safe, and each may build a single TimedScenario.
+     */
+    public static final class Builder
+    {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final int initialFloor;
+        private long[] arrivalTimes = NO_TIMES;
+        private int[] floors = NO_FLOORS;
+        private int riderCount;
+
+        /**
+         * Declared private; use {@linkplain TimedScenario#builder(int)}.
+         *
+         * @param initialFloor The floor the car starts at.
+         */
+        private Builder(final int initialFloor)
+        {
+            this.initialFloor = initialFloor;
+        }
+
+        /**
+         * Adds a rider to the scenario.
+         *
+         * @param arrivalTime The time, in milliseconds, at which the rider starts waiting (cannot be negative or earlier than the previous rider's).
+         * @param originatingFloor The floor the rider waits at (must be positive).
+         * @param destinationFloor The floor the rider travels to (must be positive and different from originatingFloor).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder addRider(final long arrivalTime, final int originatingFloor, final int destinationFloor)
+        {
+            Preconditions.checkArgument(arrivalTime >= 0, "arrivalTime: < 0");
+            Preconditions.checkArgument(riderCount == 0 || arrivalTime >= arrivalTimes[riderCount - 1], "arrivalTime: earlier than the previous rider's");
+            Preconditions.checkArgument(originatingFloor > 0, "originatingFloor: <= 0");
+            Preconditions.checkArgument(destinationFloor > 0, "destinationFloor: <= 0");
+            Preconditions.checkArgument(originatingFloor != destinationFloor, "originatingFloor and destinationFloor must be different values");
+
+            if (riderCount == arrivalTimes.length)
+            {
+                final int capacity = Math.max(INITIAL_CAPACITY, riderCount * 2);
+                arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+                floors = Arrays.copyOf(floors, capacity * 2);
+            }
+            arrivalTimes[riderCount] = arrivalTime;
+            floors[riderCount * 2] = originatingFloor;
+            floors[riderCount * 2 + 1] = destinationFloor;
+            riderCount++;
+            return this;
+        }
+
+        /**
+         * @return Non-null TimedScenario containing the riders added so far.
+         */
+        public TimedScenario build()
+        {
+            final TimedScenario scenario = riderCount == 0 ? new TimedScenario(initialFloor, NO_TIMES, NO_FLOORS) :
+                    new TimedScenario(initialFloor, Arrays.copyOf(arrivalTimes, riderCount), Arrays.copyOf(floors, riderCount * 2));
+            arrivalTimes = NO_TIMES;
+            floors = NO_FLOORS;
+            riderCount = 0;
+            return scenario;
+        }
+    }
+}
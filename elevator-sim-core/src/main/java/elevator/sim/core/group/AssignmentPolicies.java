@@ -0,0 +1,186 @@
+package elevator.sim.core.group;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.Scenario;
+
+import java.util.Arrays;
+
+/**
+ * Contains the built-in {@linkplain AssignmentPolicy AssignmentPolicies}. Each has a name, returned by its <code>toString()</code>, by which it can be {@linkplain #parse(String) parsed}.
+ */
+public final class AssignmentPolicies
+{
+    /**
+     * Declared private to prevent instantiation.
+     */
+    private AssignmentPolicies()
+    {
+    }
+
+    /**
+     * @return Non-null AssignmentPolicy, named <code>round-robin</code>, that deals the move commands out to the cars in turn, regardless of floors.
+     */
+    public static AssignmentPolicy roundRobin()
+    {
+        return BuiltInPolicy.ROUND_ROBIN;
+    }
+
+    /**
+     * @return Non-null AssignmentPolicy, named <code>nearest</code>, that assigns each move command in turn to the car that would be nearest its originating floor, assuming every car ends up at the destination of the last
+     * command assigned to it. Ties go to the car with the fewest commands, then to the lowest-numbered car.
+     */
+    public static AssignmentPolicy nearestCar()
+    {
+        return BuiltInPolicy.NEAREST_CAR;
+    }
+
+    /**
+     * @return Non-null AssignmentPolicy, named <code>zones</code>, that divides the building into as many zones as there are cars, each holding the originating floors of an equal share of the move commands, and assigns
+     * each command to the car of the zone it originates in.
+     */
+    public static AssignmentPolicy zones()
+    {
+        return BuiltInPolicy.ZONES;
+    }
+
+    /**
+     * Parses a built-in AssignmentPolicy from its name: <code>round-robin</code>, <code>nearest</code> or <code>zones</code>.
+     *
+     * @param name The name to parse (cannot be null).
+     * @return Non-null AssignmentPolicy.
+     * @throws IllegalArgumentException if parameter conditions are not met, or the name is not recognized.
+     */
+    public static AssignmentPolicy parse(final String name)
+    {
+        Preconditions.checkArgument(name != null, "name: null");
+
+        for (final BuiltInPolicy policy : BuiltInPolicy.values())
+        {
+            if (policy.name.equals(name))
+            {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown assignment policy: [" + name + "]. Valid options include " + Arrays.toString(BuiltInPolicy.values()) + ".");
+    }
+
+    /**
+     * Validates the arguments of {@linkplain AssignmentPolicy#assign(Scenario, int, int[])}.
+     *
+     * @param scenario The Scenario whose move commands to assign.
+     * @param carCount The number of cars in the group.
+     * @param carOfMove The array to write the car of each move command into.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    private static void checkArguments(final Scenario scenario, final int carCount, final int[] carOfMove)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(carCount > 0, "carCount: <= 0");
+        Preconditions.checkArgument(carOfMove != null, "carOfMove: null");
+        Preconditions.checkArgument(carOfMove.length >= scenario.getMoveCount(), "carOfMove: shorter than the number of move commands");
+    }
+
+    /**
+     * The built-in policies.
+     */
+    private enum BuiltInPolicy implements AssignmentPolicy
+    {
+        ROUND_ROBIN("round-robin")
+        {
+            @Override
+            public void assign(final Scenario scenario, final int carCount, final int[] carOfMove)
+            {
+                checkArguments(scenario, carCount, carOfMove);
+                for (int moveIndex = 0; moveIndex < scenario.getMoveCount(); moveIndex++)
+                {
+                    carOfMove[moveIndex] = moveIndex % carCount;
+                }
+            }
+        },
+
+        NEAREST_CAR("nearest")
+        {
+            @Override
+            public void assign(final Scenario scenario, final int carCount, final int[] carOfMove)
+            {
+                checkArguments(scenario, carCount, carOfMove);
+                final int moveCount = scenario.getMoveCount();
+                if (moveCount == 0)
+                {
+                    return;
+                }
+
+                final int[] carFloors = new int[carCount];
+                final int[] carMoves = new int[carCount];
+                Arrays.fill(carFloors, scenario.getOriginatingFloor(0));
+                for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+                {
+                    final int originatingFloor = scenario.getOriginatingFloor(moveIndex);
+                    int nearestCar = 0;
+                    long nearestDistance = Long.MAX_VALUE;
+                    for (int car = 0; car < carCount; car++)
+                    {
+                        final long distance = Math.abs((long) carFloors[car] - originatingFloor);
+                        if (distance < nearestDistance || (distance == nearestDistance && carMoves[car] < carMoves[nearestCar]))
+                        {
+                            nearestCar = car;
+                            nearestDistance = distance;
+                        }
+                    }
+                    carOfMove[moveIndex] = nearestCar;
+                    carFloors[nearestCar] = scenario.getDestinationFloor(moveIndex);
+                    carMoves[nearestCar]++;
+                }
+            }
+        },
+
+        ZONES("zones")
+        {
+            @Override
+            public void assign(final Scenario scenario, final int carCount, final int[] carOfMove)
+            {
+                checkArguments(scenario, carCount, carOfMove);
+                final int moveCount = scenario.getMoveCount();
+
+                // Sorting (originating floor, move index) pairs packed into longs orders the commands by floor without boxing.
+                final long[] movesByFloor = new long[moveCount];
+                for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+                {
+                    movesByFloor[moveIndex] = (long) scenario.getOriginatingFloor(moveIndex) << Integer.SIZE | moveIndex;
+                }
+                Arrays.sort(movesByFloor);
+
+                int car = 0;
+                for (int rank = 0; rank < moveCount; rank++)
+                {
+                    // Commands from the same floor stay together, so a zone boundary never splits a floor.
+                    final boolean newFloor = rank == 0 || movesByFloor[rank] >>> Integer.SIZE != movesByFloor[rank - 1] >>> Integer.SIZE;
+                    if (newFloor)
+                    {
+                        car = (int) ((long) rank * carCount / moveCount);
+                    }
+                    carOfMove[(int) movesByFloor[rank]] = car;
+                }
+            }
+        };
+
+        private final String name;
+
+        /**
+         * @param name The name of the policy.
+         */
+        BuiltInPolicy(final String name)
+        {
+            this.name = name;
+        }
+
+        /**
+         * @return The name of the policy.
+         */
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package elevator.sim.core.group;
+
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+
+/**
+ * Decides which car of an {@linkplain ElevatorGroup} serves each {@linkplain MoveCommand} of a {@linkplain Scenario}. See {@linkplain AssignmentPolicies} for the built-in policies. <p />
+ * Implementations must be safe to call from multiple threads.
+ */
+public interface AssignmentPolicy
+{
+    /**
+     * Assigns every move command of a Scenario to a car.
+     *
+     * @param scenario The Scenario whose move commands to assign (cannot be null, may be empty). Every car starts at the originating floor of its first move command.
+     * @param carCount The number of cars in the group (must be positive).
+     * @param carOfMove The array to write the car of each move command into, between 0 and carCount (exclusive); it is at least as long as the Scenario has move commands (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    void assign(Scenario scenario, int carCount, int[] carOfMove);
+}
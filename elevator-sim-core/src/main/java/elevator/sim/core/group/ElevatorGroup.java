@@ -0,0 +1,213 @@
+package elevator.sim.core.group;
+
+import com.google.common.base.Preconditions;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import elevator.sim.core.ElevatorScenarioExecutionException;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveStrategies;
+import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.strategy.PrimitiveMoveStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A bank of elevator cars serving a building together. Every {@linkplain MoveCommand} of a {@linkplain Scenario} is assigned to one car by an {@linkplain AssignmentPolicy}; each car then plans the commands assigned to it
+ * with the group's {@linkplain MoveStrategy}, exactly as a single elevator would. All cars start at the originating floor of the Scenario's first command. <p />
+ * The commands are split into one Scenario per car by a counting sort on the assigned car, keeping their order, and a move from the starting floor to the car's first originating floor is put in front of each car's
+ * commands, as the scenario parser does for a single car. Given an ExecutorService, the cars of a Scenario with at least {@value #PARALLEL_PLANNING_THRESHOLD} commands are planned concurrently; smaller Scenarios are
+ * planned on the calling thread, where the hand-off would cost more than the planning. <p />
+ * Instances are immutable and thread-safe, provided the MoveStrategy and AssignmentPolicy are.
+ */
+public final class ElevatorGroup
+{
+    /**
+     * Name of the int binding that supplies the number of cars when instances are created by Guice.
+     */
+    public static final String CAR_COUNT = "group.carCount";
+
+    private static final int PARALLEL_PLANNING_THRESHOLD = 4096;
+
+    private final int carCount;
+    private final AssignmentPolicy assignmentPolicy;
+    private final PrimitiveMoveStrategy moveStrategy;
+    private final String strategyName;
+
+    /**
+     * Constructs a new {@linkplain ElevatorGroup}.
+     *
+     * @param carCount The number of cars (must be positive).
+     * @param assignmentPolicy The policy assigning move commands to cars (cannot be null).
+     * @param moveStrategy The {@linkplain MoveStrategy} each car plans with (cannot be null). If it does not also implement {@linkplain PrimitiveMoveStrategy}, it is {@linkplain MoveStrategies#asPrimitive(MoveStrategy)
+     * adapted}.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public ElevatorGroup(@Named(CAR_COUNT) final int carCount, final AssignmentPolicy assignmentPolicy, final MoveStrategy moveStrategy)
+    {
+        Preconditions.checkArgument(carCount > 0, "carCount: <= 0");
+        Preconditions.checkArgument(assignmentPolicy != null, "assignmentPolicy: null");
+        Preconditions.checkArgument(moveStrategy != null, "moveStrategy: null");
+
+        this.carCount = carCount;
+        this.assignmentPolicy = assignmentPolicy;
+        this.moveStrategy = MoveStrategies.asPrimitive(moveStrategy);
+        this.strategyName = moveStrategy.getClass().getSimpleName();
+    }
+
+    /**
+     * @return The number of cars.
+     */
+    public int getCarCount()
+    {
+        return carCount;
+    }
+
+    /**
+     * Plans a Scenario on the calling thread.
+     *
+     * @param scenario The Scenario to plan (cannot be null).
+     * @return Non-null GroupPlan.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public GroupPlan plan(final Scenario scenario)
+    {
+        return plan(scenario, null);
+    }
+
+    /**
+     * Plans a Scenario, planning the cars of large Scenarios concurrently on the given ExecutorService.
+     *
+     * @param scenario The Scenario to plan (cannot be null).
+     * @param carPlanners The ExecutorService to plan cars on, or null to plan them all on the calling thread.
+     * @return Non-null GroupPlan.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ElevatorScenarioExecutionException if planning is interrupted.
+     */
+    public GroupPlan plan(final Scenario scenario, final ExecutorService carPlanners)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+
+        final int[] carMoveCounts = new int[carCount];
+        final Scenario[] carScenarios = split(scenario, carMoveCounts);
+        final FloorSequence[] carSequences = new FloorSequence[carCount];
+        for (int car = 0; car < carCount; car++)
+        {
+            carSequences[car] = new FloorSequence();
+        }
+
+        if (carPlanners == null || scenario.getMoveCount() < PARALLEL_PLANNING_THRESHOLD)
+        {
+            for (int car = 0; car < carCount; car++)
+            {
+                moveStrategy.getMoveSequence(carScenarios[car], carSequences[car]);
+            }
+        }
+        else
+        {
+            final List<Callable<Void>> carPlans = new ArrayList<>(carCount);
+            for (int car = 0; car < carCount; car++)
+            {
+                final Scenario carScenario = carScenarios[car];
+                final FloorSequence carSequence = carSequences[car];
+                carPlans.add(() ->
+                {
+                    moveStrategy.getMoveSequence(carScenario, carSequence);
+                    return null;
+                });
+            }
+            awaitAll(scenario, carPlanners, carPlans);
+        }
+        return new GroupPlan(carSequences, carMoveCounts);
+    }
+
+    /**
+     * @return Non-null description of the group, e.g. <code>MoveByLookSweep x3 (nearest)</code>: the simple class name of the MoveStrategy, the number of cars and the AssignmentPolicy.
+     */
+    @Override
+    public String toString()
+    {
+        return strategyName + " x" + carCount + " (" + assignmentPolicy + ")";
+    }
+
+    /**
+     * Splits a Scenario into one Scenario per car, in the order of the original move commands, each preceded by a move from the starting floor if the car's first command originates elsewhere.
+     *
+     * @param scenario The Scenario to split.
+     * @param carMoveCounts The array to count the commands assigned to each car in, indexed by car; the moves from the starting floor are not counted.
+     * @return Non-null array of the Scenarios of the cars, indexed by car; a car that is assigned no commands gets an empty Scenario.
+     */
+    private Scenario[] split(final Scenario scenario, final int[] carMoveCounts)
+    {
+        final int moveCount = scenario.getMoveCount();
+        final int[] carOfMove = new int[moveCount];
+        assignmentPolicy.assign(scenario, carCount, carOfMove);
+
+        final Scenario.Builder[] carBuilders = new Scenario.Builder[carCount];
+        for (int car = 0; car < carCount; car++)
+        {
+            carBuilders[car] = Scenario.builder();
+        }
+        final int startingFloor = moveCount > 0 ? scenario.getOriginatingFloor(0) : 0;
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            final int car = carOfMove[moveIndex];
+            Preconditions.checkState(car >= 0 && car < carCount, "Assignment policy %s assigned move %s to car %s of %s.", assignmentPolicy, moveIndex, car, carCount);
+            final int originatingFloor = scenario.getOriginatingFloor(moveIndex);
+            if (carMoveCounts[car]++ == 0)
+            {
+                if (originatingFloor != startingFloor)
+                {
+                    carBuilders[car].addMove(startingFloor, originatingFloor);
+                }
+            }
+            carBuilders[car].addMove(originatingFloor, scenario.getDestinationFloor(moveIndex));
+        }
+
+        final Scenario[] carScenarios = new Scenario[carCount];
+        for (int car = 0; car < carCount; car++)
+        {
+            carScenarios[car] = carBuilders[car].build();
+        }
+        return carScenarios;
+    }
+
+    /**
+     * Runs the given tasks and waits for all of them to complete.
+     *
+     * @param scenario The Scenario being planned, for error messages.
+     * @param carPlanners The ExecutorService to run the tasks on.
+     * @param carPlans The tasks.
+     * @throws ElevatorScenarioExecutionException if planning is interrupted or fails with a checked exception.
+     */
+    private static void awaitAll(final Scenario scenario, final ExecutorService carPlanners, final List<Callable<Void>> carPlans)
+    {
+        try
+        {
+            for (final Future<Void> carPlan : carPlanners.invokeAll(carPlans))
+            {
+                carPlan.get();
+            }
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new ElevatorScenarioExecutionException("Interrupted while executing scenario: " + scenario, exception);
+        }
+        catch (final ExecutionException exception)
+        {
+            if (exception.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new ElevatorScenarioExecutionException("Exception occurred while executing scenario: " + scenario, exception.getCause());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package elevator.sim.core.group;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import elevator.sim.core.Elevator;
+import elevator.sim.core.ElevatorScenarioExecutionException;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.jfr.ScenarioPlannedEvent;
+import elevator.sim.core.jfr.ScenarioWrittenEvent;
+import elevator.sim.core.metrics.ScenarioMetrics;
+import elevator.sim.core.streaming.OutputSink;
+import elevator.sim.core.streaming.StreamingOutputElevator;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Implementation of {@linkplain Elevator} that runs each {@linkplain Scenario} on an {@linkplain ElevatorGroup} and prints the resulting {@linkplain GroupPlan} to an {@linkplain OutputSink}, one line per Scenario, e.g.
+ * <code>car 1: 10 8 1 (9) | car 2: 10 5 (5) | total (14)</code>. As with {@linkplain StreamingOutputElevator}, a Scenario without any move commands ends the run, and the sink is flushed once all of the scenarios
+ * have been run. <p />
+ * Scenarios are run one at a time, in order. When constructed with more than one planning thread, the cars of each large Scenario are planned concurrently; see {@linkplain ElevatorGroup#plan(Scenario, ExecutorService)}.
+ * The planning threads are started by the first run and kept until the elevator is {@linkplain #close() closed}.
+ * Given an enabled {@linkplain ScenarioMetrics}, every scenario is counted in it, and the time taken to plan and to write sampled scenarios is recorded under the {@linkplain ElevatorGroup#toString() name of the
+ * group}, as are the {@linkplain ScenarioPlannedEvent} and {@linkplain ScenarioWrittenEvent} emitted for every scenario while those JDK Flight Recorder events are enabled. Instances are not thread-safe.
+ */
+public final class GroupDispatchElevator implements Elevator
+{
+    private final ElevatorGroup elevatorGroup;
+    private final OutputSink outputSink;
+    private final int planningThreads;
+    private final ScenarioMetrics metrics;
+    private final String groupName;
+    private final StringBuilder output = new StringBuilder();
+    // The number of scenarios run so far, for sampling latencies and indexing events.
+    private long scenarioIndex;
+    // Created by the first run when planning on more than one thread.
+    private ExecutorService carPlanners;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@linkplain GroupDispatchElevator}.
+     *
+     * @param elevatorGroup The ElevatorGroup to run scenarios on (cannot be null).
+     * @param outputSink The {@linkplain OutputSink} to write the results of the scenarios to (cannot be null).
+     * @param planningThreads The number of threads to plan the cars of a scenario on (must be positive). With 1, cars are planned on the calling thread.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public GroupDispatchElevator(final ElevatorGroup elevatorGroup, final OutputSink outputSink, final int planningThreads)
+    {
+        this(elevatorGroup, outputSink, planningThreads, ScenarioMetrics.disabled());
+    }
+
+    /**
+     * Constructs a new {@linkplain GroupDispatchElevator} that records what it does in the given {@linkplain ScenarioMetrics}.
+     *
+     * @param elevatorGroup The ElevatorGroup to run scenarios on (cannot be null).
+     * @param outputSink The {@linkplain OutputSink} to write the results of the scenarios to (cannot be null).
+     * @param planningThreads The number of threads to plan the cars of a scenario on (must be positive). With 1, cars are planned on the calling thread.
+     * @param metrics The ScenarioMetrics to record in (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public GroupDispatchElevator(final ElevatorGroup elevatorGroup, final OutputSink outputSink, @Named(StreamingOutputElevator.PLANNING_THREADS) final int planningThreads, final ScenarioMetrics metrics)
+    {
+        Preconditions.checkArgument(elevatorGroup != null, "elevatorGroup: null");
+        Preconditions.checkArgument(outputSink != null, "outputSink: null");
+        Preconditions.checkArgument(planningThreads > 0, "planningThreads: <= 0");
+        Preconditions.checkArgument(metrics != null, "metrics: null");
+
+        this.elevatorGroup = elevatorGroup;
+        this.outputSink = outputSink;
+        this.planningThreads = planningThreads;
+        this.metrics = metrics;
+        this.groupName = elevatorGroup.toString();
+    }
+
+    /**
+     * Runs a single {@linkplain Scenario}, printing the results of the simulation to the associated {@linkplain OutputSink}.
+     *
+     * @param scenario The Scenario to run (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void runScenario(final Scenario scenario)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        runScenarios(Collections.singletonList(scenario));
+    }
+
+    /**
+     * Runs the {@linkplain Scenario Scenarios} produced by the given Iterator, printing the results of each simulation to the associated {@linkplain OutputSink} as soon as it has been run.
+     *
+     * @param scenarios The Scenarios to run (cannot be null or produce null values, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void runScenarios(final Iterator<Scenario> scenarios)
+    {
+        Preconditions.checkArgument(scenarios != null, "scenarios: null");
+        Preconditions.checkState(!closed, "Elevator is closed.");
+
+        if (planningThreads > 1 && carPlanners == null)
+        {
+            carPlanners = Executors.newFixedThreadPool(planningThreads, new ThreadFactoryBuilder().setNameFormat("car-planner-%d").setDaemon(true).build());
+        }
+        try
+        {
+            while (scenarios.hasNext())
+            {
+                final Scenario scenario = scenarios.next();
+                Preconditions.checkArgument(scenario != null, "scenario: null");
+
+                final boolean sampled = metrics.isSampled(scenarioIndex);
+                final ScenarioPlannedEvent plannedEvent = ScenarioPlannedEvent.beginIfEnabled();
+                final long planStart = sampled ? System.nanoTime() : 0;
+                final GroupPlan groupPlan = elevatorGroup.plan(scenario, carPlanners);
+                if (groupPlan.isEmpty())
+                {
+                    break;
+                }
+                output.setLength(0);
+                groupPlan.appendTo(output);
+                if (plannedEvent != null)
+                {
+                    plannedEvent.end();
+                }
+                if (sampled)
+                {
+                    metrics.recordPlanLatency(groupName, System.nanoTime() - planStart);
+                }
+                if (plannedEvent != null && plannedEvent.shouldCommit())
+                {
+                    plannedEvent.setScenarioIndex(scenarioIndex);
+                    plannedEvent.setStrategy(groupName);
+                    plannedEvent.setMoveCount(scenario.getMoveCount());
+                    plannedEvent.setPlanLength(getPlanLength(groupPlan));
+                    plannedEvent.setFloorsTravelled(groupPlan.getFloorsTravelled());
+                    plannedEvent.commit();
+                }
+                if (scenarios.hasNext())
+                {
+                    output.append(System.lineSeparator());
+                }
+                final ScenarioWrittenEvent writtenEvent = ScenarioWrittenEvent.beginIfEnabled();
+                final long writeStart = sampled ? System.nanoTime() : 0;
+                outputSink.write(output.toString());
+                if (writtenEvent != null)
+                {
+                    writtenEvent.end();
+                }
+                if (sampled)
+                {
+                    metrics.recordWriteLatency(System.nanoTime() - writeStart);
+                }
+                if (writtenEvent != null && writtenEvent.shouldCommit())
+                {
+                    writtenEvent.setScenarioIndex(scenarioIndex);
+                    writtenEvent.setBytes(output.length());
+                    writtenEvent.commit();
+                }
+                if (metrics.isEnabled())
+                {
+                    metrics.recordScenario(scenario.getMoveCount(), groupPlan.getFloorsTravelled());
+                    metrics.recordBytesWritten(output.length());
+                }
+                scenarioIndex++;
+            }
+            outputSink.flush();
+        }
+        catch (final IOException exception)
+        {
+            throw new ElevatorScenarioExecutionException("Exception occurred while writing scenario output.", exception);
+        }
+    }
+
+    /**
+     * Stops the planning threads, if any have been started.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        if (carPlanners != null)
+        {
+            carPlanners.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts the floors visited by all cars of a {@linkplain GroupPlan}.
+     *
+     * @param groupPlan The GroupPlan.
+     * @return The sum of the lengths of the cars' floor sequences.
+     */
+    private static int getPlanLength(final GroupPlan groupPlan)
+    {
+        int planLength = 0;
+        for (int car = 0; car < groupPlan.getCarCount(); car++)
+        {
+            planLength += groupPlan.getCarSequence(car).size();
+        }
+        return planLength;
+    }
+}
@@ -0,0 +1,126 @@
+package elevator.sim.core.group;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.strategy.FloorSequence;
+
+/**
+ * The result of planning a {@linkplain elevator.sim.core.Scenario} on an {@linkplain ElevatorGroup}: the floors each car visits, the number of move commands each car serves, and the floors travelled by each car and by the
+ * group as a whole. <p />
+ * Instances are not thread-safe; the floor sequences are exposed directly and must not be modified.
+ */
+public final class GroupPlan
+{
+    private final FloorSequence[] carSequences;
+    private final int[] carMoveCounts;
+
+    /**
+     * @param carSequences The floors each car visits, indexed by car.
+     * @param carMoveCounts The number of move commands each car serves, indexed by car.
+     */
+    GroupPlan(final FloorSequence[] carSequences, final int[] carMoveCounts)
+    {
+        this.carSequences = carSequences;
+        this.carMoveCounts = carMoveCounts;
+    }
+
+    /**
+     * @return The number of cars in the group.
+     */
+    public int getCarCount()
+    {
+        return carSequences.length;
+    }
+
+    /**
+     * @param car The car (must be between 0 and {@linkplain #getCarCount()}, exclusive).
+     * @return Non-null FloorSequence of the floors the car visits, empty if it serves no move commands.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public FloorSequence getCarSequence(final int car)
+    {
+        checkCar(car);
+        return carSequences[car];
+    }
+
+    /**
+     * @param car The car (must be between 0 and {@linkplain #getCarCount()}, exclusive).
+     * @return The number of move commands the car serves.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public int getCarMoveCount(final int car)
+    {
+        checkCar(car);
+        return carMoveCounts[car];
+    }
+
+    /**
+     * @return The number of floors travelled by all cars together.
+     */
+    public long getFloorsTravelled()
+    {
+        long floorsTravelled = 0;
+        for (final FloorSequence carSequence : carSequences)
+        {
+            floorsTravelled += carSequence.getFloorsTravelled();
+        }
+        return floorsTravelled;
+    }
+
+    /**
+     * @return True if no car serves any move commands.
+     */
+    public boolean isEmpty()
+    {
+        for (final FloorSequence carSequence : carSequences)
+        {
+            if (!carSequence.isEmpty())
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends the plan on a single line: for each car, its (1-based) number, the floors it visits and the floors it travels, followed by the total for the group, e.g.
+     * <code>car 1: 10 8 1 (9) | car 2: 10 5 (5) | car 3: (0) | total (14)</code>.
+     *
+     * @param output The StringBuilder to append to (cannot be null).
+     * @return The given StringBuilder.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public StringBuilder appendTo(final StringBuilder output)
+    {
+        Preconditions.checkArgument(output != null, "output: null");
+
+        for (int car = 0; car < carSequences.length; car++)
+        {
+            final FloorSequence carSequence = carSequences[car];
+            output.append("car ").append(car + 1).append(':');
+            for (int index = 0; index < carSequence.size(); index++)
+            {
+                output.append(' ').append(carSequence.get(index));
+            }
+            output.append(" (").append(carSequence.getFloorsTravelled()).append(") | ");
+        }
+        return output.append("total (").append(getFloorsTravelled()).append(')');
+    }
+
+    /**
+     * @return The plan as formatted by {@linkplain #appendTo(StringBuilder)}.
+     */
+    @Override
+    public String toString()
+    {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * @param car The car to check.
+     * @throws IllegalArgumentException if the car is out of range.
+     */
+    private void checkCar(final int car)
+    {
+        Preconditions.checkArgument(car >= 0 && car < carSequences.length, "car: not between 0 and " + carSequences.length);
+    }
+}
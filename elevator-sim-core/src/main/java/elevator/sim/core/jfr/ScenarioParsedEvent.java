@@ -0,0 +1,75 @@
+package elevator.sim.core.jfr;
+
+import elevator.sim.core.Scenario;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted once a {@linkplain Scenario} has been read and parsed from a scenario file. Its duration is the time the consumer waited for the Scenario, so with a pipelined or parallel loader it
+ * only covers the parsing that did not overlap with planning. <p />
+ * Like the other scenario events, it is disabled by default, so that recordings made with the JDK's own settings are not flooded with one event per scenario; the <code>elevator.jfc</code> settings profile enables it.
+ */
+@Name(ScenarioParsedEvent.NAME)
+@Label("Scenario Parsed")
+@Category({"Elevator Simulator", "Scenarios"})
+@Description("A scenario read and parsed from a scenario file")
+@Enabled(false)
+@StackTrace(false)
+public final class ScenarioParsedEvent extends Event
+{
+    /**
+     * Name of the event type, as used in settings profiles.
+     */
+    public static final String NAME = "elevator.ScenarioParsed";
+
+    /**
+     * Type of the event, looked up once so that the parser can check whether it is recorded without allocating an event per scenario.
+     */
+    private static final EventType EVENT_TYPE = EventType.getEventType(ScenarioParsedEvent.class);
+
+    @Label("Scenario Index")
+    @Description("Zero-based position of the scenario in its file")
+    private long scenarioIndex;
+
+    @Label("Move Count")
+    @Description("Move commands in the scenario: one per rider, plus the move from the initial floor to the first rider")
+    private int moveCount;
+
+    /**
+     * @param scenarioIndex Zero-based position of the {@linkplain Scenario} in its file.
+     */
+    public void setScenarioIndex(final long scenarioIndex)
+    {
+        this.scenarioIndex = scenarioIndex;
+    }
+
+    /**
+     * @param moveCount The number of move commands in the {@linkplain Scenario}.
+     */
+    public void setMoveCount(final int moveCount)
+    {
+        this.moveCount = moveCount;
+    }
+
+    /**
+     * Creates and begins an event, but only while the event is enabled in a running recording.
+     *
+     * @return The begun event, or null if it is not being recorded, in which case nothing is allocated.
+     */
+    public static ScenarioParsedEvent beginIfEnabled()
+    {
+        if (!EVENT_TYPE.isEnabled())
+        {
+            return null;
+        }
+        final ScenarioParsedEvent event = new ScenarioParsedEvent();
+        event.begin();
+        return event;
+    }
+}
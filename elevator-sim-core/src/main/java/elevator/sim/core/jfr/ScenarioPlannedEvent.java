@@ -0,0 +1,112 @@
+package elevator.sim.core.jfr;
+
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.MoveStrategy;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted once a {@linkplain Scenario} has been planned by a {@linkplain MoveStrategy} (or by a group of elevators) and its route formatted. Its duration covers both, and it is emitted on the
+ * thread that did the planning. <p />
+ * Disabled by default; the <code>elevator.jfc</code> settings profile enables it.
+ */
+@Name(ScenarioPlannedEvent.NAME)
+@Label("Scenario Planned")
+@Category({"Elevator Simulator", "Scenarios"})
+@Description("A scenario planned and its route formatted")
+@Enabled(false)
+@StackTrace(false)
+public final class ScenarioPlannedEvent extends Event
+{
+    /**
+     * Name of the event type, as used in settings profiles.
+     */
+    public static final String NAME = "elevator.ScenarioPlanned";
+
+    /**
+     * Type of the event, looked up once so that planning threads can check whether it is recorded without allocating an event per scenario.
+     */
+    private static final EventType EVENT_TYPE = EventType.getEventType(ScenarioPlannedEvent.class);
+
+    @Label("Scenario Index")
+    @Description("Zero-based position of the scenario in the run")
+    private long scenarioIndex;
+
+    @Label("Strategy")
+    @Description("Simple class name of the move strategy, or the name of the elevator group")
+    private String strategy;
+
+    @Label("Move Count")
+    @Description("Move commands in the scenario: one per rider, plus the move from the initial floor to the first rider")
+    private int moveCount;
+
+    @Label("Plan Length")
+    @Description("Floors visited by the planned route, summed over all cars of a group")
+    private int planLength;
+
+    @Label("Floors Travelled")
+    @Description("Floors travelled by the planned route, summed over all cars of a group")
+    private long floorsTravelled;
+
+    /**
+     * @param scenarioIndex Zero-based position of the {@linkplain Scenario} in the run.
+     */
+    public void setScenarioIndex(final long scenarioIndex)
+    {
+        this.scenarioIndex = scenarioIndex;
+    }
+
+    /**
+     * @param strategy The simple class name of the {@linkplain MoveStrategy}, or the name of the elevator group.
+     */
+    public void setStrategy(final String strategy)
+    {
+        this.strategy = strategy;
+    }
+
+    /**
+     * @param moveCount The number of move commands in the {@linkplain Scenario}.
+     */
+    public void setMoveCount(final int moveCount)
+    {
+        this.moveCount = moveCount;
+    }
+
+    /**
+     * @param planLength The number of floors visited by the planned route.
+     */
+    public void setPlanLength(final int planLength)
+    {
+        this.planLength = planLength;
+    }
+
+    /**
+     * @param floorsTravelled The number of floors travelled by the planned route.
+     */
+    public void setFloorsTravelled(final long floorsTravelled)
+    {
+        this.floorsTravelled = floorsTravelled;
+    }
+
+    /**
+     * Creates and begins an event, but only while the event is enabled in a running recording.
+     *
+     * @return The begun event, or null if it is not being recorded, in which case nothing is allocated.
+     */
+    public static ScenarioPlannedEvent beginIfEnabled()
+    {
+        if (!EVENT_TYPE.isEnabled())
+        {
+            return null;
+        }
+        final ScenarioPlannedEvent event = new ScenarioPlannedEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,76 @@
+package elevator.sim.core.jfr;
+
+import elevator.sim.core.Scenario;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted once the output of a {@linkplain Scenario} has been handed to the output sink. Its duration includes any flush the sink's policy triggered. <p />
+ * Disabled by default; the <code>elevator.jfc</code> settings profile enables it.
+ */
+@Name(ScenarioWrittenEvent.NAME)
+@Label("Scenario Written")
+@Category({"Elevator Simulator", "Scenarios"})
+@Description("The output of a scenario written to the output sink")
+@Enabled(false)
+@StackTrace(false)
+public final class ScenarioWrittenEvent extends Event
+{
+    /**
+     * Name of the event type, as used in settings profiles.
+     */
+    public static final String NAME = "elevator.ScenarioWritten";
+
+    /**
+     * Type of the event, looked up once so that writers can check whether it is recorded without allocating an event per scenario.
+     */
+    private static final EventType EVENT_TYPE = EventType.getEventType(ScenarioWrittenEvent.class);
+
+    @Label("Scenario Index")
+    @Description("Zero-based position of the scenario in the run")
+    private long scenarioIndex;
+
+    @Label("Bytes")
+    @Description("Length of the scenario's output, including any line separator")
+    @DataAmount
+    private long bytes;
+
+    /**
+     * @param scenarioIndex Zero-based position of the {@linkplain Scenario} in the run.
+     */
+    public void setScenarioIndex(final long scenarioIndex)
+    {
+        this.scenarioIndex = scenarioIndex;
+    }
+
+    /**
+     * @param bytes The length of the Scenario's output.
+     */
+    public void setBytes(final long bytes)
+    {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates and begins an event, but only while the event is enabled in a running recording.
+     *
+     * @return The begun event, or null if it is not being recorded, in which case nothing is allocated.
+     */
+    public static ScenarioWrittenEvent beginIfEnabled()
+    {
+        if (!EVENT_TYPE.isEnabled())
+        {
+            return null;
+        }
+        final ScenarioWrittenEvent event = new ScenarioWrittenEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,116 @@
+package elevator.sim.core.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-memory histogram of non-negative values, such as latencies in nanoseconds, in logarithmic buckets: every power of two is split into {@value #SUB_BUCKETS} equal buckets, so values below 16 are counted
+ * exactly and any larger value lands in a bucket no wider than an eighth of its lower bound. The whole range of a long fits in {@value #BUCKET_COUNT} buckets. <p />
+ * Every bucket is a {@linkplain LongAdder}, so recording from many threads at once does not contend on a shared counter, and a recording costs a few nanoseconds whatever the number of values. Reading a
+ * {@linkplain #summarize() summary} while values are being recorded is safe but not atomic: it may miss recordings made in the meantime. Instances are thread-safe.
+ */
+public final class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator maximum = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs an empty histogram.
+     */
+    public LatencyHistogram()
+    {
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+        {
+            buckets[bucket] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a single value.
+     *
+     * @param value The value to record. Negative values, which a clock stepping backwards could produce, are recorded as 0.
+     */
+    public void record(final long value)
+    {
+        final long clampedValue = Math.max(value, 0);
+        buckets[getBucket(clampedValue)].increment();
+        sum.add(clampedValue);
+        maximum.accumulate(clampedValue);
+    }
+
+    /**
+     * @return Non-null LatencySummary of the values recorded so far. Percentiles are reported as the upper bound of the bucket they fall in, capped at the largest value recorded.
+     */
+    public LatencySummary summarize()
+    {
+        final long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++)
+        {
+            counts[bucket] = buckets[bucket].sum();
+            count += counts[bucket];
+        }
+        if (count == 0)
+        {
+            return new LatencySummary(0, 0, 0, 0, 0, 0);
+        }
+        final long max = maximum.get();
+        return new LatencySummary(count, sum.sum() / count, getPercentile(counts, count, 0.5, max), getPercentile(counts, count, 0.9, max), getPercentile(counts, count, 0.99, max), max);
+    }
+
+    /**
+     * @param value A non-negative value.
+     * @return The index of the bucket counting the value.
+     */
+    static int getBucket(final long value)
+    {
+        if (value < 2 * SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * @param bucket The index of a bucket.
+     * @return The largest value counted by the bucket.
+     */
+    static long getUpperBound(final int bucket)
+    {
+        if (bucket < 2 * SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+    /**
+     * @param counts The number of values in each bucket.
+     * @param count The total number of values (must be positive).
+     * @param quantile The quantile to find, between 0 and 1.
+     * @param max The largest value recorded.
+     * @return The upper bound of the bucket holding the given quantile, capped at max.
+     */
+    private static long getPercentile(final long[] counts, final long count, final double quantile, final long max)
+    {
+        final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++)
+        {
+            seen += counts[bucket];
+            if (seen >= rank)
+            {
+                return Math.min(getUpperBound(bucket), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,91 @@
+package elevator.sim.core.metrics;
+
+/**
+ * Immutable summary of a {@linkplain LatencyHistogram}: the number of values recorded, their mean, their 50th, 90th and 99th percentiles, and the largest. All values are in the unit they were recorded in
+ * (nanoseconds, for latencies), and all are 0 for an empty histogram. <p />
+ * The getters follow the JavaBeans conventions, so that summaries appear as composite attributes of the {@linkplain ScenarioMetricsMXBean}.
+ */
+public final class LatencySummary
+{
+    private final long count;
+    private final long mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    /**
+     * @param count The number of values recorded.
+     * @param mean The mean of the values.
+     * @param p50 The 50th percentile (median) of the values.
+     * @param p90 The 90th percentile of the values.
+     * @param p99 The 99th percentile of the values.
+     * @param max The largest value.
+     */
+    LatencySummary(final long count, final long mean, final long p50, final long p90, final long p99, final long max)
+    {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * @return The number of values recorded.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * @return The mean of the values, rounded down.
+     */
+    public long getMean()
+    {
+        return mean;
+    }
+
+    /**
+     * @return The 50th percentile (median) of the values.
+     */
+    public long getP50()
+    {
+        return p50;
+    }
+
+    /**
+     * @return The 90th percentile of the values.
+     */
+    public long getP90()
+    {
+        return p90;
+    }
+
+    /**
+     * @return The 99th percentile of the values.
+     */
+    public long getP99()
+    {
+        return p99;
+    }
+
+    /**
+     * @return The largest value.
+     */
+    public long getMax()
+    {
+        return max;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString()
+    {
+        return "count=" + count + ", mean=" + mean + ", p50=" + p50 + ", p90=" + p90 + ", p99=" + p99 + ", max=" + max;
+    }
+}
@@ -0,0 +1,426 @@
+package elevator.sim.core.metrics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSortedMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of the metrics of a simulation run: counters of the scenarios, move commands, floors travelled and bytes written, and {@linkplain LatencyHistogram latency histograms} of the three stages every
+ * scenario goes through (parse, plan and write), with planning also broken down by strategy. <p />
+ * Every counter and histogram bucket is a {@linkplain LongAdder}, so planning threads record their scenarios without contending with each other. Counters are exact, but reading the clock costs tens of
+ * nanoseconds, which is a sizeable share of planning a small scenario, so latencies are only measured for every {@linkplain #getSamplingInterval() n-th} event of each stage: callers check
+ * {@linkplain #isSampled(long)} before reading the clock. The {@linkplain #disabled() disabled} registry samples nothing and its {@linkplain #isEnabled()} is false, so callers can skip instrumentation
+ * altogether and it costs nothing on the hot path. <p />
+ * The registry can be {@linkplain #register() registered} as a platform MBean and {@linkplain #formatSummary() summarized} as text. Instances are thread-safe.
+ */
+public final class ScenarioMetrics implements ScenarioMetricsMXBean
+{
+    /**
+     * The ObjectName the registry is {@linkplain #register() registered} under.
+     */
+    public static final String OBJECT_NAME = "elevator.sim:type=ScenarioMetrics";
+
+    /**
+     * The default {@linkplain #getSamplingInterval() sampling interval}.
+     */
+    public static final int DEFAULT_SAMPLING_INTERVAL = 16;
+
+    private static final ScenarioMetrics DISABLED = new ScenarioMetrics(false, Integer.MAX_VALUE);
+    private static final double NANOS_PER_MICRO = 1000.0;
+    private static final int MINIMUM_STAGE_WIDTH = 8;
+    private static final String STRATEGY_INDENT = "  ";
+
+    private final boolean enabled;
+    private final int samplingInterval;
+    private final LongAdder scenarioCount = new LongAdder();
+    private final LongAdder moveCount = new LongAdder();
+    private final LongAdder floorsTravelled = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder inexactRouteCount = new LongAdder();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram planLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+    private final ConcurrentMap<String, LatencyHistogram> planLatencyByStrategy = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an enabled, empty registry that measures the latency of every {@value #DEFAULT_SAMPLING_INTERVAL}th event of each stage.
+     */
+    public ScenarioMetrics()
+    {
+        this(DEFAULT_SAMPLING_INTERVAL);
+    }
+
+    /**
+     * Constructs an enabled, empty registry.
+     *
+     * @param samplingInterval The number of events of each stage per latency measurement (must be positive). With 1, every event is timed.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public ScenarioMetrics(final int samplingInterval)
+    {
+        this(true, samplingInterval);
+        Preconditions.checkArgument(samplingInterval > 0, "samplingInterval: <= 0");
+    }
+
+    /**
+     * @param enabled True if callers should record metrics.
+     * @param samplingInterval The number of events of each stage per latency measurement.
+     */
+    private ScenarioMetrics(final boolean enabled, final int samplingInterval)
+    {
+        this.enabled = enabled;
+        this.samplingInterval = samplingInterval;
+    }
+
+    /**
+     * @return Non-null shared registry whose {@linkplain #isEnabled()} is false, for runs without metrics. Nothing should be recorded in it.
+     */
+    public static ScenarioMetrics disabled()
+    {
+        return DISABLED;
+    }
+
+    /**
+     * @return True if callers should time their stages and record them; false if they should skip instrumentation altogether.
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @param eventIndex The zero-based index of an event of a stage, counted by the caller: the first scenario planned, the second written, and so on.
+     * @return True if the caller should measure the latency of the event: the registry is enabled and the event is the first of its {@linkplain #getSamplingInterval() sampling interval}.
+     */
+    public boolean isSampled(final long eventIndex)
+    {
+        return enabled && eventIndex % samplingInterval == 0;
+    }
+
+    /**
+     * Wraps an Iterator so that the time sampled elements take to be produced is recorded as parse latency. Stream-backed iterators do their work in the <code>hasNext()</code> that finds the next element, so
+     * that call is timed if there is one, and <code>next()</code> otherwise. A disabled registry returns the Iterator as is.
+     *
+     * @param elements The Iterator to meter (cannot be null).
+     * @param <T> The type of the elements.
+     * @return Non-null Iterator producing the same elements.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public <T> Iterator<T> meterParsing(final Iterator<T> elements)
+    {
+        Preconditions.checkArgument(elements != null, "elements: null");
+        return enabled ? new MeteredIterator<>(elements, this) : elements;
+    }
+
+    /**
+     * Counts a planned scenario.
+     *
+     * @param moves The number of move commands in the scenario.
+     * @param floors The number of floors travelled by its route.
+     */
+    public void recordScenario(final int moves, final long floors)
+    {
+        scenarioCount.increment();
+        moveCount.add(moves);
+        floorsTravelled.add(floors);
+    }
+
+    /**
+     * Records the latency of planning a sampled scenario.
+     *
+     * @param strategyName The name of the strategy that planned the scenario (cannot be null).
+     * @param nanos The time taken to plan the scenario and format its route, in nanoseconds.
+     */
+    public void recordPlanLatency(final String strategyName, final long nanos)
+    {
+        LatencyHistogram strategyLatency = planLatencyByStrategy.get(strategyName);
+        if (strategyLatency == null)
+        {
+            strategyLatency = planLatencyByStrategy.computeIfAbsent(strategyName, name -> new LatencyHistogram());
+        }
+        strategyLatency.record(nanos);
+        planLatency.record(nanos);
+    }
+
+    /**
+     * Counts the output written for a scenario.
+     *
+     * @param bytes The number of bytes written.
+     */
+    public void recordBytesWritten(final long bytes)
+    {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Counts a scenario whose route search gave up at its budget, so that its route is the best found rather than proven to be the shortest.
+     */
+    public void recordInexactRoute()
+    {
+        inexactRouteCount.increment();
+    }
+
+    /**
+     * Records the latency of writing the output of a sampled scenario.
+     *
+     * @param nanos The time taken to write the output, in nanoseconds.
+     */
+    public void recordWriteLatency(final long nanos)
+    {
+        writeLatency.record(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getSamplingInterval()
+    {
+        return samplingInterval;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getScenarioCount()
+    {
+        return scenarioCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMoveCount()
+    {
+        return moveCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getFloorsTravelled()
+    {
+        return floorsTravelled.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getBytesWritten()
+    {
+        return bytesWritten.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInexactRouteCount()
+    {
+        return inexactRouteCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencySummary getParseLatency()
+    {
+        return parseLatency.summarize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencySummary getPlanLatency()
+    {
+        return planLatency.summarize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public LatencySummary getWriteLatency()
+    {
+        return writeLatency.summarize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Map<String, LatencySummary> getPlanLatencyByStrategy()
+    {
+        final ImmutableSortedMap.Builder<String, LatencySummary> summaries = ImmutableSortedMap.naturalOrder();
+        for (final Map.Entry<String, LatencyHistogram> entry : planLatencyByStrategy.entrySet())
+        {
+            summaries.put(entry.getKey(), entry.getValue().summarize());
+        }
+        return summaries.build();
+    }
+
+    /**
+     * Registers the registry with the platform MBeanServer under {@value #OBJECT_NAME}.
+     *
+     * @throws JMException if the registry cannot be registered, e.g. because another one already is.
+     */
+    public void register() throws JMException
+    {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    /**
+     * Unregisters the registry from the platform MBeanServer, if it is registered.
+     *
+     * @throws JMException if the registry cannot be unregistered.
+     */
+    public void unregister() throws JMException
+    {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name))
+        {
+            server.unregisterMBean(name);
+        }
+    }
+
+    /**
+     * Formats the counters and a table of the latency of every stage, in microseconds, with the number of events sampled, e.g.
+     * <pre>
+     * Scenarios: 16000, moves: 152000, floors travelled: 976000, bytes written: 1568000.
+     * Latency of 1 in 16 scenarios per stage:
+     * Stage                                    Count  Mean (us)       p50       p90       p99       max
+     * parse                                     1000        1.2       1.0       2.1       4.3      25.0
+     * plan                                      1000        2.9       1.3       2.6      11.3      40.2
+     *   MoveByRequestsInSameDirection           1000        2.9       1.3       2.6      11.3      40.2
+     * write                                     1000        0.6       0.4       1.2       5.1      12.7
+     * </pre>
+     * The stage column is as wide as the longest strategy name requires. If any route search gave up at its budget, the first line is followed by the number of such scenarios, e.g.
+     * <code>Routes not proven shortest (search budget exhausted): 3.</code>
+     *
+     * @return Non-null multi-line summary, with lines separated by the platform line separator.
+     */
+    public String formatSummary()
+    {
+        final Map<String, LatencySummary> strategyLatencies = getPlanLatencyByStrategy();
+        int stageWidth = MINIMUM_STAGE_WIDTH;
+        for (final String strategyName : strategyLatencies.keySet())
+        {
+            stageWidth = Math.max(stageWidth, STRATEGY_INDENT.length() + strategyName.length());
+        }
+
+        final StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Scenarios: %d, moves: %d, floors travelled: %d, bytes written: %d.%n", getScenarioCount(), getMoveCount(), getFloorsTravelled(), getBytesWritten()));
+        final long inexactRoutes = getInexactRouteCount();
+        if (inexactRoutes > 0)
+        {
+            summary.append(String.format("Routes not proven shortest (search budget exhausted): %d.%n", inexactRoutes));
+        }
+        summary.append(String.format("Latency of 1 in %d scenarios per stage:%n", samplingInterval));
+        summary.append(String.format("%-" + stageWidth + "s %10s %10s %9s %9s %9s %9s", "Stage", "Count", "Mean (us)", "p50", "p90", "p99", "max"));
+        appendStage(summary, stageWidth, "parse", getParseLatency());
+        appendStage(summary, stageWidth, "plan", getPlanLatency());
+        for (final Map.Entry<String, LatencySummary> entry : strategyLatencies.entrySet())
+        {
+            appendStage(summary, stageWidth, STRATEGY_INDENT + entry.getKey(), entry.getValue());
+        }
+        appendStage(summary, stageWidth, "write", getWriteLatency());
+        return summary.toString();
+    }
+
+    /**
+     * Appends a line of the summary table.
+     *
+     * @param summary The summary to append to.
+     * @param stageWidth The width of the stage column.
+     * @param stage The name of the stage.
+     * @param latency The LatencySummary of the stage, in nanoseconds.
+     */
+    private static void appendStage(final StringBuilder summary, final int stageWidth, final String stage, final LatencySummary latency)
+    {
+        summary.append(String.format("%n%-" + stageWidth + "s %10d %10.1f %9.1f %9.1f %9.1f %9.1f", stage, latency.getCount(), latency.getMean() / NANOS_PER_MICRO, latency.getP50() / NANOS_PER_MICRO,
+                latency.getP90() / NANOS_PER_MICRO, latency.getP99() / NANOS_PER_MICRO, latency.getMax() / NANOS_PER_MICRO));
+    }
+
+    /**
+     * Iterator recording the time sampled elements take to be produced as the parse latency of a {@linkplain ScenarioMetrics}. Like the Iterator it wraps, it is not thread-safe.
+     *
+     * @param <T> The type of the elements.
+     */
+    private static final class MeteredIterator<T> implements Iterator<T>
+    {
+        private final Iterator<T> elements;
+        private final ScenarioMetrics metrics;
+        // The index of the element the Iterator is working towards.
+        private long elementIndex;
+        // True if hasNext() has found the next element, and timed it if it is sampled.
+        private boolean found;
+
+        /**
+         * @param elements The Iterator to meter.
+         * @param metrics The ScenarioMetrics to record the parse latency in.
+         */
+        private MeteredIterator(final Iterator<T> elements, final ScenarioMetrics metrics)
+        {
+            this.elements = elements;
+            this.metrics = metrics;
+        }
+
+        /** @inheritDoc */
+        @Override
+        public boolean hasNext()
+        {
+            if (found)
+            {
+                return true;
+            }
+            if (!metrics.isSampled(elementIndex))
+            {
+                found = elements.hasNext();
+                return found;
+            }
+            final long start = System.nanoTime();
+            found = elements.hasNext();
+            if (found)
+            {
+                metrics.parseLatency.record(System.nanoTime() - start);
+            }
+            return found;
+        }
+
+        /** @inheritDoc */
+        @Override
+        public T next()
+        {
+            final T element;
+            if (found || !metrics.isSampled(elementIndex))
+            {
+                element = elements.next();
+            }
+            else
+            {
+                final long start = System.nanoTime();
+                element = elements.next();
+                metrics.parseLatency.record(System.nanoTime() - start);
+            }
+            found = false;
+            elementIndex++;
+            return element;
+        }
+    }
+}
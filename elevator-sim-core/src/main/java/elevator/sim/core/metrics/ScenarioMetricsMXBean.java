@@ -0,0 +1,60 @@
+package elevator.sim.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@linkplain ScenarioMetrics}, through which a running simulation can be watched with any JMX client (e.g. JConsole) under the name {@value ScenarioMetrics#OBJECT_NAME}. Latencies are
+ * in nanoseconds, and sampled.
+ */
+public interface ScenarioMetricsMXBean
+{
+    /**
+     * @return The number of scenarios planned.
+     */
+    long getScenarioCount();
+
+    /**
+     * @return The number of move commands in the scenarios planned, including the move from each scenario's initial floor to its first rider.
+     */
+    long getMoveCount();
+
+    /**
+     * @return The number of floors travelled by the routes planned.
+     */
+    long getFloorsTravelled();
+
+    /**
+     * @return The number of bytes of output written.
+     */
+    long getBytesWritten();
+
+    /**
+     * @return The number of scenarios whose route search gave up at its budget, so that their routes are the best found rather than proven to be the shortest.
+     */
+    long getInexactRouteCount();
+
+    /**
+     * @return The number of events of each stage per latency measurement: the latency summaries cover one scenario in every interval, while the counters cover every scenario.
+     */
+    int getSamplingInterval();
+
+    /**
+     * @return Non-null LatencySummary of the time spent waiting for each scenario to be read and parsed.
+     */
+    LatencySummary getParseLatency();
+
+    /**
+     * @return Non-null LatencySummary of the time spent planning each scenario and formatting its route.
+     */
+    LatencySummary getPlanLatency();
+
+    /**
+     * @return Non-null LatencySummary of the time spent writing the output of each scenario.
+     */
+    LatencySummary getWriteLatency();
+
+    /**
+     * @return Non-null map of strategy name to LatencySummary of the time spent planning each scenario with that strategy.
+     */
+    Map<String, LatencySummary> getPlanLatencyByStrategy();
+}
@@ -0,0 +1,161 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+
+import java.util.List;
+
+/**
+ * Decorator for a {@linkplain MoveStrategy} that remembers the move sequence planned for each distinct {@linkplain Scenario}, so repeated scenarios are planned once. Scenarios are keyed by their full content: a 64-bit
+ * hash of the floors picks the segment and bucket, and a hit is only returned after comparing every floor, so a hash collision costs time but can never return another scenario's route. <p />
+ * Entries live in a {@linkplain PlanCache}, which is safe for concurrent use, evicts with the CLOCK approximation of least-recently-used, and is bounded both by the number of entries and by an estimate of the memory
+ * they hold (the scenario's floors, the cached route and a fixed overhead). A hit takes no allocation besides the copy of the route and no reordering of entries, so it costs well below planning even a handful of
+ * moves. Hits, misses and evictions are recorded and available through {@linkplain #getStats()}. <p />
+ * Two threads missing on the same scenario at the same time both plan it; the delegate must therefore be thread-safe if the decorator is shared between threads.
+ */
+public final class CachingMoveStrategy implements MoveStrategy, PrimitiveMoveStrategy
+{
+    /**
+     * The name of the injected MoveStrategy whose plans are cached.
+     */
+    public static final String DELEGATE = "planCache.delegate";
+
+    /**
+     * The name of the injected maximum number of cached plans.
+     */
+    public static final String MAXIMUM_ENTRIES = "planCache.maximumEntries";
+
+    /**
+     * The name of the injected maximum estimated memory held by cached plans, in bytes.
+     */
+    public static final String MAXIMUM_BYTES = "planCache.maximumBytes";
+
+    /**
+     * Default maximum number of cached plans.
+     */
+    public static final long DEFAULT_MAXIMUM_ENTRIES = 100000;
+
+    /**
+     * Default maximum estimated memory held by cached plans (64 MiB).
+     */
+    public static final long DEFAULT_MAXIMUM_BYTES = 64L << 20;
+
+    private final PrimitiveMoveStrategy delegate;
+    private final PlanCache plans;
+
+    /**
+     * Creates a new {@linkplain CachingMoveStrategy}.
+     *
+     * @param delegate The MoveStrategy whose plans are cached (cannot be null).
+     * @param maximumEntries The largest number of plans to keep (must be positive).
+     * @param maximumBytes The largest estimated memory the plans may hold, in bytes (must be positive).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public CachingMoveStrategy(@Named(DELEGATE) final MoveStrategy delegate, @Named(MAXIMUM_ENTRIES) final long maximumEntries, @Named(MAXIMUM_BYTES) final long maximumBytes)
+    {
+        Preconditions.checkArgument(delegate != null, "delegate: null");
+        Preconditions.checkArgument(maximumEntries > 0, "maximumEntries: <= 0");
+        Preconditions.checkArgument(maximumBytes > 0, "maximumBytes: <= 0");
+
+        this.delegate = MoveStrategies.asPrimitive(delegate);
+        this.plans = new PlanCache(maximumEntries, maximumBytes);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param moveCommands List of MoveCommands to execute (cannot be null, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public ImmutableList<Integer> getMoveSequence(final List<MoveCommand> moveCommands)
+    {
+        return MoveStrategies.getMoveSequence(this, moveCommands);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param scenario The Scenario whose move commands to execute (cannot be null).
+     * @param moveSequence The FloorSequence to write the result into (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
+
+        final long hash = hash(scenario);
+        final int[] cachedRoute = plans.get(scenario, hash);
+        if (cachedRoute != null)
+        {
+            moveSequence.clear();
+            moveSequence.addAll(cachedRoute);
+            return;
+        }
+        delegate.getMoveSequence(scenario, moveSequence);
+        plans.put(scenario, hash, moveSequence.toArray());
+    }
+
+    /**
+     * @return Non-null snapshot of the hit, miss and eviction counts so far.
+     */
+    public CacheStats getStats()
+    {
+        return plans.stats();
+    }
+
+    /**
+     * @return The number of plans currently cached.
+     */
+    public long size()
+    {
+        return plans.size();
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String toString()
+    {
+        final CacheStats stats = plans.stats();
+        return "CachingMoveStrategy{" +
+                "delegate=" + delegate +
+                ", size=" + plans.size() +
+                ", hits=" + stats.hitCount() +
+                ", misses=" + stats.missCount() +
+                ", evictions=" + stats.evictionCount() +
+                '}';
+    }
+
+    /**
+     * Hashes the floors of a Scenario with a multiply-rotate mix per floor pair and a final avalanche, so every floor affects every bit of the result.
+     *
+     * @param scenario The Scenario to hash.
+     * @return The 64-bit hash.
+     */
+    private static long hash(final Scenario scenario)
+    {
+        final int moveCount = scenario.getMoveCount();
+        long hash = 0x9E3779B97F4A7C15L * (moveCount + 1);
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            final long floors = (long) scenario.getOriginatingFloor(moveIndex) << 32 | (scenario.getDestinationFloor(moveIndex) & 0xFFFFFFFFL);
+            hash = Long.rotateLeft(hash ^ floors * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        }
+        // MurmurHash3's 64-bit finalizer.
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+}
@@ -0,0 +1,121 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.Scenario;
+
+import java.util.Arrays;
+
+/**
+ * Coordinate-compressed view of the floors of a {@linkplain Scenario}: the distinct floors its move commands touch, numbered densely from 0 in ascending floor order, along with the compressed originating and destination
+ * floor of every command. Strategies that keep per-floor state can size it by the number of distinct floors rather than by the highest floor number, so sparse or very high floor numbers cost nothing extra.
+ */
+final class FloorIndex
+{
+    private final int[] floors;
+    private final int[] originatingIndexes;
+    private final int[] destinationIndexes;
+
+    /**
+     * Builds the index of the given Scenario.
+     *
+     * @param scenario The Scenario to index (cannot be null).
+     * @return Non-null FloorIndex.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    static FloorIndex of(final Scenario scenario)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+
+        final int moveCount = scenario.getMoveCount();
+        final int[] allFloors = new int[moveCount * 2];
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            allFloors[moveIndex * 2] = scenario.getOriginatingFloor(moveIndex);
+            allFloors[moveIndex * 2 + 1] = scenario.getDestinationFloor(moveIndex);
+        }
+        Arrays.sort(allFloors);
+
+        int distinctFloors = 0;
+        for (int index = 0; index < allFloors.length; index++)
+        {
+            if (index == 0 || allFloors[index] != allFloors[distinctFloors - 1])
+            {
+                allFloors[distinctFloors++] = allFloors[index];
+            }
+        }
+        final int[] floors = Arrays.copyOf(allFloors, distinctFloors);
+
+        final int[] originatingIndexes = new int[moveCount];
+        final int[] destinationIndexes = new int[moveCount];
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            originatingIndexes[moveIndex] = Arrays.binarySearch(floors, scenario.getOriginatingFloor(moveIndex));
+            destinationIndexes[moveIndex] = Arrays.binarySearch(floors, scenario.getDestinationFloor(moveIndex));
+        }
+        return new FloorIndex(floors, originatingIndexes, destinationIndexes);
+    }
+
+    /**
+     * @param floors The distinct floors, in ascending order.
+     * @param originatingIndexes The compressed originating floor of each move command.
+     * @param destinationIndexes The compressed destination floor of each move command.
+     */
+    private FloorIndex(final int[] floors, final int[] originatingIndexes, final int[] destinationIndexes)
+    {
+        this.floors = floors;
+        this.originatingIndexes = originatingIndexes;
+        this.destinationIndexes = destinationIndexes;
+    }
+
+    /**
+     * @return The number of distinct floors.
+     */
+    int getFloorCount()
+    {
+        return floors.length;
+    }
+
+    /**
+     * @param index Compressed floor number (must be between 0 and {@linkplain #getFloorCount()}, exclusive).
+     * @return The actual floor number.
+     */
+    int getFloor(final int index)
+    {
+        return floors[index];
+    }
+
+    /**
+     * @param floor An actual floor number.
+     * @return The compressed floor number, or a negative number if the scenario does not touch the floor.
+     */
+    int indexOf(final int floor)
+    {
+        return Arrays.binarySearch(floors, floor);
+    }
+
+    /**
+     * @return The number of move commands.
+     */
+    int getMoveCount()
+    {
+        return originatingIndexes.length;
+    }
+
+    /**
+     * @param moveIndex Index of the move command.
+     * @return The compressed originating floor of the move command.
+     */
+    int getOriginatingIndex(final int moveIndex)
+    {
+        return originatingIndexes[moveIndex];
+    }
+
+    /**
+     * @param moveIndex Index of the move command.
+     * @return The compressed destination floor of the move command.
+     */
+    int getDestinationIndex(final int moveIndex)
+    {
+        return destinationIndexes[moveIndex];
+    }
+}
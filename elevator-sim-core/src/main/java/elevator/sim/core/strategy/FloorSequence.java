@@ -0,0 +1,180 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+
+/**
+ * Growable, reusable buffer of floors representing the order in which floors should be visited. {@linkplain PrimitiveMoveStrategy PrimitiveMoveStrategies} write their move sequences into a caller-supplied
+ * FloorSequence, so a caller that reuses one instance plans scenario after scenario without allocating. <p />
+ * Instances are not thread-safe.
+ */
+public final class FloorSequence
+{
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] floors;
+    private int size;
+
+    /**
+     * Creates a new, empty {@linkplain FloorSequence} with a default initial capacity.
+     */
+    public FloorSequence()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new, empty {@linkplain FloorSequence}.
+     *
+     * @param initialCapacity The number of floors the sequence can hold before it has to grow (cannot be negative).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public FloorSequence(final int initialCapacity)
+    {
+        Preconditions.checkArgument(initialCapacity >= 0, "initialCapacity: < 0");
+        this.floors = new int[initialCapacity];
+    }
+
+    /**
+     * Removes all floors, keeping the allocated capacity for reuse.
+     */
+    public void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Appends a floor to the sequence.
+     *
+     * @param floor The floor to append.
+     */
+    public void add(final int floor)
+    {
+        if (size == floors.length)
+        {
+            floors = Arrays.copyOf(floors, Math.max(DEFAULT_CAPACITY, floors.length * 2));
+        }
+        floors[size++] = floor;
+    }
+
+    /**
+     * Appends floors to the sequence.
+     *
+     * @param floorsToAdd The floors to append, in order.
+     */
+    void addAll(final int[] floorsToAdd)
+    {
+        if (size + floorsToAdd.length > floors.length)
+        {
+            floors = Arrays.copyOf(floors, Math.max(size + floorsToAdd.length, floors.length * 2));
+        }
+        System.arraycopy(floorsToAdd, 0, floors, size, floorsToAdd.length);
+        size += floorsToAdd.length;
+    }
+
+    /**
+     * @param index Index of the floor (must be between 0 and {@linkplain #size()}, exclusive).
+     * @return The floor at the given position in the sequence.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public int get(final int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index: " + index + " (size " + size + ")");
+        }
+        return floors[index];
+    }
+
+    /**
+     * @return The number of floors in the sequence.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @return True if the sequence contains no floors.
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * @return The total number of floors travelled when visiting the floors in sequence (0 for fewer than two floors).
+     */
+    public long getFloorsTravelled()
+    {
+        long floorsTravelled = 0;
+        for (int index = 1; index < size; index++)
+        {
+            floorsTravelled += Math.abs((long) floors[index] - floors[index - 1]);
+        }
+        return floorsTravelled;
+    }
+
+    /**
+     * @return Non-null ImmutableList copy of the floors in the sequence.
+     */
+    public ImmutableList<Integer> toImmutableList()
+    {
+        final ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+        for (int index = 0; index < size; index++)
+        {
+            builder.add(floors[index]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return Non-null array copy of the floors in the sequence.
+     */
+    int[] toArray()
+    {
+        return Arrays.copyOf(floors, size);
+    }
+
+    /**
+     * Sorts the floors from <code>fromIndex</code> to the end of the sequence and removes duplicates among them, as if they had been collected into a sorted set.
+     *
+     * @param fromIndex Index of the first floor to sort.
+     * @param descending True to sort in descending order, false for ascending order.
+     */
+    void sortDistinctFrom(final int fromIndex, final boolean descending)
+    {
+        Arrays.sort(floors, fromIndex, size);
+
+        int distinctEnd = fromIndex;
+        for (int index = fromIndex; index < size; index++)
+        {
+            if (index == fromIndex || floors[index] != floors[distinctEnd - 1])
+            {
+                floors[distinctEnd++] = floors[index];
+            }
+        }
+        size = distinctEnd;
+
+        if (descending)
+        {
+            for (int low = fromIndex, high = size - 1; low < high; low++, high--)
+            {
+                final int floor = floors[low];
+                floors[low] = floors[high];
+                floors[high] = floor;
+            }
+        }
+    }
+
+    /**
+     * @inheritDoc
+     */
+    @Override
+    public String toString()
+    {
+        return "FloorSequence" + Arrays.toString(Arrays.copyOf(floors, size));
+    }
+}
@@ -0,0 +1,181 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Ordered set of {@linkplain FloorIndex compressed floors} that finds the nearest member above or below a floor in logarithmic time. Members are bits of a 64-ary tree: the bottom level holds a bit per floor, and every
+ * level above holds a bit per word of the level below, set while that word is non-zero. Searches climb only as far as the first level with a member on the right side, then descend along the highest or lowest set bits,
+ * so they take <code>O(log<sub>64</sub> floors)</code> word operations regardless of how many members lie in between. <p />
+ * Instances are not thread-safe.
+ */
+final class FloorSet
+{
+    private final int floorCount;
+    private final long[][] levels;
+
+    /**
+     * Creates an empty {@linkplain FloorSet}.
+     *
+     * @param floorCount The number of compressed floors the set may hold (cannot be negative).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    FloorSet(final int floorCount)
+    {
+        Preconditions.checkArgument(floorCount >= 0, "floorCount: < 0");
+
+        this.floorCount = floorCount;
+        int levelCount = 1;
+        for (int size = floorCount; size > Long.SIZE; size = (size + Long.SIZE - 1) / Long.SIZE)
+        {
+            levelCount++;
+        }
+        this.levels = new long[levelCount][];
+        int size = floorCount;
+        for (int level = 0; level < levelCount; level++)
+        {
+            size = (size + Long.SIZE - 1) / Long.SIZE;
+            levels[level] = new long[Math.max(1, size)];
+        }
+    }
+
+    /**
+     * Adds a floor to the set.
+     *
+     * @param floor The compressed floor (must be between 0 and the floor count, exclusive).
+     */
+    void add(final int floor)
+    {
+        checkFloor(floor);
+        int index = floor;
+        for (final long[] words : levels)
+        {
+            final long word = words[index >>> 6];
+            words[index >>> 6] = word | 1L << index;
+            if (word != 0)
+            {
+                // The levels above already know this word is non-empty.
+                return;
+            }
+            index >>>= 6;
+        }
+    }
+
+    /**
+     * Removes a floor from the set.
+     *
+     * @param floor The compressed floor (must be between 0 and the floor count, exclusive).
+     */
+    void remove(final int floor)
+    {
+        checkFloor(floor);
+        int index = floor;
+        for (final long[] words : levels)
+        {
+            final long word = words[index >>> 6] & ~(1L << index);
+            words[index >>> 6] = word;
+            if (word != 0)
+            {
+                return;
+            }
+            index >>>= 6;
+        }
+    }
+
+    /**
+     * @return True if the set has no members.
+     */
+    boolean isEmpty()
+    {
+        return levels[levels.length - 1][0] == 0;
+    }
+
+    /**
+     * Finds the lowest member above the given floor.
+     *
+     * @param floor A compressed floor (must be between -1 and the floor count, exclusive).
+     * @return The member found, or -1 if there is none.
+     */
+    int higher(final int floor)
+    {
+        int index = floor + 1;
+        int level = 0;
+        // Climb until the rest of a word, from index onwards, has a member.
+        while (true)
+        {
+            if (index >>> 6 >= levels[level].length)
+            {
+                return -1;
+            }
+            final long bits = levels[level][index >>> 6] & (-1L << index);
+            if (bits != 0)
+            {
+                index = (index & ~63) | Long.numberOfTrailingZeros(bits);
+                break;
+            }
+            if (level == levels.length - 1)
+            {
+                return -1;
+            }
+            index = (index >>> 6) + 1;
+            level++;
+        }
+        // Descend along the lowest set bits.
+        while (level > 0)
+        {
+            level--;
+            index = index << 6 | Long.numberOfTrailingZeros(levels[level][index]);
+        }
+        return index;
+    }
+
+    /**
+     * Finds the highest member below the given floor.
+     *
+     * @param floor A compressed floor (must be between 0 and the floor count, inclusive).
+     * @return The member found, or -1 if there is none.
+     */
+    int lower(final int floor)
+    {
+        int index = floor - 1;
+        int level = 0;
+        // Climb until the start of a word, up to index, has a member.
+        while (true)
+        {
+            if (index < 0)
+            {
+                return -1;
+            }
+            final long bits = levels[level][index >>> 6] & (-1L >>> (63 - (index & 63)));
+            if (bits != 0)
+            {
+                index = (index & ~63) | (63 - Long.numberOfLeadingZeros(bits));
+                break;
+            }
+            if (level == levels.length - 1)
+            {
+                return -1;
+            }
+            index = (index >>> 6) - 1;
+            level++;
+        }
+        // Descend along the highest set bits.
+        while (level > 0)
+        {
+            level--;
+            index = index << 6 | (63 - Long.numberOfLeadingZeros(levels[level][index]));
+        }
+        return index;
+    }
+
+    /**
+     * @param floor The compressed floor to check.
+     * @throws IndexOutOfBoundsException if the floor is out of range.
+     */
+    private void checkFloor(final int floor)
+    {
+        if (floor < 0 || floor >= floorCount)
+        {
+            throw new IndexOutOfBoundsException("floor: " + floor + " (floor count " + floorCount + ")");
+        }
+    }
+}
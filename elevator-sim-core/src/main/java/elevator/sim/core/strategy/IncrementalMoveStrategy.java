@@ -0,0 +1,46 @@
+package elevator.sim.core.strategy;
+
+import elevator.sim.core.MoveCommand;
+
+/**
+ * Represents a strategy that plans the route of a single car while its requests arrive one at a time, as a controller would, rather than from a complete list of {@linkplain MoveCommand MoveCommands}. Requests are
+ * added as they arrive, the next stop can be asked for at any time, and advancing moves the car to that stop; each of these updates the plan in place instead of recomputing it from every request so far. <p />
+ * Adding every request before advancing the car visits the same floors as the corresponding {@linkplain MoveStrategy} plans for the same requests. Requests added once the car has started moving are fitted into the
+ * remaining plan as described by each implementation. <p />
+ * Implementations are not thread-safe.
+ */
+public interface IncrementalMoveStrategy
+{
+    /**
+     * Adds a request to the plan.
+     *
+     * @param originatingFloor The floor the rider is waiting at (must be positive).
+     * @param destinationFloor The floor the rider wants to go to (must be positive and different from originatingFloor).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    void addRequest(final int originatingFloor, final int destinationFloor);
+
+    /**
+     * @return True if the plan has a stop the car has not visited yet.
+     */
+    boolean hasNextStop();
+
+    /**
+     * @return The floor the car should visit next.
+     * @throws IllegalStateException if there is no next stop.
+     */
+    int getNextStop();
+
+    /**
+     * Moves the car to its next stop, removing the stop from the plan.
+     *
+     * @return The floor the car is now at.
+     * @throws IllegalStateException if there is no next stop.
+     */
+    int advance();
+
+    /**
+     * Forgets every request and stop, returning the strategy to its initial state so that it can plan another scenario.
+     */
+    void reset();
+}
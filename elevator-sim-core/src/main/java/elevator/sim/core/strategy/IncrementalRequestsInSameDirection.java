@@ -0,0 +1,254 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.MoveCommand;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Implementation of {@linkplain IncrementalMoveStrategy} following {@linkplain MoveByRequestsInSameDirection}: consecutive requests travelling in the same {@linkplain MoveDirection} form a run, whose floors are visited
+ * in that direction once the previous run is done, and a request in the other direction starts a new run. As in the batch strategy, a request's originating floor is left out when it is the floor the previous run
+ * ends at. <p />
+ * Only the latest run takes new requests. Once the car has started visiting that run, a request still joins it if it starts at or ahead of the car in the run's direction; a request starting behind the car is
+ * planned as a new run in the same direction, after the current one. <p />
+ * Each run keeps its pending floors in a binary heap ordered by the run's direction, and runs wait in a queue, so adding a request and advancing the car take <code>O(log n)</code> time in the number of pending stops.
+ * Run objects and their heaps are recycled, so a strategy that is {@linkplain #reset() reset} between scenarios stops allocating once it has seen the largest.
+ */
+public final class IncrementalRequestsInSameDirection implements IncrementalMoveStrategy
+{
+    private final ArrayDeque<Run> runs = new ArrayDeque<>();
+    private final ArrayDeque<Run> spareRuns = new ArrayDeque<>();
+    // The floor of the last stop visited, or 0 before the first.
+    private int carFloor;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param originatingFloor The floor the rider is waiting at (must be positive).
+     * @param destinationFloor The floor the rider wants to go to (must be positive and different from originatingFloor).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void addRequest(final int originatingFloor, final int destinationFloor)
+    {
+        MoveCommand.checkFloors(originatingFloor, destinationFloor);
+
+        final boolean up = originatingFloor < destinationFloor;
+        Run run = runs.peekLast();
+        if (run == null || run.up != up || !run.accepts(originatingFloor))
+        {
+            final int pivotFloor = run == null ? carFloor : run.lastFloor;
+            run = spareRuns.isEmpty() ? new Run() : spareRuns.poll();
+            run.start(up, pivotFloor);
+            runs.add(run);
+        }
+        if (originatingFloor != run.pivotFloor && originatingFloor != run.visitedFloor)
+        {
+            run.add(originatingFloor);
+        }
+        run.add(destinationFloor);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNextStop()
+    {
+        return nextRun() != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if there is no next stop.
+     */
+    @Override
+    public int getNextStop()
+    {
+        final Run run = nextRun();
+        Preconditions.checkState(run != null, "No next stop.");
+        return run.peek();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if there is no next stop.
+     */
+    @Override
+    public int advance()
+    {
+        final Run run = nextRun();
+        Preconditions.checkState(run != null, "No next stop.");
+        carFloor = run.poll();
+        return carFloor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset()
+    {
+        spareRuns.addAll(runs);
+        runs.clear();
+        carFloor = 0;
+    }
+
+    /**
+     * Finds the run holding the next stop, recycling runs that have been visited completely. The latest run is kept even when it has no stops left, since it may still take requests.
+     *
+     * @return The run holding the next stop, or null if there is none.
+     */
+    private Run nextRun()
+    {
+        while (!runs.isEmpty())
+        {
+            final Run run = runs.peek();
+            if (!run.isEmpty())
+            {
+                return run;
+            }
+            if (runs.size() == 1)
+            {
+                return null;
+            }
+            spareRuns.add(runs.poll());
+        }
+        return null;
+    }
+
+    /**
+     * The pending floors of a run of requests in one direction, as a binary min-heap of keys: the floor itself for an upward run and its negation for a downward one, so the heap always yields the next floor in the
+     * run's direction. Floors equal to the one just visited are dropped as they reach the top, which removes the duplicates a sorted set would have merged.
+     */
+    private static final class Run
+    {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private int[] keys = new int[INITIAL_CAPACITY];
+        private int size;
+        private boolean up;
+        // The floor the previous run ends at; originating floors equal to it are not visited again.
+        private int pivotFloor;
+        // The floor of the stop of this run visited last, or 0 if the car has not started on the run.
+        private int visitedFloor;
+        // The floor the run ends at: the farthest floor in the run's direction added so far, or 0 before the first.
+        private int lastFloor;
+
+        /**
+         * Empties the run for reuse.
+         *
+         * @param up True if the run travels upwards.
+         * @param pivotFloor The floor the previous run ends at.
+         */
+        private void start(final boolean up, final int pivotFloor)
+        {
+            this.up = up;
+            this.pivotFloor = pivotFloor;
+            this.visitedFloor = 0;
+            this.lastFloor = 0;
+            this.size = 0;
+        }
+
+        /**
+         * @param originatingFloor The originating floor of a request in the run's direction.
+         * @return True if the request can join the run: the car has not started on it, or the request starts at or ahead of the car.
+         */
+        private boolean accepts(final int originatingFloor)
+        {
+            return visitedFloor == 0 || (up ? originatingFloor >= visitedFloor : originatingFloor <= visitedFloor);
+        }
+
+        /**
+         * @param floor A floor to visit in the run.
+         */
+        private void add(final int floor)
+        {
+            if (size == keys.length)
+            {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+            }
+            int index = size++;
+            final int key = up ? floor : -floor;
+            while (index > 0)
+            {
+                final int parent = (index - 1) >>> 1;
+                if (keys[parent] <= key)
+                {
+                    break;
+                }
+                keys[index] = keys[parent];
+                index = parent;
+            }
+            keys[index] = key;
+            if (lastFloor == 0 || (up ? floor > lastFloor : floor < lastFloor))
+            {
+                lastFloor = floor;
+            }
+        }
+
+        /**
+         * @return True if the run has no floors left to visit, after dropping any duplicates of the floor just visited.
+         */
+        private boolean isEmpty()
+        {
+            final int visitedKey = up ? visitedFloor : -visitedFloor;
+            while (size > 0 && keys[0] == visitedKey)
+            {
+                removeTop();
+            }
+            return size == 0;
+        }
+
+        /**
+         * @return The next floor of the run. The run must not be empty.
+         */
+        private int peek()
+        {
+            return up ? keys[0] : -keys[0];
+        }
+
+        /**
+         * Visits the next floor of the run. The run must not be empty.
+         *
+         * @return The floor visited.
+         */
+        private int poll()
+        {
+            visitedFloor = peek();
+            removeTop();
+            return visitedFloor;
+        }
+
+        /**
+         * Removes the smallest key from the heap.
+         */
+        private void removeTop()
+        {
+            final int key = keys[--size];
+            int index = 0;
+            while (true)
+            {
+                int child = 2 * index + 1;
+                if (child >= size)
+                {
+                    break;
+                }
+                if (child + 1 < size && keys[child + 1] < keys[child])
+                {
+                    child++;
+                }
+                if (key <= keys[child])
+                {
+                    break;
+                }
+                keys[index] = keys[child];
+                index = child;
+            }
+            keys[index] = key;
+        }
+    }
+}
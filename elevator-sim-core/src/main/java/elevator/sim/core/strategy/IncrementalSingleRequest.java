@@ -0,0 +1,106 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.MoveCommand;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@linkplain IncrementalMoveStrategy} following {@linkplain MoveBySingleRequest}: requests are served strictly in the order they arrive, each by a stop at its originating floor and one at its
+ * destination, and the originating stop is skipped when the car already ends up there. Since later requests never change the stops planned for earlier ones, the plan is a first-in, first-out queue of floors in a
+ * growable ring buffer, and every operation takes amortized constant time.
+ */
+public final class IncrementalSingleRequest implements IncrementalMoveStrategy
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] stops = new int[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+    // The floor the car is at once every planned stop has been visited, or 0 before the first request.
+    private int lastPlannedFloor;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param originatingFloor The floor the rider is waiting at (must be positive).
+     * @param destinationFloor The floor the rider wants to go to (must be positive and different from originatingFloor).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void addRequest(final int originatingFloor, final int destinationFloor)
+    {
+        MoveCommand.checkFloors(originatingFloor, destinationFloor);
+
+        if (originatingFloor != lastPlannedFloor)
+        {
+            enqueue(originatingFloor);
+        }
+        enqueue(destinationFloor);
+        lastPlannedFloor = destinationFloor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNextStop()
+    {
+        return size > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if there is no next stop.
+     */
+    @Override
+    public int getNextStop()
+    {
+        Preconditions.checkState(size > 0, "No next stop.");
+        return stops[head];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if there is no next stop.
+     */
+    @Override
+    public int advance()
+    {
+        final int floor = getNextStop();
+        head = (head + 1) & (stops.length - 1);
+        size--;
+        return floor;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset()
+    {
+        head = 0;
+        size = 0;
+        lastPlannedFloor = 0;
+    }
+
+    /**
+     * Appends a stop to the queue, doubling the ring buffer when it is full.
+     *
+     * @param floor The floor of the stop.
+     */
+    private void enqueue(final int floor)
+    {
+        if (size == stops.length)
+        {
+            // Move the wrapped-around part of the ring past the old end, so the queue stays contiguous from head.
+            final int[] grown = Arrays.copyOf(stops, stops.length * 2);
+            System.arraycopy(stops, 0, grown, stops.length, head);
+            stops = grown;
+        }
+        stops[(head + size) & (stops.length - 1)] = floor;
+        size++;
+    }
+}
@@ -0,0 +1,447 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of {@linkplain MoveStrategy} that improves the plan of {@linkplain MoveByRequestsInSameDirection} by local search. As in {@linkplain MoveByLookSweep}, every {@linkplain MoveCommand} is known up front and
+ * treated as a rider waiting at its originating floor, the elevator starts at the first command's originating floor and holds any number of riders. <p />
+ * The route is a sequence of stops, one per pickup and one per drop-off, starting from the plan of {@linkplain MoveByRequestsInSameDirection} travelled from the initial floor (the plan itself may begin at
+ * the lowest or highest floor of its first run instead). Each iteration proposes one of two moves at random, or-opt seven times out of eight since it shortens routes far more often:
+ * <ul>
+ * <li>or-opt: move a run of one to three consecutive stops elsewhere in the route;</li>
+ * <li>2-opt: reverse a section of the route.</li>
+ * </ul>
+ * A move that would drop a rider off before picking it up is never applied. Floor distance is symmetric, so either move changes at most three legs of the route and its effect on the distance travelled is computed in
+ * constant time from the legs' end points, without walking the route. Moves are accepted by simulated annealing: improvements always, and worsening moves with a probability that shrinks as the temperature cools
+ * geometrically over the iteration budget, so the search settles into plain descent towards the end. The shortest route seen is returned. <p />
+ * The search stops after the configured number of iterations or, if one is set, once the per-scenario time budget has run out. The random number generator is re-seeded for every scenario, so results depend only on
+ * the scenario and the configuration, unless a time budget cuts the search short. Instances are immutable and thread-safe.
+ */
+public final class MoveByLocalSearch implements MoveStrategy, PrimitiveMoveStrategy
+{
+    /**
+     * Name of the int binding that supplies the iteration budget when instances are created by Guice.
+     */
+    public static final String ITERATIONS = "localSearch.iterations";
+
+    /**
+     * Name of the long binding that supplies the time budget in milliseconds (0 for none) when instances are created by Guice.
+     */
+    public static final String TIME_BUDGET_MILLIS = "localSearch.timeBudgetMillis";
+
+    /**
+     * The default number of iterations per scenario.
+     */
+    public static final int DEFAULT_ITERATIONS = 2000;
+
+    private static final long SEED = 0x5EED_E1E7_A702L;
+    private static final int LONGEST_MOVED_RUN = 3;
+    private static final int TWO_OPT_ONE_IN = 8;
+    private static final int ITERATIONS_BETWEEN_CLOCK_CHECKS = 256;
+    private static final double INITIAL_TEMPERATURE_PER_LEG = 1.0;
+    private static final double FINAL_TEMPERATURE_RATIO = 1e-3;
+
+    private final int iterations;
+    private final long timeBudgetNanos;
+    private final PrimitiveMoveStrategy initialStrategy = new MoveByRequestsInSameDirection();
+
+    /**
+     * Constructs a new {@linkplain MoveByLocalSearch} running {@linkplain #DEFAULT_ITERATIONS} iterations per scenario, without a time budget.
+     */
+    public MoveByLocalSearch()
+    {
+        this(DEFAULT_ITERATIONS, 0);
+    }
+
+    /**
+     * Constructs a new {@linkplain MoveByLocalSearch}.
+     *
+     * @param iterations The number of moves to propose per scenario (must be positive).
+     * @param timeBudgetMillis The wall-clock time to search each scenario for at most, in milliseconds, or 0 for no limit (cannot be negative).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public MoveByLocalSearch(@Named(ITERATIONS) final int iterations, @Named(TIME_BUDGET_MILLIS) final long timeBudgetMillis)
+    {
+        Preconditions.checkArgument(iterations > 0, "iterations: <= 0");
+        Preconditions.checkArgument(timeBudgetMillis >= 0, "timeBudgetMillis: < 0");
+
+        this.iterations = iterations;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param moveCommands List of MoveCommands to execute (cannot be null, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public ImmutableList<Integer> getMoveSequence(final List<MoveCommand> moveCommands)
+    {
+        return MoveStrategies.getMoveSequence(this, moveCommands);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param scenario The Scenario whose move commands to execute (cannot be null).
+     * @param moveSequence The FloorSequence to write the result into (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
+
+        initialStrategy.getMoveSequence(scenario, moveSequence);
+        if (scenario.getMoveCount() == 0)
+        {
+            return;
+        }
+
+        final Route route = new Route(scenario, moveSequence);
+        route.search(iterations, timeBudgetNanos, new Random(SEED));
+        route.writeTo(moveSequence);
+    }
+
+    /**
+     * A route through the stops of a single scenario, and the search improving it. Stop <code>2 * rider</code> picks the rider up and stop <code>2 * rider + 1</code> drops it off; slot 0 of the route holds the initial
+     * floor, which never moves.
+     */
+    private static final class Route
+    {
+        private final int[] floorOfStop;
+        private final int[] stops;
+        private final int[] slotOfStop;
+        private final int lastSlot;
+        private final int[] movedRun = new int[LONGEST_MOVED_RUN];
+        private long distance;
+
+        private int[] bestStops;
+        private long bestDistance;
+
+        /**
+         * Builds the route by replaying a plan: at every floor of the plan, riders bound for it alight, then riders waiting there board.
+         *
+         * @param scenario The Scenario whose riders to serve.
+         * @param plan The floors of the plan, which must serve every rider.
+         */
+        private Route(final Scenario scenario, final FloorSequence plan)
+        {
+            final int riders = scenario.getMoveCount();
+            final int initialStop = riders * 2;
+            this.lastSlot = riders * 2;
+            this.floorOfStop = new int[initialStop + 1];
+            this.stops = new int[lastSlot + 1];
+            this.slotOfStop = new int[initialStop + 1];
+            for (int rider = 0; rider < riders; rider++)
+            {
+                floorOfStop[rider * 2] = scenario.getOriginatingFloor(rider);
+                floorOfStop[rider * 2 + 1] = scenario.getDestinationFloor(rider);
+            }
+            floorOfStop[initialStop] = scenario.getOriginatingFloor(0);
+            stops[0] = initialStop;
+            slotOfStop[initialStop] = 0;
+
+            // Riders waiting at each floor, as a counting sort by originating floor, and riders on board bound for each floor, as linked stacks.
+            final FloorIndex floorIndex = FloorIndex.of(scenario);
+            final int floorCount = floorIndex.getFloorCount();
+            final int[] firstRiderOfFloor = new int[floorCount + 1];
+            final int[] ridersByFloor = new int[riders];
+            for (int rider = 0; rider < riders; rider++)
+            {
+                firstRiderOfFloor[floorIndex.getOriginatingIndex(rider) + 1]++;
+            }
+            for (int floor = 0; floor < floorCount; floor++)
+            {
+                firstRiderOfFloor[floor + 1] += firstRiderOfFloor[floor];
+            }
+            final int[] waitingEnd = Arrays.copyOf(firstRiderOfFloor, floorCount);
+            for (int rider = 0; rider < riders; rider++)
+            {
+                ridersByFloor[waitingEnd[floorIndex.getOriginatingIndex(rider)]++] = rider;
+            }
+            final int[] firstOnboardBoundFor = new int[floorCount];
+            final int[] nextOnboard = new int[riders];
+            Arrays.fill(firstOnboardBoundFor, -1);
+
+            int slot = 0;
+            for (int planIndex = -1; planIndex < plan.size(); planIndex++)
+            {
+                final int floor = floorIndex.indexOf(planIndex < 0 ? floorOfStop[initialStop] : plan.get(planIndex));
+                for (int rider = firstOnboardBoundFor[floor]; rider >= 0; rider = nextOnboard[rider])
+                {
+                    place(rider * 2 + 1, ++slot);
+                }
+                firstOnboardBoundFor[floor] = -1;
+                for (int riderIndex = firstRiderOfFloor[floor]; riderIndex < waitingEnd[floor]; riderIndex++)
+                {
+                    final int rider = ridersByFloor[riderIndex];
+                    final int destination = floorIndex.getDestinationIndex(rider);
+                    place(rider * 2, ++slot);
+                    nextOnboard[rider] = firstOnboardBoundFor[destination];
+                    firstOnboardBoundFor[destination] = rider;
+                }
+                // Everyone waiting here has boarded.
+                waitingEnd[floor] = firstRiderOfFloor[floor];
+            }
+            if (slot != lastSlot)
+            {
+                throw new AssertionError("The initial plan does not serve every rider: " + plan + ".");
+            }
+
+            for (slot = 1; slot <= lastSlot; slot++)
+            {
+                distance += leg(stops[slot - 1], stops[slot]);
+            }
+            this.bestStops = stops.clone();
+            this.bestDistance = distance;
+        }
+
+        /**
+         * Runs the search, keeping the shortest route seen.
+         *
+         * @param iterations The number of moves to propose.
+         * @param timeBudgetNanos The time budget in nanoseconds, or 0 for none.
+         * @param random The source of randomness.
+         */
+        private void search(final int iterations, final long timeBudgetNanos, final Random random)
+        {
+            if (lastSlot < 3)
+            {
+                // Too few stops to rearrange.
+                return;
+            }
+            final long deadline = System.nanoTime() + timeBudgetNanos;
+            final double initialTemperature = Math.max(1.0, INITIAL_TEMPERATURE_PER_LEG * distance / lastSlot);
+            final double cooling = Math.pow(FINAL_TEMPERATURE_RATIO, 1.0 / iterations);
+            double temperature = initialTemperature;
+
+            for (int iteration = 0; iteration < iterations; iteration++, temperature *= cooling)
+            {
+                if (timeBudgetNanos > 0 && iteration % ITERATIONS_BETWEEN_CLOCK_CHECKS == 0 && System.nanoTime() - deadline > 0)
+                {
+                    break;
+                }
+                if (random.nextInt(TWO_OPT_ONE_IN) != 0)
+                {
+                    tryOrOpt(random, temperature);
+                }
+                else
+                {
+                    tryTwoOpt(random, temperature);
+                }
+                if (distance < bestDistance)
+                {
+                    bestDistance = distance;
+                    System.arraycopy(stops, 0, bestStops, 0, stops.length);
+                }
+            }
+        }
+
+        /**
+         * Proposes moving a random run of stops to a random gap elsewhere in the route.
+         *
+         * @param random The source of randomness.
+         * @param temperature The current annealing temperature.
+         */
+        private void tryOrOpt(final Random random, final double temperature)
+        {
+            final int first = 1 + random.nextInt(lastSlot);
+            final int last = Math.min(lastSlot, first + random.nextInt(LONGEST_MOVED_RUN));
+            // The run is inserted after the stop in slot gap, which must lie outside the run and not already precede it.
+            final int gap = random.nextInt(lastSlot + 1);
+            if (gap >= first - 1 && gap <= last)
+            {
+                return;
+            }
+
+            final int before = stops[first - 1];
+            final int runStart = stops[first];
+            final int runEnd = stops[last];
+            long delta = -leg(before, runStart);
+            if (last < lastSlot)
+            {
+                delta += leg(before, stops[last + 1]) - leg(runEnd, stops[last + 1]);
+            }
+            delta += leg(stops[gap], runStart);
+            if (gap < lastSlot)
+            {
+                delta += leg(runEnd, stops[gap + 1]) - leg(stops[gap], stops[gap + 1]);
+            }
+
+            if (!accept(delta, random, temperature) || !canMoveRun(first, last, gap))
+            {
+                return;
+            }
+
+            final int length = last - first + 1;
+            System.arraycopy(stops, first, movedRun, 0, length);
+            final int target;
+            if (gap < first)
+            {
+                System.arraycopy(stops, gap + 1, stops, gap + 1 + length, first - gap - 1);
+                target = gap + 1;
+            }
+            else
+            {
+                System.arraycopy(stops, last + 1, stops, first, gap - last);
+                target = gap - length + 1;
+            }
+            System.arraycopy(movedRun, 0, stops, target, length);
+            for (int slot = Math.min(first, target); slot <= Math.max(last, gap); slot++)
+            {
+                slotOfStop[stops[slot]] = slot;
+            }
+            distance += delta;
+        }
+
+        /**
+         * Proposes reversing a random section of the route.
+         *
+         * @param random The source of randomness.
+         * @param temperature The current annealing temperature.
+         */
+        private void tryTwoOpt(final Random random, final double temperature)
+        {
+            final int first = 1 + random.nextInt(lastSlot);
+            final int last = 1 + random.nextInt(lastSlot);
+            if (first >= last)
+            {
+                return;
+            }
+
+            long delta = leg(stops[first - 1], stops[last]) - leg(stops[first - 1], stops[first]);
+            if (last < lastSlot)
+            {
+                delta += leg(stops[first], stops[last + 1]) - leg(stops[last], stops[last + 1]);
+            }
+
+            if (!accept(delta, random, temperature) || !canReverse(first, last))
+            {
+                return;
+            }
+
+            for (int low = first, high = last; low < high; low++, high--)
+            {
+                final int stop = stops[low];
+                place(stops[high], low);
+                place(stop, high);
+            }
+            distance += delta;
+        }
+
+        /**
+         * Checks whether a run of stops may move after the given gap without dropping any rider off before picking it up. Only the run's own riders can be affected; their relative order within the run is kept.
+         *
+         * @param first The slot of the run's first stop.
+         * @param last The slot of the run's last stop.
+         * @param gap The slot of the stop the run is to follow.
+         * @return True if the move keeps every pickup ahead of its drop-off.
+         */
+        private boolean canMoveRun(final int first, final int last, final int gap)
+        {
+            for (int slot = first; slot <= last; slot++)
+            {
+                final int stop = stops[slot];
+                final int partnerSlot = slotOfStop[stop ^ 1];
+                if (partnerSlot >= first && partnerSlot <= last)
+                {
+                    continue;
+                }
+                final boolean pickup = (stop & 1) == 0;
+                // Moving earlier can only overtake a pickup; moving later can only overtake a drop-off.
+                if (gap < first ? !pickup && partnerSlot > gap : pickup && partnerSlot <= gap)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks whether a section of the route may be reversed, which is the case unless it holds both stops of a rider.
+         *
+         * @param first The slot of the section's first stop.
+         * @param last The slot of the section's last stop.
+         * @return True if reversing keeps every pickup ahead of its drop-off.
+         */
+        private boolean canReverse(final int first, final int last)
+        {
+            for (int slot = first; slot <= last; slot++)
+            {
+                final int partnerSlot = slotOfStop[stops[slot] ^ 1];
+                if (partnerSlot >= first && partnerSlot <= last)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Decides whether a move is accepted: always if it does not lengthen the route, otherwise with probability <code>exp(-delta / temperature)</code>.
+         *
+         * @param delta The change in distance the move would make.
+         * @param random The source of randomness.
+         * @param temperature The current annealing temperature.
+         * @return True if the move should be applied.
+         */
+        private static boolean accept(final long delta, final Random random, final double temperature)
+        {
+            return delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature);
+        }
+
+        /**
+         * Writes the floors of the shortest route seen, skipping consecutive stops on the same floor.
+         *
+         * @param moveSequence The FloorSequence to write the route into.
+         */
+        private void writeTo(final FloorSequence moveSequence)
+        {
+            moveSequence.clear();
+            int previousFloor = 0;
+            for (final int stop : bestStops)
+            {
+                final int floor = floorOfStop[stop];
+                if (floor != previousFloor)
+                {
+                    moveSequence.add(floor);
+                    previousFloor = floor;
+                }
+            }
+        }
+
+        /**
+         * @param stop The stop.
+         * @param slot The slot to put it in.
+         */
+        private void place(final int stop, final int slot)
+        {
+            stops[slot] = stop;
+            slotOfStop[stop] = slot;
+        }
+
+        /**
+         * @param from A stop.
+         * @param to A stop.
+         * @return The number of floors between them.
+         */
+        private long leg(final int from, final int to)
+        {
+            return Math.abs((long) floorOfStop[to] - floorOfStop[from]);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Implementation of {@linkplain MoveStrategy} following the LOOK (elevator) algorithm. Every {@linkplain MoveCommand} is known up front and treated as a rider waiting at its originating floor, including the first one, which
+ * starts at the elevator's initial floor. The elevator sweeps in one direction, stopping at every floor where a rider wants to get off or a rider wants to travel in the sweep direction, and turns around once no requests
+ * remain ahead of it; a rider waiting to travel the other way only causes a stop if it is the farthest request ahead. As in {@linkplain MoveByRequestsInSameDirection}, the elevator holds any number of riders, so every
+ * rider waiting at a floor boards whenever the elevator stops there. <p />
+ * Pending drop-offs, and pending pickups for each direction, are kept in {@linkplain BitSet BitSets} over the {@linkplain FloorIndex coordinate-compressed} floors of the scenario, so finding the next stop is a word-level scan
+ * and memory depends on the number of distinct floors rather than on how high they are. Riders are grouped by originating floor up front, so the whole sweep is linear in the number of commands after sorting the floors.
+ */
+public final class MoveByLookSweep implements MoveStrategy, PrimitiveMoveStrategy
+{
+    /**
+     * {@inheritDoc}
+     *
+     * @param moveCommands List of MoveCommands to execute (cannot be null, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public ImmutableList<Integer> getMoveSequence(final List<MoveCommand> moveCommands)
+    {
+        return MoveStrategies.getMoveSequence(this, moveCommands);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param scenario The Scenario whose move commands to execute (cannot be null).
+     * @param moveSequence The FloorSequence to write the result into (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
+
+        moveSequence.clear();
+        if (scenario.getMoveCount() == 0)
+        {
+            return;
+        }
+        new Sweep(FloorIndex.of(scenario)).run(moveSequence);
+    }
+
+    /**
+     * The state of the elevator and its riders while a single scenario is swept.
+     */
+    private static final class Sweep
+    {
+        private final FloorIndex floorIndex;
+        private final int[] ridersByFloor;
+        private final int[] firstRiderOfFloor;
+        private final BitSet dropOffs;
+        private final BitSet upPickups;
+        private final BitSet downPickups;
+
+        /**
+         * Groups the riders of the scenario by originating floor and marks the pending pickups.
+         *
+         * @param floorIndex The FloorIndex of the scenario.
+         */
+        private Sweep(final FloorIndex floorIndex)
+        {
+            this.floorIndex = floorIndex;
+            final int floorCount = floorIndex.getFloorCount();
+            final int moveCount = floorIndex.getMoveCount();
+
+            this.firstRiderOfFloor = new int[floorCount + 1];
+            this.ridersByFloor = new int[moveCount];
+            this.dropOffs = new BitSet(floorCount);
+            this.upPickups = new BitSet(floorCount);
+            this.downPickups = new BitSet(floorCount);
+
+            // Counting sort of the riders by originating floor; firstRiderOfFloor[floor] ends up as the start of the floor's riders in ridersByFloor.
+            for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+            {
+                firstRiderOfFloor[floorIndex.getOriginatingIndex(moveIndex) + 1]++;
+            }
+            for (int floor = 0; floor < floorCount; floor++)
+            {
+                firstRiderOfFloor[floor + 1] += firstRiderOfFloor[floor];
+            }
+            final int[] nextRiderOfFloor = firstRiderOfFloor.clone();
+            for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+            {
+                final int originatingIndex = floorIndex.getOriginatingIndex(moveIndex);
+                ridersByFloor[nextRiderOfFloor[originatingIndex]++] = moveIndex;
+                (originatingIndex < floorIndex.getDestinationIndex(moveIndex) ? upPickups : downPickups).set(originatingIndex);
+            }
+        }
+
+        /**
+         * Runs the sweep from the initial floor until every rider has been dropped off.
+         *
+         * @param moveSequence The FloorSequence to append the visited floors to.
+         */
+        private void run(final FloorSequence moveSequence)
+        {
+            int position = floorIndex.getOriginatingIndex(0);
+            boolean up = position < floorIndex.getDestinationIndex(0);
+            boolean reversed = false;
+
+            moveSequence.add(floorIndex.getFloor(position));
+            stopAt(position);
+            while (!dropOffs.isEmpty() || !upPickups.isEmpty() || !downPickups.isEmpty())
+            {
+                final int nextStop = up ? findStopAbove(position) : findStopBelow(position);
+                if (nextStop < 0)
+                {
+                    // Nothing is left ahead and the current floor has been served, so whatever remains must lie the other way.
+                    if (reversed)
+                    {
+                        throw new AssertionError("No stop found in either direction with requests pending.");
+                    }
+                    up = !up;
+                    reversed = true;
+                    continue;
+                }
+                position = nextStop;
+                reversed = false;
+                moveSequence.add(floorIndex.getFloor(position));
+                stopAt(position);
+            }
+        }
+
+        /**
+         * Finds the next stop above the given floor: the nearest drop-off or upward pickup, or failing that the highest downward pickup.
+         *
+         * @param position The current compressed floor.
+         * @return The compressed floor of the next stop, or -1 if no requests remain above.
+         */
+        private int findStopAbove(final int position)
+        {
+            final int nextDropOff = dropOffs.nextSetBit(position + 1);
+            final int nextPickup = upPickups.nextSetBit(position + 1);
+            if (nextDropOff >= 0 || nextPickup >= 0)
+            {
+                return nextDropOff < 0 ? nextPickup : nextPickup < 0 ? nextDropOff : Math.min(nextDropOff, nextPickup);
+            }
+            final int highestPickup = downPickups.length() - 1;
+            return highestPickup > position ? highestPickup : -1;
+        }
+
+        /**
+         * Finds the next stop below the given floor: the nearest drop-off or downward pickup, or failing that the lowest upward pickup.
+         *
+         * @param position The current compressed floor.
+         * @return The compressed floor of the next stop, or -1 if no requests remain below.
+         */
+        private int findStopBelow(final int position)
+        {
+            final int nextStop = Math.max(dropOffs.previousSetBit(position - 1), downPickups.previousSetBit(position - 1));
+            if (nextStop >= 0)
+            {
+                return nextStop;
+            }
+            final int lowestPickup = upPickups.nextSetBit(0);
+            return lowestPickup >= 0 && lowestPickup < position ? lowestPickup : -1;
+        }
+
+        /**
+         * Drops off every rider bound for the given floor and boards every rider waiting there.
+         *
+         * @param position The compressed floor the elevator stopped at.
+         */
+        private void stopAt(final int position)
+        {
+            dropOffs.clear(position);
+            if (!upPickups.get(position) && !downPickups.get(position))
+            {
+                // Everyone waiting here boarded on an earlier stop.
+                return;
+            }
+
+            for (int riderIndex = firstRiderOfFloor[position]; riderIndex < firstRiderOfFloor[position + 1]; riderIndex++)
+            {
+                dropOffs.set(floorIndex.getDestinationIndex(ridersByFloor[riderIndex]));
+            }
+            upPickups.clear(position);
+            downPickups.clear(position);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+
+import java.util.List;
+
+/**
+ * Implementation of {@linkplain MoveStrategy} following shortest-seek-time-first (SSTF): the elevator always moves to the nearest floor where a rider is waiting or a rider on board wants to get off. As in
+ * {@linkplain MoveByLookSweep}, every {@linkplain MoveCommand} is known up front and treated as a rider waiting at its originating floor, the elevator starts at the first command's originating floor and holds any number of
+ * riders, so every rider waiting at a floor boards whenever the elevator stops there. When the nearest floors above and below are equally far, the elevator keeps moving in its current direction. <p />
+ * Floors with pending requests are kept in a {@linkplain FloorSet} over the {@linkplain FloorIndex coordinate-compressed} floors, so each nearest-floor lookup is logarithmic in the number of distinct floors and the whole
+ * run is <code>O(n log n)</code> in the number of commands, even for scenarios with tens of thousands of them.
+ */
+public final class MoveByNearestRequest implements MoveStrategy, PrimitiveMoveStrategy
+{
+    /**
+     * {@inheritDoc}
+     *
+     * @param moveCommands List of MoveCommands to execute (cannot be null, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public ImmutableList<Integer> getMoveSequence(final List<MoveCommand> moveCommands)
+    {
+        return MoveStrategies.getMoveSequence(this, moveCommands);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param scenario The Scenario whose move commands to execute (cannot be null).
+     * @param moveSequence The FloorSequence to write the result into (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
+
+        moveSequence.clear();
+        if (scenario.getMoveCount() == 0)
+        {
+            return;
+        }
+
+        final FloorIndex floorIndex = FloorIndex.of(scenario);
+        final int floorCount = floorIndex.getFloorCount();
+        final int moveCount = floorIndex.getMoveCount();
+
+        // Counting sort of the riders by originating floor; firstRiderOfFloor[floor] ends up as the start of the floor's riders in ridersByFloor.
+        final int[] firstRiderOfFloor = new int[floorCount + 1];
+        final int[] ridersByFloor = new int[moveCount];
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            firstRiderOfFloor[floorIndex.getOriginatingIndex(moveIndex) + 1]++;
+        }
+        for (int floor = 0; floor < floorCount; floor++)
+        {
+            firstRiderOfFloor[floor + 1] += firstRiderOfFloor[floor];
+        }
+        final int[] nextRiderOfFloor = firstRiderOfFloor.clone();
+        final FloorSet pendingFloors = new FloorSet(floorCount);
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            final int originatingIndex = floorIndex.getOriginatingIndex(moveIndex);
+            ridersByFloor[nextRiderOfFloor[originatingIndex]++] = moveIndex;
+            pendingFloors.add(originatingIndex);
+        }
+
+        int position = floorIndex.getOriginatingIndex(0);
+        boolean up = position < floorIndex.getDestinationIndex(0);
+        final boolean[] served = new boolean[floorCount];
+        while (true)
+        {
+            moveSequence.add(floorIndex.getFloor(position));
+            // Everyone bound for this floor gets off. Whoever was waiting here boards on the first stop; later stops here are only for drop-offs.
+            pendingFloors.remove(position);
+            if (!served[position])
+            {
+                served[position] = true;
+                for (int riderIndex = firstRiderOfFloor[position]; riderIndex < firstRiderOfFloor[position + 1]; riderIndex++)
+                {
+                    pendingFloors.add(floorIndex.getDestinationIndex(ridersByFloor[riderIndex]));
+                }
+            }
+            if (pendingFloors.isEmpty())
+            {
+                return;
+            }
+
+            final int above = pendingFloors.higher(position);
+            final int below = pendingFloors.lower(position);
+            if (above < 0 || below < 0)
+            {
+                up = above >= 0;
+            }
+            else
+            {
+                final long distanceAbove = (long) floorIndex.getFloor(above) - floorIndex.getFloor(position);
+                final long distanceBelow = (long) floorIndex.getFloor(position) - floorIndex.getFloor(below);
+                up = distanceAbove < distanceBelow || (distanceAbove == distanceBelow && up);
+            }
+            position = up ? above : below;
+        }
+    }
+}
@@ -0,0 +1,637 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.metrics.ScenarioMetrics;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of {@linkplain MoveStrategy} that finds a route travelling the fewest floors possible. As in {@linkplain MoveByLookSweep}, every {@linkplain MoveCommand} is known up front and treated as a rider waiting at
+ * its originating floor, the elevator starts at the first command's originating floor and holds any number of riders, and a rider may only be dropped off once it has been picked up. <p />
+ * Since the elevator moves along a line, every floor it passes is served on the way, so any route can be reduced to a sequence of moves to the nearest floor above or below where a rider boards or alights. The search
+ * therefore only ever has two choices per step. A state is the range of floors visited so far (which determines the riders still waiting), the current floor and the set of riders on board:
+ * <ul>
+ * <li>Scenarios with up to {@value #MEMOIZED_RIDER_LIMIT} riders are solved by dynamic programming over these states, memoizing the remaining distance of each. Every state computed counts against the node budget
+ * below; a scenario whose states outgrow it is handed to the branch and bound instead.</li>
+ * <li>Larger scenarios, up to the configured rider ceiling, are solved by depth-first branch and bound: the {@linkplain #fallbackStrategy fallback strategy}'s route is the initial bound, and a branch is cut as soon as
+ * its distance plus an admissible lower bound (the span of floors still to be visited, and the trip each waiting rider still needs) reaches the best route found, or it reaches a state already seen with less distance
+ * travelled. To keep batch runs predictable, the search gives up after a budget of nodes (by default {@value #DEFAULT_SEARCH_NODE_BUDGET}) and keeps the best route found so far, which is never worse than the
+ * fallback's but is not proven to be the shortest. Such scenarios are counted in the {@linkplain ScenarioMetrics}.</li>
+ * <li>Scenarios above the ceiling are handed to the fallback strategy.</li>
+ * </ul>
+ * Instances are immutable and thread-safe.
+ */
+public final class MoveByOptimalRoute implements MoveStrategy, PrimitiveMoveStrategy
+{
+    /**
+     * Name of the int binding that supplies the rider ceiling when instances are created by Guice.
+     */
+    public static final String RIDER_CEILING = "optimalRoute.riderCeiling";
+
+    /**
+     * The default rider ceiling.
+     */
+    public static final int DEFAULT_RIDER_CEILING = 24;
+
+    /**
+     * Name of the long binding that supplies the search node budget when instances are created by Guice.
+     */
+    public static final String SEARCH_NODE_BUDGET = "optimalRoute.searchNodeBudget";
+
+    /**
+     * The default number of nodes each search explores per scenario before settling for the best route found.
+     */
+    public static final long DEFAULT_SEARCH_NODE_BUDGET = 1L << 21;
+
+    private static final int MAXIMUM_RIDER_CEILING = Long.SIZE;
+    private static final int MEMOIZED_RIDER_LIMIT = 16;
+    private static final int MAXIMUM_STATE_ENTRIES = 1 << 20;
+
+    private final int riderCeiling;
+    private final long searchNodeBudget;
+    private final PrimitiveMoveStrategy fallbackStrategy;
+    private final ScenarioMetrics metrics;
+
+    /**
+     * Constructs a new {@linkplain MoveByOptimalRoute} with the {@linkplain #DEFAULT_RIDER_CEILING default rider ceiling}, falling back to {@linkplain MoveByLookSweep} above it.
+     */
+    public MoveByOptimalRoute()
+    {
+        this(DEFAULT_RIDER_CEILING);
+    }
+
+    /**
+     * Constructs a new {@linkplain MoveByOptimalRoute} falling back to {@linkplain MoveByLookSweep} above the given rider ceiling.
+     *
+     * @param riderCeiling The largest number of riders (move commands) to search for an optimal route for (must be between 1 and 64).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public MoveByOptimalRoute(final int riderCeiling)
+    {
+        this(riderCeiling, DEFAULT_SEARCH_NODE_BUDGET, ScenarioMetrics.disabled());
+    }
+
+    /**
+     * Constructs a new {@linkplain MoveByOptimalRoute} falling back to {@linkplain MoveByLookSweep} above the given rider ceiling.
+     *
+     * @param riderCeiling The largest number of riders (move commands) to search for an optimal route for (must be between 1 and 64).
+     * @param searchNodeBudget The number of nodes each search explores per scenario before settling for the best route found (must be positive).
+     * @param metrics The ScenarioMetrics to count scenarios whose search exhausted the budget in (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public MoveByOptimalRoute(@Named(RIDER_CEILING) final int riderCeiling, @Named(SEARCH_NODE_BUDGET) final long searchNodeBudget, final ScenarioMetrics metrics)
+    {
+        this(riderCeiling, searchNodeBudget, new MoveByLookSweep(), metrics);
+    }
+
+    /**
+     * Constructs a new {@linkplain MoveByOptimalRoute}.
+     *
+     * @param riderCeiling The largest number of riders (move commands) to search for an optimal route for (must be between 1 and 64).
+     * @param fallbackStrategy The strategy to use above the rider ceiling, and whose route bounds the search below it (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public MoveByOptimalRoute(final int riderCeiling, final PrimitiveMoveStrategy fallbackStrategy)
+    {
+        this(riderCeiling, DEFAULT_SEARCH_NODE_BUDGET, fallbackStrategy, ScenarioMetrics.disabled());
+    }
+
+    /**
+     * Constructs a new {@linkplain MoveByOptimalRoute}.
+     *
+     * @param riderCeiling The largest number of riders (move commands) to search for an optimal route for (must be between 1 and 64).
+     * @param searchNodeBudget The number of nodes each search explores per scenario before settling for the best route found (must be positive).
+     * @param fallbackStrategy The strategy to use above the rider ceiling, and whose route bounds the search below it (cannot be null).
+     * @param metrics The ScenarioMetrics to count scenarios whose search exhausted the budget in (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public MoveByOptimalRoute(final int riderCeiling, final long searchNodeBudget, final PrimitiveMoveStrategy fallbackStrategy, final ScenarioMetrics metrics)
+    {
+        Preconditions.checkArgument(riderCeiling > 0 && riderCeiling <= MAXIMUM_RIDER_CEILING, "riderCeiling: not between 1 and " + MAXIMUM_RIDER_CEILING);
+        Preconditions.checkArgument(searchNodeBudget > 0, "searchNodeBudget: not positive");
+        Preconditions.checkArgument(fallbackStrategy != null, "fallbackStrategy: null");
+        Preconditions.checkArgument(metrics != null, "metrics: null");
+
+        this.riderCeiling = riderCeiling;
+        this.searchNodeBudget = searchNodeBudget;
+        this.fallbackStrategy = fallbackStrategy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param moveCommands List of MoveCommands to execute (cannot be null, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public ImmutableList<Integer> getMoveSequence(final List<MoveCommand> moveCommands)
+    {
+        return MoveStrategies.getMoveSequence(this, moveCommands);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param scenario The Scenario whose move commands to execute (cannot be null).
+     * @param moveSequence The FloorSequence to write the result into (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
+
+        moveSequence.clear();
+        final int riders = scenario.getMoveCount();
+        if (riders == 0)
+        {
+            return;
+        }
+        if (riders > riderCeiling)
+        {
+            fallbackStrategy.getMoveSequence(scenario, moveSequence);
+            return;
+        }
+
+        final FloorIndex floorIndex = FloorIndex.of(scenario);
+        if (riders <= MEMOIZED_RIDER_LIMIT && new RouteSearch(floorIndex, searchNodeBudget).solveByDynamicProgramming(moveSequence))
+        {
+            return;
+        }
+        fallbackStrategy.getMoveSequence(scenario, moveSequence);
+        // Past the budget the route is only the best found, not proven to be the shortest.
+        if (!new RouteSearch(floorIndex, searchNodeBudget).solveByBranchAndBound(moveSequence) && metrics.isEnabled())
+        {
+            metrics.recordInexactRoute();
+        }
+    }
+
+    /**
+     * The riders of a single scenario, and the search for the shortest route that serves them all. Floors are coordinate-compressed; riders are bits of a long.
+     */
+    private static final class RouteSearch
+    {
+        private static final long UNREACHABLE = Long.MAX_VALUE;
+
+        private final FloorIndex floorIndex;
+        private final long searchNodeBudget;
+        private final int floorCount;
+        private final long allRiders;
+        private final long[] ridersOriginatingAt;
+        private final long[] ridersDestinedFor;
+        private final StateTable stateTable = new StateTable();
+
+        private final int[] path;
+        private int[] bestPath;
+        private int bestPathLength;
+        private long bestDistance;
+        private long searchNodes;
+
+        /**
+         * @param floorIndex The FloorIndex of the scenario.
+         * @param searchNodeBudget The number of nodes the search may explore.
+         */
+        private RouteSearch(final FloorIndex floorIndex, final long searchNodeBudget)
+        {
+            this.floorIndex = floorIndex;
+            this.searchNodeBudget = searchNodeBudget;
+            this.floorCount = floorIndex.getFloorCount();
+            final int riders = floorIndex.getMoveCount();
+            this.allRiders = riders == Long.SIZE ? -1L : (1L << riders) - 1;
+            this.ridersOriginatingAt = new long[floorCount];
+            this.ridersDestinedFor = new long[floorCount];
+            for (int rider = 0; rider < riders; rider++)
+            {
+                ridersOriginatingAt[floorIndex.getOriginatingIndex(rider)] |= 1L << rider;
+                ridersDestinedFor[floorIndex.getDestinationIndex(rider)] |= 1L << rider;
+            }
+            // Every move reaches a floor where at least one rider boards or alights, so a route has at most one move per pickup and drop-off.
+            this.path = new int[riders * 2 + 1];
+        }
+
+        /**
+         * Solves the scenario by memoized dynamic programming over (visited range, position, riders on board), then follows the cheapest choices from the start to recover the route.
+         *
+         * @param moveSequence The FloorSequence to write the route into.
+         * @return False if the states computed exhausted the node budget, in which case the FloorSequence is left empty.
+         */
+        private boolean solveByDynamicProgramming(final FloorSequence moveSequence)
+        {
+            int position = floorIndex.getOriginatingIndex(0);
+            int lowest = position;
+            int highest = position;
+            long onboard = ridersOriginatingAt[position];
+
+            long remaining = remainingDistance(position, lowest, highest, onboard);
+            if (searchNodes > searchNodeBudget)
+            {
+                return false;
+            }
+            moveSequence.add(floorIndex.getFloor(position));
+            while (remaining > 0)
+            {
+                boolean moved = false;
+                for (int direction = -1; direction <= 1 && !moved; direction += 2)
+                {
+                    final int next = nearestUsefulFloor(position, lowest, highest, onboard, direction);
+                    if (next < 0)
+                    {
+                        continue;
+                    }
+                    final int nextLowest = Math.min(lowest, next);
+                    final int nextHighest = Math.max(highest, next);
+                    final long nextOnboard = arrive(next, lowest, highest, onboard);
+                    final long distance = distance(position, next);
+                    final long nextRemaining = remainingDistance(next, nextLowest, nextHighest, nextOnboard);
+                    // States a full state table could not keep are computed again, which may still exhaust the budget.
+                    if (searchNodes > searchNodeBudget)
+                    {
+                        moveSequence.clear();
+                        return false;
+                    }
+                    if (distance + nextRemaining == remaining)
+                    {
+                        position = next;
+                        lowest = nextLowest;
+                        highest = nextHighest;
+                        onboard = nextOnboard;
+                        remaining = nextRemaining;
+                        moveSequence.add(floorIndex.getFloor(position));
+                        moved = true;
+                    }
+                }
+                if (!moved)
+                {
+                    throw new AssertionError("No move achieves the memoized remaining distance " + remaining + ".");
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Computes the shortest distance that serves every remaining rider from the given state, memoizing the result.
+         *
+         * @param position The current compressed floor.
+         * @param lowest The lowest compressed floor visited so far.
+         * @param highest The highest compressed floor visited so far.
+         * @param onboard The riders on board.
+         * @return The shortest remaining distance, or a meaningless value once the node budget is exhausted.
+         */
+        private long remainingDistance(final int position, final int lowest, final int highest, final long onboard)
+        {
+            if (onboard == 0 && waiting(lowest, highest) == 0)
+            {
+                return 0;
+            }
+            final long stateKey = stateKey(position, lowest, highest);
+            final long memoized = stateTable.get(onboard, stateKey);
+            if (memoized >= 0)
+            {
+                return memoized;
+            }
+            if (++searchNodes > searchNodeBudget)
+            {
+                return 0;
+            }
+
+            long best = UNREACHABLE;
+            for (int direction = -1; direction <= 1; direction += 2)
+            {
+                final int next = nearestUsefulFloor(position, lowest, highest, onboard, direction);
+                if (next >= 0)
+                {
+                    final long remaining = remainingDistance(next, Math.min(lowest, next), Math.max(highest, next), arrive(next, lowest, highest, onboard));
+                    best = Math.min(best, distance(position, next) + remaining);
+                }
+            }
+            stateTable.put(onboard, stateKey, best);
+            return best;
+        }
+
+        /**
+         * Solves the scenario by depth-first branch and bound, starting from the route already in the given FloorSequence, and replaces it if a shorter route is found.
+         *
+         * @param moveSequence The FloorSequence holding the fallback strategy's route, to be replaced by the best route found.
+         * @return False if the search exhausted its node budget, in which case the route is the best found but not proven to be the shortest.
+         */
+        private boolean solveByBranchAndBound(final FloorSequence moveSequence)
+        {
+            bestDistance = moveSequence.getFloorsTravelled();
+            final int start = floorIndex.getOriginatingIndex(0);
+            path[0] = start;
+            search(start, start, start, ridersOriginatingAt[start], 0, 1);
+
+            if (bestPath != null)
+            {
+                moveSequence.clear();
+                for (int index = 0; index < bestPathLength; index++)
+                {
+                    moveSequence.add(floorIndex.getFloor(bestPath[index]));
+                }
+            }
+            return searchNodes <= searchNodeBudget;
+        }
+
+        /**
+         * Explores every route continuing from the given state that could still beat the best route found so far.
+         *
+         * @param position The current compressed floor.
+         * @param lowest The lowest compressed floor visited so far.
+         * @param highest The highest compressed floor visited so far.
+         * @param onboard The riders on board.
+         * @param travelled The distance travelled so far.
+         * @param pathLength The number of floors on the path so far.
+         */
+        private void search(final int position, final int lowest, final int highest, final long onboard, final long travelled, final int pathLength)
+        {
+            final long waiting = waiting(lowest, highest);
+            if (onboard == 0 && waiting == 0)
+            {
+                if (travelled < bestDistance)
+                {
+                    bestDistance = travelled;
+                    bestPath = Arrays.copyOf(path, pathLength);
+                    bestPathLength = pathLength;
+                }
+                return;
+            }
+            if (++searchNodes > searchNodeBudget || travelled + lowerBound(position, onboard, waiting) >= bestDistance)
+            {
+                return;
+            }
+            if (!stateTable.improve(onboard, stateKey(position, lowest, highest), travelled))
+            {
+                return;
+            }
+
+            final int below = nearestUsefulFloor(position, lowest, highest, onboard, -1);
+            final int above = nearestUsefulFloor(position, lowest, highest, onboard, 1);
+            // Try the nearer floor first, since it tends to find short routes (and so tighter bounds) sooner.
+            final boolean belowFirst = below >= 0 && (above < 0 || distance(position, below) <= distance(position, above));
+            for (int choice = 0; choice < 2; choice++)
+            {
+                final int next = (choice == 0) == belowFirst ? below : above;
+                if (next >= 0)
+                {
+                    path[pathLength] = next;
+                    search(next, Math.min(lowest, next), Math.max(highest, next), arrive(next, lowest, highest, onboard), travelled + distance(position, next), pathLength + 1);
+                }
+            }
+        }
+
+        /**
+         * Computes an admissible lower bound on the remaining distance: the larger of the distance needed to sweep every floor that still has to be visited, and the longest trip a single waiting rider still needs (to its
+         * originating floor and then on to its destination).
+         *
+         * @param position The current compressed floor.
+         * @param onboard The riders on board.
+         * @param waiting The riders still waiting.
+         * @return A distance no greater than the shortest remaining distance.
+         */
+        private long lowerBound(final int position, final long onboard, final long waiting)
+        {
+            int lowestNeeded = -1;
+            int highestNeeded = -1;
+            for (int floor = 0; floor < floorCount; floor++)
+            {
+                if ((ridersDestinedFor[floor] & (onboard | waiting)) != 0 || (ridersOriginatingAt[floor] & waiting) != 0)
+                {
+                    if (lowestNeeded < 0)
+                    {
+                        lowestNeeded = floor;
+                    }
+                    highestNeeded = floor;
+                }
+            }
+
+            final long lowestFloor = floorIndex.getFloor(lowestNeeded);
+            final long highestFloor = floorIndex.getFloor(highestNeeded);
+            final long currentFloor = floorIndex.getFloor(position);
+            long bound = currentFloor <= lowestFloor ? highestFloor - currentFloor :
+                    currentFloor >= highestFloor ? currentFloor - lowestFloor :
+                            highestFloor - lowestFloor + Math.min(currentFloor - lowestFloor, highestFloor - currentFloor);
+
+            for (long remaining = waiting; remaining != 0; remaining &= remaining - 1)
+            {
+                final int rider = Long.numberOfTrailingZeros(remaining);
+                final int originatingIndex = floorIndex.getOriginatingIndex(rider);
+                bound = Math.max(bound, distance(position, originatingIndex) + distance(originatingIndex, floorIndex.getDestinationIndex(rider)));
+            }
+            return bound;
+        }
+
+        /**
+         * Finds the nearest floor in the given direction where a waiting rider boards or a rider on board alights.
+         *
+         * @param position The current compressed floor.
+         * @param lowest The lowest compressed floor visited so far.
+         * @param highest The highest compressed floor visited so far.
+         * @param onboard The riders on board.
+         * @param direction 1 to search upwards, -1 to search downwards.
+         * @return The compressed floor found, or -1 if there is none.
+         */
+        private int nearestUsefulFloor(final int position, final int lowest, final int highest, final long onboard, final int direction)
+        {
+            final long waiting = waiting(lowest, highest);
+            for (int floor = position + direction; floor >= 0 && floor < floorCount; floor += direction)
+            {
+                if ((ridersDestinedFor[floor] & onboard) != 0 || (ridersOriginatingAt[floor] & waiting) != 0)
+                {
+                    return floor;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Computes the riders on board after the elevator arrives at a floor: riders bound for it alight, and riders waiting there board.
+         *
+         * @param floor The compressed floor arrived at.
+         * @param lowest The lowest compressed floor visited before arriving.
+         * @param highest The highest compressed floor visited before arriving.
+         * @param onboard The riders on board before arriving.
+         * @return The riders on board after arriving.
+         */
+        private long arrive(final int floor, final int lowest, final int highest, final long onboard)
+        {
+            return (onboard & ~ridersDestinedFor[floor]) | (ridersOriginatingAt[floor] & waiting(lowest, highest));
+        }
+
+        /**
+         * Every floor within the visited range has been passed, and anyone waiting there has boarded, so the riders still waiting are exactly those originating outside it.
+         *
+         * @param lowest The lowest compressed floor visited so far.
+         * @param highest The highest compressed floor visited so far.
+         * @return The riders still waiting.
+         */
+        private long waiting(final int lowest, final int highest)
+        {
+            long boarded = 0;
+            for (int floor = lowest; floor <= highest; floor++)
+            {
+                boarded |= ridersOriginatingAt[floor];
+            }
+            return allRiders & ~boarded;
+        }
+
+        /**
+         * @param from A compressed floor.
+         * @param to A compressed floor.
+         * @return The number of floors between them.
+         */
+        private long distance(final int from, final int to)
+        {
+            return Math.abs((long) floorIndex.getFloor(to) - floorIndex.getFloor(from));
+        }
+
+        /**
+         * @param position The current compressed floor.
+         * @param lowest The lowest compressed floor visited so far.
+         * @param highest The highest compressed floor visited so far.
+         * @return The part of a state's key other than the riders on board. There are at most two compressed floors per rider, so each fits into 8 bits.
+         */
+        private static long stateKey(final int position, final int lowest, final int highest)
+        {
+            return ((long) position << 16) | ((long) lowest << 8) | highest;
+        }
+    }
+
+    /**
+     * Open-addressing hash table from search states, keyed by the riders on board plus the packed floors, to a distance. It is used both to memoize remaining distances and to record the shortest distance at which the
+     * branch and bound has reached a state. Entries are never removed, and once the table reaches {@value #MAXIMUM_STATE_ENTRIES} entries no new states are added.
+     */
+    private static final class StateTable
+    {
+        private static final int INITIAL_CAPACITY = 1 << 8;
+
+        private long[] onboardKeys = new long[INITIAL_CAPACITY];
+        private long[] floorKeys = new long[INITIAL_CAPACITY];
+        private long[] values = new long[INITIAL_CAPACITY];
+        private boolean[] used = new boolean[INITIAL_CAPACITY];
+        private int size;
+
+        /**
+         * @param onboard The riders on board.
+         * @param floorKey The packed floors of the state.
+         * @return The recorded distance, or -1 if the state has not been recorded.
+         */
+        private long get(final long onboard, final long floorKey)
+        {
+            final int slot = find(onboard, floorKey);
+            return used[slot] ? values[slot] : -1;
+        }
+
+        /**
+         * Records the distance of a state, replacing any previous distance.
+         *
+         * @param onboard The riders on board.
+         * @param floorKey The packed floors of the state.
+         * @param value The distance to record.
+         */
+        private void put(final long onboard, final long floorKey, final long value)
+        {
+            final int slot = find(onboard, floorKey);
+            if (used[slot])
+            {
+                values[slot] = value;
+            }
+            else if (size < MAXIMUM_STATE_ENTRIES)
+            {
+                insert(slot, onboard, floorKey, value);
+            }
+        }
+
+        /**
+         * Records that a state has been reached with the given distance, unless it has already been reached with no more distance.
+         *
+         * @param onboard The riders on board.
+         * @param floorKey The packed floors of the state.
+         * @param value The distance travelled to reach the state.
+         * @return False if the state had already been reached with a distance no greater than value.
+         */
+        private boolean improve(final long onboard, final long floorKey, final long value)
+        {
+            final int slot = find(onboard, floorKey);
+            if (used[slot] && values[slot] <= value)
+            {
+                return false;
+            }
+            put(onboard, floorKey, value);
+            return true;
+        }
+
+        /**
+         * Stores an entry in a free slot, growing the table if it becomes more than half full.
+         *
+         * @param slot The free slot for the key.
+         * @param onboard The riders on board.
+         * @param floorKey The packed floors of the state.
+         * @param value The distance to record.
+         */
+        private void insert(final int slot, final long onboard, final long floorKey, final long value)
+        {
+            used[slot] = true;
+            onboardKeys[slot] = onboard;
+            floorKeys[slot] = floorKey;
+            values[slot] = value;
+            if (++size * 2 > used.length)
+            {
+                grow();
+            }
+        }
+
+        /**
+         * @param onboard The riders on board.
+         * @param floorKey The packed floors of the state.
+         * @return The slot holding the key, or the free slot where it belongs.
+         */
+        private int find(final long onboard, final long floorKey)
+        {
+            final int mask = used.length - 1;
+            long hash = onboard * 0x9E3779B97F4A7C15L + floorKey;
+            hash ^= hash >>> 29;
+            int slot = (int) (hash * 0xBF58476D1CE4E5B9L >>> 40) & mask;
+            while (used[slot] && (onboardKeys[slot] != onboard || floorKeys[slot] != floorKey))
+            {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Doubles the capacity of the table, re-inserting every entry.
+         */
+        private void grow()
+        {
+            final long[] oldOnboardKeys = onboardKeys;
+            final long[] oldFloorKeys = floorKeys;
+            final long[] oldValues = values;
+            final boolean[] oldUsed = used;
+
+            onboardKeys = new long[oldUsed.length * 2];
+            floorKeys = new long[oldUsed.length * 2];
+            values = new long[oldUsed.length * 2];
+            used = new boolean[oldUsed.length * 2];
+            for (int slot = 0; slot < oldUsed.length; slot++)
+            {
+                if (oldUsed[slot])
+                {
+                    final int newSlot = find(oldOnboardKeys[slot], oldFloorKeys[slot]);
+                    used[newSlot] = true;
+                    onboardKeys[newSlot] = oldOnboardKeys[slot];
+                    floorKeys[newSlot] = oldFloorKeys[slot];
+                    values[newSlot] = oldValues[slot];
+                }
+            }
+        }
+    }
+}
@@ -2,8 +2,8 @@ package elevator.sim.core.strategy;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSortedSet;
 import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
 
 import java.util.List;
 
@@ -11,7 +11,7 @@ import java.util.List;
  * Implementation of {@linkplain MoveStrategy} that attempts to optimize floor visitation order by allowing an unlimited number of occupants to ride in the same direction simultaneously. If a subsequent {@linkplain MoveCommand}
  * is travelling in the same {@linkplain MoveDirection}, the command will be incorporated into the current move sequence.
  */
-public final class MoveByRequestsInSameDirection implements MoveStrategy
+public final class MoveByRequestsInSameDirection implements MoveStrategy, PrimitiveMoveStrategy
 {
     /**
      * {@inheritDoc}
@@ -22,46 +22,60 @@ public final class MoveByRequestsInSameDirection implements MoveStrategy
     @Override
     public ImmutableList<Integer> getMoveSequence(final List<MoveCommand> moveCommands)
     {
-        Preconditions.checkArgument(moveCommands != null, "moveCommands: null");
-        if (moveCommands.isEmpty())
+        return MoveStrategies.getMoveSequence(this, moveCommands);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param scenario The Scenario whose move commands to execute (cannot be null).
+     * @param moveSequence The FloorSequence to write the result into (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @implNote Each run of moves in the same direction is appended to the sequence as it arrives, then sorted and de-duplicated in place once the direction changes; this is equivalent to collecting the run into a
+     * sorted set, without the boxing.
+     */
+    @Override
+    public void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
+
+        moveSequence.clear();
+        final int moveCount = scenario.getMoveCount();
+        if (moveCount == 0)
         {
-            return ImmutableList.of();
+            return;
         }
 
-        MoveDirection previousDirection = null;
         MoveDirection currentDirection = null;
         int pivotFloor = 0;
+        int runStart = 0;
 
-        final ImmutableList.Builder cumulativeMoveSequence = ImmutableList.builder();
-        ImmutableSortedSet.Builder movesSequencedByCurrentDirection = null;
-
-        for (final MoveCommand moveCommand : moveCommands)
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
         {
-            final int originatingFloor = moveCommand.getOriginatingFloor();
-            final int destinationFloor = moveCommand.getDestinationFloor();
-            assert originatingFloor != destinationFloor : "moveCommand.getOriginatingFloor() == moveCommand.getDestinationFloor()";
-
-            previousDirection = currentDirection;
-            currentDirection = originatingFloor < destinationFloor ? MoveDirection.UP : MoveDirection.DOWN;
+            final int originatingFloor = scenario.getOriginatingFloor(moveIndex);
+            final int destinationFloor = scenario.getDestinationFloor(moveIndex);
+            assert originatingFloor != destinationFloor : "scenario.getOriginatingFloor(moveIndex) == scenario.getDestinationFloor(moveIndex)";
 
-            if (!currentDirection.equals(previousDirection))
+            final MoveDirection direction = originatingFloor < destinationFloor ? MoveDirection.UP : MoveDirection.DOWN;
+            if (direction != currentDirection)
             {
-                if (movesSequencedByCurrentDirection != null)
+                if (currentDirection != null)
                 {
-                    final ImmutableSortedSet<Integer> pendingMoveSequence = movesSequencedByCurrentDirection.build();
-                    pivotFloor = pendingMoveSequence.last();
-                    cumulativeMoveSequence.addAll(pendingMoveSequence);
+                    moveSequence.sortDistinctFrom(runStart, MoveDirection.DOWN.equals(currentDirection));
+                    pivotFloor = moveSequence.get(moveSequence.size() - 1);
                 }
-                movesSequencedByCurrentDirection = MoveDirection.UP.equals(currentDirection) ? ImmutableSortedSet.naturalOrder() : ImmutableSortedSet.reverseOrder();
+                runStart = moveSequence.size();
+                currentDirection = direction;
             }
 
             if (pivotFloor != originatingFloor)
             {
-                movesSequencedByCurrentDirection.add(originatingFloor);
+                moveSequence.add(originatingFloor);
             }
-            movesSequencedByCurrentDirection.add(destinationFloor);
+            moveSequence.add(destinationFloor);
         }
 
-        return cumulativeMoveSequence.addAll(movesSequencedByCurrentDirection.build()).build();
+        moveSequence.sortDistinctFrom(runStart, MoveDirection.DOWN.equals(currentDirection));
     }
 }
@@ -3,13 +3,14 @@ package elevator.sim.core.strategy;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
 
 import java.util.List;
 
 /**
  * Simple {@linkplain MoveStrategy} implementation that does not attempt to optimize floor sequence, but simply processes {@linkplain MoveCommand MoveCommands} in a linear fashion.
  */
-public final class MoveBySingleRequest implements MoveStrategy
+public final class MoveBySingleRequest implements MoveStrategy, PrimitiveMoveStrategy
 {
     /**
      * {@inheritDoc}
@@ -20,26 +21,34 @@ public final class MoveBySingleRequest implements MoveStrategy
     @Override
     public ImmutableList<Integer> getMoveSequence(final List<MoveCommand> moveCommands)
     {
-        Preconditions.checkArgument(moveCommands != null, "moveCommands: null");
-        if (moveCommands.isEmpty())
-        {
-            return ImmutableList.of();
-        }
+        return MoveStrategies.getMoveSequence(this, moveCommands);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @param scenario The Scenario whose move commands to execute (cannot be null).
+     * @param moveSequence The FloorSequence to write the result into (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
 
-        final ImmutableList.Builder<Integer> moveSequenceBuilder = ImmutableList.builder();
-        Integer previousDestinationFloor = null;
-        for (final MoveCommand moveCommand : moveCommands)
+        moveSequence.clear();
+        final int moveCount = scenario.getMoveCount();
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
         {
-            final Integer originatingFloor = moveCommand.getOriginatingFloor();
-            final Integer destinationFloor = moveCommand.getDestinationFloor();
+            final int originatingFloor = scenario.getOriginatingFloor(moveIndex);
+            final int destinationFloor = scenario.getDestinationFloor(moveIndex);
 
-            if (!originatingFloor.equals(previousDestinationFloor))
+            if (moveIndex == 0 || originatingFloor != scenario.getDestinationFloor(moveIndex - 1))
             {
-                moveSequenceBuilder.add(originatingFloor);
+                moveSequence.add(originatingFloor);
             }
-            moveSequenceBuilder.add(destinationFloor);
-            previousDestinationFloor = destinationFloor;
+            moveSequence.add(destinationFloor);
         }
-        return moveSequenceBuilder.build();
     }
 }
@@ -0,0 +1,88 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+
+import java.util.List;
+
+/**
+ * Contains static utility for converting between {@linkplain MoveStrategy} and {@linkplain PrimitiveMoveStrategy}.
+ */
+public final class MoveStrategies
+{
+    /**
+     * Gets a {@linkplain PrimitiveMoveStrategy} view of the given {@linkplain MoveStrategy}.
+     *
+     * @param moveStrategy The strategy to adapt (cannot be null).
+     * @return The strategy itself if it already implements PrimitiveMoveStrategy, otherwise an adapter that boxes the Scenario's move commands and unboxes the resulting floors.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static PrimitiveMoveStrategy asPrimitive(final MoveStrategy moveStrategy)
+    {
+        Preconditions.checkArgument(moveStrategy != null, "moveStrategy: null");
+
+        if (moveStrategy instanceof PrimitiveMoveStrategy)
+        {
+            return (PrimitiveMoveStrategy) moveStrategy;
+        }
+        return (scenario, moveSequence) ->
+        {
+            Preconditions.checkArgument(scenario != null, "scenario: null");
+            Preconditions.checkArgument(moveSequence != null, "moveSequence: null");
+
+            moveSequence.clear();
+            for (final Integer floor : moveStrategy.getMoveSequence(scenario.getMoveCommandView()))
+            {
+                moveSequence.add(floor);
+            }
+        };
+    }
+
+    /**
+     * Gets a {@linkplain MoveStrategy} view of the given {@linkplain PrimitiveMoveStrategy}.
+     *
+     * @param primitiveMoveStrategy The strategy to adapt (cannot be null).
+     * @return The strategy itself if it already implements MoveStrategy, otherwise an adapter that packs the move commands into a Scenario and boxes the resulting floors.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static MoveStrategy asMoveStrategy(final PrimitiveMoveStrategy primitiveMoveStrategy)
+    {
+        Preconditions.checkArgument(primitiveMoveStrategy != null, "primitiveMoveStrategy: null");
+
+        if (primitiveMoveStrategy instanceof MoveStrategy)
+        {
+            return (MoveStrategy) primitiveMoveStrategy;
+        }
+        return moveCommands -> getMoveSequence(primitiveMoveStrategy, moveCommands);
+    }
+
+    /**
+     * Runs a {@linkplain PrimitiveMoveStrategy} on a List of {@linkplain MoveCommand MoveCommands}, as a {@linkplain MoveStrategy} would.
+     *
+     * @param primitiveMoveStrategy The strategy to run.
+     * @param moveCommands List of MoveCommands to execute (cannot be null, may be empty).
+     * @return Possibly empty ImmutableList of Integers representing the sequence that floors should be visited.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    static ImmutableList<Integer> getMoveSequence(final PrimitiveMoveStrategy primitiveMoveStrategy, final List<MoveCommand> moveCommands)
+    {
+        Preconditions.checkArgument(moveCommands != null, "moveCommands: null");
+        if (moveCommands.isEmpty())
+        {
+            return ImmutableList.of();
+        }
+
+        final FloorSequence moveSequence = new FloorSequence(moveCommands.size() * 2);
+        primitiveMoveStrategy.getMoveSequence(new Scenario(moveCommands), moveSequence);
+        return moveSequence.toImmutableList();
+    }
+
+    /**
+     * Declared private to prevent instantiation.
+     */
+    private MoveStrategies()
+    {
+    }
+}
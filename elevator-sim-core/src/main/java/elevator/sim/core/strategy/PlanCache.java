@@ -0,0 +1,341 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
+import elevator.sim.core.Scenario;
+
+import java.util.Arrays;
+
+/**
+ * Bounded, thread-safe map from {@linkplain Scenario Scenarios} to the routes planned for them, used by {@linkplain CachingMoveStrategy}. Entries are spread over a power-of-two number of segments by the high bits
+ * of a caller-supplied 64-bit hash, and each segment is guarded by its own monitor, so threads working on different scenarios rarely contend. <p />
+ * Within a segment, entries live in parallel arrays chained into a hash table and are evicted with the CLOCK (second-chance) approximation of least-recently-used: a hit only sets the entry's reference bit, and the
+ * clock hand sweeps the slots, clearing set bits and evicting the first entry whose bit is clear. New entries start with a clear bit, so scenarios seen only once are evicted before any that were hit. A hit therefore
+ * costs one hash-table probe and a full comparison of the scenario, with no allocation and no reordering of entries. <p />
+ * Each segment keeps an equal share of the bounds on the number of entries and on their estimated memory, so neither bound is exceeded overall; an entry whose estimate exceeds a segment's share is not cached.
+ */
+final class PlanCache
+{
+    // Rough per-entry cost of the slot arrays, the Scenario, the route array and their headers.
+    static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+    // Segments are only split off while each keeps room for this many entries, so small caches behave like a single clock.
+    private static final int MINIMUM_SEGMENT_ENTRIES = 64;
+    private static final int MAXIMUM_SEGMENT_ENTRIES = 1 << 28;
+
+    private final Segment[] segments;
+
+    /**
+     * Creates an empty {@linkplain PlanCache}.
+     *
+     * @param maximumEntries The largest number of routes to keep (must be positive).
+     * @param maximumBytes The largest estimated memory the entries may hold, in bytes (must be positive).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    PlanCache(final long maximumEntries, final long maximumBytes)
+    {
+        Preconditions.checkArgument(maximumEntries > 0, "maximumEntries: <= 0");
+        Preconditions.checkArgument(maximumBytes > 0, "maximumBytes: <= 0");
+
+        int segmentCount = 1;
+        while (segmentCount < MAXIMUM_SEGMENTS && maximumEntries / (segmentCount * 2) >= MINIMUM_SEGMENT_ENTRIES
+                && maximumBytes / (segmentCount * 2) >= (long) MINIMUM_SEGMENT_ENTRIES * ENTRY_OVERHEAD_BYTES)
+        {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++)
+        {
+            segments[segment] = new Segment((int) Math.min(MAXIMUM_SEGMENT_ENTRIES, maximumEntries / segmentCount), maximumBytes / segmentCount);
+        }
+    }
+
+    /**
+     * Looks up the route cached for a scenario, counting a hit or a miss.
+     *
+     * @param scenario The Scenario to look up.
+     * @param hash The 64-bit hash of the scenario's content.
+     * @return The cached route, which must not be modified, or null if none is cached.
+     */
+    int[] get(final Scenario scenario, final long hash)
+    {
+        return segmentFor(hash).get(scenario, hash);
+    }
+
+    /**
+     * Caches the route planned for a scenario, evicting entries as needed to stay within the bounds. Does nothing if the scenario is already cached, e.g. because another thread planned it at the same time.
+     *
+     * @param scenario The Scenario that was planned.
+     * @param hash The 64-bit hash of the scenario's content.
+     * @param route The planned route, which must not be modified afterwards.
+     */
+    void put(final Scenario scenario, final long hash, final int[] route)
+    {
+        segmentFor(hash).put(scenario, hash, route);
+    }
+
+    /**
+     * @return The number of routes currently cached.
+     */
+    long size()
+    {
+        long size = 0;
+        for (final Segment segment : segments)
+        {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return Non-null snapshot of the hits, misses and evictions counted so far. Load counts and times are not recorded.
+     */
+    CacheStats stats()
+    {
+        long hits = 0;
+        long misses = 0;
+        long evictions = 0;
+        for (final Segment segment : segments)
+        {
+            synchronized (segment)
+            {
+                hits += segment.hits;
+                misses += segment.misses;
+                evictions += segment.evictions;
+            }
+        }
+        return new CacheStats(hits, misses, 0, 0, 0, evictions);
+    }
+
+    /**
+     * @param scenario The Scenario of an entry.
+     * @param route The route of the entry.
+     * @return The estimated memory held by the entry, in bytes.
+     */
+    static long estimateBytes(final Scenario scenario, final int[] route)
+    {
+        return ENTRY_OVERHEAD_BYTES + 8L * scenario.getMoveCount() + 4L * route.length;
+    }
+
+    /**
+     * @param hash The 64-bit hash of a scenario.
+     * @return The segment responsible for the scenario.
+     */
+    private Segment segmentFor(final long hash)
+    {
+        // The low bits pick the bucket within the segment, so the segment is picked by the high ones.
+        return segments[(int) (hash >>> 40) & (segments.length - 1)];
+    }
+
+    /**
+     * One clock of entries, guarded by its own monitor. Slots that have never been used lie at or above <code>highWater</code>; slots freed since are chained through <code>nextInChain</code> from <code>freeSlot</code>.
+     */
+    private static final class Segment
+    {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final int maximumEntries;
+        private final long maximumBytes;
+
+        private Scenario[] scenarios;
+        private int[][] routes;
+        private long[] hashes;
+        private int[] nextInChain;
+        private boolean[] referenced;
+        private int[] buckets;
+
+        private int entryCount;
+        private long bytes;
+        private int highWater;
+        private int freeSlot = -1;
+        private int clockHand;
+
+        private long hits;
+        private long misses;
+        private long evictions;
+
+        /**
+         * @param maximumEntries The largest number of entries the segment may hold.
+         * @param maximumBytes The largest estimated memory the segment's entries may hold, in bytes.
+         */
+        private Segment(final int maximumEntries, final long maximumBytes)
+        {
+            this.maximumEntries = maximumEntries;
+            this.maximumBytes = maximumBytes;
+            allocate(Math.min(INITIAL_CAPACITY, maximumEntries));
+        }
+
+        /**
+         * @param scenario The Scenario to look up.
+         * @param hash The 64-bit hash of the scenario's content.
+         * @return The cached route, or null if none is cached.
+         */
+        private synchronized int[] get(final Scenario scenario, final long hash)
+        {
+            final int slot = find(scenario, hash);
+            if (slot < 0)
+            {
+                misses++;
+                return null;
+            }
+            hits++;
+            referenced[slot] = true;
+            return routes[slot];
+        }
+
+        /**
+         * @param scenario The Scenario that was planned.
+         * @param hash The 64-bit hash of the scenario's content.
+         * @param route The planned route.
+         */
+        private synchronized void put(final Scenario scenario, final long hash, final int[] route)
+        {
+            final long entryBytes = estimateBytes(scenario, route);
+            if (entryBytes > maximumBytes || find(scenario, hash) >= 0)
+            {
+                return;
+            }
+            while (entryCount >= maximumEntries || bytes + entryBytes > maximumBytes)
+            {
+                evict();
+            }
+
+            final int slot;
+            if (freeSlot >= 0)
+            {
+                slot = freeSlot;
+                freeSlot = nextInChain[slot];
+            }
+            else
+            {
+                if (highWater == scenarios.length)
+                {
+                    allocate(Math.min(maximumEntries, scenarios.length * 2));
+                }
+                slot = highWater++;
+            }
+            scenarios[slot] = scenario;
+            routes[slot] = route;
+            hashes[slot] = hash;
+            referenced[slot] = false;
+            final int bucket = (int) hash & (buckets.length - 1);
+            nextInChain[slot] = buckets[bucket];
+            buckets[bucket] = slot;
+            entryCount++;
+            bytes += entryBytes;
+        }
+
+        /**
+         * @return The number of entries in the segment.
+         */
+        private synchronized int size()
+        {
+            return entryCount;
+        }
+
+        /**
+         * @param scenario The Scenario to look up.
+         * @param hash The 64-bit hash of the scenario's content.
+         * @return The slot holding the scenario, or -1 if none does.
+         */
+        private int find(final Scenario scenario, final long hash)
+        {
+            for (int slot = buckets[(int) hash & (buckets.length - 1)]; slot >= 0; slot = nextInChain[slot])
+            {
+                if (hashes[slot] == hash && scenarios[slot].equals(scenario))
+                {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Advances the clock hand to the first entry without its reference bit, clearing the bits it passes, and evicts that entry. Must only be called while the segment holds at least one entry.
+         */
+        private void evict()
+        {
+            while (true)
+            {
+                final int slot = clockHand;
+                clockHand = slot + 1 == highWater ? 0 : slot + 1;
+                if (scenarios[slot] == null)
+                {
+                    continue;
+                }
+                if (referenced[slot])
+                {
+                    referenced[slot] = false;
+                    continue;
+                }
+                remove(slot);
+                evictions++;
+                return;
+            }
+        }
+
+        /**
+         * Unlinks an entry from its bucket and frees its slot.
+         *
+         * @param slot The slot of the entry.
+         */
+        private void remove(final int slot)
+        {
+            final int bucket = (int) hashes[slot] & (buckets.length - 1);
+            if (buckets[bucket] == slot)
+            {
+                buckets[bucket] = nextInChain[slot];
+            }
+            else
+            {
+                int previous = buckets[bucket];
+                while (nextInChain[previous] != slot)
+                {
+                    previous = nextInChain[previous];
+                }
+                nextInChain[previous] = nextInChain[slot];
+            }
+            bytes -= estimateBytes(scenarios[slot], routes[slot]);
+            entryCount--;
+            scenarios[slot] = null;
+            routes[slot] = null;
+            nextInChain[slot] = freeSlot;
+            freeSlot = slot;
+        }
+
+        /**
+         * Grows the slot arrays to the given capacity and rebuilds the hash table with at least twice as many buckets as slots.
+         *
+         * @param capacity The new number of slots.
+         */
+        private void allocate(final int capacity)
+        {
+            if (scenarios == null)
+            {
+                scenarios = new Scenario[capacity];
+                routes = new int[capacity][];
+                hashes = new long[capacity];
+                nextInChain = new int[capacity];
+                referenced = new boolean[capacity];
+            }
+            else
+            {
+                scenarios = Arrays.copyOf(scenarios, capacity);
+                routes = Arrays.copyOf(routes, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                nextInChain = Arrays.copyOf(nextInChain, capacity);
+                referenced = Arrays.copyOf(referenced, capacity);
+            }
+            buckets = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 2];
+            Arrays.fill(buckets, -1);
+            // Only called while no slot has been freed, so every slot below the high-water mark holds an entry.
+            for (int slot = 0; slot < highWater; slot++)
+            {
+                final int bucket = (int) hashes[slot] & (buckets.length - 1);
+                nextInChain[slot] = buckets[bucket];
+                buckets[bucket] = slot;
+            }
+        }
+    }
+}
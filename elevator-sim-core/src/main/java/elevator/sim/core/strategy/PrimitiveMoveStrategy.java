@@ -0,0 +1,19 @@
+package elevator.sim.core.strategy;
+
+import elevator.sim.core.Scenario;
+
+/**
+ * Represents a strategy for executing the move commands of a {@linkplain Scenario} that works entirely on primitive floors: the packed originating/destination floors are read straight from the Scenario, and the
+ * resulting floor sequence is written into a caller-supplied, reusable {@linkplain FloorSequence}. Nothing is boxed, so an implementation need not allocate at all in the steady state. <p />
+ * See {@linkplain MoveStrategies} for adapters to and from {@linkplain MoveStrategy}.
+ */
+public interface PrimitiveMoveStrategy
+{
+    /**
+     * Translates the move commands of a Scenario into the order that floors should be visited.
+     *
+     * @param scenario The Scenario whose move commands to execute.
+     * @param moveSequence The FloorSequence to write the result into. It is cleared first; afterwards it holds the (possibly empty) sequence that floors should be visited.
+     */
+    void getMoveSequence(final Scenario scenario, final FloorSequence moveSequence);
+}
@@ -0,0 +1,160 @@
+package elevator.sim.core.streaming;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@linkplain OutputSink} that collects output in a large direct buffer and writes it to a {@linkplain WritableByteChannel} in bulk: when the buffer fills up, and whenever the {@linkplain FlushPolicy} calls for a flush.
+ * Writing to a file goes straight through a {@linkplain FileChannel}, so with any policy but {@linkplain FlushPolicy#perScenario()} a large run costs a handful of system calls rather than one per scenario. <p />
+ * Output given as Strings is encoded as ISO-8859-1, which covers everything an elevator writes (digits, spaces, parentheses and line separators). Instances are not thread-safe.
+ */
+public final class ChannelOutputSink implements OutputSink
+{
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private final OutputStream stream;
+    private final boolean closeChannel;
+    private final FlushPolicy flushPolicy;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long scenariosSinceFlush;
+    private long bytesSinceFlush;
+
+    /**
+     * Creates a sink writing to the given file, replacing any existing contents. The file is closed along with the sink.
+     *
+     * @param filePath The Path to write to (cannot be null).
+     * @param flushPolicy The FlushPolicy deciding when buffered output is written to the file (cannot be null).
+     * @return Non-null ChannelOutputSink.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static ChannelOutputSink toFile(final Path filePath, final FlushPolicy flushPolicy) throws IOException
+    {
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+        final FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new ChannelOutputSink(channel, null, true, flushPolicy);
+    }
+
+    /**
+     * Creates a sink writing to the given stream, such as {@linkplain System#out}. The stream is flushed whenever the sink flushes, but is not closed along with the sink.
+     *
+     * @param stream The OutputStream to write to (cannot be null).
+     * @param flushPolicy The FlushPolicy deciding when buffered output is written to the stream (cannot be null).
+     * @return Non-null ChannelOutputSink.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static ChannelOutputSink toStream(final OutputStream stream, final FlushPolicy flushPolicy)
+    {
+        Preconditions.checkArgument(stream != null, "stream: null");
+        return new ChannelOutputSink(Channels.newChannel(stream), stream, false, flushPolicy);
+    }
+
+    /**
+     * @param channel The channel to write to.
+     * @param stream The stream behind the channel, to be flushed along with the sink, or null.
+     * @param closeChannel True if the channel is closed along with the sink.
+     * @param flushPolicy The FlushPolicy deciding when buffered output is written to the channel (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    private ChannelOutputSink(final WritableByteChannel channel, final OutputStream stream, final boolean closeChannel, final FlushPolicy flushPolicy)
+    {
+        Preconditions.checkArgument(flushPolicy != null, "flushPolicy: null");
+
+        this.channel = channel;
+        this.stream = stream;
+        this.closeChannel = closeChannel;
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final byte[] output, final int offset, final int length) throws IOException
+    {
+        int position = offset;
+        final int end = offset + length;
+        while (position < end)
+        {
+            if (!buffer.hasRemaining())
+            {
+                drain();
+            }
+            final int count = Math.min(end - position, buffer.remaining());
+            buffer.put(output, position, count);
+            position += count;
+        }
+        scenariosSinceFlush++;
+        bytesSinceFlush += length;
+        if (flushPolicy.shouldFlush(scenariosSinceFlush, bytesSinceFlush))
+        {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all buffered output to the channel (and flushes the stream behind it, if there is one). This does not force the output to be synchronized with the storage device.
+     *
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        if (scenariosSinceFlush == 0 && buffer.position() == 0)
+        {
+            return;
+        }
+        drain();
+        if (stream != null)
+        {
+            stream.flush();
+        }
+        scenariosSinceFlush = 0;
+        bytesSinceFlush = 0;
+    }
+
+    /**
+     * Flushes any pending output and, if the sink was opened on a file, closes it.
+     *
+     * @throws IOException if the output cannot be written or the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            if (closeChannel)
+            {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the channel and empties the buffer.
+     *
+     * @throws IOException if the bytes cannot be written.
+     */
+    private void drain() throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,130 @@
+package elevator.sim.core.streaming;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Decides how often an {@linkplain OutputSink} pushes buffered output to its destination: after every scenario, after a number of scenarios or bytes, or only once all scenarios have been run. Flushing after every scenario
+ * keeps the output live but costs (at least) one system call per scenario; the other policies trade latency for throughput. <p />
+ * Instances are immutable.
+ */
+public final class FlushPolicy
+{
+    private static final FlushPolicy PER_SCENARIO = new FlushPolicy(1, Long.MAX_VALUE, "scenario");
+    private static final FlushPolicy AT_END = new FlushPolicy(Long.MAX_VALUE, Long.MAX_VALUE, "end");
+
+    private final long scenarioInterval;
+    private final long byteInterval;
+    private final String description;
+
+    /**
+     * @return Non-null FlushPolicy that flushes after every scenario.
+     */
+    public static FlushPolicy perScenario()
+    {
+        return PER_SCENARIO;
+    }
+
+    /**
+     * @return Non-null FlushPolicy that only flushes once all scenarios have been run (or an internal buffer fills up).
+     */
+    public static FlushPolicy atEnd()
+    {
+        return AT_END;
+    }
+
+    /**
+     * @param scenarios The number of scenarios to write between flushes (must be positive).
+     * @return Non-null FlushPolicy that flushes after every <code>scenarios</code> scenarios.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static FlushPolicy everyScenarios(final long scenarios)
+    {
+        Preconditions.checkArgument(scenarios > 0, "scenarios: <= 0");
+        return new FlushPolicy(scenarios, Long.MAX_VALUE, "scenarios:" + scenarios);
+    }
+
+    /**
+     * @param bytes The number of bytes to write between flushes (must be positive). A flush happens after the first scenario that reaches the count; scenarios are never split across flushes.
+     * @return Non-null FlushPolicy that flushes after every <code>bytes</code> bytes.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static FlushPolicy everyBytes(final long bytes)
+    {
+        Preconditions.checkArgument(bytes > 0, "bytes: <= 0");
+        return new FlushPolicy(Long.MAX_VALUE, bytes, "bytes:" + bytes);
+    }
+
+    /**
+     * Parses a FlushPolicy from its {@linkplain #toString() description}: <code>scenario</code>, <code>end</code>, <code>scenarios:&lt;n&gt;</code> or <code>bytes:&lt;n&gt;</code>.
+     *
+     * @param description The description to parse (cannot be null).
+     * @return Non-null FlushPolicy.
+     * @throws IllegalArgumentException if parameter conditions are not met, or the description is not recognized.
+     */
+    public static FlushPolicy parse(final String description)
+    {
+        Preconditions.checkArgument(description != null, "description: null");
+
+        if (PER_SCENARIO.description.equals(description))
+        {
+            return PER_SCENARIO;
+        }
+        if (AT_END.description.equals(description))
+        {
+            return AT_END;
+        }
+        final int separatorIndex = description.indexOf(':');
+        if (separatorIndex > 0)
+        {
+            final String unit = description.substring(0, separatorIndex);
+            try
+            {
+                final long interval = Long.parseLong(description.substring(separatorIndex + 1));
+                if (interval > 0 && "scenarios".equals(unit))
+                {
+                    return everyScenarios(interval);
+                }
+                if (interval > 0 && "bytes".equals(unit))
+                {
+                    return everyBytes(interval);
+                }
+            }
+            catch (final NumberFormatException exception)
+            {
+                // Reported below along with unknown units.
+            }
+        }
+        throw new IllegalArgumentException("Invalid flush policy: [" + description + "]. Expected scenario, end, scenarios:<n> or bytes:<n>.");
+    }
+
+    /**
+     * @param scenarioInterval The number of scenarios between flushes.
+     * @param byteInterval The number of bytes between flushes.
+     * @param description The parseable description of the policy.
+     */
+    private FlushPolicy(final long scenarioInterval, final long byteInterval, final String description)
+    {
+        this.scenarioInterval = scenarioInterval;
+        this.byteInterval = byteInterval;
+        this.description = description;
+    }
+
+    /**
+     * @param scenariosSinceFlush The number of scenarios written since the last flush.
+     * @param bytesSinceFlush The number of bytes written since the last flush.
+     * @return True if the sink should flush now.
+     */
+    public boolean shouldFlush(final long scenariosSinceFlush, final long bytesSinceFlush)
+    {
+        return scenariosSinceFlush >= scenarioInterval || bytesSinceFlush >= byteInterval;
+    }
+
+    /**
+     * @return Non-null description of this policy, as accepted by {@linkplain #parse(String)}.
+     */
+    @Override
+    public String toString()
+    {
+        return description;
+    }
+}
@@ -0,0 +1,44 @@
+package elevator.sim.core.streaming;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Destination for the output of a {@linkplain StreamingOutputElevator}. The elevator writes the complete output of one scenario at a time and flushes the sink once it has run all of its scenarios; implementations decide,
+ * according to their {@linkplain FlushPolicy}, whether output is also flushed along the way. <p />
+ * The sink is not closed by the elevator; whoever creates it is responsible for closing it.
+ */
+public interface OutputSink extends Closeable, Flushable
+{
+    /**
+     * Writes the output of a single scenario, including its line separator if it has one, as ASCII bytes. The bytes are consumed before this method returns, so the caller may reuse the array.
+     *
+     * @param output The array holding the output of the scenario.
+     * @param offset The index of the first byte of the output.
+     * @param length The number of bytes of output.
+     * @throws IOException if the output cannot be written.
+     */
+    void write(byte[] output, int offset, int length) throws IOException;
+
+    /**
+     * Writes the output of a single scenario, including its line separator if it has one. By default the output is encoded as ISO-8859-1 and {@linkplain #write(byte[], int, int) written as bytes}.
+     *
+     * @param output The output of the scenario.
+     * @throws IOException if the output cannot be written.
+     */
+    default void write(final String output) throws IOException
+    {
+        final byte[] bytes = output.getBytes(StandardCharsets.ISO_8859_1);
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Makes everything written so far visible to the destination. Does nothing if nothing has been written since the last flush.
+     *
+     * @throws IOException if the output cannot be written.
+     */
+    @Override
+    void flush() throws IOException;
+}
@@ -0,0 +1,123 @@
+package elevator.sim.core.streaming;
+
+import elevator.sim.core.strategy.FloorSequence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Formats the output of a scenario, e.g. <code>10 8 1 (9)</code>, as ASCII straight into a reusable byte array. Digits are written directly from the floor numbers, so no Strings or intermediate buffers are created and,
+ * once the array has grown to fit the longest scenario, formatting allocates nothing. The bytes are identical to those of <code>StringBuilder.append(int)</code> encoded as ASCII. <p />
+ * Instances hold the most recently formatted output and are therefore not thread-safe.
+ */
+final class ScenarioOutputFormatter
+{
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAXIMUM_NUMBER_LENGTH = 20; // Sign and digits of Long.MIN_VALUE.
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int length;
+
+    /**
+     * Replaces the current output with the formatted floors of the given move sequence, each followed by a space, and the number of floors travelled in parentheses.
+     *
+     * @param moveSequence The FloorSequence to format.
+     */
+    void format(final FloorSequence moveSequence)
+    {
+        length = 0;
+        final int moves = moveSequence.size();
+        for (int moveIndex = 0; moveIndex < moves; moveIndex++)
+        {
+            appendNumber(moveSequence.get(moveIndex));
+            bytes[length++] = ' ';
+        }
+        ensureCapacity(1);
+        bytes[length++] = '(';
+        appendNumber(moveSequence.getFloorsTravelled());
+        bytes[length++] = ')';
+    }
+
+    /**
+     * Appends the platform line separator to the current output.
+     */
+    void appendLineSeparator()
+    {
+        ensureCapacity(LINE_SEPARATOR.length);
+        System.arraycopy(LINE_SEPARATOR, 0, bytes, length, LINE_SEPARATOR.length);
+        length += LINE_SEPARATOR.length;
+    }
+
+    /**
+     * Writes the current output to the given sink.
+     *
+     * @param outputSink The OutputSink to write to.
+     * @throws IOException if the sink cannot write the output.
+     */
+    void writeTo(final OutputSink outputSink) throws IOException
+    {
+        outputSink.write(bytes, 0, length);
+    }
+
+    /**
+     * @return The number of bytes of the current output.
+     */
+    int length()
+    {
+        return length;
+    }
+
+    /**
+     * @return Non-null String of the current output, for diagnostics and tests.
+     */
+    @Override
+    public String toString()
+    {
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Appends the decimal digits of a number, preceded by a minus sign if it is negative, and reserves room for one more byte.
+     *
+     * @param number The number to append.
+     */
+    private void appendNumber(final long number)
+    {
+        ensureCapacity(MAXIMUM_NUMBER_LENGTH + 1);
+        // Work with the negated value so that Long.MIN_VALUE needs no special case.
+        long negated = number < 0 ? number : -number;
+        if (number < 0)
+        {
+            bytes[length++] = '-';
+        }
+
+        int digits = 1;
+        for (long remaining = negated; remaining <= -10; remaining /= 10)
+        {
+            digits++;
+        }
+        int position = length + digits;
+        do
+        {
+            bytes[--position] = (byte) ('0' - negated % 10);
+            negated /= 10;
+        }
+        while (negated != 0);
+        length += digits;
+    }
+
+    /**
+     * Grows the array, if necessary, so that at least the given number of bytes can be appended.
+     *
+     * @param additionalBytes The number of bytes about to be appended.
+     */
+    private void ensureCapacity(final int additionalBytes)
+    {
+        if (length + additionalBytes > bytes.length)
+        {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additionalBytes));
+        }
+    }
+}
@@ -1,48 +1,131 @@
 package elevator.sim.core.streaming;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
+import com.google.inject.name.Named;
 import elevator.sim.core.Elevator;
 import elevator.sim.core.ElevatorScenarioExecutionException;
 import elevator.sim.core.Scenario;
+import elevator.sim.core.jfr.ScenarioPlannedEvent;
+import elevator.sim.core.jfr.ScenarioWrittenEvent;
+import elevator.sim.core.metrics.ScenarioMetrics;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveStrategies;
 import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.strategy.PrimitiveMoveStrategy;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.Collections;
-import java.util.List;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * Implementation of {@linkplain Elevator} that prints the results of running {@linkplain Scenario Scenarios} to an OutputStreamWriter. Each move to a new floor is printed as a digit and proceeded by a space, e.g. <code>3 2 4
+ * Implementation of {@linkplain Elevator} that prints the results of running {@linkplain Scenario Scenarios} to an {@linkplain OutputSink}. Each move to a new floor is printed as a digit and proceeded by a space, e.g. <code>3 2 4
  * 5</code>. The output is terminated by a count of how many floors were travelled in total: for this example, there is 1 floor for the move from 3-2, 2 for floors for the move from 2-4, and 1 floor for the move from 4-5,
  * resulting in <code>3 2 4 5 <b>(4)</b></code>. <p />
- * If multiple scenarios are ran, each one is output on a new line.
+ * If multiple scenarios are ran, each one is output on a new line. The sink is flushed once all of the scenarios have been run, and in between as its {@linkplain FlushPolicy} dictates. <p />
+ * Move sequences are planned through the {@linkplain PrimitiveMoveStrategy} form of the strategy into a reused {@linkplain FloorSequence} and formatted as ASCII bytes into a reused buffer, so running a scenario allocates
+ * nothing and instances are not thread-safe. <p />
+ * When constructed with more than one planning thread, scenarios are planned and formatted concurrently while the calling thread writes the results in input order. At most {@value #SCENARIOS_IN_FLIGHT_PER_THREAD} scenarios
+ * per thread are held in the reorder buffer at any time, so memory use does not depend on the number of scenarios. In this mode the MoveStrategy must be safe to call from multiple threads, as the built-in strategies are. The
+ * planning threads are started by the first run and kept until the elevator is {@linkplain #close() closed}. <p />
+ * Given an enabled {@linkplain ScenarioMetrics}, every scenario's moves, floors travelled and bytes written are counted in it, and the time taken to plan and to write sampled scenarios is recorded. Independently, a
+ * {@linkplain ScenarioPlannedEvent} and a {@linkplain ScenarioWrittenEvent} are emitted for every scenario while those JDK Flight Recorder events are enabled.
  */
 public final class StreamingOutputElevator implements Elevator
 {
-    private final MoveStrategy operationStrategy;
-    private final OutputStreamWriter outputStreamWriter;
+    /**
+     * Name of the int binding that supplies the number of planning threads when instances are created by Guice.
+     */
+    public static final String PLANNING_THREADS = "elevator.planningThreads";
+
+    private static final int SCENARIOS_IN_FLIGHT_PER_THREAD = 64;
+
+    private final PrimitiveMoveStrategy operationStrategy;
+    private final OutputSink outputSink;
+    private final int planningThreads;
+    private final ScenarioMetrics metrics;
+    private final String strategyName;
+    // The numbers of scenarios handed to the planners and written so far, for sampling latencies and indexing events. Both are only touched by the calling thread.
+    private long plannedScenarios;
+    private long writtenScenarios;
+    private final FloorSequence moveSequence = new FloorSequence();
+    private final ScenarioOutputFormatter formatter = new ScenarioOutputFormatter();
+    private final ThreadLocal<FloorSequence> moveSequences = ThreadLocal.withInitial(FloorSequence::new);
+    // Created by the first parallel run. The reorder buffer is replaced whenever a run ends with scenarios still being planned into it.
+    private ExecutorService planners;
+    private ReorderSlot[] reorderBuffer;
+    private boolean closed;
 
     /**
      * Constructs a new {@linkplain StreamingOutputElevator}.
      *
-     * @param moveStrategy The {@linkplain MoveStrategy} to use (cannot be null).
-     * @param outputStreamWriter The {@linkplain OutputStreamWriter} to write the results of the scenario to (cannot be null).
+     * @param moveStrategy The {@linkplain MoveStrategy} to use (cannot be null). If it does not also implement {@linkplain PrimitiveMoveStrategy}, it is {@linkplain MoveStrategies#asPrimitive(MoveStrategy) adapted}.
+     * @param outputStreamWriter The {@linkplain OutputStreamWriter} to write the results of the scenario to (cannot be null). It is flushed after every scenario.
      * @throws IllegalArgumentException if parameter conditions are not met.
      */
-    @Inject
     public StreamingOutputElevator(final MoveStrategy moveStrategy, final OutputStreamWriter outputStreamWriter)
+    {
+        this(moveStrategy, outputStreamWriter, 1);
+    }
+
+    /**
+     * Constructs a new {@linkplain StreamingOutputElevator} that plans scenarios on the given number of threads.
+     *
+     * @param moveStrategy The {@linkplain MoveStrategy} to use (cannot be null). If it does not also implement {@linkplain PrimitiveMoveStrategy}, it is {@linkplain MoveStrategies#asPrimitive(MoveStrategy) adapted}.
+     * @param outputStreamWriter The {@linkplain OutputStreamWriter} to write the results of the scenario to (cannot be null). It is flushed after every scenario.
+     * @param planningThreads The number of threads to plan scenarios on (must be positive). With 1, scenarios are planned on the calling thread.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public StreamingOutputElevator(final MoveStrategy moveStrategy, final OutputStreamWriter outputStreamWriter, final int planningThreads)
+    {
+        this(moveStrategy, toOutputSink(outputStreamWriter), planningThreads);
+    }
+
+    /**
+     * Constructs a new {@linkplain StreamingOutputElevator} that plans scenarios on the given number of threads.
+     *
+     * @param moveStrategy The {@linkplain MoveStrategy} to use (cannot be null). If it does not also implement {@linkplain PrimitiveMoveStrategy}, it is {@linkplain MoveStrategies#asPrimitive(MoveStrategy) adapted}.
+     * @param outputSink The {@linkplain OutputSink} to write the results of the scenario to (cannot be null).
+     * @param planningThreads The number of threads to plan scenarios on (must be positive). With 1, scenarios are planned on the calling thread.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public StreamingOutputElevator(final MoveStrategy moveStrategy, final OutputSink outputSink, final int planningThreads)
+    {
+        this(moveStrategy, outputSink, planningThreads, ScenarioMetrics.disabled());
+    }
+
+    /**
+     * Constructs a new {@linkplain StreamingOutputElevator} that plans scenarios on the given number of threads and records what it does in the given {@linkplain ScenarioMetrics}.
+     *
+     * @param moveStrategy The {@linkplain MoveStrategy} to use (cannot be null). If it does not also implement {@linkplain PrimitiveMoveStrategy}, it is {@linkplain MoveStrategies#asPrimitive(MoveStrategy) adapted}.
+     * @param outputSink The {@linkplain OutputSink} to write the results of the scenario to (cannot be null).
+     * @param planningThreads The number of threads to plan scenarios on (must be positive). With 1, scenarios are planned on the calling thread.
+     * @param metrics The ScenarioMetrics to record in (cannot be null); plan latency is recorded under the simple class name of the MoveStrategy.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public StreamingOutputElevator(final MoveStrategy moveStrategy, final OutputSink outputSink, @Named(PLANNING_THREADS) final int planningThreads, final ScenarioMetrics metrics)
     {
         Preconditions.checkArgument(moveStrategy != null, "moveStrategy: null");
-        Preconditions.checkArgument(outputStreamWriter != null, "outputStreamWriter: null");
+        Preconditions.checkArgument(outputSink != null, "outputSink: null");
+        Preconditions.checkArgument(planningThreads > 0, "planningThreads: <= 0");
+        Preconditions.checkArgument(metrics != null, "metrics: null");
 
-        this.operationStrategy = moveStrategy;
-        this.outputStreamWriter = outputStreamWriter;
+        this.operationStrategy = MoveStrategies.asPrimitive(moveStrategy);
+        this.outputSink = outputSink;
+        this.planningThreads = planningThreads;
+        this.metrics = metrics;
+        this.strategyName = moveStrategy.getClass().getSimpleName();
     }
 
     /**
-     * Runs a single {@linkplain Scenario}, printing the results of the simulation to the associated {@linkplain OutputStream}.
+     * Runs a single {@linkplain Scenario}, printing the results of the simulation to the associated {@linkplain OutputSink}.
      *
      * @param scenario The Scenario to run (cannot be null).
      * @throws IllegalArgumentException if parameter conditions are not met.
@@ -55,50 +138,274 @@ public final class StreamingOutputElevator implements Elevator
     }
 
     /**
-     * Runs the given {@linkplain Scenario Scenarios}, printing the results of the simulation to the associated {@linkplain OutputStream}.
+     * Runs the {@linkplain Scenario Scenarios} produced by the given Iterator, printing the results of each simulation to the associated {@linkplain OutputSink} as soon as it has been run.
      *
-     * @param scenarios The Scenarios to run (cannot be null or contain null values, may be empty).
+     * @param scenarios The Scenarios to run (cannot be null or produce null values, may be empty).
      * @throws IllegalArgumentException if parameter conditions are not met.
      */
     @Override
-    public void runScenarios(final List<Scenario> scenarios)
+    public void runScenarios(final Iterator<Scenario> scenarios)
     {
         Preconditions.checkArgument(scenarios != null, "scenarios: null");
+        Preconditions.checkState(!closed, "Elevator is closed.");
+
+        if (planningThreads > 1)
+        {
+            runScenariosInParallel(scenarios);
+        }
+        else
+        {
+            runScenariosSequentially(scenarios);
+        }
 
-        final int scenariosToRun = scenarios.size();
-        for (int scenarioIndex = 0; scenarioIndex < scenariosToRun; scenarioIndex++)
+        try
         {
-            final Scenario scenario = scenarios.get(scenarioIndex);
+            outputSink.flush();
+        }
+        catch (final IOException exception)
+        {
+            throw new ElevatorScenarioExecutionException("Exception occurred while flushing scenario output.", exception);
+        }
+    }
+
+    /**
+     * Stops the planning threads, if any have been started.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        if (planners != null)
+        {
+            planners.shutdownNow();
+        }
+    }
+
+    /**
+     * Plans the {@linkplain Scenario Scenarios} produced by the given Iterator on the calling thread, writing each result as soon as it has been planned.
+     *
+     * @param scenarios The Scenarios to run (cannot produce null values).
+     */
+    private void runScenariosSequentially(final Iterator<Scenario> scenarios)
+    {
+        while (scenarios.hasNext())
+        {
+            final Scenario scenario = scenarios.next();
             Preconditions.checkArgument(scenario != null, "scenario: null");
 
-            final List<Integer> moveSequence = operationStrategy.getMoveSequence(scenario.getMoveCommands());
-            if (moveSequence.isEmpty())
+            if (!planScenario(scenario, plannedScenarios++, moveSequence, formatter))
             {
                 return;
             }
+            write(scenario, formatter, scenarios.hasNext());
+        }
+    }
 
-            final StringBuffer output = new StringBuffer(moveSequence.size() * 4); // * 4 to account for spaces/potentially multi-digit floor values.
-            Integer previousFloor = null;
-            int floorsTravelled = 0;
+    /**
+     * Plans the {@linkplain Scenario Scenarios} produced by the given Iterator on a pool of {@linkplain #planningThreads} threads, writing the results in input order. Completed results wait in a bounded ring of reorder
+     * slots until every earlier scenario has been written; the Iterator is only advanced when a slot is free. Each slot formats into its own reusable buffer, so results are not copied on their way to the sink.
+     *
+     * @param scenarios The Scenarios to run (cannot produce null values).
+     */
+    private void runScenariosInParallel(final Iterator<Scenario> scenarios)
+    {
+        if (planners == null)
+        {
+            planners = Executors.newFixedThreadPool(planningThreads, new ThreadFactoryBuilder().setNameFormat("scenario-planner-%d").setDaemon(true).build());
+        }
+        if (reorderBuffer == null)
+        {
+            reorderBuffer = new ReorderSlot[planningThreads * SCENARIOS_IN_FLIGHT_PER_THREAD];
+            for (int slotIndex = 0; slotIndex < reorderBuffer.length; slotIndex++)
+            {
+                reorderBuffer[slotIndex] = new ReorderSlot();
+            }
+        }
 
-            for (final Integer move : moveSequence)
+        int firstSlot = 0;
+        int slotsInUse = 0;
+        try
+        {
+            while (true)
             {
-                if (previousFloor != null)
+                while (slotsInUse < reorderBuffer.length && scenarios.hasNext())
+                {
+                    final Scenario scenario = scenarios.next();
+                    Preconditions.checkArgument(scenario != null, "scenario: null");
+
+                    final ReorderSlot slot = reorderBuffer[(firstSlot + slotsInUse++) % reorderBuffer.length];
+                    final long scenarioIndex = plannedScenarios++;
+                    slot.scenario = scenario;
+                    slot.planned = planners.submit(() -> planScenario(scenario, scenarioIndex, moveSequences.get(), slot.formatter));
+                }
+                if (slotsInUse == 0)
                 {
-                    floorsTravelled += Math.abs(previousFloor - move);
+                    return;
                 }
 
-                output.append(move).append(' ');
-                previousFloor = move;
+                final ReorderSlot slot = reorderBuffer[firstSlot];
+                firstSlot = (firstSlot + 1) % reorderBuffer.length;
+                slotsInUse--;
+                if (!slot.await())
+                {
+                    return;
+                }
+                write(slot.scenario, slot.formatter, slotsInUse > 0 || scenarios.hasNext());
+            }
+        }
+        finally
+        {
+            if (slotsInUse > 0)
+            {
+                // The run ended early; scenarios still being planned must not format into slots the next run reuses.
+                for (int slotOffset = 0; slotOffset < slotsInUse; slotOffset++)
+                {
+                    reorderBuffer[(firstSlot + slotOffset) % reorderBuffer.length].planned.cancel(true);
+                }
+                reorderBuffer = null;
+            }
+        }
+    }
+
+    /**
+     * Plans a single {@linkplain Scenario} and formats the resulting move sequence.
+     *
+     * @param scenario The Scenario to plan.
+     * @param scenarioIndex The position of the Scenario in the run, which decides whether the time taken is recorded in the ScenarioMetrics.
+     * @param moveSequence The FloorSequence to plan into; its previous contents are discarded.
+     * @param formatter The formatter to format the floors followed by the number of floors travelled into, e.g. <code>10 8 1 (9)</code>.
+     * @return False if the Scenario produced no moves, in which case nothing is formatted.
+     */
+    private boolean planScenario(final Scenario scenario, final long scenarioIndex, final FloorSequence moveSequence, final ScenarioOutputFormatter formatter)
+    {
+        final boolean sampled = metrics.isSampled(scenarioIndex);
+        final ScenarioPlannedEvent event = ScenarioPlannedEvent.beginIfEnabled();
+        final long start = sampled ? System.nanoTime() : 0;
+        operationStrategy.getMoveSequence(scenario, moveSequence);
+        if (moveSequence.isEmpty())
+        {
+            return false;
+        }
+        formatter.format(moveSequence);
+        if (event != null)
+        {
+            event.end();
+        }
+        if (event != null && event.shouldCommit())
+        {
+            event.setScenarioIndex(scenarioIndex);
+            event.setStrategy(strategyName);
+            event.setMoveCount(scenario.getMoveCount());
+            event.setPlanLength(moveSequence.size());
+            event.setFloorsTravelled(moveSequence.getFloorsTravelled());
+            event.commit();
+        }
+        if (sampled)
+        {
+            metrics.recordPlanLatency(strategyName, System.nanoTime() - start);
+        }
+        if (metrics.isEnabled())
+        {
+            metrics.recordScenario(scenario.getMoveCount(), moveSequence.getFloorsTravelled());
+        }
+        return true;
+    }
+
+    /**
+     * Writes the formatted output of a {@linkplain Scenario} to the associated {@linkplain OutputSink}.
+     *
+     * @param scenario The Scenario the output belongs to, for error messages.
+     * @param formatter The formatter holding the output of the Scenario.
+     * @param moreScenarios True if further scenarios follow, in which case the output is terminated by a line separator.
+     * @throws ElevatorScenarioExecutionException if the output cannot be written.
+     */
+    private void write(final Scenario scenario, final ScenarioOutputFormatter formatter, final boolean moreScenarios)
+    {
+        if (moreScenarios)
+        {
+            formatter.appendLineSeparator();
+        }
+        final long scenarioIndex = writtenScenarios++;
+        final ScenarioWrittenEvent event = ScenarioWrittenEvent.beginIfEnabled();
+        try
+        {
+            if (metrics.isSampled(scenarioIndex))
+            {
+                final long start = System.nanoTime();
+                formatter.writeTo(outputSink);
+                metrics.recordWriteLatency(System.nanoTime() - start);
+            }
+            else
+            {
+                formatter.writeTo(outputSink);
             }
+            if (metrics.isEnabled())
+            {
+                metrics.recordBytesWritten(formatter.length());
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new ElevatorScenarioExecutionException("Exception occurred while executing scenario: " + scenario, exception);
+        }
+        if (event != null)
+        {
+            event.end();
+        }
+        if (event != null && event.shouldCommit())
+        {
+            event.setScenarioIndex(scenarioIndex);
+            event.setBytes(formatter.length());
+            event.commit();
+        }
+    }
+
+    /**
+     * Adapts an OutputStreamWriter to an {@linkplain OutputSink} that flushes after every scenario.
+     *
+     * @param outputStreamWriter The OutputStreamWriter to adapt (cannot be null).
+     * @return Non-null OutputSink.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    private static OutputSink toOutputSink(final OutputStreamWriter outputStreamWriter)
+    {
+        Preconditions.checkArgument(outputStreamWriter != null, "outputStreamWriter: null");
+        return new WriterOutputSink(outputStreamWriter, FlushPolicy.perScenario());
+    }
+
+    /**
+     * A reusable position in the reorder buffer, holding a {@linkplain Scenario} whose output is being computed on a planning thread.
+     */
+    private static final class ReorderSlot
+    {
+        private final ScenarioOutputFormatter formatter = new ScenarioOutputFormatter();
+        private Scenario scenario;
+        private Future<Boolean> planned;
+
+        /**
+         * Waits for the Scenario to be planned and formatted into {@linkplain #formatter}.
+         *
+         * @return False if the Scenario produced no moves.
+         * @throws ElevatorScenarioExecutionException if planning failed or the wait was interrupted.
+         */
+        private boolean await()
+        {
             try
             {
-                outputStreamWriter.write(output.toString() + "(" + floorsTravelled + ")" + ((scenarioIndex + 1 == scenariosToRun) ? "" : System.lineSeparator()));
-                outputStreamWriter.flush();
+                return planned.get();
             }
-            catch (final IOException exception)
+            catch (final InterruptedException exception)
             {
-                throw new ElevatorScenarioExecutionException("Exception occurred while executing scenario: " + scenario, exception);
+                Thread.currentThread().interrupt();
+                throw new ElevatorScenarioExecutionException("Interrupted while executing scenario: " + scenario, exception);
+            }
+            catch (final ExecutionException exception)
+            {
+                if (exception.getCause() instanceof RuntimeException)
+                {
+                    throw (RuntimeException) exception.getCause();
+                }
+                throw new ElevatorScenarioExecutionException("Exception occurred while executing scenario: " + scenario, exception.getCause());
             }
         }
     }
@@ -0,0 +1,89 @@
+package elevator.sim.core.streaming;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@linkplain OutputSink} that writes to a {@linkplain Writer}, flushing the Writer according to a {@linkplain FlushPolicy}. Closing the sink closes the Writer.
+ */
+public final class WriterOutputSink implements OutputSink
+{
+    private final Writer writer;
+    private final FlushPolicy flushPolicy;
+    private long scenariosSinceFlush;
+    private long charactersSinceFlush;
+
+    /**
+     * @param writer The Writer to write to (cannot be null).
+     * @param flushPolicy The FlushPolicy deciding when to flush the Writer (cannot be null). Characters are counted as bytes.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public WriterOutputSink(final Writer writer, final FlushPolicy flushPolicy)
+    {
+        Preconditions.checkArgument(writer != null, "writer: null");
+        Preconditions.checkArgument(flushPolicy != null, "flushPolicy: null");
+
+        this.writer = writer;
+        this.flushPolicy = flushPolicy;
+    }
+
+    /**
+     * Decodes the bytes as ISO-8859-1 and {@linkplain #write(String) writes them as a String}, since a Writer only accepts characters. Output bound for a byte stream should go to a {@linkplain ChannelOutputSink} instead, which writes the bytes as they are.
+     */
+    @Override
+    public void write(final byte[] output, final int offset, final int length) throws IOException
+    {
+        write(new String(output, offset, length, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void write(final String output) throws IOException
+    {
+        writer.write(output);
+        scenariosSinceFlush++;
+        charactersSinceFlush += output.length();
+        if (flushPolicy.shouldFlush(scenariosSinceFlush, charactersSinceFlush))
+        {
+            flush();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void flush() throws IOException
+    {
+        if (scenariosSinceFlush == 0)
+        {
+            return;
+        }
+        writer.flush();
+        scenariosSinceFlush = 0;
+        charactersSinceFlush = 0;
+    }
+
+    /**
+     * Flushes any pending output and closes the Writer.
+     *
+     * @throws IOException if the output cannot be written or the Writer cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+}
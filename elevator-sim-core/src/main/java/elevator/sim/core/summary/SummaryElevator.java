@@ -0,0 +1,325 @@
+package elevator.sim.core.summary;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+import elevator.sim.core.Elevator;
+import elevator.sim.core.ElevatorScenarioExecutionException;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.jfr.ScenarioPlannedEvent;
+import elevator.sim.core.metrics.LatencyHistogram;
+import elevator.sim.core.metrics.LatencySummary;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveStrategies;
+import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.strategy.PrimitiveMoveStrategy;
+import elevator.sim.core.streaming.OutputSink;
+import elevator.sim.core.streaming.StreamingOutputElevator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of {@linkplain Elevator} that plans {@linkplain Scenario Scenarios} without printing their routes, and instead writes a summary of all of them to an {@linkplain OutputSink} once they have been run:
+ * the total number of moves, stops and floors travelled, and the mean, 50th, 90th and 99th percentile and maximum of each per scenario. See {@linkplain #formatSummary()}. <p />
+ * Each route is planned into a reused {@linkplain FloorSequence} and immediately reduced to its counts, so nothing is formatted or written per Scenario. The distributions are kept in fixed-size
+ * {@linkplain LatencyHistogram LatencyHistograms}, whose percentiles are accurate to within an eighth, so memory use depends neither on the number of scenarios nor on their size. As with
+ * {@linkplain StreamingOutputElevator}, a Scenario without any move commands ends the run. <p />
+ * When constructed with more than one planning thread, batches of scenarios are planned concurrently; as only the totals are reported, they need not be put back in order. In this mode the MoveStrategy must be safe to
+ * call from multiple threads, as the built-in strategies are. The planning threads are started by the first run and kept until the elevator is {@linkplain #close() closed}. The totals accumulate over every run of an
+ * instance, and the summary written at the end of a run covers them all.
+ */
+public final class SummaryElevator implements Elevator
+{
+    private static final int BATCH_SCENARIOS = 1024;
+    private static final int BATCH_MOVES = 1 << 16;
+    private static final int BATCHES_IN_FLIGHT_PER_THREAD = 2;
+    private static final int MINIMUM_COUNT_WIDTH = 16;
+
+    private final PrimitiveMoveStrategy operationStrategy;
+    private final OutputSink outputSink;
+    private final int planningThreads;
+    private final String strategyName;
+    private final LongAdder moveCount = new LongAdder();
+    private final LongAdder stopCount = new LongAdder();
+    private final LongAdder floorsTravelled = new LongAdder();
+    private final LatencyHistogram movesPerScenario = new LatencyHistogram();
+    private final LatencyHistogram stopsPerScenario = new LatencyHistogram();
+    private final LatencyHistogram floorsPerScenario = new LatencyHistogram();
+    private final FloorSequence moveSequence = new FloorSequence();
+    private final ThreadLocal<FloorSequence> moveSequences = ThreadLocal.withInitial(FloorSequence::new);
+    // The number of scenarios handed to the planners so far, for indexing events. Only touched by the calling thread.
+    private long scenarioIndex;
+    // Created by the first run planning on more than one thread.
+    private ExecutorService planners;
+    private boolean closed;
+
+    /**
+     * Constructs a new {@linkplain SummaryElevator}.
+     *
+     * @param moveStrategy The {@linkplain MoveStrategy} to use (cannot be null). If it does not also implement {@linkplain PrimitiveMoveStrategy}, it is {@linkplain MoveStrategies#asPrimitive(MoveStrategy) adapted}.
+     * @param outputSink The {@linkplain OutputSink} to write the summary to (cannot be null).
+     * @param planningThreads The number of threads to plan scenarios on (must be positive). With 1, scenarios are planned on the calling thread.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Inject
+    public SummaryElevator(final MoveStrategy moveStrategy, final OutputSink outputSink, @Named(StreamingOutputElevator.PLANNING_THREADS) final int planningThreads)
+    {
+        Preconditions.checkArgument(moveStrategy != null, "moveStrategy: null");
+        Preconditions.checkArgument(outputSink != null, "outputSink: null");
+        Preconditions.checkArgument(planningThreads > 0, "planningThreads: <= 0");
+
+        this.operationStrategy = MoveStrategies.asPrimitive(moveStrategy);
+        this.outputSink = outputSink;
+        this.planningThreads = planningThreads;
+        this.strategyName = moveStrategy.getClass().getSimpleName();
+    }
+
+    /**
+     * Runs a single {@linkplain Scenario}, writing the updated summary to the associated {@linkplain OutputSink}.
+     *
+     * @param scenario The Scenario to run (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void runScenario(final Scenario scenario)
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+        runScenarios(Collections.singletonList(scenario));
+    }
+
+    /**
+     * Runs the {@linkplain Scenario Scenarios} produced by the given Iterator, writing the updated summary to the associated {@linkplain OutputSink} once all of them have been run.
+     *
+     * @param scenarios The Scenarios to run (cannot be null or produce null values, may be empty).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    @Override
+    public void runScenarios(final Iterator<Scenario> scenarios)
+    {
+        Preconditions.checkArgument(scenarios != null, "scenarios: null");
+        Preconditions.checkState(!closed, "Elevator is closed.");
+
+        if (planningThreads > 1)
+        {
+            runScenariosInParallel(scenarios);
+        }
+        else
+        {
+            runScenariosSequentially(scenarios);
+        }
+
+        try
+        {
+            outputSink.write(formatSummary());
+            outputSink.flush();
+        }
+        catch (final IOException exception)
+        {
+            throw new ElevatorScenarioExecutionException("Exception occurred while writing scenario summary.", exception);
+        }
+    }
+
+    /**
+     * Stops the planning threads, if any have been started.
+     */
+    @Override
+    public void close()
+    {
+        closed = true;
+        if (planners != null)
+        {
+            planners.shutdownNow();
+        }
+    }
+
+    /**
+     * Formats the totals of the scenarios run so far, followed by a table of the mean, percentiles and maximum per scenario of the moves, stops and floors travelled.
+     *
+     * @return Non-null, multi-line summary, without a trailing line separator.
+     */
+    public String formatSummary()
+    {
+        final LatencySummary moves = movesPerScenario.summarize();
+        final StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Scenarios: %d, moves: %d, stops: %d, floors travelled: %d.%n", moves.getCount(), moveCount.sum(), stopCount.sum(), floorsTravelled.sum()));
+        summary.append(String.format("%-" + MINIMUM_COUNT_WIDTH + "s %10s %10s %10s %10s %10s", "Per scenario", "Mean", "p50", "p90", "p99", "max"));
+        appendDistribution(summary, "moves", moves);
+        appendDistribution(summary, "stops", stopsPerScenario.summarize());
+        appendDistribution(summary, "floors travelled", floorsPerScenario.summarize());
+        return summary.toString();
+    }
+
+    /**
+     * Appends a row of the per-scenario table to the summary.
+     *
+     * @param summary The summary to append to.
+     * @param name The name of the row.
+     * @param distribution The summary of the row's histogram.
+     */
+    private static void appendDistribution(final StringBuilder summary, final String name, final LatencySummary distribution)
+    {
+        summary.append(String.format("%n%-" + MINIMUM_COUNT_WIDTH + "s %10d %10d %10d %10d %10d", name, distribution.getMean(), distribution.getP50(), distribution.getP90(), distribution.getP99(),
+                distribution.getMax()));
+    }
+
+    /**
+     * Plans the {@linkplain Scenario Scenarios} produced by the given Iterator on the calling thread.
+     *
+     * @param scenarios The Scenarios to run (cannot produce null values).
+     */
+    private void runScenariosSequentially(final Iterator<Scenario> scenarios)
+    {
+        while (scenarios.hasNext())
+        {
+            final Scenario scenario = scenarios.next();
+            Preconditions.checkArgument(scenario != null, "scenario: null");
+            if (scenario.getMoveCount() == 0)
+            {
+                return;
+            }
+            planScenario(scenario, scenarioIndex++, moveSequence);
+        }
+    }
+
+    /**
+     * Plans the {@linkplain Scenario Scenarios} produced by the given Iterator on a pool of {@linkplain #planningThreads} threads, in batches of at most {@value #BATCH_SCENARIOS} scenarios or {@value #BATCH_MOVES} move
+     * commands. The Iterator is only advanced while fewer than {@value #BATCHES_IN_FLIGHT_PER_THREAD} batches per thread are waiting to be planned.
+     *
+     * @param scenarios The Scenarios to run (cannot produce null values).
+     */
+    private void runScenariosInParallel(final Iterator<Scenario> scenarios)
+    {
+        if (planners == null)
+        {
+            planners = Executors.newFixedThreadPool(planningThreads, new ThreadFactoryBuilder().setNameFormat("summary-planner-%d").setDaemon(true).build());
+        }
+        final Deque<Future<?>> batchesInFlight = new ArrayDeque<>();
+        try
+        {
+            boolean endOfInput = false;
+            while (!endOfInput)
+            {
+                final List<Scenario> batch = new ArrayList<>();
+                long batchMoveCount = 0;
+                while (batch.size() < BATCH_SCENARIOS && batchMoveCount < BATCH_MOVES && !endOfInput && scenarios.hasNext())
+                {
+                    final Scenario scenario = scenarios.next();
+                    Preconditions.checkArgument(scenario != null, "scenario: null");
+                    endOfInput = scenario.getMoveCount() == 0;
+                    if (!endOfInput)
+                    {
+                        batch.add(scenario);
+                        batchMoveCount += scenario.getMoveCount();
+                    }
+                }
+                endOfInput = endOfInput || !scenarios.hasNext();
+                if (batch.isEmpty())
+                {
+                    break;
+                }
+
+                if (batchesInFlight.size() == planningThreads * BATCHES_IN_FLIGHT_PER_THREAD)
+                {
+                    await(batchesInFlight.poll());
+                }
+                final long firstIndex = scenarioIndex;
+                scenarioIndex += batch.size();
+                batchesInFlight.add(planners.submit(() ->
+                {
+                    final FloorSequence batchMoveSequence = moveSequences.get();
+                    for (int batchIndex = 0; batchIndex < batch.size() && !Thread.currentThread().isInterrupted(); batchIndex++)
+                    {
+                        planScenario(batch.get(batchIndex), firstIndex + batchIndex, batchMoveSequence);
+                    }
+                }));
+            }
+            while (!batchesInFlight.isEmpty())
+            {
+                await(batchesInFlight.poll());
+            }
+        }
+        finally
+        {
+            // Batches still in flight when a run fails are stopped rather than left planning on threads the next run shares.
+            for (final Future<?> batchPlanned : batchesInFlight)
+            {
+                batchPlanned.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Plans a single {@linkplain Scenario} and adds its route to the totals and distributions.
+     *
+     * @param scenario The Scenario to plan.
+     * @param index The position of the Scenario in the run.
+     * @param scenarioMoveSequence The FloorSequence to plan into; its previous contents are discarded.
+     */
+    private void planScenario(final Scenario scenario, final long index, final FloorSequence scenarioMoveSequence)
+    {
+        final ScenarioPlannedEvent event = ScenarioPlannedEvent.beginIfEnabled();
+        operationStrategy.getMoveSequence(scenario, scenarioMoveSequence);
+        if (event != null)
+        {
+            event.end();
+        }
+
+        // The first floor of a route is where the car starts; every floor after it is a stop.
+        final int stops = Math.max(scenarioMoveSequence.size() - 1, 0);
+        final long scenarioFloors = scenarioMoveSequence.getFloorsTravelled();
+        moveCount.add(scenario.getMoveCount());
+        stopCount.add(stops);
+        floorsTravelled.add(scenarioFloors);
+        movesPerScenario.record(scenario.getMoveCount());
+        stopsPerScenario.record(stops);
+        floorsPerScenario.record(scenarioFloors);
+        if (event != null && event.shouldCommit())
+        {
+            event.setScenarioIndex(index);
+            event.setStrategy(strategyName);
+            event.setMoveCount(scenario.getMoveCount());
+            event.setPlanLength(scenarioMoveSequence.size());
+            event.setFloorsTravelled(scenarioFloors);
+            event.commit();
+        }
+    }
+
+    /**
+     * Waits for a batch to be planned.
+     *
+     * @param batchPlanned The Future of the batch.
+     * @throws ElevatorScenarioExecutionException if planning failed or the wait was interrupted.
+     */
+    private static void await(final Future<?> batchPlanned)
+    {
+        try
+        {
+            batchPlanned.get();
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new ElevatorScenarioExecutionException("Interrupted while summarizing scenarios.", exception);
+        }
+        catch (final ExecutionException exception)
+        {
+            if (exception.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new ElevatorScenarioExecutionException("Exception occurred while summarizing scenarios.", exception.getCause());
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package elevator.sim;
 
+import com.google.common.collect.ImmutableList;
 import elevator.sim.core.MoveCommand;
 import elevator.sim.core.Scenario;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
 /**
  * Verifies parameter validation in the {@linkplain MoveCommand} class.
  */
@@ -24,4 +29,70 @@ public final class ScenarioTest
         exception.expectMessage("moveCommands: null");
         new Scenario(null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies that a Scenario assembled by the Builder is equal to one constructed from the same MoveCommands, and exposes the same floors.
+     */
+    @Test
+    public void builderMatchesMoveCommands()
+    {
+        final Scenario built = Scenario.builder().addMove(10, 8).addMove(8, 1).build();
+        final Scenario constructed = new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1)));
+
+        assertThat(built, equalTo(constructed));
+        assertThat(built.hashCode(), equalTo(constructed.hashCode()));
+        assertThat(built.getMoveCount(), equalTo(2));
+        assertThat(built.getOriginatingFloor(1), equalTo(8));
+        assertThat(built.getDestinationFloor(1), equalTo(1));
+        assertThat(built.getMoveCommands(), contains(new MoveCommand(10, 8), new MoveCommand(8, 1)));
+        assertThat(built.getMoveCommandView(), equalTo(built.getMoveCommands()));
+    }
+
+    /**
+     * Verifies that the Builder grows beyond its initial capacity.
+     */
+    @Test
+    public void builderGrows()
+    {
+        final Scenario.Builder builder = Scenario.builder();
+        for (int floor = 1; floor <= 100; floor++)
+        {
+            builder.addMove(floor, floor + 1);
+        }
+        final Scenario scenario = builder.build();
+
+        assertThat(scenario.getMoveCount(), equalTo(100));
+        assertThat(scenario.getDestinationFloor(99), equalTo(101));
+    }
+
+    /**
+     * Verifies that the Builder applies the same validation as {@linkplain MoveCommand}.
+     */
+    @Test
+    public void builderValidatesFloors()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("originatingFloor and destinationFloor must be different values");
+        Scenario.builder().addMove(130, 130);
+    }
+
+    /**
+     * Verifies that the MoveCommand view of a Scenario cannot be modified.
+     */
+    @Test
+    public void moveCommandsAreUnmodifiable()
+    {
+        exception.expect(UnsupportedOperationException.class);
+        new Scenario(ImmutableList.of(new MoveCommand(10, 8))).getMoveCommandView().add(new MoveCommand(8, 1));
+    }
+
+    /**
+     * Verifies that a move index outside the Scenario is rejected.
+     */
+    @Test
+    public void moveIndexOutOfRange()
+    {
+        exception.expect(IndexOutOfBoundsException.class);
+        new Scenario(ImmutableList.of(new MoveCommand(10, 8))).getOriginatingFloor(1);
+    }
+}
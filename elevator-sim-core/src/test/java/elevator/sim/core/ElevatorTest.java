@@ -0,0 +1,45 @@
+package elevator.sim.core;
+
+import com.google.common.collect.ImmutableList;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the default methods of {@linkplain Elevator}, which run {@linkplain Scenario Scenarios} one at a time through {@linkplain Elevator#runScenario(Scenario)}.
+ */
+public final class ElevatorTest
+{
+    /**
+     * Verifies that every Scenario in a List is run, in order.
+     */
+    @Test
+    public void runsScenariosInOrder()
+    {
+        final Scenario first = Scenario.builder().addMove(10, 8).build();
+        final Scenario second = Scenario.builder().addMove(3, 6).build();
+        final List<Scenario> scenariosRun = new ArrayList<>();
+        final Elevator elevator = scenariosRun::add;
+
+        elevator.runScenarios(ImmutableList.of(first, second));
+        elevator.runScenarios(ImmutableList.of(first).iterator());
+
+        assertThat(scenariosRun, Matchers.contains(first, second, first));
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when running a null List of Scenarios.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullScenarios()
+    {
+        final Elevator elevator = scenario ->
+        {
+        };
+        elevator.runScenarios((List<Scenario>) null);
+    }
+}
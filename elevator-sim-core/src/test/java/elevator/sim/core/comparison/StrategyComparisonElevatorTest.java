@@ -0,0 +1,231 @@
+package elevator.sim.core.comparison;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveByLookSweep;
+import elevator.sim.core.strategy.MoveByNearestRequest;
+import elevator.sim.core.strategy.MoveBySingleRequest;
+import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.strategy.PrimitiveMoveStrategy;
+import elevator.sim.core.streaming.FlushPolicy;
+import elevator.sim.core.streaming.WriterOutputSink;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that the {@linkplain StrategyComparisonElevator} reports, for every {@linkplain Scenario}, the floors each strategy travels on its own, and totals and ranks the strategies correctly.
+ */
+public final class StrategyComparisonElevatorTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private static final ImmutableMap<String, MoveStrategy> STRATEGIES = ImmutableMap.of("A", new MoveBySingleRequest(), "C", new MoveByLookSweep(), "F", new MoveByNearestRequest());
+
+    /**
+     * Verifies the output for a single Scenario in which two strategies tie for the fewest floors.
+     */
+    @Test
+    public void singleScenario()
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StrategyComparisonElevator elevator = createElevator(STRATEGIES, output);
+        elevator.runScenarios(ImmutableList.of(Scenario.builder().addMove(10, 8).addMove(5, 1).addMove(9, 3).build()));
+
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8), Matchers.equalTo("A (23) | C (9) | F (9)"));
+        assertThat(elevator.getStrategyNames(), Matchers.contains("A", "C", "F"));
+    }
+
+    /**
+     * Verifies that every line reports the floors each strategy travels when planning the Scenario on its own, and that the totals and best counts add up. Enough scenarios are run to fill several batches.
+     */
+    @Test
+    public void matchesEachStrategy()
+    {
+        final Random random = new Random(21);
+        final List<Scenario> scenarios = new ArrayList<>();
+        for (int scenarioIndex = 0; scenarioIndex < 5000; scenarioIndex++)
+        {
+            final Scenario.Builder builder = Scenario.builder();
+            final int moves = 1 + random.nextInt(12);
+            for (int moveIndex = 0; moveIndex < moves; moveIndex++)
+            {
+                builder.addMove(1 + random.nextInt(20), 21 + random.nextInt(20));
+            }
+            scenarios.add(builder.build());
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StrategyComparisonElevator elevator = createElevator(STRATEGIES, output);
+        elevator.runScenarios(scenarios);
+
+        final String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertThat(lines.length, Matchers.equalTo(scenarios.size()));
+        final FloorSequence moveSequence = new FloorSequence();
+        final long[] totals = new long[STRATEGIES.size()];
+        long bestCounts = 0;
+        for (int scenarioIndex = 0; scenarioIndex < scenarios.size(); scenarioIndex++)
+        {
+            final StringBuilder expected = new StringBuilder();
+            final long[] floors = new long[STRATEGIES.size()];
+            int strategyIndex = 0;
+            for (final Map.Entry<String, MoveStrategy> entry : STRATEGIES.entrySet())
+            {
+                ((PrimitiveMoveStrategy) entry.getValue()).getMoveSequence(scenarios.get(scenarioIndex), moveSequence);
+                floors[strategyIndex] = moveSequence.getFloorsTravelled();
+                totals[strategyIndex] += floors[strategyIndex];
+                expected.append(strategyIndex > 0 ? " | " : "").append(entry.getKey()).append(" (").append(floors[strategyIndex]).append(')');
+                strategyIndex++;
+            }
+            final long fewestFloors = Math.min(floors[0], Math.min(floors[1], floors[2]));
+            for (final long strategyFloors : floors)
+            {
+                bestCounts += strategyFloors == fewestFloors ? 1 : 0;
+            }
+            assertThat(lines[scenarioIndex], Matchers.equalTo(expected.toString()));
+        }
+
+        assertThat(elevator.getScenarioCount(), Matchers.equalTo((long) scenarios.size()));
+        assertThat(elevator.getFloorsTravelled("A"), Matchers.equalTo(totals[0]));
+        assertThat(elevator.getFloorsTravelled("C"), Matchers.equalTo(totals[1]));
+        assertThat(elevator.getFloorsTravelled("F"), Matchers.equalTo(totals[2]));
+        assertThat(elevator.getBestCount("A") + elevator.getBestCount("C") + elevator.getBestCount("F"), Matchers.equalTo(bestCounts));
+        assertThat(elevator.getSoleBestCount("C"), Matchers.lessThanOrEqualTo(elevator.getBestCount("C")));
+    }
+
+    /**
+     * Verifies that a Scenario without move commands ends the run, after every Scenario ahead of it has been written.
+     */
+    @Test
+    public void emptyScenarioStopsOutput()
+    {
+        final Scenario scenario = Scenario.builder().addMove(10, 8).addMove(8, 1).build();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StrategyComparisonElevator elevator = createElevator(STRATEGIES, output);
+        elevator.runScenarios(ImmutableList.of(scenario, scenario, Scenario.builder().build(), scenario));
+
+        final String line = "A (9) | C (9) | F (9)";
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8), Matchers.equalTo(line + System.lineSeparator() + line));
+        assertThat(elevator.getScenarioCount(), Matchers.equalTo(2L));
+        assertThat(elevator.getBestCount("F"), Matchers.equalTo(2L));
+        assertThat(elevator.getSoleBestCount("F"), Matchers.equalTo(0L));
+    }
+
+    /**
+     * Verifies that the summary has a row per strategy with its totals.
+     */
+    @Test
+    public void summary()
+    {
+        final StrategyComparisonElevator elevator = createElevator(STRATEGIES, new ByteArrayOutputStream());
+        elevator.runScenarios(ImmutableList.of(Scenario.builder().addMove(10, 8).addMove(5, 1).addMove(9, 3).build()));
+
+        final String[] rows = elevator.formatSummary().split(System.lineSeparator());
+        assertThat(rows.length, Matchers.equalTo(5));
+        assertThat(rows[0], Matchers.equalTo("Compared 3 strategies over 1 scenarios (best counts ties; sole best does not):"));
+        assertThat(rows[2].split(" +"), Matchers.arrayContaining("A", "23", "23.00", "0", "0"));
+        assertThat(rows[3].split(" +"), Matchers.arrayContaining("C", "9", "9.00", "1", "0"));
+    }
+
+    /**
+     * Verifies that an exception thrown by a strategy on a planning thread reaches the caller.
+     */
+    @Test
+    public void strategyFailurePropagates()
+    {
+        final MoveStrategy failingStrategy = mock(MoveStrategy.class);
+        when(failingStrategy.getMoveSequence(anyListOf(MoveCommand.class))).thenThrow(new IllegalStateException("planning failed"));
+
+        exception.expect(IllegalStateException.class);
+        exception.expectMessage("planning failed");
+        createElevator(ImmutableMap.of("A", new MoveBySingleRequest(), "X", failingStrategy), new ByteArrayOutputStream()).runScenarios(ImmutableList.of(Scenario.builder().addMove(10, 8).build()));
+    }
+
+    /**
+     * Verifies that every run of an elevator plans on the same threads, and that closing the elevator stops them.
+     */
+    @Test
+    public void planningThreadsAreReusedUntilClosed() throws InterruptedException
+    {
+        final Set<Thread> planningThreads = ConcurrentHashMap.newKeySet();
+        final MoveStrategy recordingStrategy = moveCommands ->
+        {
+            planningThreads.add(Thread.currentThread());
+            return new MoveByLookSweep().getMoveSequence(moveCommands);
+        };
+        final StrategyComparisonElevator elevator = createElevator(ImmutableMap.of("A", new MoveBySingleRequest(), "C", recordingStrategy), new ByteArrayOutputStream());
+        for (int run = 0; run < 10; run++)
+        {
+            elevator.runScenario(Scenario.builder().addMove(10, 8).addMove(5, 1).build());
+        }
+        elevator.close();
+
+        assertThat(elevator.getScenarioCount(), Matchers.equalTo(10L));
+        assertThat(planningThreads.isEmpty(), Matchers.equalTo(false));
+        assertThat(planningThreads.size(), Matchers.lessThanOrEqualTo(2));
+        for (final Thread planningThread : planningThreads)
+        {
+            planningThread.join(10_000);
+            assertThat(planningThread.isAlive(), Matchers.equalTo(false));
+        }
+    }
+
+    /**
+     * Verifies that a closed elevator refuses to run further scenarios.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void closedElevator()
+    {
+        final StrategyComparisonElevator elevator = createElevator(STRATEGIES, new ByteArrayOutputStream());
+        elevator.close();
+        elevator.runScenario(Scenario.builder().addMove(10, 8).build());
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when asking for the totals of a strategy that is not compared.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownStrategy()
+    {
+        createElevator(STRATEGIES, new ByteArrayOutputStream()).getFloorsTravelled("B");
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when there are no strategies to compare.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void noStrategies()
+    {
+        createElevator(ImmutableMap.of(), new ByteArrayOutputStream());
+    }
+
+    /**
+     * @param strategies The strategies to compare.
+     * @param output The stream to write the comparison to.
+     * @return Non-null StrategyComparisonElevator writing to the stream when its run ends.
+     */
+    private static StrategyComparisonElevator createElevator(final Map<String, MoveStrategy> strategies, final ByteArrayOutputStream output)
+    {
+        return new StrategyComparisonElevator(strategies, new WriterOutputSink(new OutputStreamWriter(output, StandardCharsets.UTF_8), FlushPolicy.atEnd()));
+    }
+}
@@ -0,0 +1,116 @@
+package elevator.sim.core.event;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain EventQueue} delivers events in order of time and then of scheduling.
+ */
+public final class EventQueueTest
+{
+    /**
+     * Verifies that polling an empty queue reports that there is no event.
+     */
+    @Test
+    public void emptyQueue()
+    {
+        final EventQueue eventQueue = new EventQueue();
+        assertThat(eventQueue.isEmpty(), Matchers.is(true));
+        assertThat(eventQueue.poll(), Matchers.is(false));
+        assertThat(eventQueue.getType(), Matchers.nullValue());
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when an event is scheduled before time 0.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTime()
+    {
+        new EventQueue().schedule(-1, EventType.RIDER_ARRIVAL, 0);
+    }
+
+    /**
+     * Verifies that events are delivered earliest first, and simultaneous events in the order they were scheduled.
+     */
+    @Test
+    public void timeThenSchedulingOrder()
+    {
+        final EventQueue eventQueue = new EventQueue();
+        eventQueue.schedule(500, EventType.DOORS_OPENED, 1);
+        eventQueue.schedule(100, EventType.RIDER_ARRIVAL, 2);
+        eventQueue.schedule(500, EventType.RIDER_BOARDED, 3);
+        eventQueue.schedule(100, EventType.CAR_ARRIVAL, 4);
+
+        assertPolled(eventQueue, 100, EventType.RIDER_ARRIVAL, 2);
+        assertPolled(eventQueue, 100, EventType.CAR_ARRIVAL, 4);
+        assertPolled(eventQueue, 500, EventType.DOORS_OPENED, 1);
+        assertPolled(eventQueue, 500, EventType.RIDER_BOARDED, 3);
+        assertThat(eventQueue.poll(), Matchers.is(false));
+    }
+
+    /**
+     * Verifies that cleared queues are empty and number simultaneous events afresh.
+     */
+    @Test
+    public void clear()
+    {
+        final EventQueue eventQueue = new EventQueue();
+        eventQueue.schedule(7, EventType.DOORS_CLOSED, 1);
+        eventQueue.poll();
+        eventQueue.schedule(9, EventType.DOORS_CLOSED, 2);
+        eventQueue.clear();
+
+        assertThat(eventQueue.size(), Matchers.is(0));
+        assertThat(eventQueue.getType(), Matchers.nullValue());
+        eventQueue.schedule(3, EventType.RIDER_EXITED, 5);
+        assertPolled(eventQueue, 3, EventType.RIDER_EXITED, 5);
+    }
+
+    /**
+     * Verifies the order of a long, random interleaving of schedules and polls, beyond the initial capacity, against a PriorityQueue of (time, sequence) pairs.
+     */
+    @Test
+    public void matchesPriorityQueue()
+    {
+        final Random random = new Random(23);
+        final EventQueue eventQueue = new EventQueue();
+        final PriorityQueue<long[]> expected = new PriorityQueue<>((first, second) -> first[0] != second[0] ? Long.compare(first[0], second[0]) : Long.compare(first[1], second[1]));
+        long sequence = 0;
+        for (int step = 0; step < 200000; step++)
+        {
+            if (random.nextInt(3) > 0 || expected.isEmpty())
+            {
+                final long time = random.nextInt(1000);
+                eventQueue.schedule(time, EventType.CAR_ARRIVAL, (int) sequence);
+                expected.add(new long[]{time, sequence++});
+            }
+            else
+            {
+                final long[] event = expected.poll();
+                assertPolled(eventQueue, event[0], EventType.CAR_ARRIVAL, (int) event[1]);
+            }
+            assertThat(eventQueue.size(), Matchers.is(expected.size()));
+        }
+    }
+
+    /**
+     * Polls an event and verifies it.
+     *
+     * @param eventQueue The queue to poll.
+     * @param time The expected time.
+     * @param type The expected type.
+     * @param subject The expected subject.
+     */
+    private static void assertPolled(final EventQueue eventQueue, final long time, final EventType type, final int subject)
+    {
+        assertThat(eventQueue.poll(), Matchers.is(true));
+        assertThat(eventQueue.getTime(), Matchers.is(time));
+        assertThat(eventQueue.getType(), Matchers.is(type));
+        assertThat(eventQueue.getSubject(), Matchers.is(subject));
+    }
+}
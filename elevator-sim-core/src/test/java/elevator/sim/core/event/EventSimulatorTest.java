@@ -0,0 +1,201 @@
+package elevator.sim.core.event;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain EventSimulator} moves the car, opens and closes its doors and transfers riders with the configured timing, and reports what happened.
+ */
+public final class EventSimulatorTest
+{
+    private static final CarTiming TIMING = new CarTiming(1500, 2000, 1000);
+
+    /**
+     * Verifies that a scenario without riders finishes immediately.
+     */
+    @Test
+    public void noRiders()
+    {
+        final SimulationReport report = new EventSimulator(new CollectiveDispatch(), TIMING).run(TimedScenario.builder(4).build());
+        assertThat(report.toString(), Matchers.equalTo("riders 0 | events 0 | floors 0 | wait avg 0 max 0 | trip avg 0 max 0 | finished 0 ms"));
+        assertThat(report.getEventCount(), Matchers.is(0L));
+    }
+
+    /**
+     * Verifies the timeline of a single rider: the doors open (2 s), the rider boards (1 s), the doors close (2 s), the car travels 4 floors (6 s), and the doors open (2 s), the rider gets off (1 s) and the doors close
+     * (2 s) again.
+     */
+    @Test
+    public void singleRider()
+    {
+        final SimulationReport report = new EventSimulator(new CollectiveDispatch(), TIMING).run(TimedScenario.builder(3).addRider(1000, 3, 7).build());
+        assertThat(report.getFinishTime(), Matchers.is(1000L + 2000 + 1000 + 2000 + 6000 + 2000 + 1000 + 2000));
+        assertThat(report.getAverageWaitTime(), Matchers.is(2000L));
+        assertThat(report.getMaximumTripTime(), Matchers.is(14000L));
+        assertThat(report.getFloorsTravelled(), Matchers.is(4L));
+        // Arrival, doors opened, boarded, doors closed, arrival at 7, doors opened, exited, doors closed.
+        assertThat(report.getEventCount(), Matchers.is(8L));
+    }
+
+    /**
+     * Verifies collective control on riders arriving while the car is busy: the car serves 1 and 5 going up, picks up the rider who arrived at 7 on the way to 10, and drops everyone off on the way back down, passing
+     * floor 7 without stopping.
+     */
+    @Test
+    public void collectiveControl()
+    {
+        final TimedScenario scenario = TimedScenario.builder(1)
+                .addRider(0, 1, 10)
+                .addRider(0, 5, 2)
+                .addRider(3000, 7, 1)
+                .build();
+        final SimulationReport report = new EventSimulator(new CollectiveDispatch(), TIMING).run(scenario);
+        assertThat(report.toString(), Matchers.equalTo("riders 3 | events 29 | floors 18 | wait avg 11000 max 18000 | trip avg 44000 max 52000 | finished 57000 ms"));
+    }
+
+    /**
+     * Verifies that the nearest-call strategy heads for the closer call, where collective control keeps its direction. The car drops its first rider off at 6 by 14 s and closes its doors at 16 s; by then riders wait at
+     * 10 and 5, both bound for 1.
+     */
+    @Test
+    public void nearestCallVersusCollective()
+    {
+        final TimedScenario scenario = TimedScenario.builder(2)
+                .addRider(0, 2, 6)
+                .addRider(12000, 10, 1)
+                .addRider(12000, 5, 1)
+                .build();
+        // Collective control carries on up to 10 and picks the rider at 5 up on the way down: 4 + 4 + 9.
+        assertThat(new EventSimulator(new CollectiveDispatch(), TIMING).run(scenario).getFloorsTravelled(), Matchers.is(17L));
+        // The nearest call from 6 is at 5 (1 floor), then 1 (4 floors, closer than 10), then 10 and back down to 1: 4 + 1 + 4 + 9 + 9.
+        assertThat(new EventSimulator(new NearestCallDispatch(), TIMING).run(scenario).getFloorsTravelled(), Matchers.is(27L));
+    }
+
+    /**
+     * Verifies that a rider arriving at the car's floor while its doors are open boards straight away.
+     */
+    @Test
+    public void riderArrivesWhileDoorsOpen()
+    {
+        final TimedScenario scenario = TimedScenario.builder(1)
+                .addRider(0, 1, 3)
+                .addRider(2500, 1, 3)
+                .build();
+        final SimulationReport report = new EventSimulator(new CollectiveDispatch(), TIMING).run(scenario);
+        // Doors open at 2 s, the first rider boards by 3 s, the second (arriving at 2.5 s) by 4 s, and the car only makes one trip.
+        assertThat(report.getFloorsTravelled(), Matchers.is(2L));
+        assertThat(report.getMaximumWaitTime(), Matchers.is(2000L));
+        assertThat(report.getFinishTime(), Matchers.is(4000L + 2000 + 3000 + 2000 + 2000 + 2000));
+    }
+
+    /**
+     * Verifies that the simulator goes idle between riders and can be reused for several scenarios, with the same results each time.
+     */
+    @Test
+    public void idleBetweenRidersAndReusable()
+    {
+        final EventSimulator simulator = new EventSimulator(new NearestCallDispatch(), TIMING);
+        final TimedScenario scenario = TimedScenario.builder(1)
+                .addRider(0, 4, 1)
+                .addRider(600000, 1, 4)
+                .build();
+        final String first = simulator.run(scenario).toString();
+        simulator.run(TimedScenario.builder(100).addRider(0, 1000, 1).addRider(0, 500, 2).build());
+        assertThat(simulator.run(scenario).toString(), Matchers.equalTo(first));
+        // The first rider waits for the car to come up 3 floors (4.5 s) and open its doors (2 s); the second finds it idle at 1 after its earlier trip.
+        assertThat(simulator.run(scenario).getMaximumWaitTime(), Matchers.is(6500L));
+    }
+
+    /**
+     * Verifies that an IllegalStateException is thrown when the strategy selects a direction without calls.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void strategySelectingEmptyDirection()
+    {
+        final DispatchStrategy alwaysDown = new DispatchStrategy()
+        {
+            @Override
+            public boolean shouldStop(final CarView car)
+            {
+                return true;
+            }
+
+            @Override
+            public int selectDirection(final CarView car)
+            {
+                return CarView.DOWN;
+            }
+        };
+        new EventSimulator(alwaysDown, TIMING).run(TimedScenario.builder(1).addRider(0, 2, 3).build());
+    }
+
+    /**
+     * Verifies that a strategy that never wants to stop still stops once no calls remain ahead, so every rider is carried.
+     */
+    @Test
+    public void strategyThatNeverStops()
+    {
+        final DispatchStrategy neverStop = new DispatchStrategy()
+        {
+            @Override
+            public boolean shouldStop(final CarView car)
+            {
+                return false;
+            }
+
+            @Override
+            public int selectDirection(final CarView car)
+            {
+                return car.nextCallAbove(car.getPosition()) >= 0 ? CarView.UP : CarView.DOWN;
+            }
+        };
+        final TimedScenario scenario = randomScenario(new Random(2), 2000, 30, 60000);
+        assertThat(new EventSimulator(neverStop, TIMING).run(scenario).getRiderCount(), Matchers.is(2000));
+    }
+
+    /**
+     * Verifies that a full day of heavy traffic, several hundred thousand riders over a hundred floors, is replayed well within the time limit, i.e. at millions of events per second.
+     */
+    @Test(timeout = 15000)
+    public void fullDay()
+    {
+        final int riderCount = 400000;
+        final TimedScenario scenario = randomScenario(new Random(41), riderCount, 100, 86400000);
+        for (final DispatchStrategy dispatchStrategy : new DispatchStrategy[]{new CollectiveDispatch(), new NearestCallDispatch()})
+        {
+            final SimulationReport report = new EventSimulator(dispatchStrategy, new CarTiming(100, 200, 50)).run(scenario);
+            assertThat(report.getRiderCount(), Matchers.is(riderCount));
+            assertThat(report.getEventCount(), Matchers.greaterThan(3L * riderCount));
+        }
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param riderCount The number of riders.
+     * @param floorCount The number of floors.
+     * @param duration The time span the riders arrive over, in milliseconds.
+     * @return A TimedScenario of riders arriving at uniformly random times between random floors.
+     */
+    private static TimedScenario randomScenario(final Random random, final int riderCount, final int floorCount, final long duration)
+    {
+        final long[] arrivalTimes = new long[riderCount];
+        for (int rider = 0; rider < riderCount; rider++)
+        {
+            arrivalTimes[rider] = (long) (random.nextDouble() * duration);
+        }
+        java.util.Arrays.sort(arrivalTimes);
+
+        final TimedScenario.Builder builder = TimedScenario.builder(1);
+        for (int rider = 0; rider < riderCount; rider++)
+        {
+            final int originatingFloor = 1 + random.nextInt(floorCount);
+            final int destinationFloor = 1 + (originatingFloor + random.nextInt(floorCount - 1)) % floorCount;
+            builder.addRider(arrivalTimes[rider], originatingFloor, destinationFloor);
+        }
+        return builder.build();
+    }
+}
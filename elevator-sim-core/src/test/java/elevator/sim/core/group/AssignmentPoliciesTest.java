@@ -0,0 +1,109 @@
+package elevator.sim.core.group;
+
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the built-in {@linkplain AssignmentPolicy AssignmentPolicies} assign every move command to a valid car as documented.
+ */
+public final class AssignmentPoliciesTest
+{
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private static final Scenario SCENARIO = Scenario.builder()
+            .addMove(1, 10)
+            .addMove(2, 3)
+            .addMove(9, 1)
+            .addMove(10, 2)
+            .addMove(3, 4)
+            .build();
+
+    /**
+     * Verifies that each built-in policy can be parsed back from its name.
+     */
+    @Test
+    public void parseNames()
+    {
+        assertThat(AssignmentPolicies.parse("round-robin"), Matchers.sameInstance(AssignmentPolicies.roundRobin()));
+        assertThat(AssignmentPolicies.parse("nearest"), Matchers.sameInstance(AssignmentPolicies.nearestCar()));
+        assertThat(AssignmentPolicies.parse("zones"), Matchers.sameInstance(AssignmentPolicies.zones()));
+    }
+
+    /**
+     * Verifies that parsing an unknown name lists the valid ones.
+     */
+    @Test
+    public void parseUnknownName()
+    {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Unknown assignment policy: [closest]. Valid options include [round-robin, nearest, zones].");
+        AssignmentPolicies.parse("closest");
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when the assignment array cannot hold every move command.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void assignmentArrayTooShort()
+    {
+        AssignmentPolicies.nearestCar().assign(SCENARIO, 2, new int[SCENARIO.getMoveCount() - 1]);
+    }
+
+    /**
+     * Verifies that round robin deals the move commands out to the cars in turn.
+     */
+    @Test
+    public void roundRobin()
+    {
+        assertThat(assign(AssignmentPolicies.roundRobin(), 2), Matchers.equalTo(new int[] {0, 1, 0, 1, 0}));
+    }
+
+    /**
+     * Verifies that each move command goes to the car that will be nearest its originating floor, breaking ties in favour of the car with fewer commands: all cars start at floor 1, the first command sends car 0 to
+     * floor 10, so floor 2 goes to idle car 1, floor 9 to car 0 and so on.
+     */
+    @Test
+    public void nearestCar()
+    {
+        assertThat(assign(AssignmentPolicies.nearestCar(), 2), Matchers.equalTo(new int[] {0, 1, 0, 1, 1}));
+    }
+
+    /**
+     * Verifies that zones split the move commands into contiguous floor bands of roughly equal size, never splitting a floor between cars.
+     */
+    @Test
+    public void zones()
+    {
+        assertThat(assign(AssignmentPolicies.zones(), 2), Matchers.equalTo(new int[] {0, 0, 1, 1, 0}));
+    }
+
+    /**
+     * Verifies that a single car receives every move command whatever the policy.
+     */
+    @Test
+    public void singleCar()
+    {
+        for (final AssignmentPolicy policy : new AssignmentPolicy[] {AssignmentPolicies.roundRobin(), AssignmentPolicies.nearestCar(), AssignmentPolicies.zones()})
+        {
+            assertThat(policy.toString(), assign(policy, 1), Matchers.equalTo(new int[SCENARIO.getMoveCount()]));
+        }
+    }
+
+    /**
+     * @param policy The policy to run.
+     * @param carCount The number of cars.
+     * @return The car assigned to each move command of the test scenario.
+     */
+    private static int[] assign(final AssignmentPolicy policy, final int carCount)
+    {
+        final int[] carOfMove = new int[SCENARIO.getMoveCount()];
+        policy.assign(SCENARIO, carCount, carOfMove);
+        return carOfMove;
+    }
+}
@@ -0,0 +1,184 @@
+package elevator.sim.core.group;
+
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveByLookSweep;
+import elevator.sim.core.strategy.MoveByNearestRequest;
+import elevator.sim.core.strategy.MoveByRequestsInSameDirection;
+import elevator.sim.core.strategy.MoveStrategy;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain ElevatorGroup} splits a {@linkplain Scenario} between its cars and plans every car's route so that each rider is carried by the car it was assigned to.
+ */
+public final class ElevatorGroupTest
+{
+    /**
+     * Verifies that an IllegalArgumentException is thrown when the group has no cars.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void noCars()
+    {
+        new ElevatorGroup(0, AssignmentPolicies.nearestCar(), new MoveByLookSweep());
+    }
+
+    /**
+     * Verifies that an empty Scenario produces an empty plan with every car idle.
+     */
+    @Test
+    public void emptyScenario()
+    {
+        final GroupPlan plan = new ElevatorGroup(3, AssignmentPolicies.nearestCar(), new MoveByLookSweep()).plan(Scenario.builder().build());
+        assertThat(plan.isEmpty(), Matchers.is(true));
+        assertThat(plan.getCarCount(), Matchers.is(3));
+        assertThat(plan.getFloorsTravelled(), Matchers.is(0L));
+    }
+
+    /**
+     * Verifies that a group of one car plans exactly the route of its strategy.
+     */
+    @Test
+    public void singleCarMatchesStrategy()
+    {
+        final Scenario scenario = randomScenario(new Random(11), 500, 40);
+        final FloorSequence expected = new FloorSequence();
+        new MoveByNearestRequest().getMoveSequence(scenario, expected);
+
+        final GroupPlan plan = new ElevatorGroup(1, AssignmentPolicies.zones(), new MoveByNearestRequest()).plan(scenario);
+        assertThat(plan.getCarSequence(0).toImmutableList(), Matchers.equalTo(expected.toImmutableList()));
+        assertThat(plan.getFloorsTravelled(), Matchers.is(expected.getFloorsTravelled()));
+    }
+
+    /**
+     * Verifies the per-car output, where cars that received an assignment start with a move from the initial floor to their first rider and idle cars travel nowhere.
+     */
+    @Test
+    public void exampleCaseOne()
+    {
+        final Scenario scenario = Scenario.builder().addMove(10, 8).addMove(5, 1).build();
+        assertThat(new ElevatorGroup(3, AssignmentPolicies.roundRobin(), new MoveByRequestsInSameDirection()).plan(scenario).toString(),
+                Matchers.equalTo("car 1: 10 8 (2) | car 2: 10 5 1 (9) | car 3: (0) | total (11)"));
+    }
+
+    /**
+     * Verifies that, for every policy and strategy, each car visits the originating and then the destination floor of every rider assigned to it.
+     */
+    @Test
+    public void everyRiderCarriedByItsCar()
+    {
+        final Random random = new Random(5);
+        final MoveStrategy[] strategies = {new MoveByRequestsInSameDirection(), new MoveByLookSweep(), new MoveByNearestRequest()};
+        final AssignmentPolicy[] policies = {AssignmentPolicies.roundRobin(), AssignmentPolicies.nearestCar(), AssignmentPolicies.zones()};
+        for (int trial = 0; trial < 100; trial++)
+        {
+            final Scenario scenario = randomScenario(random, 1 + random.nextInt(60), 2 + random.nextInt(30));
+            final int carCount = 1 + random.nextInt(5);
+            for (final MoveStrategy strategy : strategies)
+            {
+                for (final AssignmentPolicy policy : policies)
+                {
+                    assertCarriesEveryRider(scenario, carCount, policy, new ElevatorGroup(carCount, policy, strategy).plan(scenario));
+                }
+            }
+        }
+    }
+
+    /**
+     * Verifies that planning the cars in parallel produces the same plan as planning them one after another.
+     */
+    @Test
+    public void parallelPlanningMatchesSequential() throws InterruptedException
+    {
+        final Scenario scenario = randomScenario(new Random(3), 20000, 300);
+        final ElevatorGroup group = new ElevatorGroup(4, AssignmentPolicies.nearestCar(), new MoveByLookSweep());
+        final ExecutorService carPlanners = Executors.newFixedThreadPool(4);
+        try
+        {
+            assertThat(group.plan(scenario, carPlanners).toString(), Matchers.equalTo(group.plan(scenario).toString()));
+        }
+        finally
+        {
+            carPlanners.shutdown();
+            carPlanners.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Verifies that a building with hundreds of thousands of riders is planned within seconds.
+     */
+    @Test(timeout = 10000)
+    public void manyRiders() throws InterruptedException
+    {
+        final Scenario scenario = randomScenario(new Random(17), 300000, 1000);
+        final ExecutorService carPlanners = Executors.newFixedThreadPool(4);
+        try
+        {
+            final GroupPlan plan = new ElevatorGroup(8, AssignmentPolicies.nearestCar(), new MoveByNearestRequest()).plan(scenario, carPlanners);
+            int moveCount = 0;
+            for (int car = 0; car < plan.getCarCount(); car++)
+            {
+                moveCount += plan.getCarMoveCount(car);
+            }
+            assertThat(moveCount, Matchers.is(scenario.getMoveCount()));
+        }
+        finally
+        {
+            carPlanners.shutdown();
+            carPlanners.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    /**
+     * Asserts that each car of the plan visits the originating and then the destination floor of every rider the policy assigns to it.
+     *
+     * @param scenario The planned Scenario.
+     * @param carCount The number of cars.
+     * @param policy The policy the plan was made with.
+     * @param plan The plan to check.
+     */
+    private static void assertCarriesEveryRider(final Scenario scenario, final int carCount, final AssignmentPolicy policy, final GroupPlan plan)
+    {
+        final int[] carOfMove = new int[scenario.getMoveCount()];
+        policy.assign(scenario, carCount, carOfMove);
+        for (int moveIndex = 0; moveIndex < scenario.getMoveCount(); moveIndex++)
+        {
+            final FloorSequence route = plan.getCarSequence(carOfMove[moveIndex]);
+            int stop = 0;
+            while (stop < route.size() && route.get(stop) != scenario.getOriginatingFloor(moveIndex))
+            {
+                stop++;
+            }
+            while (stop < route.size() && route.get(stop) != scenario.getDestinationFloor(moveIndex))
+            {
+                stop++;
+            }
+            assertThat(policy + " " + scenario + " move " + moveIndex + " route " + route, stop, Matchers.lessThan(route.size()));
+        }
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param moveCount The number of move commands.
+     * @param floorCount The number of floors.
+     * @return A random Scenario in which every command starts where the previous one ended or elsewhere, but never goes nowhere.
+     */
+    private static Scenario randomScenario(final Random random, final int moveCount, final int floorCount)
+    {
+        final Scenario.Builder builder = Scenario.builder();
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            final int originatingFloor = 1 + random.nextInt(floorCount);
+            final int destinationFloor = 1 + (originatingFloor + random.nextInt(floorCount - 1)) % floorCount;
+            builder.addMove(originatingFloor, destinationFloor);
+        }
+        return builder.build();
+    }
+}
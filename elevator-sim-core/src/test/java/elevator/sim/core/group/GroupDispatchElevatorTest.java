@@ -0,0 +1,84 @@
+package elevator.sim.core.group;
+
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.MoveByLookSweep;
+import elevator.sim.core.streaming.FlushPolicy;
+import elevator.sim.core.streaming.WriterOutputSink;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the lifecycle of the planning threads of a {@linkplain GroupDispatchElevator}; the plans themselves are covered by {@linkplain ElevatorGroupTest}.
+ */
+public final class GroupDispatchElevatorTest
+{
+    /**
+     * Verifies that every run of an elevator plans its cars on the same threads, and that closing the elevator stops them.
+     */
+    @Test
+    public void planningThreadsAreReusedUntilClosed() throws InterruptedException
+    {
+        final Set<Thread> planningThreads = ConcurrentHashMap.newKeySet();
+        final MoveByLookSweep strategy = new MoveByLookSweep();
+        final ElevatorGroup group = new ElevatorGroup(4, AssignmentPolicies.roundRobin(), moveCommands ->
+        {
+            planningThreads.add(Thread.currentThread());
+            return strategy.getMoveSequence(moveCommands);
+        });
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final GroupDispatchElevator elevator = new GroupDispatchElevator(group, new WriterOutputSink(new OutputStreamWriter(output, StandardCharsets.UTF_8), FlushPolicy.atEnd()), 2);
+
+        // Large enough for the cars to be planned on the elevator's threads rather than the calling thread.
+        final Scenario scenario = randomScenario(new Random(16), 5000);
+        for (int run = 0; run < 5; run++)
+        {
+            elevator.runScenario(scenario);
+        }
+        elevator.close();
+
+        assertThat(planningThreads.isEmpty(), Matchers.equalTo(false));
+        assertThat(planningThreads.contains(Thread.currentThread()), Matchers.equalTo(false));
+        assertThat(planningThreads.size(), Matchers.lessThanOrEqualTo(2));
+        for (final Thread planningThread : planningThreads)
+        {
+            planningThread.join(10_000);
+            assertThat(planningThread.isAlive(), Matchers.equalTo(false));
+        }
+    }
+
+    /**
+     * Verifies that a closed elevator refuses to run further scenarios.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void closedElevator()
+    {
+        final GroupDispatchElevator elevator = new GroupDispatchElevator(new ElevatorGroup(2, AssignmentPolicies.nearestCar(), new MoveByLookSweep()),
+                new WriterOutputSink(new OutputStreamWriter(new ByteArrayOutputStream(), StandardCharsets.UTF_8), FlushPolicy.atEnd()), 2);
+        elevator.close();
+        elevator.runScenario(randomScenario(new Random(16), 10));
+    }
+
+    /**
+     * @param random The source of floors.
+     * @param moves The number of move commands.
+     * @return Non-null Scenario whose commands all start below floor 21 and end above floor 20.
+     */
+    private static Scenario randomScenario(final Random random, final int moves)
+    {
+        final Scenario.Builder builder = Scenario.builder();
+        for (int moveIndex = 0; moveIndex < moves; moveIndex++)
+        {
+            builder.addMove(1 + random.nextInt(20), 21 + random.nextInt(20));
+        }
+        return builder.build();
+    }
+}
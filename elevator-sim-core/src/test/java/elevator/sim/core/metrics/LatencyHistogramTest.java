@@ -0,0 +1,102 @@
+package elevator.sim.core.metrics;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Verifies that {@linkplain LatencyHistogram} buckets values with a bounded relative error and summarizes them correctly, including when recorded from several threads at once.
+ */
+public final class LatencyHistogramTest
+{
+    /**
+     * Verifies that every value falls in a bucket whose upper bound is at least the value and at most an eighth above it, and that the buckets cover the whole range of a long without gaps.
+     */
+    @Test
+    public void bucketsBoundRelativeError()
+    {
+        final Random random = new Random(5);
+        for (int sample = 0; sample < 100000; sample++)
+        {
+            final long value = random.nextLong() >>> (1 + random.nextInt(Long.SIZE - 1));
+            final long upperBound = LatencyHistogram.getUpperBound(LatencyHistogram.getBucket(value));
+            assertThat(upperBound, greaterThanOrEqualTo(value));
+            assertThat(upperBound - value, lessThanOrEqualTo(value / 8));
+        }
+        assertThat(LatencyHistogram.getUpperBound(LatencyHistogram.getBucket(Long.MAX_VALUE)), equalTo(Long.MAX_VALUE));
+        for (int bucket = 1; bucket < LatencyHistogram.getBucket(Long.MAX_VALUE); bucket++)
+        {
+            assertThat(LatencyHistogram.getBucket(LatencyHistogram.getUpperBound(bucket - 1) + 1), equalTo(bucket));
+        }
+    }
+
+    /**
+     * Verifies that an empty histogram summarizes to zeros.
+     */
+    @Test
+    public void emptySummary()
+    {
+        final LatencySummary summary = new LatencyHistogram().summarize();
+        assertThat(summary.getCount(), equalTo(0L));
+        assertThat(summary.getMax(), equalTo(0L));
+    }
+
+    /**
+     * Verifies the count, mean, percentiles and maximum of the values 1 to 1000, and that negative values are recorded as 0.
+     */
+    @Test
+    public void summary()
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1000; value > 0; value--)
+        {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+
+        final LatencySummary summary = histogram.summarize();
+        assertThat(summary.getCount(), equalTo(1001L));
+        assertThat(summary.getMean(), equalTo(500L));
+        assertThat(summary.getP50(), greaterThanOrEqualTo(500L));
+        assertThat(summary.getP50(), lessThanOrEqualTo(500L + 500 / 8));
+        assertThat(summary.getP90(), greaterThanOrEqualTo(900L));
+        assertThat(summary.getP90(), lessThanOrEqualTo(900L + 900 / 8));
+        assertThat(summary.getP99(), greaterThanOrEqualTo(990L));
+        assertThat(summary.getP99(), lessThanOrEqualTo(1000L));
+        assertThat(summary.getMax(), equalTo(1000L));
+    }
+
+    /**
+     * Verifies that no recordings are lost when several threads record at once.
+     */
+    @Test
+    public void concurrentRecording() throws InterruptedException
+    {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final ExecutorService recorders = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++)
+        {
+            recorders.execute(() ->
+            {
+                for (int value = 0; value < 100000; value++)
+                {
+                    histogram.record(value % 1000);
+                }
+            });
+        }
+        recorders.shutdown();
+        assertThat(recorders.awaitTermination(1, TimeUnit.MINUTES), equalTo(true));
+
+        final LatencySummary summary = histogram.summarize();
+        assertThat(summary.getCount(), equalTo(400000L));
+        assertThat(summary.getMax(), equalTo(999L));
+    }
+}
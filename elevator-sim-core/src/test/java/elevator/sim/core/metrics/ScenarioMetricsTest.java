@@ -0,0 +1,111 @@
+package elevator.sim.core.metrics;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Verifies that {@linkplain ScenarioMetrics} accumulates what it is given, meters iterators, and publishes its metrics over JMX.
+ */
+public final class ScenarioMetricsTest
+{
+    /**
+     * Verifies that the counters and per-strategy latencies add up the recorded scenarios.
+     */
+    @Test
+    public void recordsScenarios()
+    {
+        final ScenarioMetrics metrics = new ScenarioMetrics();
+        metrics.recordScenario(4, 12);
+        metrics.recordScenario(2, 5);
+        metrics.recordScenario(3, 9);
+        metrics.recordPlanLatency("MoveByLookSweep", 1000);
+        metrics.recordPlanLatency("MoveByLookSweep", 3000);
+        metrics.recordPlanLatency("MoveBySingleRequest", 2000);
+        metrics.recordBytesWritten(20);
+        metrics.recordWriteLatency(500);
+
+        assertThat(metrics.getScenarioCount(), equalTo(3L));
+        assertThat(metrics.getMoveCount(), equalTo(9L));
+        assertThat(metrics.getFloorsTravelled(), equalTo(26L));
+        assertThat(metrics.getBytesWritten(), equalTo(20L));
+        assertThat(metrics.getPlanLatency().getCount(), equalTo(3L));
+        assertThat(metrics.getPlanLatencyByStrategy().keySet(), contains("MoveByLookSweep", "MoveBySingleRequest"));
+        assertThat(metrics.getPlanLatencyByStrategy().get("MoveByLookSweep").getMean(), equalTo(2000L));
+        assertThat(metrics.getWriteLatency().getMax(), equalTo(500L));
+        assertThat(metrics.formatSummary(), containsString("Scenarios: 3, moves: 9, floors travelled: 26, bytes written: 20."));
+    }
+
+    /**
+     * Verifies that only every n-th event is sampled, and that the disabled registry samples nothing.
+     */
+    @Test
+    public void samplesEveryInterval()
+    {
+        final ScenarioMetrics metrics = new ScenarioMetrics(3);
+        assertThat(metrics.isSampled(0), equalTo(true));
+        assertThat(metrics.isSampled(1), equalTo(false));
+        assertThat(metrics.isSampled(2), equalTo(false));
+        assertThat(metrics.isSampled(3), equalTo(true));
+        assertThat(ScenarioMetrics.disabled().isSampled(0), equalTo(false));
+    }
+
+    /**
+     * Verifies that a metered iterator produces the same elements and records the parse latency of sampled elements once each, however hasNext() and next() are called, and that the disabled registry does not
+     * wrap iterators.
+     */
+    @Test
+    public void metersParsing()
+    {
+        final ScenarioMetrics metrics = new ScenarioMetrics(2);
+        final Iterator<String> elements = metrics.meterParsing(ImmutableList.of("a", "b", "c", "d", "e").iterator());
+        assertThat(elements.next(), equalTo("a"));
+        assertThat(elements.hasNext(), equalTo(true));
+        assertThat(elements.hasNext(), equalTo(true));
+        final ImmutableList<String> rest = ImmutableList.copyOf(elements);
+
+        assertThat(rest, contains("b", "c", "d", "e"));
+        assertThat(metrics.getParseLatency().getCount(), equalTo(3L));
+
+        final Iterator<String> unmetered = ImmutableList.of("a").iterator();
+        assertThat(ScenarioMetrics.disabled().isEnabled(), equalTo(false));
+        assertThat(ScenarioMetrics.disabled().meterParsing(unmetered), sameInstance(unmetered));
+    }
+
+    /**
+     * Verifies that a registered registry exposes its counters and latency summaries as MBean attributes, and that it can be unregistered.
+     */
+    @Test
+    public void publishesOverJmx() throws JMException
+    {
+        final ScenarioMetrics metrics = new ScenarioMetrics();
+        metrics.recordScenario(4, 12);
+        metrics.recordPlanLatency("MoveByLookSweep", 1000);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(ScenarioMetrics.OBJECT_NAME);
+
+        metrics.register();
+        try
+        {
+            assertThat(server.getAttribute(name, "ScenarioCount"), equalTo(1L));
+            assertThat(((CompositeData) server.getAttribute(name, "PlanLatency")).get("max"), equalTo(1000L));
+        }
+        finally
+        {
+            metrics.unregister();
+        }
+        assertThat(server.isRegistered(name), equalTo(false));
+    }
+}
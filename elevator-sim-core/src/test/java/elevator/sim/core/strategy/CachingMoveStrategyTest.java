@@ -0,0 +1,241 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain CachingMoveStrategy} returns the routes of its delegate, plans each distinct {@linkplain Scenario} once while it stays cached, and keeps within its bounds.
+ */
+public final class CachingMoveStrategyTest
+{
+    private static final Scenario EXAMPLE_SCENARIO = new Scenario(ImmutableList.of(
+            new MoveCommand(7, 11),
+            new MoveCommand(11, 6),
+            new MoveCommand(10, 5),
+            new MoveCommand(6, 8),
+            new MoveCommand(7, 4),
+            new MoveCommand(12, 7),
+            new MoveCommand(8, 9)));
+
+    private final AtomicInteger plansMade = new AtomicInteger();
+    private final MoveStrategy countingStrategy = MoveStrategies.asMoveStrategy((scenario, moveSequence) ->
+    {
+        plansMade.incrementAndGet();
+        new MoveByRequestsInSameDirection().getMoveSequence(scenario, moveSequence);
+    });
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when the delegate is null.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullDelegate()
+    {
+        new CachingMoveStrategy(null, 10, 1000);
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when the cache may hold no entries.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void noEntries()
+    {
+        new CachingMoveStrategy(countingStrategy, 0, 1000);
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when the cache may hold no memory.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void noBytes()
+    {
+        new CachingMoveStrategy(countingStrategy, 10, 0);
+    }
+
+    /**
+     * Verifies that a repeated Scenario, including an equal copy, is planned once and then served from the cache with the delegate's route.
+     */
+    @Test
+    public void repeatedScenarioIsPlannedOnce()
+    {
+        final CachingMoveStrategy cachingStrategy = new CachingMoveStrategy(countingStrategy, 10, CachingMoveStrategy.DEFAULT_MAXIMUM_BYTES);
+        final FloorSequence moveSequence = new FloorSequence();
+
+        cachingStrategy.getMoveSequence(EXAMPLE_SCENARIO, moveSequence);
+        cachingStrategy.getMoveSequence(EXAMPLE_SCENARIO, moveSequence);
+        assertThat(cachingStrategy.getMoveSequence(EXAMPLE_SCENARIO.getMoveCommands()), Matchers.contains(7, 11, 10, 6, 5, 6, 8, 12, 7, 4, 8, 9));
+        assertThat(moveSequence.toImmutableList(), Matchers.contains(7, 11, 10, 6, 5, 6, 8, 12, 7, 4, 8, 9));
+        assertThat(plansMade.get(), Matchers.is(1));
+
+        final CacheStats stats = cachingStrategy.getStats();
+        assertThat(stats.hitCount(), Matchers.is(2L));
+        assertThat(stats.missCount(), Matchers.is(1L));
+        assertThat(stats.evictionCount(), Matchers.is(0L));
+        assertThat(cachingStrategy.size(), Matchers.is(1L));
+    }
+
+    /**
+     * Verifies that scenarios differing in a single floor, or only in the order of their moves, are planned separately.
+     */
+    @Test
+    public void differentScenariosAreNotShared()
+    {
+        final CachingMoveStrategy cachingStrategy = new CachingMoveStrategy(countingStrategy, 10, CachingMoveStrategy.DEFAULT_MAXIMUM_BYTES);
+
+        assertThat(cachingStrategy.getMoveSequence(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1))), Matchers.contains(10, 8, 1));
+        assertThat(cachingStrategy.getMoveSequence(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 2))), Matchers.contains(10, 8, 2));
+        assertThat(cachingStrategy.getMoveSequence(ImmutableList.of(new MoveCommand(8, 1), new MoveCommand(10, 8))), Matchers.contains(10, 8, 1));
+        assertThat(plansMade.get(), Matchers.is(3));
+        assertThat(cachingStrategy.size(), Matchers.is(3L));
+    }
+
+    /**
+     * Verifies that the cache never holds more than the maximum number of entries, and that a hit entry survives the next eviction while one that was never hit does not.
+     */
+    @Test
+    public void entryBoundEvictsUnusedEntriesFirst()
+    {
+        final CachingMoveStrategy cachingStrategy = new CachingMoveStrategy(countingStrategy, 2, CachingMoveStrategy.DEFAULT_MAXIMUM_BYTES);
+        final FloorSequence moveSequence = new FloorSequence();
+        final Scenario first = scenario(1, 2);
+        final Scenario second = scenario(3, 4);
+
+        cachingStrategy.getMoveSequence(first, moveSequence);
+        cachingStrategy.getMoveSequence(second, moveSequence);
+        cachingStrategy.getMoveSequence(first, moveSequence);
+        cachingStrategy.getMoveSequence(scenario(5, 6), moveSequence);
+        assertThat(cachingStrategy.size(), Matchers.is(2L));
+        assertThat(cachingStrategy.getStats().evictionCount(), Matchers.is(1L));
+        assertThat(plansMade.get(), Matchers.is(3));
+
+        cachingStrategy.getMoveSequence(first, moveSequence);
+        assertThat(plansMade.get(), Matchers.is(3));
+        cachingStrategy.getMoveSequence(second, moveSequence);
+        assertThat(plansMade.get(), Matchers.is(4));
+        assertThat(moveSequence.toImmutableList(), Matchers.contains(3, 4));
+    }
+
+    /**
+     * Verifies that the cache evicts entries to keep their estimated memory within the maximum, and does not cache an entry larger than the maximum at all.
+     */
+    @Test
+    public void byteBoundEvicts()
+    {
+        final long entryBytes = PlanCache.estimateBytes(scenario(1, 2), new int[] {1, 2});
+        final CachingMoveStrategy cachingStrategy = new CachingMoveStrategy(countingStrategy, 100, 2 * entryBytes + 1);
+        final FloorSequence moveSequence = new FloorSequence();
+
+        for (int floor = 1; floor <= 5; floor++)
+        {
+            cachingStrategy.getMoveSequence(scenario(floor, floor + 1), moveSequence);
+        }
+        assertThat(cachingStrategy.size(), Matchers.is(2L));
+        assertThat(cachingStrategy.getStats().evictionCount(), Matchers.is(3L));
+
+        final Scenario.Builder builder = Scenario.builder();
+        for (int floor = 1; floor <= 20; floor++)
+        {
+            builder.addMove(floor, floor + 1);
+        }
+        final Scenario largeScenario = builder.build();
+        cachingStrategy.getMoveSequence(largeScenario, moveSequence);
+        cachingStrategy.getMoveSequence(largeScenario, moveSequence);
+        assertThat(plansMade.get(), Matchers.is(7));
+        assertThat(cachingStrategy.size(), Matchers.is(2L));
+    }
+
+    /**
+     * Verifies that threads sharing a cache much smaller than the number of distinct scenarios always get the delegate's route, while the hits and misses add up to the lookups made.
+     */
+    @Test
+    public void concurrentLookups() throws Exception
+    {
+        final int threadCount = 8;
+        final int lookupsPerThread = 5000;
+        final List<Scenario> scenarios = new ArrayList<>();
+        final List<ImmutableList<Integer>> expectedRoutes = new ArrayList<>();
+        final Random random = new Random(17);
+        for (int scenarioIndex = 0; scenarioIndex < 1000; scenarioIndex++)
+        {
+            final Scenario.Builder builder = Scenario.builder();
+            final int moveCount = 1 + random.nextInt(12);
+            for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+            {
+                final int originatingFloor = 1 + random.nextInt(30);
+                builder.addMove(originatingFloor, 1 + (originatingFloor + random.nextInt(29)) % 30);
+            }
+            final Scenario scenario = builder.build();
+            scenarios.add(scenario);
+            expectedRoutes.add(new MoveByRequestsInSameDirection().getMoveSequence(scenario.getMoveCommands()));
+        }
+
+        final CachingMoveStrategy cachingStrategy = new CachingMoveStrategy(countingStrategy, 256, CachingMoveStrategy.DEFAULT_MAXIMUM_BYTES);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try
+        {
+            final List<Future<Integer>> mismatches = new ArrayList<>();
+            for (int thread = 0; thread < threadCount; thread++)
+            {
+                final long seed = thread;
+                mismatches.add(executor.submit((Callable<Integer>) () ->
+                {
+                    final Random threadRandom = new Random(seed);
+                    final FloorSequence moveSequence = new FloorSequence();
+                    int mismatchCount = 0;
+                    for (int lookup = 0; lookup < lookupsPerThread; lookup++)
+                    {
+                        // Skewed towards the first scenarios, so some stay cached while the rest keep the cache evicting.
+                        final int scenarioIndex = threadRandom.nextBoolean() ? threadRandom.nextInt(50) : threadRandom.nextInt(scenarios.size());
+                        cachingStrategy.getMoveSequence(scenarios.get(scenarioIndex), moveSequence);
+                        if (!moveSequence.toImmutableList().equals(expectedRoutes.get(scenarioIndex)))
+                        {
+                            mismatchCount++;
+                        }
+                    }
+                    return mismatchCount;
+                }));
+            }
+            for (final Future<Integer> mismatch : mismatches)
+            {
+                assertThat(mismatch.get(), Matchers.is(0));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+
+        final CacheStats stats = cachingStrategy.getStats();
+        assertThat(stats.requestCount(), Matchers.is((long) threadCount * lookupsPerThread));
+        assertThat(stats.missCount(), Matchers.is((long) plansMade.get()));
+        assertThat(stats.hitCount(), Matchers.greaterThan(0L));
+        assertThat(stats.evictionCount(), Matchers.greaterThan(0L));
+        assertThat(cachingStrategy.size(), Matchers.lessThanOrEqualTo(256L));
+    }
+
+    /**
+     * @param originatingFloor The originating floor of the only move.
+     * @param destinationFloor The destination floor of the only move.
+     * @return Non-null Scenario with a single move.
+     */
+    private static Scenario scenario(final int originatingFloor, final int destinationFloor)
+    {
+        return Scenario.builder().addMove(originatingFloor, destinationFloor).build();
+    }
+}
@@ -0,0 +1,91 @@
+package elevator.sim.core.strategy;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that {@linkplain FloorSet} behaves as an ordered set of floors.
+ */
+public final class FloorSetTest
+{
+    /**
+     * Verifies that an empty set finds nothing.
+     */
+    @Test
+    public void empty()
+    {
+        final FloorSet floorSet = new FloorSet(0);
+        assertThat(floorSet.isEmpty(), Matchers.equalTo(true));
+        assertThat(floorSet.higher(-1), Matchers.equalTo(-1));
+        assertThat(floorSet.lower(0), Matchers.equalTo(-1));
+    }
+
+    /**
+     * Verifies that floors outside the set's range are rejected.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void floorOutOfRange()
+    {
+        new FloorSet(10).add(10);
+    }
+
+    /**
+     * Verifies that members at the ends of a three-level set are found from the opposite ends.
+     */
+    @Test
+    public void farApartMembers()
+    {
+        final int floorCount = 64 * 64 * 3;
+        final FloorSet floorSet = new FloorSet(floorCount);
+        floorSet.add(0);
+        floorSet.add(floorCount - 1);
+        assertThat(floorSet.higher(0), Matchers.equalTo(floorCount - 1));
+        assertThat(floorSet.lower(floorCount - 1), Matchers.equalTo(0));
+        assertThat(floorSet.higher(floorCount - 1), Matchers.equalTo(-1));
+        assertThat(floorSet.lower(0), Matchers.equalTo(-1));
+
+        floorSet.remove(0);
+        floorSet.remove(floorCount - 1);
+        assertThat(floorSet.isEmpty(), Matchers.equalTo(true));
+    }
+
+    /**
+     * Verifies random additions, removals and searches against a TreeSet, for sizes around the word and level boundaries.
+     */
+    @Test
+    public void matchesTreeSet()
+    {
+        final Random random = new Random(18);
+        for (final int floorCount : new int[]{1, 63, 64, 65, 4095, 4096, 4097, 20_000})
+        {
+            final FloorSet floorSet = new FloorSet(floorCount);
+            final TreeSet<Integer> expected = new TreeSet<>();
+            for (int operation = 0; operation < 20_000; operation++)
+            {
+                final int floor = random.nextInt(floorCount);
+                if (random.nextInt(3) == 0)
+                {
+                    floorSet.remove(floor);
+                    expected.remove(floor);
+                }
+                else
+                {
+                    floorSet.add(floor);
+                    expected.add(floor);
+                }
+
+                final int probe = random.nextInt(floorCount);
+                final Integer higher = expected.higher(probe);
+                final Integer lower = expected.lower(probe);
+                assertThat(floorSet.higher(probe), Matchers.equalTo(higher == null ? -1 : higher));
+                assertThat(floorSet.lower(probe), Matchers.equalTo(lower == null ? -1 : lower));
+                assertThat(floorSet.isEmpty(), Matchers.equalTo(expected.isEmpty()));
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package elevator.sim.core.strategy;
+
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that {@linkplain IncrementalRequestsInSameDirection} plans the route of {@linkplain MoveByRequestsInSameDirection} when every request is known up front, and fits requests arriving on the way into the
+ * current run only when they start at or ahead of the car.
+ */
+public final class IncrementalRequestsInSameDirectionTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    private final IncrementalRequestsInSameDirection strategy = new IncrementalRequestsInSameDirection();
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when a request starts and ends at the same floor.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void requestToSameFloor()
+    {
+        strategy.addRequest(4, 4);
+    }
+
+    /**
+     * Verifies that an IllegalStateException is thrown when asking for the next stop of an empty plan.
+     */
+    @Test
+    public void noNextStop()
+    {
+        assertThat(strategy.hasNextStop(), Matchers.is(false));
+        exception.expect(IllegalStateException.class);
+        exception.expectMessage("No next stop.");
+        strategy.getNextStop();
+    }
+
+    /**
+     * Verifies that requests added up front are visited as runs in the same direction, matching the example route of mode B.
+     */
+    @Test
+    public void requestsUpFront()
+    {
+        addRequests(new int[][] {{7, 11}, {11, 6}, {10, 5}, {6, 8}, {7, 4}, {12, 7}, {8, 9}});
+        assertThat(drain(), Matchers.contains(7, 11, 10, 6, 5, 6, 8, 12, 7, 4, 8, 9));
+    }
+
+    /**
+     * Verifies that adding every request of random scenarios before advancing gives the route of MoveByRequestsInSameDirection, also when the strategy is reset and reused between scenarios.
+     */
+    @Test
+    public void matchesBatchStrategy()
+    {
+        final Random random = new Random(19);
+        final MoveByRequestsInSameDirection batchStrategy = new MoveByRequestsInSameDirection();
+        final FloorSequence expected = new FloorSequence();
+        for (int scenarioIndex = 0; scenarioIndex < 500; scenarioIndex++)
+        {
+            final Scenario scenario = randomScenario(random, 1 + random.nextInt(40), 2 + random.nextInt(20));
+            batchStrategy.getMoveSequence(scenario, expected);
+
+            strategy.reset();
+            for (int moveIndex = 0; moveIndex < scenario.getMoveCount(); moveIndex++)
+            {
+                strategy.addRequest(scenario.getOriginatingFloor(moveIndex), scenario.getDestinationFloor(moveIndex));
+            }
+            assertThat(drain(), Matchers.equalTo(expected.toImmutableList()));
+        }
+    }
+
+    /**
+     * Verifies that a request arriving while the car is on its way up joins the current run if it starts at or above the car, so the car picks the rider up on the way.
+     */
+    @Test
+    public void requestAheadJoinsCurrentRun()
+    {
+        addRequests(new int[][] {{2, 9}});
+        assertThat(strategy.advance(), Matchers.is(2));
+        strategy.addRequest(5, 7);
+        strategy.addRequest(2, 4);
+        assertThat(drain(), Matchers.contains(4, 5, 7, 9));
+    }
+
+    /**
+     * Verifies that a request arriving behind the car in the direction of the current run is served by a later run in the same direction, once the current run is done.
+     */
+    @Test
+    public void requestBehindStartsNewRun()
+    {
+        addRequests(new int[][] {{2, 9}});
+        assertThat(strategy.advance(), Matchers.is(2));
+        assertThat(strategy.advance(), Matchers.is(9));
+        strategy.addRequest(3, 6);
+        strategy.addRequest(9, 12);
+        assertThat(drain(), Matchers.contains(3, 6, 12));
+    }
+
+    /**
+     * Verifies that a request arriving after the plan ran out continues from the floor the car stopped at, without revisiting it.
+     */
+    @Test
+    public void requestAfterPlanRanOut()
+    {
+        addRequests(new int[][] {{3, 8}});
+        assertThat(drain(), Matchers.contains(3, 8));
+        assertThat(strategy.hasNextStop(), Matchers.is(false));
+
+        strategy.addRequest(8, 1);
+        assertThat(strategy.getNextStop(), Matchers.is(1));
+        strategy.addRequest(6, 2);
+        assertThat(drain(), Matchers.contains(6, 2, 1));
+    }
+
+    /**
+     * @param requests Pairs of originating and destination floors to add.
+     */
+    private void addRequests(final int[][] requests)
+    {
+        for (final int[] request : requests)
+        {
+            strategy.addRequest(request[0], request[1]);
+        }
+    }
+
+    /**
+     * @return Non-null list of the stops visited by advancing the car until the plan is done.
+     */
+    private List<Integer> drain()
+    {
+        final List<Integer> stops = new ArrayList<>();
+        while (strategy.hasNextStop())
+        {
+            final int nextStop = strategy.getNextStop();
+            assertThat(strategy.advance(), Matchers.is(nextStop));
+            stops.add(nextStop);
+        }
+        return stops;
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param moveCount The number of moves.
+     * @param floorCount The number of floors.
+     * @return Non-null Scenario of random moves between the given floors.
+     */
+    private static Scenario randomScenario(final Random random, final int moveCount, final int floorCount)
+    {
+        final Scenario.Builder builder = Scenario.builder();
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            final int originatingFloor = 1 + random.nextInt(floorCount);
+            builder.addMove(originatingFloor, 1 + (originatingFloor + random.nextInt(floorCount - 1)) % floorCount);
+        }
+        return builder.build();
+    }
+}
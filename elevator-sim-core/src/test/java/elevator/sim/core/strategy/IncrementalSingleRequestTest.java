@@ -0,0 +1,118 @@
+package elevator.sim.core.strategy;
+
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that {@linkplain IncrementalSingleRequest} serves requests in the order they arrive, planning the route of {@linkplain MoveBySingleRequest} however the arrivals and the car's moves interleave.
+ */
+public final class IncrementalSingleRequestTest
+{
+    private final IncrementalSingleRequest strategy = new IncrementalSingleRequest();
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when a request has a non-positive floor.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidFloor()
+    {
+        strategy.addRequest(0, 4);
+    }
+
+    /**
+     * Verifies that an IllegalStateException is thrown when advancing the car without a next stop.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void noNextStop()
+    {
+        strategy.addRequest(3, 4);
+        strategy.advance();
+        strategy.advance();
+        strategy.advance();
+    }
+
+    /**
+     * Verifies that requests added up front give the example route of mode A.
+     */
+    @Test
+    public void requestsUpFront()
+    {
+        strategy.addRequest(7, 11);
+        strategy.addRequest(11, 6);
+        strategy.addRequest(10, 5);
+        strategy.addRequest(6, 8);
+        strategy.addRequest(7, 4);
+        strategy.addRequest(12, 7);
+        strategy.addRequest(8, 9);
+        assertThat(drain(), Matchers.contains(7, 11, 6, 10, 5, 6, 8, 7, 4, 12, 7, 8, 9));
+    }
+
+    /**
+     * Verifies that random scenarios give the route of MoveBySingleRequest whether the car advances after every request or only once they have all arrived, and that the ring buffer keeps the order while it grows.
+     */
+    @Test
+    public void matchesBatchStrategy()
+    {
+        final Random random = new Random(23);
+        final MoveBySingleRequest batchStrategy = new MoveBySingleRequest();
+        final FloorSequence expected = new FloorSequence();
+        for (int scenarioIndex = 0; scenarioIndex < 200; scenarioIndex++)
+        {
+            final Scenario scenario = randomScenario(random, 1 + random.nextInt(60), 2 + random.nextInt(20));
+            batchStrategy.getMoveSequence(scenario, expected);
+
+            strategy.reset();
+            final List<Integer> stops = new ArrayList<>();
+            for (int moveIndex = 0; moveIndex < scenario.getMoveCount(); moveIndex++)
+            {
+                strategy.addRequest(scenario.getOriginatingFloor(moveIndex), scenario.getDestinationFloor(moveIndex));
+                // Let the car fall behind now and then, so that the queue wraps around and grows.
+                for (int advances = random.nextInt(3); advances > 0 && strategy.hasNextStop(); advances--)
+                {
+                    stops.add(strategy.advance());
+                }
+            }
+            stops.addAll(drain());
+            assertThat(stops, Matchers.equalTo(expected.toImmutableList()));
+        }
+    }
+
+    /**
+     * @return Non-null list of the stops visited by advancing the car until the plan is done.
+     */
+    private List<Integer> drain()
+    {
+        final List<Integer> stops = new ArrayList<>();
+        while (strategy.hasNextStop())
+        {
+            final int nextStop = strategy.getNextStop();
+            assertThat(strategy.advance(), Matchers.is(nextStop));
+            stops.add(nextStop);
+        }
+        return stops;
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param moveCount The number of moves.
+     * @param floorCount The number of floors.
+     * @return Non-null Scenario of random moves between the given floors.
+     */
+    private static Scenario randomScenario(final Random random, final int moveCount, final int floorCount)
+    {
+        final Scenario.Builder builder = Scenario.builder();
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            final int originatingFloor = 1 + random.nextInt(floorCount);
+            builder.addMove(originatingFloor, 1 + (originatingFloor + random.nextInt(floorCount - 1)) % floorCount);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,196 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain MoveByLocalSearch} algorithm implementation operates as expected.
+ */
+public final class MoveByLocalSearchTest
+{
+    /**
+     * Verifies that MoveByLocalSearch throws an IllegalArgumentException when given a null List of MoveCommands.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMoveCommands()
+    {
+        createMoveStrategy().getMoveSequence((List<MoveCommand>) null);
+    }
+
+    /**
+     * Verifies that an iteration budget of zero is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveIterations()
+    {
+        new MoveByLocalSearch(0, 0);
+    }
+
+    /**
+     * Verifies that a negative time budget is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTimeBudget()
+    {
+        new MoveByLocalSearch(1, -1);
+    }
+
+    /**
+     * Verifies that an empty List of MoveCommands produces an empty move sequence.
+     */
+    @Test
+    public void emptyMoveCommands()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(ImmutableList.of()), Matchers.empty());
+    }
+
+    @Test
+    public void exampleCaseOne()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(10, 8),
+                        new MoveCommand(8, 1))),
+                Matchers.contains(10, 8, 1));
+    }
+
+    /**
+     * Verifies that the search finds the shortest route where {@linkplain MoveByRequestsInSameDirection} carries the riders going down up to floor 8 before delivering them.
+     */
+    @Test
+    public void exampleCaseThree()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(2, 4),
+                        new MoveCommand(4, 1),
+                        new MoveCommand(4, 2),
+                        new MoveCommand(6, 8))),
+                Matchers.contains(2, 4, 2, 1, 6, 8));
+    }
+
+    /**
+     * Verifies that the same scenario always produces the same route.
+     */
+    @Test
+    public void deterministic()
+    {
+        final List<MoveCommand> moveCommands = randomMoveCommands(new Random(15), 30);
+        assertThat(createMoveStrategy().getMoveSequence(moveCommands), Matchers.equalTo(createMoveStrategy().getMoveSequence(moveCommands)));
+    }
+
+    /**
+     * Verifies that a search cut short by its time budget still returns a route serving every rider.
+     */
+    @Test
+    public void timeBudget()
+    {
+        final List<MoveCommand> moveCommands = randomMoveCommands(new Random(16), 200);
+        final FloorSequence moveSequence = new FloorSequence();
+        new MoveByLocalSearch(Integer.MAX_VALUE, 1).getMoveSequence(new Scenario(moveCommands), moveSequence);
+        assertServesEveryRider(moveCommands, moveSequence);
+    }
+
+    /**
+     * Verifies for random scenarios that the route serves every rider, never travels further than the {@linkplain MoveByRequestsInSameDirection} plan it starts from (which may begin away from the initial floor, so it is
+     * measured from there), and in total travels no further than
+     * {@linkplain MoveByLookSweep}.
+     */
+    @Test
+    public void randomScenariosImproveOnInitialPlan()
+    {
+        final Random random = new Random(17);
+        long floorsTravelled = 0;
+        long lookFloorsTravelled = 0;
+        for (int scenarioIndex = 0; scenarioIndex < 500; scenarioIndex++)
+        {
+            final List<MoveCommand> moveCommands = randomMoveCommands(random, 1 + random.nextInt(15));
+            final FloorSequence moveSequence = new FloorSequence();
+            final FloorSequence otherSequence = new FloorSequence();
+            createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+            assertServesEveryRider(moveCommands, moveSequence);
+
+            new MoveByRequestsInSameDirection().getMoveSequence(new Scenario(moveCommands), otherSequence);
+            final long initialLeg = Math.abs(moveCommands.get(0).getOriginatingFloor() - otherSequence.get(0));
+            assertThat(moveSequence.getFloorsTravelled(), Matchers.lessThanOrEqualTo(initialLeg + otherSequence.getFloorsTravelled()));
+            new MoveByLookSweep().getMoveSequence(new Scenario(moveCommands), otherSequence);
+            floorsTravelled += moveSequence.getFloorsTravelled();
+            lookFloorsTravelled += otherSequence.getFloorsTravelled();
+        }
+        assertThat(floorsTravelled, Matchers.lessThanOrEqualTo(lookFloorsTravelled));
+    }
+
+    /**
+     * Verifies that the primitive form produces the same move sequence as the List form.
+     */
+    @Test
+    public void primitiveMatchesList()
+    {
+        final List<MoveCommand> moveCommands = ImmutableList.of(new MoveCommand(7, 11), new MoveCommand(11, 6), new MoveCommand(10, 5), new MoveCommand(6, 8));
+        final FloorSequence moveSequence = new FloorSequence();
+        createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+        assertThat(moveSequence.toImmutableList(), Matchers.equalTo(createMoveStrategy().getMoveSequence(moveCommands)));
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param riders The number of riders.
+     * @return Non-null List of MoveCommands chained like parsed scenarios, where no command starts at the previous command's destination.
+     */
+    private static List<MoveCommand> randomMoveCommands(final Random random, final int riders)
+    {
+        final List<MoveCommand> moveCommands = new ArrayList<>();
+        int previousFloor = 0;
+        while (moveCommands.size() < riders)
+        {
+            final int originatingFloor = 1 + random.nextInt(30);
+            final int destinationFloor = 1 + random.nextInt(30);
+            if (originatingFloor != destinationFloor && originatingFloor != previousFloor)
+            {
+                moveCommands.add(new MoveCommand(originatingFloor, destinationFloor));
+                previousFloor = destinationFloor;
+            }
+        }
+        return moveCommands;
+    }
+
+    /**
+     * @param moveCommands The riders.
+     * @param moveSequence The FloorSequence visited.
+     */
+    private static void assertServesEveryRider(final List<MoveCommand> moveCommands, final FloorSequence moveSequence)
+    {
+        for (final MoveCommand moveCommand : moveCommands)
+        {
+            int index = 0;
+            while (index < moveSequence.size() && moveSequence.get(index) != moveCommand.getOriginatingFloor())
+            {
+                index++;
+            }
+            while (index < moveSequence.size() && moveSequence.get(index) != moveCommand.getDestinationFloor())
+            {
+                index++;
+            }
+            assertThat(moveCommands + " -> " + moveSequence, index < moveSequence.size(), Matchers.equalTo(true));
+        }
+    }
+
+    /**
+     * Creates a new {@linkplain MoveByLocalSearch}. Each test should create a new instance to guarantee test integrity.
+     *
+     * @return Non-null MoveByLocalSearch.
+     */
+    private static MoveByLocalSearch createMoveStrategy()
+    {
+        return new MoveByLocalSearch();
+    }
+}
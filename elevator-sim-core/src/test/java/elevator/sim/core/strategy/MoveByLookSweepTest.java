@@ -0,0 +1,217 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain MoveByLookSweep} algorithm implementation operates as expected.
+ */
+public final class MoveByLookSweepTest
+{
+    /**
+     * Verifies that MoveByLookSweep throws an IllegalArgumentException when given a null List of MoveCommands.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMoveCommands()
+    {
+        createMoveStrategy().getMoveSequence((List<MoveCommand>) null);
+    }
+
+    /**
+     * Verifies that an empty List of MoveCommands produces an empty move sequence.
+     */
+    @Test
+    public void emptyMoveCommands()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(ImmutableList.of()), Matchers.empty());
+    }
+
+    @Test
+    public void exampleCaseOne()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(10, 8),
+                        new MoveCommand(8, 1))),
+                Matchers.contains(10, 8, 1));
+    }
+
+    @Test
+    public void exampleCaseTwo()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(9, 1),
+                        new MoveCommand(1, 5),
+                        new MoveCommand(1, 6),
+                        new MoveCommand(1, 5))),
+                Matchers.contains(9, 1, 5, 6));
+    }
+
+    /**
+     * Verifies that riders waiting to go down board when the elevator stops on its way up, so their floor need not be revisited.
+     */
+    @Test
+    public void exampleCaseThree()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(2, 4),
+                        new MoveCommand(4, 1),
+                        new MoveCommand(4, 2),
+                        new MoveCommand(6, 8))),
+                Matchers.contains(2, 4, 6, 8, 2, 1));
+    }
+
+    @Test
+    public void exampleCaseFour()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(3, 7),
+                        new MoveCommand(7, 9),
+                        new MoveCommand(3, 7),
+                        new MoveCommand(5, 8),
+                        new MoveCommand(7, 11),
+                        new MoveCommand(11, 1))),
+                Matchers.contains(3, 5, 7, 8, 9, 11, 1));
+    }
+
+    /**
+     * Verifies that the sweep passes a downward pickup on its way up, turns at the highest request and serves the pickup on its way down.
+     */
+    @Test
+    public void exampleCaseFive()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(7, 11),
+                        new MoveCommand(11, 6),
+                        new MoveCommand(10, 5),
+                        new MoveCommand(6, 8),
+                        new MoveCommand(7, 4),
+                        new MoveCommand(12, 7),
+                        new MoveCommand(8, 9))),
+                Matchers.contains(7, 8, 9, 11, 12, 10, 7, 6, 5, 4, 8));
+    }
+
+    @Test
+    public void exampleCaseSix()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(6, 1),
+                        new MoveCommand(1, 8),
+                        new MoveCommand(6, 8))),
+                Matchers.contains(6, 1, 8));
+    }
+
+    /**
+     * Verifies that sparse and very high floor numbers are handled through coordinate compression.
+     */
+    @Test
+    public void sparseHighFloors()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(1, Integer.MAX_VALUE),
+                        new MoveCommand(Integer.MAX_VALUE, 1_000_000),
+                        new MoveCommand(2_000_000_000, 3))),
+                Matchers.contains(1, Integer.MAX_VALUE, 2_000_000_000, 1_000_000, 3));
+    }
+
+    /**
+     * Verifies that the primitive form produces the same move sequence as the List form.
+     */
+    @Test
+    public void primitiveMatchesList()
+    {
+        final List<MoveCommand> moveCommands = ImmutableList.of(new MoveCommand(7, 11), new MoveCommand(11, 6), new MoveCommand(10, 5), new MoveCommand(6, 8));
+        final FloorSequence moveSequence = new FloorSequence();
+        createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+        assertThat(moveSequence.toImmutableList(), Matchers.equalTo(createMoveStrategy().getMoveSequence(moveCommands)));
+    }
+
+    /**
+     * Verifies for random scenarios that every rider is picked up and later dropped off, and that in total the sweep travels fewer floors than {@linkplain MoveBySingleRequest} and
+     * {@linkplain MoveByRequestsInSameDirection}. LOOK is a heuristic, so individual scenarios may still favour the other strategies.
+     */
+    @Test
+    public void randomScenariosServeEveryRider()
+    {
+        final Random random = new Random(12);
+        long floorsTravelled = 0;
+        long singleRequestFloorsTravelled = 0;
+        long sameDirectionFloorsTravelled = 0;
+        for (int scenarioIndex = 0; scenarioIndex < 2000; scenarioIndex++)
+        {
+            final List<MoveCommand> moveCommands = new ArrayList<>();
+            final int riders = 1 + random.nextInt(15);
+            int previousFloor = 0;
+            while (moveCommands.size() < riders)
+            {
+                final int originatingFloor = 1 + random.nextInt(30);
+                final int destinationFloor = 1 + random.nextInt(30);
+                if (originatingFloor != destinationFloor && originatingFloor != previousFloor)
+                {
+                    moveCommands.add(new MoveCommand(originatingFloor, destinationFloor));
+                    previousFloor = destinationFloor;
+                }
+            }
+
+            final FloorSequence moveSequence = new FloorSequence();
+            createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+            for (final MoveCommand moveCommand : moveCommands)
+            {
+                assertThat(moveCommands + " -> " + moveSequence, isServed(moveSequence, moveCommand), Matchers.equalTo(true));
+            }
+
+            final FloorSequence otherSequence = new FloorSequence();
+            floorsTravelled += moveSequence.getFloorsTravelled();
+            new MoveBySingleRequest().getMoveSequence(new Scenario(moveCommands), otherSequence);
+            singleRequestFloorsTravelled += otherSequence.getFloorsTravelled();
+            new MoveByRequestsInSameDirection().getMoveSequence(new Scenario(moveCommands), otherSequence);
+            sameDirectionFloorsTravelled += otherSequence.getFloorsTravelled();
+        }
+        assertThat(floorsTravelled, Matchers.lessThan(sameDirectionFloorsTravelled));
+        assertThat(sameDirectionFloorsTravelled, Matchers.lessThan(singleRequestFloorsTravelled));
+    }
+
+    /**
+     * @param moveSequence The FloorSequence visited.
+     * @param moveCommand The rider.
+     * @return True if the sequence visits the rider's destination floor after first visiting its originating floor.
+     */
+    private static boolean isServed(final FloorSequence moveSequence, final MoveCommand moveCommand)
+    {
+        int index = 0;
+        while (index < moveSequence.size() && moveSequence.get(index) != moveCommand.getOriginatingFloor())
+        {
+            index++;
+        }
+        while (index < moveSequence.size() && moveSequence.get(index) != moveCommand.getDestinationFloor())
+        {
+            index++;
+        }
+        return index < moveSequence.size();
+    }
+
+    /**
+     * Creates a new {@linkplain MoveByLookSweep}. Each test should create a new instance to guarantee test integrity.
+     *
+     * @return Non-null MoveByLookSweep.
+     */
+    private static MoveByLookSweep createMoveStrategy()
+    {
+        return new MoveByLookSweep();
+    }
+}
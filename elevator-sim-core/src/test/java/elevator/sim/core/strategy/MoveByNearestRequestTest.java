@@ -0,0 +1,143 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain MoveByNearestRequest} algorithm implementation operates as expected.
+ */
+public final class MoveByNearestRequestTest
+{
+    /**
+     * Verifies that MoveByNearestRequest throws an IllegalArgumentException when given a null List of MoveCommands.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMoveCommands()
+    {
+        createMoveStrategy().getMoveSequence((List<MoveCommand>) null);
+    }
+
+    /**
+     * Verifies that an empty List of MoveCommands produces an empty move sequence.
+     */
+    @Test
+    public void emptyMoveCommands()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(ImmutableList.of()), Matchers.empty());
+    }
+
+    @Test
+    public void exampleCaseTwo()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(9, 1),
+                        new MoveCommand(1, 5),
+                        new MoveCommand(1, 6),
+                        new MoveCommand(1, 5))),
+                Matchers.contains(9, 1, 5, 6));
+    }
+
+    /**
+     * Verifies that the elevator heads for the nearest pending floor, keeping its direction when the nearest floors above and below are equally far: from floor 7, floors 6 and 8 are both pending.
+     */
+    @Test
+    public void exampleCaseFive()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(7, 11),
+                        new MoveCommand(11, 6),
+                        new MoveCommand(10, 5),
+                        new MoveCommand(6, 8),
+                        new MoveCommand(7, 4),
+                        new MoveCommand(12, 7),
+                        new MoveCommand(8, 9))),
+                Matchers.contains(7, 8, 9, 10, 11, 12, 7, 6, 5, 4, 8));
+    }
+
+    /**
+     * Verifies that a nearer floor below wins over a farther floor in the current direction.
+     */
+    @Test
+    public void nearestFloorWins()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(10, 20),
+                        new MoveCommand(9, 1))),
+                Matchers.contains(10, 9, 1, 20));
+    }
+
+    /**
+     * Verifies that sparse and very high floor numbers are handled through coordinate compression.
+     */
+    @Test
+    public void sparseHighFloors()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(1, Integer.MAX_VALUE),
+                        new MoveCommand(Integer.MAX_VALUE, 1_000_000),
+                        new MoveCommand(2_000_000_000, 3))),
+                Matchers.contains(1, 2_000_000_000, Integer.MAX_VALUE, 1_000_000, 3));
+    }
+
+    /**
+     * Verifies that a scenario with a hundred thousand riders over a million floors is planned, serving every rider, without the quadratic cost of scanning every floor on every move.
+     */
+    @Test(timeout = 10_000)
+    public void largeScenario()
+    {
+        final Random random = new Random(19);
+        final Scenario.Builder scenarioBuilder = Scenario.builder();
+        final int[] originatingFloors = new int[100_000];
+        final int[] destinationFloors = new int[originatingFloors.length];
+        for (int moveIndex = 0; moveIndex < originatingFloors.length; moveIndex++)
+        {
+            originatingFloors[moveIndex] = 1 + random.nextInt(1_000_000);
+            do
+            {
+                destinationFloors[moveIndex] = 1 + random.nextInt(1_000_000);
+            }
+            while (destinationFloors[moveIndex] == originatingFloors[moveIndex]);
+            scenarioBuilder.addMove(originatingFloors[moveIndex], destinationFloors[moveIndex]);
+        }
+
+        final FloorSequence moveSequence = new FloorSequence();
+        createMoveStrategy().getMoveSequence(scenarioBuilder.build(), moveSequence);
+
+        // A rider boards on the first visit to its originating floor, so its destination must be visited again after that.
+        final Map<Integer, Integer> firstVisit = new HashMap<>();
+        final Map<Integer, Integer> lastVisit = new HashMap<>();
+        for (int index = 0; index < moveSequence.size(); index++)
+        {
+            firstVisit.putIfAbsent(moveSequence.get(index), index);
+            lastVisit.put(moveSequence.get(index), index);
+        }
+        for (int moveIndex = 0; moveIndex < originatingFloors.length; moveIndex++)
+        {
+            assertThat(lastVisit.get(destinationFloors[moveIndex]), Matchers.greaterThan(firstVisit.get(originatingFloors[moveIndex])));
+        }
+    }
+
+    /**
+     * Creates a new {@linkplain MoveByNearestRequest}. Each test should create a new instance to guarantee test integrity.
+     *
+     * @return Non-null MoveByNearestRequest.
+     */
+    private static MoveByNearestRequest createMoveStrategy()
+    {
+        return new MoveByNearestRequest();
+    }
+}
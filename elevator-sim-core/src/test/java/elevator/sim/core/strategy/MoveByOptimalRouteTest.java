@@ -0,0 +1,321 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.metrics.ScenarioMetrics;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain MoveByOptimalRoute} algorithm implementation operates as expected.
+ */
+public final class MoveByOptimalRouteTest
+{
+    /**
+     * Verifies that MoveByOptimalRoute throws an IllegalArgumentException when given a null List of MoveCommands.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullMoveCommands()
+    {
+        createMoveStrategy().getMoveSequence((List<MoveCommand>) null);
+    }
+
+    /**
+     * Verifies that a rider ceiling above 64 is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void riderCeilingTooLarge()
+    {
+        new MoveByOptimalRoute(65);
+    }
+
+    /**
+     * Verifies that MoveByOptimalRoute throws an IllegalArgumentException when given a null fallback strategy.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void nullFallbackStrategy()
+    {
+        new MoveByOptimalRoute(MoveByOptimalRoute.DEFAULT_RIDER_CEILING, null);
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when the search node budget is not positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSearchNodeBudget()
+    {
+        new MoveByOptimalRoute(MoveByOptimalRoute.DEFAULT_RIDER_CEILING, 0, new MoveByLookSweep(), new ScenarioMetrics());
+    }
+
+    /**
+     * Verifies that an empty List of MoveCommands produces an empty move sequence.
+     */
+    @Test
+    public void emptyMoveCommands()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(ImmutableList.of()), Matchers.empty());
+    }
+
+    @Test
+    public void exampleCaseOne()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(10, 8),
+                        new MoveCommand(8, 1))),
+                Matchers.contains(10, 8, 1));
+    }
+
+    /**
+     * Verifies that the exact route beats the LOOK sweep of {@linkplain MoveByLookSweep}, which carries the riders going down up to floor 8 before delivering them, where turning back first is shorter.
+     */
+    @Test
+    public void exampleCaseThree()
+    {
+        final List<MoveCommand> moveCommands = ImmutableList.of(
+                new MoveCommand(2, 4),
+                new MoveCommand(4, 1),
+                new MoveCommand(4, 2),
+                new MoveCommand(6, 8));
+        final FloorSequence moveSequence = new FloorSequence();
+        final FloorSequence lookSequence = new FloorSequence();
+        createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+        new MoveByLookSweep().getMoveSequence(new Scenario(moveCommands), lookSequence);
+
+        assertThat(moveSequence.toImmutableList(), Matchers.contains(2, 4, 2, 1, 6, 8));
+        assertThat(moveSequence.getFloorsTravelled(), Matchers.lessThan(lookSequence.getFloorsTravelled()));
+    }
+
+    /**
+     * Verifies that scenarios with more riders than the ceiling are handed to the fallback strategy.
+     */
+    @Test
+    public void fallbackAboveRiderCeiling()
+    {
+        final List<MoveCommand> moveCommands = ImmutableList.of(
+                new MoveCommand(10, 11),
+                new MoveCommand(11, 1),
+                new MoveCommand(9, 20));
+        assertThat(new MoveByOptimalRoute(2, new MoveBySingleRequest()).getMoveSequence(moveCommands), Matchers.equalTo(new MoveBySingleRequest().getMoveSequence(moveCommands)));
+    }
+
+    /**
+     * Verifies that sparse and very high floor numbers are handled through coordinate compression.
+     */
+    @Test
+    public void sparseHighFloors()
+    {
+        assertThat(createMoveStrategy().getMoveSequence(
+                ImmutableList.of(
+                        new MoveCommand(1, Integer.MAX_VALUE),
+                        new MoveCommand(Integer.MAX_VALUE, 1_000_000),
+                        new MoveCommand(2_000_000_000, 3))),
+                Matchers.contains(1, 2_000_000_000, Integer.MAX_VALUE, 1_000_000, 3));
+    }
+
+    /**
+     * Verifies for small random scenarios that the route serves every rider and travels exactly as far as the shortest route found by exhaustively trying every order of stops.
+     */
+    @Test
+    public void smallScenariosAreOptimal()
+    {
+        final Random random = new Random(13);
+        for (int scenarioIndex = 0; scenarioIndex < 500; scenarioIndex++)
+        {
+            final List<MoveCommand> moveCommands = randomMoveCommands(random, 1 + random.nextInt(6), 12);
+            final FloorSequence moveSequence = new FloorSequence();
+            createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+
+            assertServesEveryRider(moveCommands, moveSequence);
+            final long[] shortest = {Long.MAX_VALUE};
+            exhaustiveSearch(moveCommands, new boolean[moveCommands.size()], new boolean[moveCommands.size()], moveCommands.get(0).getOriginatingFloor(), 0, shortest);
+            assertThat(moveCommands + " -> " + moveSequence, (long) moveSequence.getFloorsTravelled(), Matchers.equalTo(shortest[0]));
+        }
+    }
+
+    /**
+     * Verifies for random scenarios large enough to be solved by branch and bound that the route serves every rider and never travels further than {@linkplain MoveByLookSweep}.
+     */
+    @Test
+    public void largeScenariosNeverWorseThanLookSweep()
+    {
+        final Random random = new Random(14);
+        for (int scenarioIndex = 0; scenarioIndex < 50; scenarioIndex++)
+        {
+            final List<MoveCommand> moveCommands = randomMoveCommands(random, 17 + random.nextInt(8), 40);
+            final FloorSequence moveSequence = new FloorSequence();
+            final FloorSequence lookSequence = new FloorSequence();
+            createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+            new MoveByLookSweep().getMoveSequence(new Scenario(moveCommands), lookSequence);
+
+            assertServesEveryRider(moveCommands, moveSequence);
+            assertThat(moveSequence.getFloorsTravelled(), Matchers.lessThanOrEqualTo(lookSequence.getFloorsTravelled()));
+        }
+    }
+
+    /**
+     * Verifies that scenarios whose search runs out of its node budget, whether memoized or by branch and bound, still get a route no worse than {@linkplain MoveByLookSweep}'s, and are counted as inexact, while
+     * scenarios searched within the budget are not.
+     */
+    @Test
+    public void searchBudgetExhaustionIsCounted()
+    {
+        final Random random = new Random(15);
+        final ScenarioMetrics exactMetrics = new ScenarioMetrics();
+        new MoveByOptimalRoute(MoveByOptimalRoute.DEFAULT_RIDER_CEILING, MoveByOptimalRoute.DEFAULT_SEARCH_NODE_BUDGET, new MoveByLookSweep(), exactMetrics)
+                .getMoveSequence(new Scenario(randomMoveCommands(random, 6, 12)), new FloorSequence());
+        assertThat(exactMetrics.getInexactRouteCount(), Matchers.equalTo(0L));
+
+        final ScenarioMetrics metrics = new ScenarioMetrics();
+        final MoveByOptimalRoute moveStrategy = new MoveByOptimalRoute(MoveByOptimalRoute.DEFAULT_RIDER_CEILING, 1, new MoveByLookSweep(), metrics);
+        for (final int riders : new int[]{6, 20})
+        {
+            final List<MoveCommand> moveCommands = randomMoveCommands(random, riders, 40);
+            final FloorSequence moveSequence = new FloorSequence();
+            final FloorSequence lookSequence = new FloorSequence();
+            moveStrategy.getMoveSequence(new Scenario(moveCommands), moveSequence);
+            new MoveByLookSweep().getMoveSequence(new Scenario(moveCommands), lookSequence);
+
+            assertServesEveryRider(moveCommands, moveSequence);
+            assertThat(moveSequence.getFloorsTravelled(), Matchers.lessThanOrEqualTo(lookSequence.getFloorsTravelled()));
+        }
+        assertThat(metrics.getInexactRouteCount(), Matchers.equalTo(2L));
+        assertThat(metrics.formatSummary(), Matchers.containsString("Routes not proven shortest (search budget exhausted): 2."));
+    }
+
+    /**
+     * Verifies that the primitive form produces the same move sequence as the List form.
+     */
+    @Test
+    public void primitiveMatchesList()
+    {
+        final List<MoveCommand> moveCommands = ImmutableList.of(new MoveCommand(7, 11), new MoveCommand(11, 6), new MoveCommand(10, 5), new MoveCommand(6, 8));
+        final FloorSequence moveSequence = new FloorSequence();
+        createMoveStrategy().getMoveSequence(new Scenario(moveCommands), moveSequence);
+        assertThat(moveSequence.toImmutableList(), Matchers.equalTo(createMoveStrategy().getMoveSequence(moveCommands)));
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param riders The number of riders.
+     * @param floors The number of floors.
+     * @return Non-null List of MoveCommands chained like parsed scenarios, where no command starts at the previous command's destination.
+     */
+    private static List<MoveCommand> randomMoveCommands(final Random random, final int riders, final int floors)
+    {
+        final List<MoveCommand> moveCommands = new ArrayList<>();
+        int previousFloor = 0;
+        while (moveCommands.size() < riders)
+        {
+            final int originatingFloor = 1 + random.nextInt(floors);
+            final int destinationFloor = 1 + random.nextInt(floors);
+            if (originatingFloor != destinationFloor && originatingFloor != previousFloor)
+            {
+                moveCommands.add(new MoveCommand(originatingFloor, destinationFloor));
+                previousFloor = destinationFloor;
+            }
+        }
+        return moveCommands;
+    }
+
+    /**
+     * Finds the shortest route by trying every remaining pickup or drop-off floor as the next stop, serving every floor passed on the way.
+     *
+     * @param moveCommands The riders.
+     * @param boarded Which riders have boarded.
+     * @param delivered Which riders have been dropped off.
+     * @param position The current floor.
+     * @param travelled The distance travelled so far.
+     * @param shortest Holds the shortest distance found so far.
+     */
+    private static void exhaustiveSearch(final List<MoveCommand> moveCommands, final boolean[] boarded, final boolean[] delivered, final int position, final long travelled, final long[] shortest)
+    {
+        serve(moveCommands, boarded, delivered, position);
+        boolean finished = true;
+        for (int rider = 0; rider < moveCommands.size(); rider++)
+        {
+            if (delivered[rider])
+            {
+                continue;
+            }
+            finished = false;
+            final int next = boarded[rider] ? moveCommands.get(rider).getDestinationFloor() : moveCommands.get(rider).getOriginatingFloor();
+            final boolean[] nextBoarded = boarded.clone();
+            final boolean[] nextDelivered = delivered.clone();
+            final int step = next > position ? 1 : -1;
+            for (int floor = position + step; floor != next + step; floor += step)
+            {
+                serve(moveCommands, nextBoarded, nextDelivered, floor);
+            }
+            exhaustiveSearch(moveCommands, nextBoarded, nextDelivered, next, travelled + Math.abs(next - position), shortest);
+        }
+        if (finished)
+        {
+            shortest[0] = Math.min(shortest[0], travelled);
+        }
+    }
+
+    /**
+     * Drops off the riders bound for a floor and boards the riders waiting there.
+     *
+     * @param moveCommands The riders.
+     * @param boarded Which riders have boarded.
+     * @param delivered Which riders have been dropped off.
+     * @param floor The floor.
+     */
+    private static void serve(final List<MoveCommand> moveCommands, final boolean[] boarded, final boolean[] delivered, final int floor)
+    {
+        for (int rider = 0; rider < moveCommands.size(); rider++)
+        {
+            if (boarded[rider] && moveCommands.get(rider).getDestinationFloor() == floor)
+            {
+                delivered[rider] = true;
+            }
+        }
+        for (int rider = 0; rider < moveCommands.size(); rider++)
+        {
+            if (!boarded[rider] && moveCommands.get(rider).getOriginatingFloor() == floor)
+            {
+                boarded[rider] = true;
+            }
+        }
+    }
+
+    /**
+     * @param moveCommands The riders.
+     * @param moveSequence The FloorSequence visited.
+     */
+    private static void assertServesEveryRider(final List<MoveCommand> moveCommands, final FloorSequence moveSequence)
+    {
+        for (final MoveCommand moveCommand : moveCommands)
+        {
+            int index = 0;
+            while (index < moveSequence.size() && moveSequence.get(index) != moveCommand.getOriginatingFloor())
+            {
+                index++;
+            }
+            while (index < moveSequence.size() && moveSequence.get(index) != moveCommand.getDestinationFloor())
+            {
+                index++;
+            }
+            assertThat(moveCommands + " -> " + moveSequence, index < moveSequence.size(), Matchers.equalTo(true));
+        }
+    }
+
+    /**
+     * Creates a new {@linkplain MoveByOptimalRoute}. Each test should create a new instance to guarantee test integrity.
+     *
+     * @return Non-null MoveByOptimalRoute.
+     */
+    private static MoveByOptimalRoute createMoveStrategy()
+    {
+        return new MoveByOptimalRoute();
+    }
+}
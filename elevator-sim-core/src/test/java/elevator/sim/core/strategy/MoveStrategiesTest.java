@@ -0,0 +1,98 @@
+package elevator.sim.core.strategy;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain MoveStrategies} adapters and the {@linkplain PrimitiveMoveStrategy} implementations of the built-in strategies.
+ */
+public final class MoveStrategiesTest
+{
+    private static final Scenario EXAMPLE_SCENARIO = new Scenario(ImmutableList.of(
+            new MoveCommand(7, 11),
+            new MoveCommand(11, 6),
+            new MoveCommand(10, 5),
+            new MoveCommand(6, 8),
+            new MoveCommand(7, 4),
+            new MoveCommand(12, 7),
+            new MoveCommand(8, 9)));
+
+    /**
+     * Verifies that a strategy which already implements PrimitiveMoveStrategy is returned unchanged.
+     */
+    @Test
+    public void asPrimitiveReturnsPrimitiveStrategy()
+    {
+        final MoveByRequestsInSameDirection moveStrategy = new MoveByRequestsInSameDirection();
+        assertThat(MoveStrategies.asPrimitive(moveStrategy), Matchers.sameInstance(moveStrategy));
+    }
+
+    /**
+     * Verifies that a strategy which already implements MoveStrategy is returned unchanged.
+     */
+    @Test
+    public void asMoveStrategyReturnsMoveStrategy()
+    {
+        final MoveBySingleRequest moveStrategy = new MoveBySingleRequest();
+        assertThat(MoveStrategies.asMoveStrategy(moveStrategy), Matchers.sameInstance(moveStrategy));
+    }
+
+    /**
+     * Verifies that a list-based strategy adapted to PrimitiveMoveStrategy writes the same floors into the FloorSequence.
+     */
+    @Test
+    public void listStrategyAdaptedToPrimitive()
+    {
+        final MoveStrategy listOnlyStrategy = moveCommands -> new MoveByRequestsInSameDirection().getMoveSequence(moveCommands);
+        final FloorSequence moveSequence = new FloorSequence();
+
+        MoveStrategies.asPrimitive(listOnlyStrategy).getMoveSequence(EXAMPLE_SCENARIO, moveSequence);
+        assertThat(moveSequence.toImmutableList(), Matchers.contains(7, 11, 10, 6, 5, 6, 8, 12, 7, 4, 8, 9));
+    }
+
+    /**
+     * Verifies that a primitive strategy adapted to MoveStrategy returns the same floors as an ImmutableList.
+     */
+    @Test
+    public void primitiveStrategyAdaptedToList()
+    {
+        final PrimitiveMoveStrategy primitiveOnlyStrategy = (scenario, moveSequence) -> new MoveBySingleRequest().getMoveSequence(scenario, moveSequence);
+
+        assertThat(MoveStrategies.asMoveStrategy(primitiveOnlyStrategy).getMoveSequence(EXAMPLE_SCENARIO.getMoveCommands()),
+                Matchers.contains(7, 11, 6, 10, 5, 6, 8, 7, 4, 12, 7, 8, 9));
+    }
+
+    /**
+     * Verifies that a FloorSequence reused across scenarios only holds the floors of the latest one.
+     */
+    @Test
+    public void floorSequenceIsReused()
+    {
+        final FloorSequence moveSequence = new FloorSequence(1);
+        final MoveByRequestsInSameDirection moveStrategy = new MoveByRequestsInSameDirection();
+
+        moveStrategy.getMoveSequence(EXAMPLE_SCENARIO, moveSequence);
+        moveStrategy.getMoveSequence(new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1))), moveSequence);
+
+        assertThat(moveSequence.toImmutableList(), Matchers.contains(10, 8, 1));
+        assertThat(moveSequence.getFloorsTravelled(), Matchers.equalTo(9L));
+    }
+
+    /**
+     * Verifies that an empty Scenario produces an empty FloorSequence.
+     */
+    @Test
+    public void emptyScenario()
+    {
+        final FloorSequence moveSequence = new FloorSequence();
+        moveSequence.add(3);
+
+        new MoveByRequestsInSameDirection().getMoveSequence(new Scenario(ImmutableList.of()), moveSequence);
+        assertThat(moveSequence.isEmpty(), Matchers.equalTo(true));
+    }
+}
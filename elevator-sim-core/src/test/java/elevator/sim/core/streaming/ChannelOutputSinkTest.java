@@ -0,0 +1,89 @@
+package elevator.sim.core.streaming;
+
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that the {@linkplain ChannelOutputSink} writes everything it is given, and only pushes it to its destination as its {@linkplain FlushPolicy} dictates.
+ */
+public final class ChannelOutputSinkTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that output larger than the internal buffer is written to a file in full.
+     */
+    @Test
+    public void writeToFile() throws IOException
+    {
+        final Path outputFile = temporaryFolder.newFile("output.txt").toPath();
+        final StringBuilder expected = new StringBuilder();
+        try (final ChannelOutputSink outputSink = ChannelOutputSink.toFile(outputFile, FlushPolicy.atEnd()))
+        {
+            for (int scenario = 0; scenario < 200_000; scenario++)
+            {
+                final String output = scenario + " " + (scenario + 1) + " (1)" + System.lineSeparator();
+                outputSink.write(output);
+                expected.append(output);
+            }
+        }
+        assertThat(new String(Files.readAllBytes(outputFile), StandardCharsets.ISO_8859_1), Matchers.equalTo(expected.toString()));
+    }
+
+    /**
+     * Verifies that with the at-end policy nothing reaches the stream until the sink is flushed.
+     */
+    @Test
+    public void atEndDefersOutput() throws IOException
+    {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final ChannelOutputSink outputSink = ChannelOutputSink.toStream(stream, FlushPolicy.atEnd());
+
+        outputSink.write("10 8 1 (9)");
+        assertThat(stream.size(), Matchers.equalTo(0));
+
+        outputSink.flush();
+        assertThat(stream.toString("ISO-8859-1"), Matchers.equalTo("10 8 1 (9)"));
+    }
+
+    /**
+     * Verifies that the scenario-count policy pushes output to the stream after every n scenarios.
+     */
+    @Test
+    public void everyScenariosFlushesPeriodically() throws IOException
+    {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        final ChannelOutputSink outputSink = ChannelOutputSink.toStream(stream, FlushPolicy.everyScenarios(2));
+
+        outputSink.write("1 2 (1)\n");
+        assertThat(stream.size(), Matchers.equalTo(0));
+        outputSink.write("2 3 (1)\n");
+        assertThat(stream.toString("ISO-8859-1"), Matchers.equalTo("1 2 (1)\n2 3 (1)\n"));
+    }
+
+    /**
+     * Verifies that closing a sink on a stream flushes it but leaves the stream usable.
+     */
+    @Test
+    public void closeFlushesButKeepsStreamOpen() throws IOException
+    {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (final ChannelOutputSink outputSink = ChannelOutputSink.toStream(stream, FlushPolicy.atEnd()))
+        {
+            outputSink.write("1 2 (1)");
+        }
+        stream.write('!');
+        assertThat(stream.toString("ISO-8859-1"), Matchers.equalTo("1 2 (1)!"));
+    }
+}
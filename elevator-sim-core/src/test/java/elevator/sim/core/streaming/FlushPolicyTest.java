@@ -0,0 +1,81 @@
+package elevator.sim.core.streaming;
+
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies the {@linkplain FlushPolicy} decisions and its parseable descriptions.
+ */
+public final class FlushPolicyTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    /**
+     * Verifies that the per-scenario policy flushes after every scenario.
+     */
+    @Test
+    public void perScenario()
+    {
+        assertThat(FlushPolicy.perScenario().shouldFlush(1, 1), Matchers.equalTo(true));
+    }
+
+    /**
+     * Verifies that the at-end policy never asks for an intermediate flush.
+     */
+    @Test
+    public void atEnd()
+    {
+        assertThat(FlushPolicy.atEnd().shouldFlush(Long.MAX_VALUE - 1, Long.MAX_VALUE - 1), Matchers.equalTo(false));
+    }
+
+    /**
+     * Verifies that the scenario-count and byte-count policies flush once their interval is reached.
+     */
+    @Test
+    public void intervals()
+    {
+        assertThat(FlushPolicy.everyScenarios(3).shouldFlush(2, 1000), Matchers.equalTo(false));
+        assertThat(FlushPolicy.everyScenarios(3).shouldFlush(3, 1), Matchers.equalTo(true));
+        assertThat(FlushPolicy.everyBytes(100).shouldFlush(50, 99), Matchers.equalTo(false));
+        assertThat(FlushPolicy.everyBytes(100).shouldFlush(1, 100), Matchers.equalTo(true));
+    }
+
+    /**
+     * Verifies that every policy can be parsed back from its description.
+     */
+    @Test
+    public void parseDescriptions()
+    {
+        for (final FlushPolicy flushPolicy : new FlushPolicy[]{FlushPolicy.perScenario(), FlushPolicy.atEnd(), FlushPolicy.everyScenarios(10), FlushPolicy.everyBytes(65536)})
+        {
+            assertThat(FlushPolicy.parse(flushPolicy.toString()).toString(), Matchers.equalTo(flushPolicy.toString()));
+        }
+    }
+
+    /**
+     * Verifies that a non-positive interval is rejected.
+     */
+    @Test
+    public void parseNonPositiveInterval()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Invalid flush policy: [bytes:0]. Expected scenario, end, scenarios:<n> or bytes:<n>.");
+        FlushPolicy.parse("bytes:0");
+    }
+
+    /**
+     * Verifies that an unknown unit is rejected.
+     */
+    @Test
+    public void parseUnknownUnit()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Invalid flush policy: [lines:5].");
+        FlushPolicy.parse("lines:5");
+    }
+}
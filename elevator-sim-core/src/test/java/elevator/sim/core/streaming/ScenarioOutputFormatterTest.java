@@ -0,0 +1,100 @@
+package elevator.sim.core.streaming;
+
+import elevator.sim.core.strategy.FloorSequence;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that the {@linkplain ScenarioOutputFormatter} produces exactly the same text as formatting the floors with a StringBuilder.
+ */
+public final class ScenarioOutputFormatterTest
+{
+    /**
+     * Verifies the first example scenario.
+     */
+    @Test
+    public void exampleScenario()
+    {
+        final ScenarioOutputFormatter formatter = new ScenarioOutputFormatter();
+        formatter.format(floors(10, 8, 1));
+        assertThat(formatter.toString(), Matchers.equalTo("10 8 1 (9)"));
+    }
+
+    /**
+     * Verifies that the line separator is appended after the count of floors travelled.
+     */
+    @Test
+    public void lineSeparator()
+    {
+        final ScenarioOutputFormatter formatter = new ScenarioOutputFormatter();
+        formatter.format(floors(1, 2));
+        formatter.appendLineSeparator();
+        assertThat(formatter.toString(), Matchers.equalTo("1 2 (1)" + System.lineSeparator()));
+    }
+
+    /**
+     * Verifies extreme values, including ones no elevator should produce, against StringBuilder.
+     */
+    @Test
+    public void extremeValues()
+    {
+        final ScenarioOutputFormatter formatter = new ScenarioOutputFormatter();
+        final FloorSequence moveSequence = floors(Integer.MAX_VALUE, 1, Integer.MIN_VALUE, 0, -9, 10, 99, 100);
+        formatter.format(moveSequence);
+        assertThat(formatter.toString(), Matchers.equalTo(format(moveSequence)));
+    }
+
+    /**
+     * Verifies that a reused formatter matches StringBuilder for random sequences of varying length, growing its buffer as needed.
+     */
+    @Test
+    public void reusedFormatterMatchesStringBuilder()
+    {
+        final Random random = new Random(11);
+        final ScenarioOutputFormatter formatter = new ScenarioOutputFormatter();
+        final FloorSequence moveSequence = new FloorSequence();
+        for (int scenario = 0; scenario < 1000; scenario++)
+        {
+            moveSequence.clear();
+            final int moves = 1 + random.nextInt(scenario % 10 == 0 ? 500 : 10);
+            for (int move = 0; move < moves; move++)
+            {
+                moveSequence.add(1 + random.nextInt(random.nextBoolean() ? 10 : Integer.MAX_VALUE));
+            }
+            formatter.format(moveSequence);
+            assertThat(formatter.toString(), Matchers.equalTo(format(moveSequence)));
+        }
+    }
+
+    /**
+     * @param floors The floors.
+     * @return Non-null FloorSequence of the floors.
+     */
+    private static FloorSequence floors(final int... floors)
+    {
+        final FloorSequence moveSequence = new FloorSequence();
+        for (final int floor : floors)
+        {
+            moveSequence.add(floor);
+        }
+        return moveSequence;
+    }
+
+    /**
+     * @param moveSequence The FloorSequence to format.
+     * @return Non-null output formatted with a StringBuilder.
+     */
+    private static String format(final FloorSequence moveSequence)
+    {
+        final StringBuilder output = new StringBuilder();
+        for (int index = 0; index < moveSequence.size(); index++)
+        {
+            output.append(moveSequence.get(index)).append(' ');
+        }
+        return output.append('(').append(moveSequence.getFloorsTravelled()).append(')').toString();
+    }
+}
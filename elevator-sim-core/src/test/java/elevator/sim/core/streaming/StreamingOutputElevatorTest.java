@@ -3,20 +3,38 @@ package elevator.sim.core.streaming;
 import com.google.common.collect.ImmutableList;
 import elevator.sim.core.Elevator;
 import elevator.sim.core.ElevatorScenarioExecutionException;
+import elevator.sim.core.MoveCommand;
 import elevator.sim.core.Scenario;
+import elevator.sim.core.jfr.ScenarioPlannedEvent;
+import elevator.sim.core.jfr.ScenarioWrittenEvent;
+import elevator.sim.core.metrics.ScenarioMetrics;
+import elevator.sim.core.strategy.MoveByRequestsInSameDirection;
 import elevator.sim.core.strategy.MoveStrategy;
+import org.hamcrest.Matchers;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 import static java.util.Collections.emptyList;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -29,6 +47,9 @@ public final class StreamingOutputElevatorTest
     @Rule
     public MockitoRule mockitoRule = MockitoJUnit.rule();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Mock
     private final MoveStrategy mockMoveStrategy = mock(MoveStrategy.class);
 
@@ -161,6 +182,205 @@ public final class StreamingOutputElevatorTest
         verifyWrittenLine("4 2 4 5 (5)");
     }
 
+    /**
+     * Verifies that scenarios supplied through an Iterator are written correctly (in particular, with the correct line separators).
+     */
+    @Test
+    public void multipleScenariosFromIterator()
+    {
+        when(mockMoveStrategy.getMoveSequence(DUMMY_SCENARIO.getMoveCommands()))
+                .thenReturn(ImmutableList.of(10, 8, 1))
+                .thenReturn(ImmutableList.of(1, 8));
+
+        createElevator().runScenarios(ImmutableList.of(DUMMY_SCENARIO, DUMMY_SCENARIO).iterator());
+
+        verifyWrittenLine("10 8 1 (9)" + System.lineSeparator());
+        verifyWrittenLine("1 8 (7)");
+    }
+
+    /**
+     * Verifies that planning on multiple threads writes exactly the same output, in the same order, as planning on the calling thread. Enough scenarios are run to cycle the reorder buffer several times.
+     */
+    @Test
+    public void parallelOutputMatchesSequentialOutput()
+    {
+        final Random random = new Random(8);
+        final List<Scenario> scenarios = new ArrayList<>();
+        for (int scenarioIndex = 0; scenarioIndex < 2000; scenarioIndex++)
+        {
+            // Originating floors are drawn from below 50 and destination floors from above, so no MoveCommand can start and end on the same floor.
+            final List<MoveCommand> moveCommands = new ArrayList<>();
+            moveCommands.add(new MoveCommand(100, 1 + random.nextInt(49)));
+            final int moves = 1 + random.nextInt(8);
+            for (int moveIndex = 0; moveIndex < moves; moveIndex++)
+            {
+                moveCommands.add(new MoveCommand(1 + random.nextInt(49), 50 + random.nextInt(50)));
+            }
+            scenarios.add(new Scenario(moveCommands));
+        }
+
+        assertThat(runWithThreads(scenarios, 4), Matchers.equalTo(runWithThreads(scenarios, 1)));
+    }
+
+    /**
+     * Verifies that the elevator counts every planned scenario in its ScenarioMetrics and samples their latencies, whether it plans on the calling thread or on several.
+     */
+    @Test
+    public void recordsMetrics()
+    {
+        final Scenario scenario = new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1)));
+        for (final int planningThreads : new int[]{1, 3})
+        {
+            final ScenarioMetrics metrics = new ScenarioMetrics(10);
+            final StreamingOutputElevator elevator = new StreamingOutputElevator(new MoveByRequestsInSameDirection(), new WriterOutputSink(new OutputStreamWriter(new ByteArrayOutputStream()),
+                    FlushPolicy.atEnd()), planningThreads, metrics);
+            elevator.runScenarios(Collections.nCopies(100, scenario));
+
+            assertThat(metrics.getScenarioCount(), Matchers.equalTo(100L));
+            assertThat(metrics.getMoveCount(), Matchers.equalTo(200L));
+            assertThat(metrics.getFloorsTravelled(), Matchers.equalTo(900L));
+            assertThat(metrics.getBytesWritten(), Matchers.equalTo(100L * "10 8 1 (9)".length() + 99L * System.lineSeparator().length()));
+            assertThat(metrics.getPlanLatencyByStrategy().get("MoveByRequestsInSameDirection").getCount(), Matchers.equalTo(10L));
+            assertThat(metrics.getWriteLatency().getCount(), Matchers.equalTo(10L));
+        }
+    }
+
+    /**
+     * Verifies that a Flight Recorder recording that enables the scenario events receives a planned and a written event for every scenario, carrying its index, size and route.
+     */
+    @Test
+    public void emitsFlightRecorderEvents() throws IOException
+    {
+        final Scenario scenario = new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1)));
+        final Path recordingFile = temporaryFolder.newFile("scenarios.jfr").toPath();
+        try (final Recording recording = new Recording())
+        {
+            recording.enable(ScenarioPlannedEvent.class);
+            recording.enable(ScenarioWrittenEvent.class);
+            recording.start();
+            runWithThreads(Collections.nCopies(3, scenario), 2);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final List<RecordedEvent> plannedEvents = new ArrayList<>();
+        final List<RecordedEvent> writtenEvents = new ArrayList<>();
+        for (final RecordedEvent event : RecordingFile.readAllEvents(recordingFile))
+        {
+            (event.getEventType().getName().equals(ScenarioPlannedEvent.NAME) ? plannedEvents : writtenEvents).add(event);
+        }
+        plannedEvents.sort((first, second) -> Long.compare(first.getLong("scenarioIndex"), second.getLong("scenarioIndex")));
+        assertThat(plannedEvents.size(), Matchers.equalTo(3));
+        assertThat(plannedEvents.get(2).getLong("scenarioIndex"), Matchers.equalTo(2L));
+        assertThat(plannedEvents.get(0).getString("strategy"), Matchers.equalTo("MoveByRequestsInSameDirection"));
+        assertThat(plannedEvents.get(0).getInt("moveCount"), Matchers.equalTo(2));
+        assertThat(plannedEvents.get(0).getInt("planLength"), Matchers.equalTo(3));
+        assertThat(plannedEvents.get(0).getLong("floorsTravelled"), Matchers.equalTo(9L));
+        assertThat(writtenEvents.size(), Matchers.equalTo(3));
+        assertThat(writtenEvents.get(2).getLong("scenarioIndex"), Matchers.equalTo(2L));
+        assertThat(writtenEvents.get(2).getLong("bytes"), Matchers.equalTo((long) "10 8 1 (9)".length()));
+    }
+
+    /**
+     * Verifies that the scenario events are only created while a recording enables them, so that nothing is allocated per scenario otherwise.
+     */
+    @Test
+    public void createsFlightRecorderEventsOnlyWhileRecorded()
+    {
+        assertThat(ScenarioPlannedEvent.beginIfEnabled() == null, Matchers.equalTo(true));
+        try (final Recording recording = new Recording())
+        {
+            recording.enable(ScenarioPlannedEvent.class);
+            recording.start();
+            assertThat(ScenarioPlannedEvent.beginIfEnabled() == null, Matchers.equalTo(false));
+            assertThat(ScenarioWrittenEvent.beginIfEnabled() == null, Matchers.equalTo(true));
+            recording.stop();
+        }
+        assertThat(ScenarioPlannedEvent.beginIfEnabled() == null, Matchers.equalTo(true));
+    }
+
+    /**
+     * Verifies that planning on multiple threads still stops at the first Scenario without moves, writing every Scenario ahead of it.
+     */
+    @Test
+    public void parallelEmptyMoveCommandStopsOutput()
+    {
+        final Scenario scenario = new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1)));
+        final String output = runWithThreads(ImmutableList.of(scenario, scenario, new Scenario(emptyList()), scenario), 3);
+
+        final String separator = System.lineSeparator();
+        assertThat(output, Matchers.equalTo("10 8 1 (9)" + separator + "10 8 1 (9)" + separator));
+    }
+
+    /**
+     * Verifies that every run of an elevator plans on the same threads, including after a run that ends early, and that closing the elevator stops them.
+     */
+    @Test
+    public void planningThreadsAreReusedUntilClosed() throws InterruptedException
+    {
+        final Set<Thread> planningThreads = ConcurrentHashMap.newKeySet();
+        final MoveByRequestsInSameDirection strategy = new MoveByRequestsInSameDirection();
+        final Scenario scenario = new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1)));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final StreamingOutputElevator elevator = new StreamingOutputElevator(moveCommands ->
+        {
+            planningThreads.add(Thread.currentThread());
+            return strategy.getMoveSequence(moveCommands);
+        }, new OutputStreamWriter(output, StandardCharsets.UTF_8), 2);
+        for (int run = 0; run < 20; run++)
+        {
+            elevator.runScenario(scenario);
+        }
+        elevator.runScenarios(ImmutableList.of(scenario, new Scenario(emptyList()), scenario));
+        elevator.runScenarios(Collections.nCopies(200, scenario));
+        elevator.close();
+
+        assertThat(planningThreads.size(), Matchers.lessThanOrEqualTo(2));
+        for (final Thread planningThread : planningThreads)
+        {
+            planningThread.join(10_000);
+            assertThat(planningThread.isAlive(), Matchers.equalTo(false));
+        }
+        assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8).split("\\(9\\)", -1).length - 1, Matchers.equalTo(20 + 1 + 200));
+    }
+
+    /**
+     * Verifies that a closed elevator refuses to run further scenarios.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void closedElevator()
+    {
+        final StreamingOutputElevator elevator = new StreamingOutputElevator(new MoveByRequestsInSameDirection(), new OutputStreamWriter(new ByteArrayOutputStream(), StandardCharsets.UTF_8), 2);
+        elevator.close();
+        elevator.runScenario(new Scenario(ImmutableList.of(new MoveCommand(10, 8))));
+    }
+
+    /**
+     * Verifies that a non-positive number of planning threads is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPlanningThreads()
+    {
+        new StreamingOutputElevator(mockMoveStrategy, mockOutputStreamWriter, 0);
+    }
+
+    /**
+     * Runs the given Scenarios through an elevator using a real strategy and the given number of planning threads.
+     *
+     * @param scenarios The Scenarios to run.
+     * @param planningThreads The number of planning threads.
+     * @return Non-null output of the elevator.
+     */
+    private static String runWithThreads(final List<Scenario> scenarios, final int planningThreads)
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (final StreamingOutputElevator elevator = new StreamingOutputElevator(new MoveByRequestsInSameDirection(), new OutputStreamWriter(output, StandardCharsets.UTF_8), planningThreads))
+        {
+            elevator.runScenarios(scenarios.iterator());
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     /**
      * Creates an {@linkplain Elevator} to run the scenarios with. As noted in the class doc, the purpose of these tests is not to test a particular strategy, just the output of the elevator. Therefore the choice of strategy is
      * arbitrary.
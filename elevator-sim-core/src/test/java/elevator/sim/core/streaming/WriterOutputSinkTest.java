@@ -0,0 +1,59 @@
+package elevator.sim.core.streaming;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that the {@linkplain WriterOutputSink} writes byte output as ISO-8859-1 characters, and only flushes its Writer as its {@linkplain FlushPolicy} dictates.
+ */
+public final class WriterOutputSinkTest
+{
+    /**
+     * Verifies that byte output, including bytes above 127 and part of an array, reaches the Writer unchanged.
+     */
+    @Test
+    public void writeBytes() throws IOException
+    {
+        final StringWriter writer = new StringWriter();
+        final WriterOutputSink outputSink = new WriterOutputSink(writer, FlushPolicy.atEnd());
+
+        final byte[] longOutput = "10 8 1 (9)\u00e9".getBytes(StandardCharsets.ISO_8859_1);
+        outputSink.write(longOutput, 0, longOutput.length);
+        final byte[] shortOutput = "x1 2 (1)x".getBytes(StandardCharsets.ISO_8859_1);
+        outputSink.write(shortOutput, 1, shortOutput.length - 2);
+        outputSink.flush();
+
+        assertThat(writer.toString(), Matchers.equalTo("10 8 1 (9)\u00e91 2 (1)"));
+    }
+
+    /**
+     * Verifies that the scenario-count policy flushes the Writer after every n scenarios, whether written as bytes or as Strings.
+     */
+    @Test
+    public void everyScenariosFlushesPeriodically() throws IOException
+    {
+        final int[] flushes = new int[1];
+        final StringWriter writer = new StringWriter()
+        {
+            @Override
+            public void flush()
+            {
+                flushes[0]++;
+            }
+        };
+        final WriterOutputSink outputSink = new WriterOutputSink(writer, FlushPolicy.everyScenarios(2));
+
+        final byte[] output = "1 2 (1)\n".getBytes(StandardCharsets.ISO_8859_1);
+        outputSink.write(output, 0, output.length);
+        assertThat(flushes[0], Matchers.equalTo(0));
+        outputSink.write("2 3 (1)\n");
+        assertThat(flushes[0], Matchers.equalTo(1));
+        assertThat(writer.toString(), Matchers.equalTo("1 2 (1)\n2 3 (1)\n"));
+    }
+}
@@ -0,0 +1,184 @@
+package elevator.sim.core.summary;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.strategy.FloorSequence;
+import elevator.sim.core.strategy.MoveByLookSweep;
+import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.streaming.FlushPolicy;
+import elevator.sim.core.streaming.WriterOutputSink;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that the {@linkplain SummaryElevator} totals the routes of the {@linkplain Scenario Scenarios} it runs, on one or several planning threads, without writing the routes themselves.
+ */
+public final class SummaryElevatorTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    /**
+     * Verifies the summary of a single Scenario, whose route starts at floor 10 and stops at 9, 8, 5, 3 and 1.
+     */
+    @Test
+    public void singleScenario()
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        createElevator(new MoveByLookSweep(), 1, output).runScenario(Scenario.builder().addMove(10, 8).addMove(5, 1).addMove(9, 3).build());
+
+        final String[] rows = new String(output.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertThat(rows.length, Matchers.equalTo(5));
+        assertThat(rows[0], Matchers.equalTo("Scenarios: 1, moves: 3, stops: 5, floors travelled: 9."));
+        assertThat(rows[2].split(" +"), Matchers.arrayContaining("moves", "3", "3", "3", "3", "3"));
+        assertThat(rows[3].split(" +"), Matchers.arrayContaining("stops", "5", "5", "5", "5", "5"));
+        assertThat(rows[4].split(" +"), Matchers.arrayContaining("floors", "travelled", "9", "9", "9", "9", "9"));
+    }
+
+    /**
+     * Verifies that the totals match those of planning every Scenario separately, whether the scenarios are planned on the calling thread or in batches on several threads.
+     */
+    @Test
+    public void matchesStrategy()
+    {
+        final Random random = new Random(25);
+        final List<Scenario> scenarios = new ArrayList<>();
+        for (int scenarioIndex = 0; scenarioIndex < 5000; scenarioIndex++)
+        {
+            final Scenario.Builder builder = Scenario.builder();
+            final int moves = 1 + random.nextInt(12);
+            for (int moveIndex = 0; moveIndex < moves; moveIndex++)
+            {
+                builder.addMove(1 + random.nextInt(20), 21 + random.nextInt(20));
+            }
+            scenarios.add(builder.build());
+        }
+
+        final MoveByLookSweep strategy = new MoveByLookSweep();
+        final FloorSequence moveSequence = new FloorSequence();
+        long moves = 0;
+        long stops = 0;
+        long floorsTravelled = 0;
+        for (final Scenario scenario : scenarios)
+        {
+            strategy.getMoveSequence(scenario, moveSequence);
+            moves += scenario.getMoveCount();
+            stops += moveSequence.size() - 1;
+            floorsTravelled += moveSequence.getFloorsTravelled();
+        }
+        final String totals = String.format("Scenarios: %d, moves: %d, stops: %d, floors travelled: %d.", scenarios.size(), moves, stops, floorsTravelled);
+
+        for (final int planningThreads : new int[]{1, 3})
+        {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            createElevator(strategy, planningThreads, output).runScenarios(scenarios.iterator());
+            assertThat(new String(output.toByteArray(), StandardCharsets.UTF_8).split(System.lineSeparator())[0], Matchers.equalTo(totals));
+        }
+    }
+
+    /**
+     * Verifies that a Scenario without move commands ends the run, and that the totals accumulate over runs.
+     */
+    @Test
+    public void emptyScenarioEndsRun()
+    {
+        final Scenario scenario = Scenario.builder().addMove(10, 8).addMove(8, 1).build();
+        final SummaryElevator elevator = createElevator(new MoveByLookSweep(), 1, new ByteArrayOutputStream());
+        elevator.runScenarios(ImmutableList.of(scenario, scenario, Scenario.builder().build(), scenario));
+        assertThat(elevator.formatSummary().split(System.lineSeparator())[0], Matchers.equalTo("Scenarios: 2, moves: 4, stops: 4, floors travelled: 18."));
+
+        elevator.runScenarios(ImmutableList.of(scenario));
+        assertThat(elevator.formatSummary().split(System.lineSeparator())[0], Matchers.equalTo("Scenarios: 3, moves: 6, stops: 6, floors travelled: 27."));
+    }
+
+    /**
+     * Verifies that an exception thrown by the strategy on a planning thread reaches the caller.
+     */
+    @Test
+    public void strategyFailurePropagates()
+    {
+        final MoveStrategy failingStrategy = mock(MoveStrategy.class);
+        when(failingStrategy.getMoveSequence(anyListOf(MoveCommand.class))).thenThrow(new IllegalStateException("planning failed"));
+
+        exception.expect(IllegalStateException.class);
+        exception.expectMessage("planning failed");
+        createElevator(failingStrategy, 2, new ByteArrayOutputStream()).runScenarios(ImmutableList.of(Scenario.builder().addMove(10, 8).build()));
+    }
+
+    /**
+     * Verifies that every run of an elevator plans on the same threads, and that closing the elevator stops them.
+     */
+    @Test
+    public void planningThreadsAreReusedUntilClosed() throws InterruptedException
+    {
+        final Set<Thread> planningThreads = ConcurrentHashMap.newKeySet();
+        final MoveByLookSweep strategy = new MoveByLookSweep();
+        final SummaryElevator elevator = createElevator(moveCommands ->
+        {
+            planningThreads.add(Thread.currentThread());
+            return strategy.getMoveSequence(moveCommands);
+        }, 2, new ByteArrayOutputStream());
+        for (int run = 0; run < 10; run++)
+        {
+            elevator.runScenario(Scenario.builder().addMove(10, 8).addMove(8, 1).build());
+        }
+        elevator.close();
+
+        assertThat(elevator.formatSummary().split(System.lineSeparator())[0], Matchers.equalTo("Scenarios: 10, moves: 20, stops: 20, floors travelled: 90."));
+        assertThat(planningThreads.isEmpty(), Matchers.equalTo(false));
+        assertThat(planningThreads.size(), Matchers.lessThanOrEqualTo(2));
+        for (final Thread planningThread : planningThreads)
+        {
+            planningThread.join(10_000);
+            assertThat(planningThread.isAlive(), Matchers.equalTo(false));
+        }
+    }
+
+    /**
+     * Verifies that a closed elevator refuses to run further scenarios.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void closedElevator()
+    {
+        final SummaryElevator elevator = createElevator(new MoveByLookSweep(), 2, new ByteArrayOutputStream());
+        elevator.close();
+        elevator.runScenario(Scenario.builder().addMove(10, 8).build());
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when there are no planning threads.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void noPlanningThreads()
+    {
+        createElevator(new MoveByLookSweep(), 0, new ByteArrayOutputStream());
+    }
+
+    /**
+     * @param strategy The strategy to plan with.
+     * @param planningThreads The number of threads to plan on.
+     * @param output The stream to write the summary to.
+     * @return Non-null SummaryElevator writing to the stream when its run ends.
+     */
+    private static SummaryElevator createElevator(final MoveStrategy strategy, final int planningThreads, final ByteArrayOutputStream output)
+    {
+        return new SummaryElevator(strategy, new WriterOutputSink(new OutputStreamWriter(output, StandardCharsets.UTF_8), FlushPolicy.atEnd()), planningThreads);
+    }
+}
@@ -0,0 +1,108 @@
+package elevator.sim;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents the optional <code>--name</code> and <code>--name=value</code> arguments that may follow the scenario filename and mode on the command line.
+ */
+final class CommandLineOptions
+{
+    private static final String OPTION_PREFIX = "--";
+
+    private final ImmutableMap<String, String> values;
+
+    /**
+     * Parses the given arguments.
+     *
+     * @param arguments The option arguments to parse (cannot be null or contain null values, may be empty).
+     * @param validOptions The names of the recognized options, including their <code>--</code> prefix (cannot be null).
+     * @return Non-null CommandLineOptions.
+     * @throws IllegalArgumentException if parameter conditions are not met, or an argument is not a recognized option.
+     */
+    static CommandLineOptions parse(final List<String> arguments, final ImmutableSet<String> validOptions)
+    {
+        Preconditions.checkArgument(arguments != null, "arguments: null");
+        Preconditions.checkArgument(validOptions != null, "validOptions: null");
+
+        final Map<String, String> values = new HashMap<>();
+        for (final String argument : arguments)
+        {
+            Preconditions.checkArgument(argument != null, "argument: null");
+
+            final int separatorIndex = argument.indexOf('=');
+            final String name = separatorIndex < 0 ? argument : argument.substring(0, separatorIndex);
+            final String value = separatorIndex < 0 ? "" : argument.substring(separatorIndex + 1);
+            if (!name.startsWith(OPTION_PREFIX) || !validOptions.contains(name))
+            {
+                throw new IllegalArgumentException("Unknown option: [" + argument + "]. Valid options include " + validOptions + ".");
+            }
+            values.put(name, value);
+        }
+        return new CommandLineOptions(ImmutableMap.copyOf(values));
+    }
+
+    /**
+     * @param values Map of option name to (possibly empty) value.
+     */
+    private CommandLineOptions(final ImmutableMap<String, String> values)
+    {
+        this.values = values;
+    }
+
+    /**
+     * @param name The name of the option, including its <code>--</code> prefix.
+     * @return True if the option was given on the command line, with or without a value.
+     */
+    boolean isSet(final String name)
+    {
+        return values.containsKey(name);
+    }
+
+    /**
+     * Gets the value of an option.
+     *
+     * @param name The name of the option, including its <code>--</code> prefix.
+     * @param defaultValue The value to use if the option was not given.
+     * @return The (possibly empty) value of the option, or defaultValue.
+     */
+    String getString(final String name, final String defaultValue)
+    {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    /**
+     * Gets the value of an option as a positive integer.
+     *
+     * @param name The name of the option, including its <code>--</code> prefix.
+     * @param defaultValue The value to use if the option was not given.
+     * @return The value of the option, or defaultValue.
+     * @throws IllegalArgumentException if the option was given without a positive integer value.
+     */
+    int getPositiveInt(final String name, final int defaultValue)
+    {
+        final String value = values.get(name);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            final int parsedValue = Integer.parseInt(value);
+            if (parsedValue > 0)
+            {
+                return parsedValue;
+            }
+        }
+        catch (final NumberFormatException exception)
+        {
+            // Reported below along with non-positive values.
+        }
+        throw new IllegalArgumentException("Invalid value for " + name + ": [" + value + "]. Expected a positive integer.");
+    }
+}
@@ -1,17 +1,38 @@
 package elevator.sim;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import elevator.sim.core.Elevator;
 import elevator.sim.core.ElevatorScenarioExecutionException;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.comparison.StrategyComparisonElevator;
+import elevator.sim.core.event.CarTiming;
+import elevator.sim.core.event.EventSimulator;
+import elevator.sim.core.event.SimulationReport;
+import elevator.sim.core.event.TimedScenario;
+import elevator.sim.core.group.AssignmentPolicies;
+import elevator.sim.core.group.AssignmentPolicy;
+import elevator.sim.core.metrics.ScenarioMetrics;
+import elevator.sim.core.strategy.CachingMoveStrategy;
+import elevator.sim.core.strategy.MoveByLocalSearch;
+import elevator.sim.core.strategy.MoveByOptimalRoute;
+import elevator.sim.core.streaming.ChannelOutputSink;
+import elevator.sim.core.streaming.FlushPolicy;
+import elevator.sim.core.streaming.OutputSink;
 import elevator.sim.scenario.ScenarioLoader;
 
+import javax.management.JMException;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * Command-line application for running {@linkplain Elevator} simulations.
@@ -19,11 +40,78 @@ import java.nio.file.Paths;
  */
 public final class ElevatorSim
 {
+    private static final String LOAD_THREADS_OPTION = "--load-threads";
+    private static final String PARSE_THREADS_OPTION = "--parse-threads";
+    private static final String PARSE_QUEUE_OPTION = "--parse-queue";
+    private static final String THREADS_OPTION = "--threads";
+    private static final String OUTPUT_OPTION = "--output";
+    private static final String FLUSH_OPTION = "--flush";
+    private static final String OPTIMAL_RIDERS_OPTION = "--optimal-riders";
+    private static final String OPTIMAL_NODES_OPTION = "--optimal-nodes";
+    private static final String SEARCH_ITERATIONS_OPTION = "--search-iterations";
+    private static final String SEARCH_MILLIS_OPTION = "--search-millis";
+    private static final String CARS_OPTION = "--cars";
+    private static final String ASSIGNMENT_OPTION = "--assignment";
+    private static final String TIMED_OPTION = "--timed";
+    private static final String FLOOR_MILLIS_OPTION = "--floor-millis";
+    private static final String DOOR_MILLIS_OPTION = "--door-millis";
+    private static final String TRANSFER_MILLIS_OPTION = "--transfer-millis";
+    private static final String PLAN_CACHE_OPTION = "--plan-cache";
+    private static final String PLAN_CACHE_MB_OPTION = "--plan-cache-mb";
+    private static final String STATS_OPTION = "--stats";
+    private static final String JMX_OPTION = "--jmx";
+    private static final String STATS_SAMPLING_OPTION = "--stats-sampling";
+    private static final String SUMMARY_OPTION = "--summary";
+
+    private static final int DEFAULT_PARSE_QUEUE = 16;
+
+    private static final ImmutableSet<String> OPTIONS = ImmutableSet.of(LOAD_THREADS_OPTION, PARSE_THREADS_OPTION, PARSE_QUEUE_OPTION, THREADS_OPTION, OUTPUT_OPTION, FLUSH_OPTION,
+            OPTIMAL_RIDERS_OPTION, OPTIMAL_NODES_OPTION, SEARCH_ITERATIONS_OPTION, SEARCH_MILLIS_OPTION, CARS_OPTION,
+            ASSIGNMENT_OPTION, TIMED_OPTION, FLOOR_MILLIS_OPTION, DOOR_MILLIS_OPTION, TRANSFER_MILLIS_OPTION,
+            PLAN_CACHE_OPTION, PLAN_CACHE_MB_OPTION, STATS_OPTION, JMX_OPTION, STATS_SAMPLING_OPTION, SUMMARY_OPTION);
+
+    private static final ImmutableList<String> SINGLE_MODE_OPTIONS = ImmutableList.of(THREADS_OPTION, CARS_OPTION, ASSIGNMENT_OPTION, TIMED_OPTION, PLAN_CACHE_OPTION, STATS_OPTION, JMX_OPTION,
+            SUMMARY_OPTION);
+    private static final ImmutableList<String> PER_SCENARIO_OPTIONS = ImmutableList.of(CARS_OPTION, ASSIGNMENT_OPTION, TIMED_OPTION, STATS_OPTION, JMX_OPTION);
+
     private static final String USAGE =
-            "Usage: <mode> <filename>\n" + // Note that \n must be used instead of &n or System.lineSeparator() since #USAGE is referred to in JavaDoc.
+            "Usage: <filename> <mode> [options]\n" + // Note that \n must be used instead of &n or System.lineSeparator() since #USAGE is referred to in JavaDoc.
+                    "Filename: The full path to a file containing the scenarios to run.\n" +
                     "Modes:    [A,a] indicate MoveBySingleRequest should be used.\n" +
                     "          [B,b] indicate MoveByRequestsInSameDirection should be used.\n" +
-                    "Filename: The full path to a file containing the scenarios to run.";
+                    "          [C,c] indicate MoveByLookSweep should be used.\n" +
+                    "          [D,d] indicate MoveByOptimalRoute should be used. Routes are exact unless the search exhausts --optimal-nodes, in which case they are the best found;\n" +
+                    "                  --stats counts such scenarios.\n" +
+                    "          [E,e] indicate MoveByLocalSearch should be used.\n" +
+                    "          [F,f] indicate MoveByNearestRequest should be used.\n" +
+                    "          A comma-separated list of modes (e.g. A,C,F), or all, compares them: each scenario is read once and planned by every listed mode in parallel, printing the floors\n" +
+                    "                  each mode travelled (e.g. A (42) | C (38) | F (40)), then the totals and the number of scenarios each mode was best in on standard error.\n" +
+                    "                  Cannot be combined with --threads, --cars, --assignment, --timed, --plan-cache, --stats, --jmx or --summary.\n" +
+                    "Options:  --load-threads=<n> memory-maps the file and parses it on n threads (default 1, which reads it sequentially).\n" +
+                    "          --parse-threads=<n> reads the file on a background thread and parses it on n threads (cannot be combined with --load-threads).\n" +
+                    "          --parse-queue=<n> number of batches the background reader may run ahead with --parse-threads (default 16).\n" +
+                    "          --threads=<n> plans scenarios on n threads, still printing them in file order (default 1).\n" +
+                    "          --output=<path> writes the results to the given file instead of standard output.\n" +
+                    "          --flush=<policy> when to flush the results: scenario, scenarios:<n>, bytes:<n> or end (default scenario on standard output, so each result appears as soon as\n" +
+                    "                  its line has been read, and end with --output).\n" +
+                    "          --optimal-riders=<n> largest number of riders mode D searches an optimal route for, between 1 and 64 (default 24); larger scenarios use MoveByLookSweep.\n" +
+                    "          --optimal-nodes=<n> number of search nodes mode D explores per scenario before settling for the best route found (default 2097152).\n" +
+                    "          --search-iterations=<n> number of moves mode E tries per scenario (default 2000).\n" +
+                    "          --search-millis=<n> longest time mode E searches each scenario for, in milliseconds (default no limit).\n" +
+                    "          --cars=<n> runs every scenario on a group of n cars, printing each car's route and the group total (default 1).\n" +
+                    "          --assignment=<policy> how --cars assigns riders to cars: nearest, zones or round-robin (default nearest).\n" +
+                    "          --timed reads timed scenarios (e.g. 8:0@3-6,1500@4-6, arrival times in milliseconds) and runs them through the event-driven simulator in mode C or F,\n" +
+                    "                  printing each scenario's waiting and trip times.\n" +
+                    "          --floor-millis=<n>, --door-millis=<n>, --transfer-millis=<n> how long the car takes to travel a floor (default 1500), open or close its doors (default 2000),\n" +
+                    "                  and let a rider on or off (default 1000) with --timed.\n" +
+                    "          --plan-cache=<n> remembers the plans of up to n distinct scenarios so repeated scenarios are planned once, and reports hits and misses on standard error.\n" +
+                    "          --plan-cache-mb=<n> caps the memory held by --plan-cache, in MiB (default 64).\n" +
+                    "          --stats counts scenarios, moves, floors travelled and bytes written, times the parse, plan and write stages, and prints the counters and latency percentiles\n" +
+                    "                  on standard error at exit.\n" +
+                    "          --jmx collects the same metrics and publishes them as the platform MBean elevator.sim:type=ScenarioMetrics while the simulation runs.\n" +
+                    "          --stats-sampling=<n> times 1 in n scenarios per stage with --stats or --jmx, keeping the cost of reading the clock off most scenarios (default 16).\n" +
+                    "          --summary plans every scenario without printing its route, and prints the total moves, stops and floors travelled and their mean, percentiles and maximum\n" +
+                    "                  per scenario instead. Cannot be combined with --cars, --assignment, --timed, --stats or --jmx.";
 
     public static String getUsage()
     {
@@ -45,21 +133,244 @@ public final class ElevatorSim
         }
 
         final ImmutableList<String> arguments = ImmutableList.copyOf(args);
-        Preconditions.checkArgument(args.length == 2, "Invalid argument list: " + arguments + System.lineSeparator());
+        Preconditions.checkArgument(args.length >= 2, "Invalid argument list: " + arguments + System.lineSeparator());
 
         final Path scenarioFileName = Paths.get(arguments.get(0));
-        final Mode mode = Mode.parse(arguments.get(1));
+        final ImmutableList<Mode> modes = Mode.parseList(arguments.get(1));
+        final Mode mode = modes.get(0);
+        final boolean comparing = modes.size() > 1;
+        final CommandLineOptions options = CommandLineOptions.parse(arguments.subList(2, arguments.size()), OPTIONS);
+        if (comparing)
+        {
+            for (final String option : SINGLE_MODE_OPTIONS)
+            {
+                Preconditions.checkArgument(!options.isSet(option), "Option " + option + " cannot be combined with comparing modes.");
+            }
+        }
+        final boolean summary = options.isSet(SUMMARY_OPTION);
+        if (summary)
+        {
+            for (final String option : PER_SCENARIO_OPTIONS)
+            {
+                Preconditions.checkArgument(!options.isSet(option), "Options " + SUMMARY_OPTION + " and " + option + " cannot be combined.");
+            }
+        }
+        final int loadThreads = options.getPositiveInt(LOAD_THREADS_OPTION, 1);
+        final int planningThreads = options.getPositiveInt(THREADS_OPTION, 1);
+        final int parseQueue = options.getPositiveInt(PARSE_QUEUE_OPTION, DEFAULT_PARSE_QUEUE);
+        final boolean pipelined = options.isSet(PARSE_THREADS_OPTION);
+        final int parseThreads = options.getPositiveInt(PARSE_THREADS_OPTION, 1);
+        Preconditions.checkArgument(!pipelined || !options.isSet(LOAD_THREADS_OPTION), "Options " + LOAD_THREADS_OPTION + " and " + PARSE_THREADS_OPTION + " cannot be combined.");
 
-        final Injector injector = Guice.createInjector(new ElevatorSimModule(mode));
+        final String outputFileName = options.getString(OUTPUT_OPTION, null);
+        // Results on standard output may be watched as they are produced, so they are flushed one at a time unless bulk output is asked for.
+        final FlushPolicy defaultFlushPolicy = outputFileName != null ? FlushPolicy.atEnd() : FlushPolicy.perScenario();
+        final FlushPolicy flushPolicy = parseFlushPolicy(options.getString(FLUSH_OPTION, defaultFlushPolicy.toString()));
+        final ElevatorSimModule.Builder moduleBuilder = ElevatorSimModule.builder(mode)
+                .planningThreads(planningThreads)
+                .optimalRiderCeiling(options.getPositiveInt(OPTIMAL_RIDERS_OPTION, MoveByOptimalRoute.DEFAULT_RIDER_CEILING))
+                .optimalSearchNodes(options.getPositiveInt(OPTIMAL_NODES_OPTION, (int) MoveByOptimalRoute.DEFAULT_SEARCH_NODE_BUDGET))
+                .searchIterations(options.getPositiveInt(SEARCH_ITERATIONS_OPTION, MoveByLocalSearch.DEFAULT_ITERATIONS))
+                .carCount(options.getPositiveInt(CARS_OPTION, 1))
+                .assignmentPolicy(parseAssignmentPolicy(options.getString(ASSIGNMENT_OPTION, AssignmentPolicies.nearestCar().toString())))
+                .summary(summary);
+        if (options.isSet(SEARCH_MILLIS_OPTION))
+        {
+            moduleBuilder.searchTimeBudgetMillis(options.getPositiveInt(SEARCH_MILLIS_OPTION, 0));
+        }
+        if (comparing)
+        {
+            moduleBuilder.comparedModes(modes);
+        }
+        final boolean planCache = options.isSet(PLAN_CACHE_OPTION);
+        if (planCache)
+        {
+            moduleBuilder.planCache(options.getPositiveInt(PLAN_CACHE_OPTION, 0), (long) options.getPositiveInt(PLAN_CACHE_MB_OPTION, (int) (CachingMoveStrategy.DEFAULT_MAXIMUM_BYTES >> 20)) << 20);
+        }
+        final boolean stats = options.isSet(STATS_OPTION);
+        final boolean jmx = options.isSet(JMX_OPTION);
+        final ScenarioMetrics metrics = stats || jmx ? new ScenarioMetrics(options.getPositiveInt(STATS_SAMPLING_OPTION, ScenarioMetrics.DEFAULT_SAMPLING_INTERVAL)) : ScenarioMetrics.disabled();
+        moduleBuilder.metrics(metrics);
+        final boolean timed = options.isSet(TIMED_OPTION);
+        if (timed)
+        {
+            Preconditions.checkArgument(ElevatorSimModule.getDispatchStrategy(mode) != null, "Option " + TIMED_OPTION + " supports modes C and F only.");
+            Preconditions.checkArgument(!options.isSet(CARS_OPTION), "Options " + TIMED_OPTION + " and " + CARS_OPTION + " cannot be combined.");
+            Preconditions.checkArgument(!planCache, "Options " + TIMED_OPTION + " and " + PLAN_CACHE_OPTION + " cannot be combined.");
+            Preconditions.checkArgument(!metrics.isEnabled(), "Options " + TIMED_OPTION + " and " + STATS_OPTION + " or " + JMX_OPTION + " cannot be combined.");
+            moduleBuilder.carTiming(new CarTiming(
+                    options.getPositiveInt(FLOOR_MILLIS_OPTION, (int) CarTiming.DEFAULT_FLOOR_MILLIS),
+                    options.getPositiveInt(DOOR_MILLIS_OPTION, (int) CarTiming.DEFAULT_DOOR_MILLIS),
+                    options.getPositiveInt(TRANSFER_MILLIS_OPTION, (int) CarTiming.DEFAULT_TRANSFER_MILLIS)));
+        }
+
+        final ForkJoinPool loadPool = loadThreads > 1 ? new ForkJoinPool(loadThreads) : null;
 
-        try (final OutputStreamWriter writer = new OutputStreamWriter(System.out))
+        try (final OutputSink outputSink = outputFileName != null ? ChannelOutputSink.toFile(Paths.get(outputFileName), flushPolicy) : ChannelOutputSink.toStream(System.out, flushPolicy))
+        {
+            final Injector injector = Guice.createInjector(moduleBuilder.outputSink(outputSink).build());
+            if (timed)
+            {
+                runTimedScenarios(injector.getInstance(EventSimulator.class), scenarioFileName, outputSink);
+            }
+            else
+            {
+                if (jmx)
+                {
+                    metrics.register();
+                }
+                try (final Elevator elevator = injector.getInstance(Elevator.class);
+                     final Stream<Scenario> scenarios = openScenarios(scenarioFileName, loadPool, pipelined, parseThreads, parseQueue))
+                {
+                    elevator.runScenarios(metrics.meterParsing(scenarios.iterator()));
+                }
+                if (comparing)
+                {
+                    System.err.println(injector.getInstance(StrategyComparisonElevator.class).formatSummary());
+                }
+                if (planCache)
+                {
+                    reportPlanCache(injector.getInstance(CachingMoveStrategy.class).getStats());
+                }
+                if (stats)
+                {
+                    System.err.println(metrics.formatSummary());
+                }
+            }
+        }
+        catch (final IOException | JMException exception)
+        {
+            throw new ElevatorScenarioExecutionException("Exception occurred while running simulation [" + Joiner.on(',').join(modes) + ", " + scenarioFileName + "]", exception);
+        }
+        finally
+        {
+            if (jmx)
+            {
+                unregister(metrics);
+            }
+            if (loadPool != null)
+            {
+                loadPool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Parses the value of the {@value FLUSH_OPTION} option.
+     *
+     * @param value The value of the option.
+     * @return Non-null FlushPolicy.
+     * @throws IllegalArgumentException if the value is not a valid FlushPolicy.
+     */
+    private static FlushPolicy parseFlushPolicy(final String value)
+    {
+        try
+        {
+            return FlushPolicy.parse(value);
+        }
+        catch (final IllegalArgumentException exception)
+        {
+            throw new IllegalArgumentException("Invalid value for " + FLUSH_OPTION + ": [" + value + "]. Expected scenario, scenarios:<n>, bytes:<n> or end.", exception);
+        }
+    }
+
+    /**
+     * Parses the value of the {@value ASSIGNMENT_OPTION} option.
+     *
+     * @param value The value of the option.
+     * @return Non-null AssignmentPolicy.
+     * @throws IllegalArgumentException if the value is not a valid AssignmentPolicy.
+     */
+    private static AssignmentPolicy parseAssignmentPolicy(final String value)
+    {
+        try
+        {
+            return AssignmentPolicies.parse(value);
+        }
+        catch (final IllegalArgumentException exception)
+        {
+            throw new IllegalArgumentException("Invalid value for " + ASSIGNMENT_OPTION + ": [" + value + "]. Expected nearest, zones or round-robin.", exception);
+        }
+    }
+
+    /**
+     * Writes the statistics of the plan cache to standard error, keeping them apart from the results.
+     *
+     * @param stats The statistics of the CachingMoveStrategy.
+     */
+    private static void reportPlanCache(final CacheStats stats)
+    {
+        System.err.println(String.format("Plan cache: %d hits, %d misses, %d evictions (%.1f%% hit rate).", stats.hitCount(), stats.missCount(), stats.evictionCount(), 100 * stats.hitRate()));
+    }
+
+    /**
+     * Unregisters the metrics MBean at the end of a run, so that a later run in the same JVM can register its own.
+     *
+     * @param metrics The ScenarioMetrics to unregister.
+     * @throws ElevatorScenarioExecutionException if the MBean cannot be unregistered.
+     */
+    private static void unregister(final ScenarioMetrics metrics)
+    {
+        try
+        {
+            metrics.unregister();
+        }
+        catch (final JMException exception)
+        {
+            throw new ElevatorScenarioExecutionException("Exception occurred while unregistering " + ScenarioMetrics.OBJECT_NAME, exception);
+        }
+    }
+
+    /**
+     * Runs every timed scenario in a file through the event-driven simulator, writing one {@linkplain SimulationReport} per line.
+     *
+     * @param simulator The EventSimulator to run the scenarios with.
+     * @param scenarioFileName The Path to the timed scenario file.
+     * @param outputSink The OutputSink to write the reports to.
+     * @throws IOException if the reports cannot be written.
+     */
+    private static void runTimedScenarios(final EventSimulator simulator, final Path scenarioFileName, final OutputSink outputSink) throws IOException
+    {
+        final StringBuilder output = new StringBuilder();
+        try (final Stream<TimedScenario> scenarios = new ScenarioLoader().streamTimedScenariosFromFile(scenarioFileName))
+        {
+            final Iterator<TimedScenario> iterator = scenarios.iterator();
+            while (iterator.hasNext())
+            {
+                output.setLength(0);
+                simulator.run(iterator.next()).appendTo(output);
+                if (iterator.hasNext())
+                {
+                    output.append(System.lineSeparator());
+                }
+                outputSink.write(output.toString());
+            }
+        }
+        outputSink.flush();
+    }
+
+    /**
+     * Opens the scenario file with the loading strategy selected by the command-line options.
+     *
+     * @param scenarioFileName The Path to the scenario file.
+     * @param loadPool The pool to parse memory-mapped chunks on, or null.
+     * @param pipelined True if the file should be read and parsed through a background pipeline.
+     * @param parseThreads The number of threads the pipeline parses on.
+     * @param parseQueue The number of batches the pipeline may read ahead.
+     * @return Non-null Stream of the Scenarios in the file, which must be closed by the caller.
+     */
+    private static Stream<Scenario> openScenarios(final Path scenarioFileName, final ForkJoinPool loadPool, final boolean pipelined, final int parseThreads, final int parseQueue)
+    {
+        final ScenarioLoader scenarioLoader = new ScenarioLoader();
+        if (loadPool != null)
         {
-            injector.getInstance(Elevator.class).runScenarios(new ScenarioLoader().loadScenariosFromFile(scenarioFileName));
+            return scenarioLoader.streamScenariosFromFileInParallel(scenarioFileName, loadPool);
         }
-        catch (final IOException exception)
+        if (pipelined)
         {
-            throw new ElevatorScenarioExecutionException("Exception occurred while running simulation [" + mode.name() + ", " + scenarioFileName + "]", exception);
+            return scenarioLoader.streamScenariosFromFileInPipeline(scenarioFileName, parseThreads, parseQueue);
         }
+        return scenarioLoader.streamScenariosFromFile(scenarioFileName);
     }
 
 }
\ No newline at end of file
@@ -1,13 +1,39 @@
 package elevator.sim;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.name.Names;
 import elevator.sim.core.Elevator;
+import elevator.sim.core.comparison.StrategyComparisonElevator;
+import elevator.sim.core.event.CarTiming;
+import elevator.sim.core.event.CollectiveDispatch;
+import elevator.sim.core.event.DispatchStrategy;
+import elevator.sim.core.event.NearestCallDispatch;
+import elevator.sim.core.group.AssignmentPolicies;
+import elevator.sim.core.group.AssignmentPolicy;
+import elevator.sim.core.group.ElevatorGroup;
+import elevator.sim.core.group.GroupDispatchElevator;
+import elevator.sim.core.metrics.ScenarioMetrics;
+import elevator.sim.core.strategy.CachingMoveStrategy;
+import elevator.sim.core.strategy.MoveByLocalSearch;
+import elevator.sim.core.strategy.MoveByLookSweep;
+import elevator.sim.core.strategy.MoveByNearestRequest;
+import elevator.sim.core.strategy.MoveByOptimalRoute;
 import elevator.sim.core.strategy.MoveByRequestsInSameDirection;
 import elevator.sim.core.strategy.MoveBySingleRequest;
 import elevator.sim.core.strategy.MoveStrategy;
+import elevator.sim.core.streaming.ChannelOutputSink;
+import elevator.sim.core.streaming.FlushPolicy;
+import elevator.sim.core.streaming.OutputSink;
 import elevator.sim.core.streaming.StreamingOutputElevator;
+import elevator.sim.core.summary.SummaryElevator;
 
-import java.io.OutputStreamWriter;
+import java.util.List;
 
 /**
  * Module binding application-appropriate implementations for the elevator-sim-core interfaces.
@@ -15,19 +41,108 @@ import java.io.OutputStreamWriter;
 public final class ElevatorSimModule extends AbstractModule
 {
     private final Class moveStrategy;
+    private final ImmutableList<Mode> comparedModes;
+    private final boolean summary;
+    private final Class<? extends DispatchStrategy> dispatchStrategy;
+    private final int planningThreads;
+    private final OutputSink outputSink;
+    private final int optimalRiderCeiling;
+    private final long optimalSearchNodes;
+    private final int searchIterations;
+    private final long searchTimeBudgetMillis;
+    private final int carCount;
+    private final AssignmentPolicy assignmentPolicy;
+    private final CarTiming carTiming;
+    private final long planCacheEntries;
+    private final long planCacheBytes;
+    private final ScenarioMetrics metrics;
 
+    /**
+     * Constructs a module writing to standard output, flushing after every scenario, with every other setting at its default.
+     *
+     * @param mode The Mode selecting the MoveStrategy.
+     * @throws IllegalArgumentException if the mode is not supported.
+     */
     public ElevatorSimModule(final Mode mode)
+    {
+        this(builder(mode));
+    }
+
+    /**
+     * @param builder The Builder holding the settings of the module.
+     * @throws IllegalArgumentException if the mode is not supported.
+     */
+    private ElevatorSimModule(final Builder builder)
+    {
+        this.planningThreads = builder.planningThreads;
+        this.outputSink = builder.outputSink != null ? builder.outputSink : ChannelOutputSink.toStream(System.out, FlushPolicy.perScenario());
+        this.optimalRiderCeiling = builder.optimalRiderCeiling;
+        this.optimalSearchNodes = builder.optimalSearchNodes;
+        this.searchIterations = builder.searchIterations;
+        this.searchTimeBudgetMillis = builder.searchTimeBudgetMillis;
+        this.carCount = builder.carCount;
+        this.assignmentPolicy = builder.assignmentPolicy;
+        this.carTiming = builder.carTiming;
+        this.planCacheEntries = builder.planCacheEntries;
+        this.planCacheBytes = builder.planCacheBytes;
+        this.metrics = builder.metrics;
+        this.dispatchStrategy = getDispatchStrategy(builder.mode);
+        this.moveStrategy = getMoveStrategy(builder.mode);
+        this.comparedModes = builder.comparedModes;
+        this.summary = builder.summary;
+    }
+
+    /**
+     * @param mode The Mode selecting the MoveStrategy (cannot be null).
+     * @return Non-null Builder for a module in the given mode, with every other setting at its default.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public static Builder builder(final Mode mode)
+    {
+        Preconditions.checkArgument(mode != null, "mode: null");
+        return new Builder(mode);
+    }
+
+    /**
+     * @param mode A Mode.
+     * @return Non-null MoveStrategy class the mode plans scenarios with.
+     * @throws IllegalArgumentException if the mode is not supported.
+     */
+    private static Class<? extends MoveStrategy> getMoveStrategy(final Mode mode)
     {
         switch (mode)
         {
             case A:
-                moveStrategy = MoveBySingleRequest.class;
-                break;
+                return MoveBySingleRequest.class;
             case B:
-                moveStrategy = MoveByRequestsInSameDirection.class;
-                break;
+                return MoveByRequestsInSameDirection.class;
+            case C:
+                return MoveByLookSweep.class;
+            case D:
+                return MoveByOptimalRoute.class;
+            case E:
+                return MoveByLocalSearch.class;
+            case F:
+                return MoveByNearestRequest.class;
+            default:
+                throw new IllegalArgumentException("Invalid mode specified: [" + mode + "]. Valid options include [A, a, B, b, C, c, D, d, E, e, F, f].");
+        }
+    }
+
+    /**
+     * @param mode A Mode.
+     * @return The DispatchStrategy the mode uses for {@linkplain elevator.sim.core.event.TimedScenario timed scenarios}, or null if the mode has no event-driven counterpart.
+     */
+    static Class<? extends DispatchStrategy> getDispatchStrategy(final Mode mode)
+    {
+        switch (mode)
+        {
+            case C:
+                return CollectiveDispatch.class;
+            case F:
+                return NearestCallDispatch.class;
             default:
-                throw new IllegalArgumentException("Invalid mode specified: [" + mode + "]. Valid options include [A, a, B, b].");
+                return null;
         }
     }
 
@@ -37,8 +152,278 @@ public final class ElevatorSimModule extends AbstractModule
     @Override
     protected void configure()
     {
-        bind(Elevator.class).to(StreamingOutputElevator.class);
-        bind(MoveStrategy.class).to(moveStrategy);
-        bind(OutputStreamWriter.class).toInstance(new OutputStreamWriter(System.out));
+        // A single car keeps the original output format; a group prints every car's route, a comparison every mode's floors travelled, and a summary only the totals.
+        if (!comparedModes.isEmpty())
+        {
+            bind(Elevator.class).to(StrategyComparisonElevator.class);
+        }
+        else if (summary)
+        {
+            bind(Elevator.class).to(SummaryElevator.class);
+        }
+        else
+        {
+            bind(Elevator.class).to(carCount > 1 ? GroupDispatchElevator.class : StreamingOutputElevator.class);
+        }
+        bind(AssignmentPolicy.class).toInstance(assignmentPolicy);
+        bindConstant().annotatedWith(Names.named(ElevatorGroup.CAR_COUNT)).to(carCount);
+        if (planCacheEntries > 0)
+        {
+            // A single CachingMoveStrategy serves every consumer, so its statistics cover the whole run.
+            bind(MoveStrategy.class).annotatedWith(Names.named(CachingMoveStrategy.DELEGATE)).to(moveStrategy);
+            bind(CachingMoveStrategy.class).in(Singleton.class);
+            bind(MoveStrategy.class).to(CachingMoveStrategy.class);
+            bindConstant().annotatedWith(Names.named(CachingMoveStrategy.MAXIMUM_ENTRIES)).to(planCacheEntries);
+            bindConstant().annotatedWith(Names.named(CachingMoveStrategy.MAXIMUM_BYTES)).to(planCacheBytes);
+        }
+        else
+        {
+            bind(MoveStrategy.class).to(moveStrategy);
+        }
+        bind(OutputSink.class).toInstance(outputSink);
+        bind(ScenarioMetrics.class).toInstance(metrics);
+        bindConstant().annotatedWith(Names.named(StreamingOutputElevator.PLANNING_THREADS)).to(planningThreads);
+        bindConstant().annotatedWith(Names.named(MoveByOptimalRoute.RIDER_CEILING)).to(optimalRiderCeiling);
+        bindConstant().annotatedWith(Names.named(MoveByOptimalRoute.SEARCH_NODE_BUDGET)).to(optimalSearchNodes);
+        bindConstant().annotatedWith(Names.named(MoveByLocalSearch.ITERATIONS)).to(searchIterations);
+        bindConstant().annotatedWith(Names.named(MoveByLocalSearch.TIME_BUDGET_MILLIS)).to(searchTimeBudgetMillis);
+        bind(CarTiming.class).toInstance(carTiming);
+        if (dispatchStrategy != null)
+        {
+            bind(DispatchStrategy.class).to(dispatchStrategy);
+        }
+    }
+
+    /**
+     * Provides the single {@linkplain StrategyComparisonElevator} of a run that compares modes, so that its totals can be reported once the run is over. Each mode's MoveStrategy is created by the injector, with the
+     * same settings it would have on its own.
+     *
+     * @param injector The Injector creating the strategies.
+     * @param outputSink The OutputSink the comparison is written to.
+     * @return Non-null StrategyComparisonElevator comparing the strategies of the compared modes, reported by mode name.
+     * @throws IllegalStateException if no modes are compared.
+     */
+    @Provides
+    @Singleton
+    StrategyComparisonElevator provideStrategyComparisonElevator(final Injector injector, final OutputSink outputSink)
+    {
+        Preconditions.checkState(!comparedModes.isEmpty(), "No modes are compared.");
+        final ImmutableMap.Builder<String, MoveStrategy> strategies = ImmutableMap.builder();
+        for (final Mode comparedMode : comparedModes)
+        {
+            strategies.put(comparedMode.name(), injector.getInstance(getMoveStrategy(comparedMode)));
+        }
+        return new StrategyComparisonElevator(strategies.build(), outputSink);
+    }
+
+    /**
+     * Collects the settings of an {@linkplain ElevatorSimModule}. Builders are not thread-safe.
+     */
+    public static final class Builder
+    {
+        private final Mode mode;
+        private int planningThreads = 1;
+        private OutputSink outputSink;
+        private int optimalRiderCeiling = MoveByOptimalRoute.DEFAULT_RIDER_CEILING;
+        private long optimalSearchNodes = MoveByOptimalRoute.DEFAULT_SEARCH_NODE_BUDGET;
+        private int searchIterations = MoveByLocalSearch.DEFAULT_ITERATIONS;
+        private long searchTimeBudgetMillis;
+        private int carCount = 1;
+        private AssignmentPolicy assignmentPolicy = AssignmentPolicies.nearestCar();
+        private CarTiming carTiming = CarTiming.defaults();
+        private long planCacheEntries;
+        private long planCacheBytes = CachingMoveStrategy.DEFAULT_MAXIMUM_BYTES;
+        private ScenarioMetrics metrics = ScenarioMetrics.disabled();
+        private ImmutableList<Mode> comparedModes = ImmutableList.of();
+        private boolean summary;
+
+        /**
+         * Declared private; use {@linkplain ElevatorSimModule#builder(Mode)}.
+         *
+         * @param mode The Mode selecting the MoveStrategy.
+         */
+        private Builder(final Mode mode)
+        {
+            this.mode = mode;
+        }
+
+        /**
+         * @param planningThreads The number of threads the Elevator plans scenarios on (must be positive; default 1).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder planningThreads(final int planningThreads)
+        {
+            Preconditions.checkArgument(planningThreads > 0, "planningThreads: <= 0");
+            this.planningThreads = planningThreads;
+            return this;
+        }
+
+        /**
+         * @param outputSink The OutputSink the Elevator writes to (cannot be null; defaults to standard output, flushed after every scenario). The module does not take ownership of the sink; the caller must close it.
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder outputSink(final OutputSink outputSink)
+        {
+            Preconditions.checkArgument(outputSink != null, "outputSink: null");
+            this.outputSink = outputSink;
+            return this;
+        }
+
+        /**
+         * @param optimalRiderCeiling The largest number of riders {@linkplain MoveByOptimalRoute} searches an optimal route for in {@linkplain Mode#D} (must be between 1 and 64; default
+         * {@value MoveByOptimalRoute#DEFAULT_RIDER_CEILING}).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder optimalRiderCeiling(final int optimalRiderCeiling)
+        {
+            Preconditions.checkArgument(optimalRiderCeiling > 0 && optimalRiderCeiling <= Long.SIZE, "optimalRiderCeiling: not between 1 and " + Long.SIZE);
+            this.optimalRiderCeiling = optimalRiderCeiling;
+            return this;
+        }
+
+        /**
+         * @param optimalSearchNodes The number of nodes {@linkplain MoveByOptimalRoute} explores per scenario in {@linkplain Mode#D} before settling for the best route found (must be positive; default
+         * {@value MoveByOptimalRoute#DEFAULT_SEARCH_NODE_BUDGET}).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder optimalSearchNodes(final long optimalSearchNodes)
+        {
+            Preconditions.checkArgument(optimalSearchNodes > 0, "optimalSearchNodes: <= 0");
+            this.optimalSearchNodes = optimalSearchNodes;
+            return this;
+        }
+
+        /**
+         * @param searchIterations The number of moves {@linkplain MoveByLocalSearch} proposes per scenario in {@linkplain Mode#E} (must be positive; default {@value MoveByLocalSearch#DEFAULT_ITERATIONS}).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder searchIterations(final int searchIterations)
+        {
+            Preconditions.checkArgument(searchIterations > 0, "searchIterations: <= 0");
+            this.searchIterations = searchIterations;
+            return this;
+        }
+
+        /**
+         * @param searchTimeBudgetMillis The wall-clock time {@linkplain MoveByLocalSearch} searches each scenario for at most in {@linkplain Mode#E}, in milliseconds, or 0 for no limit (cannot be negative; default 0).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder searchTimeBudgetMillis(final long searchTimeBudgetMillis)
+        {
+            Preconditions.checkArgument(searchTimeBudgetMillis >= 0, "searchTimeBudgetMillis: < 0");
+            this.searchTimeBudgetMillis = searchTimeBudgetMillis;
+            return this;
+        }
+
+        /**
+         * @param carCount The number of cars serving the building (must be positive; default 1). With more than one, scenarios are run on an {@linkplain ElevatorGroup}.
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder carCount(final int carCount)
+        {
+            Preconditions.checkArgument(carCount > 0, "carCount: <= 0");
+            this.carCount = carCount;
+            return this;
+        }
+
+        /**
+         * @param assignmentPolicy The policy assigning move commands to cars when there is more than one (cannot be null; default {@linkplain AssignmentPolicies#nearestCar()}).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder assignmentPolicy(final AssignmentPolicy assignmentPolicy)
+        {
+            Preconditions.checkArgument(assignmentPolicy != null, "assignmentPolicy: null");
+            this.assignmentPolicy = assignmentPolicy;
+            return this;
+        }
+
+        /**
+         * @param carTiming The durations of the car's actions when running timed scenarios (cannot be null; default {@linkplain CarTiming#defaults()}).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder carTiming(final CarTiming carTiming)
+        {
+            Preconditions.checkArgument(carTiming != null, "carTiming: null");
+            this.carTiming = carTiming;
+            return this;
+        }
+
+        /**
+         * Caches the plans of the selected MoveStrategy in a {@linkplain CachingMoveStrategy}, so repeated scenarios are only planned once. Plan caching is off by default.
+         *
+         * @param maximumEntries The largest number of plans to keep (must be positive).
+         * @param maximumBytes The largest estimated memory the plans may hold, in bytes (must be positive).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder planCache(final long maximumEntries, final long maximumBytes)
+        {
+            Preconditions.checkArgument(maximumEntries > 0, "maximumEntries: <= 0");
+            Preconditions.checkArgument(maximumBytes > 0, "maximumBytes: <= 0");
+            this.planCacheEntries = maximumEntries;
+            this.planCacheBytes = maximumBytes;
+            return this;
+        }
+
+        /**
+         * @param metrics The ScenarioMetrics the Elevator records the latency of its stages and its counters in (cannot be null; defaults to {@linkplain ScenarioMetrics#disabled()}, which records nothing).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder metrics(final ScenarioMetrics metrics)
+        {
+            Preconditions.checkArgument(metrics != null, "metrics: null");
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Runs every scenario through the MoveStrategies of several modes on a {@linkplain StrategyComparisonElevator} instead of through the strategy of the module's own mode. Comparison is off by default; the compared
+         * strategies plan for a single car, without a plan cache.
+         *
+         * @param comparedModes The modes to compare, in the order they are reported in (cannot be null, contain null values or duplicates, or have fewer than two modes).
+         * @return This Builder.
+         * @throws IllegalArgumentException if parameter conditions are not met.
+         */
+        public Builder comparedModes(final List<Mode> comparedModes)
+        {
+            Preconditions.checkArgument(comparedModes != null, "comparedModes: null");
+            Preconditions.checkArgument(comparedModes.size() > 1, "comparedModes: fewer than two");
+            Preconditions.checkArgument(!comparedModes.contains(null), "comparedModes: contains null");
+            Preconditions.checkArgument(comparedModes.stream().distinct().count() == comparedModes.size(), "comparedModes: contains duplicates");
+            this.comparedModes = ImmutableList.copyOf(comparedModes);
+            return this;
+        }
+
+        /**
+         * @param summary True to run scenarios on a {@linkplain SummaryElevator}, which writes the totals and distributions of the planned routes once the run is over instead of every route (default false). A
+         * summary is written for a single car, and cannot be combined with {@linkplain #comparedModes(List) comparing modes}.
+         * @return This Builder.
+         */
+        public Builder summary(final boolean summary)
+        {
+            this.summary = summary;
+            return this;
+        }
+
+        /**
+         * @return Non-null ElevatorSimModule with the settings collected so far.
+         * @throws IllegalArgumentException if the mode is not supported.
+         * @throws IllegalStateException if a summary is requested together with comparing modes or more than one car.
+         */
+        public ElevatorSimModule build()
+        {
+            Preconditions.checkState(!summary || (comparedModes.isEmpty() && carCount == 1), "A summary cannot be combined with comparing modes or a group of cars.");
+            return new ElevatorSimModule(this);
+        }
     }
 }
@@ -1,6 +1,10 @@
 package elevator.sim;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 /**
  * Represents valid running modes.
@@ -15,7 +19,32 @@ public enum Mode
     /**
      * See {@linkplain elevator.sim.core.strategy.MoveByRequestsInSameDirection}.
      */
-    B;
+    B,
+
+    /**
+     * See {@linkplain elevator.sim.core.strategy.MoveByLookSweep}.
+     */
+    C,
+
+    /**
+     * See {@linkplain elevator.sim.core.strategy.MoveByOptimalRoute}.
+     */
+    D,
+
+    /**
+     * See {@linkplain elevator.sim.core.strategy.MoveByLocalSearch}.
+     */
+    E,
+
+    /**
+     * See {@linkplain elevator.sim.core.strategy.MoveByNearestRequest}.
+     */
+    F;
+
+    /**
+     * Argument selecting every mode in {@linkplain #parseList(String)}.
+     */
+    public static final String ALL = "all";
 
     /**
      * Parses a String into the appropriate mode.
@@ -33,8 +62,39 @@ public enum Mode
                 return Mode.A;
             case "b":
                 return Mode.B;
+            case "c":
+                return Mode.C;
+            case "d":
+                return Mode.D;
+            case "e":
+                return Mode.E;
+            case "f":
+                return Mode.F;
             default:
-                throw new IllegalArgumentException("Invalid mode specified: [" + argument + "]. Valid options include [A, a, B, b].");
+                throw new IllegalArgumentException("Invalid mode specified: [" + argument + "]. Valid options include [A, a, B, b, C, c, D, d, E, e, F, f].");
+        }
+    }
+
+    /**
+     * Parses a comma-separated list of modes, e.g. <code>A,c,F</code>, or {@value #ALL} for every mode.
+     *
+     * @param argument Argument to parse (cannot be null).
+     * @return Non-null, non-empty ImmutableList of the {@linkplain Mode Modes} in the order they are listed in.
+     * @throws IllegalArgumentException if parameter conditions are not met, if an element is not a valid mode or if a mode is listed more than once.
+     */
+    public static ImmutableList<Mode> parseList(final String argument)
+    {
+        Preconditions.checkArgument(argument != null, "argument: null");
+        if (ALL.equalsIgnoreCase(argument))
+        {
+            return ImmutableList.copyOf(values());
+        }
+
+        final Set<Mode> modes = new LinkedHashSet<>();
+        for (final String element : argument.split(",", -1))
+        {
+            Preconditions.checkArgument(modes.add(parse(element)), "Invalid mode specified: [" + argument + "]. Each mode may only be listed once.");
         }
+        return ImmutableList.copyOf(modes);
     }
 }
@@ -0,0 +1,74 @@
+package elevator.sim;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.Scenario;
+import elevator.sim.scenario.BinaryScenarioWriter;
+import elevator.sim.scenario.ScenarioLoader;
+import elevator.sim.scenario.ScenarioLoadingException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Command-line application for converting scenario files to the {@linkplain elevator.sim.scenario.BinaryScenarioFormat binary scenario format}, which {@linkplain ElevatorSim} detects and loads automatically.
+ * <p />{@value USAGE}
+ */
+public final class ScenarioConverter
+{
+    private static final String USAGE =
+            "Usage: <input filename> <output filename>\n" + // Note that \n must be used instead of &n or System.lineSeparator() since #USAGE is referred to in JavaDoc.
+                    "Input filename:  The full path to a file containing the scenarios to convert.\n" +
+                    "Output filename: The full path of the binary scenario file to create (an existing file is overwritten).";
+
+    public static String getUsage()
+    {
+        return USAGE;
+    }
+
+    /**
+     * Converts a scenario file based on the given <code>args</code>.
+     *
+     * @param args {@value USAGE}
+     * @throws ScenarioLoadingException if an exception occurs reading the input or writing the output.
+     */
+    public static void main(final String[] args)
+    {
+        if (args.length == 0 || (args.length == 1 && "--help".equals(args[0])))
+        {
+            System.out.println(USAGE);
+            return;
+        }
+
+        final ImmutableList<String> arguments = ImmutableList.copyOf(args);
+        Preconditions.checkArgument(args.length == 2, "Invalid argument list: " + arguments + System.lineSeparator());
+
+        final Path inputFileName = Paths.get(arguments.get(0));
+        final Path outputFileName = Paths.get(arguments.get(1));
+
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFile(inputFileName);
+             final BinaryScenarioWriter writer = new BinaryScenarioWriter(Files.newOutputStream(outputFileName)))
+        {
+            final Iterator<Scenario> iterator = scenarios.iterator();
+            while (iterator.hasNext())
+            {
+                writer.write(iterator.next());
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not convert scenario (exception thrown writing " + outputFileName + ").", exception);
+        }
+    }
+
+    /**
+     * Declared private to prevent instantiation.
+     */
+    private ScenarioConverter()
+    {
+    }
+}
@@ -0,0 +1,142 @@
+package elevator.sim;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import elevator.sim.core.streaming.ChannelOutputSink;
+import elevator.sim.core.streaming.FlushPolicy;
+import elevator.sim.scenario.ScenarioLoadingException;
+import elevator.sim.scenario.SyntheticScenarioWriter;
+import elevator.sim.scenario.TrafficProfile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line application for generating synthetic scenario files, for load testing and benchmarking {@linkplain ElevatorSim}. The same options and seed always produce the same file.
+ * <p />{@value USAGE}
+ */
+public final class WorkloadGenerator
+{
+    private static final String SCENARIOS_OPTION = "--scenarios";
+    private static final String RIDERS_OPTION = "--riders";
+    private static final String FLOORS_OPTION = "--floors";
+    private static final String SEED_OPTION = "--seed";
+    private static final String PROFILE_OPTION = "--profile";
+
+    private static final int DEFAULT_SCENARIOS = 1000;
+    private static final String DEFAULT_RIDERS = "1-20";
+    private static final int DEFAULT_FLOORS = 12;
+
+    private static final ImmutableSet<String> OPTIONS = ImmutableSet.of(SCENARIOS_OPTION, RIDERS_OPTION, FLOORS_OPTION, SEED_OPTION, PROFILE_OPTION);
+
+    private static final String USAGE =
+            "Usage: <output filename> [options]\n" + // Note that \n must be used instead of &n or System.lineSeparator() since #USAGE is referred to in JavaDoc.
+                    "Output filename: The full path of the scenario file to create (an existing file is overwritten).\n" +
+                    "Options:         --scenarios=<n> number of scenarios to generate (default 1000).\n" +
+                    "                 --riders=<n> or --riders=<min>-<max> number of riders per scenario, fixed or drawn uniformly per scenario (default 1-20).\n" +
+                    "                 --floors=<n> number of floors of the building, floor 1 being the lobby (default 12).\n" +
+                    "                 --seed=<n> seed of the random sequence; the same seed and options always give the same file (default 0).\n" +
+                    "                 --profile=<profile> traffic pattern: uniform, up-peak, down-peak or inter-floor (default uniform).";
+
+    public static String getUsage()
+    {
+        return USAGE;
+    }
+
+    /**
+     * Generates a scenario file based on the given <code>args</code>.
+     *
+     * @param args {@value USAGE}
+     * @throws ScenarioLoadingException if an exception occurs writing the output.
+     */
+    public static void main(final String[] args)
+    {
+        if (args.length == 0 || (args.length == 1 && "--help".equals(args[0])))
+        {
+            System.out.println(USAGE);
+            return;
+        }
+
+        final ImmutableList<String> arguments = ImmutableList.copyOf(args);
+        final Path outputFileName = Paths.get(arguments.get(0));
+        final CommandLineOptions options = CommandLineOptions.parse(arguments.subList(1, arguments.size()), OPTIONS);
+        final int scenarioCount = options.getPositiveInt(SCENARIOS_OPTION, DEFAULT_SCENARIOS);
+        final int floorCount = options.getPositiveInt(FLOORS_OPTION, DEFAULT_FLOORS);
+        final long seed = parseSeed(options.getString(SEED_OPTION, "0"));
+        final TrafficProfile profile = TrafficProfile.parse(options.getString(PROFILE_OPTION, TrafficProfile.UNIFORM.toString()));
+        Preconditions.checkArgument(floorCount >= profile.getMinimumFloorCount(),
+                "Invalid value for " + FLOORS_OPTION + ": [" + floorCount + "]. The " + profile + " profile needs at least " + profile.getMinimumFloorCount() + " floors.");
+
+        final String riders = options.getString(RIDERS_OPTION, DEFAULT_RIDERS);
+        final int separatorIndex = riders.indexOf('-');
+        final int minimumRiders = parseRiders(separatorIndex < 0 ? riders : riders.substring(0, separatorIndex), riders);
+        final int maximumRiders = separatorIndex < 0 ? minimumRiders : parseRiders(riders.substring(separatorIndex + 1), riders);
+        Preconditions.checkArgument(minimumRiders <= maximumRiders, "Invalid value for " + RIDERS_OPTION + ": [" + riders + "]. The minimum exceeds the maximum.");
+
+        try (final ChannelOutputSink outputSink = ChannelOutputSink.toFile(outputFileName, FlushPolicy.atEnd()))
+        {
+            final SyntheticScenarioWriter writer = new SyntheticScenarioWriter(outputSink, profile, floorCount, seed);
+            for (int scenarioIndex = 0; scenarioIndex < scenarioCount; scenarioIndex++)
+            {
+                writer.write(minimumRiders, maximumRiders);
+            }
+        }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not generate scenarios (exception thrown writing " + outputFileName + ").", exception);
+        }
+    }
+
+    /**
+     * Parses the value of the {@value SEED_OPTION} option.
+     *
+     * @param value The value of the option.
+     * @return The seed.
+     * @throws IllegalArgumentException if the value is not a long.
+     */
+    private static long parseSeed(final String value)
+    {
+        try
+        {
+            return Long.parseLong(value);
+        }
+        catch (final NumberFormatException exception)
+        {
+            throw new IllegalArgumentException("Invalid value for " + SEED_OPTION + ": [" + value + "]. Expected an integer.", exception);
+        }
+    }
+
+    /**
+     * Parses one bound of the {@value RIDERS_OPTION} option.
+     *
+     * @param bound The bound to parse.
+     * @param value The whole value of the option, for the error message.
+     * @return The positive number of riders.
+     * @throws IllegalArgumentException if the bound is not a positive integer.
+     */
+    private static int parseRiders(final String bound, final String value)
+    {
+        try
+        {
+            final int riders = Integer.parseInt(bound);
+            if (riders > 0)
+            {
+                return riders;
+            }
+        }
+        catch (final NumberFormatException exception)
+        {
+            // Reported below along with non-positive values.
+        }
+        throw new IllegalArgumentException("Invalid value for " + RIDERS_OPTION + ": [" + value + "]. Expected a positive integer or a range such as 5-50.");
+    }
+
+    /**
+     * Declared private to prevent instantiation.
+     */
+    private WorkloadGenerator()
+    {
+    }
+}
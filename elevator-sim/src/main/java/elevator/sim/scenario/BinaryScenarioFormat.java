@@ -0,0 +1,104 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Describes the compact binary encoding of {@linkplain elevator.sim.core.Scenario Scenarios}. A binary scenario file starts with a 4-byte magic number followed by a 1-byte format version. The header is followed by any
+ * number of scenarios, each encoded as:
+ * <pre>
+ *     varint moveCount
+ *     moveCount x (varint originatingFloor, varint destinationFloor)
+ * </pre>
+ * where each varint is an unsigned LEB128 value (7 bits per byte, least significant group first, high bit set on all but the last byte). The move commands are stored exactly as they appear in the Scenario, including the
+ * synthetic move from the initial floor, so a floor below 128 costs a single byte.
+ */
+public final class BinaryScenarioFormat
+{
+    /**
+     * The first bytes of every binary scenario file. The leading byte is outside the ASCII range, so a text scenario file can never be mistaken for a binary one.
+     */
+    static final byte[] MAGIC = {(byte) 0x8e, 'E', 'L', 'V'};
+
+    /**
+     * The version of the format written by {@linkplain BinaryScenarioWriter}.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * Length of the file header (magic number and version) in bytes.
+     */
+    static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    /**
+     * Checks whether the given stream starts with a binary scenario file header, consuming the header if it does and leaving the stream untouched otherwise.
+     *
+     * @param input The stream to check (cannot be null, must support mark/reset).
+     * @return True if the stream contains a binary scenario file; its next byte is the first byte of the first scenario.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if the stream is a binary scenario file of an unsupported version.
+     * @throws IOException if the stream cannot be read.
+     */
+    static boolean consumeHeader(final InputStream input) throws IOException
+    {
+        Preconditions.checkArgument(input != null, "input: null");
+        Preconditions.checkArgument(input.markSupported(), "input: mark/reset not supported");
+
+        input.mark(HEADER_LENGTH);
+        final byte[] header = new byte[HEADER_LENGTH];
+        int read = 0;
+        int count;
+        while (read < HEADER_LENGTH && (count = input.read(header, read, HEADER_LENGTH - read)) > 0)
+        {
+            read += count;
+        }
+
+        if (read < HEADER_LENGTH || !hasHeader(ByteBuffer.wrap(header)))
+        {
+            input.reset();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the given buffer starts with a binary scenario file header. The buffer's position is not changed.
+     *
+     * @param buffer The buffer to check (cannot be null).
+     * @return True if the buffer starts with a binary scenario file header.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if the buffer is a binary scenario file of an unsupported version.
+     */
+    static boolean hasHeader(final ByteBuffer buffer)
+    {
+        Preconditions.checkArgument(buffer != null, "buffer: null");
+
+        if (buffer.remaining() < HEADER_LENGTH)
+        {
+            return false;
+        }
+        for (int index = 0; index < MAGIC.length; index++)
+        {
+            if (buffer.get(buffer.position() + index) != MAGIC[index])
+            {
+                return false;
+            }
+        }
+        final byte version = buffer.get(buffer.position() + MAGIC.length);
+        if (version != VERSION)
+        {
+            throw new ScenarioLoadingException("Unsupported binary scenario format version " + version + " (expected " + VERSION + ").");
+        }
+        return true;
+    }
+
+    /**
+     * Declared private to prevent instantiation.
+     */
+    private BinaryScenarioFormat()
+    {
+    }
+}
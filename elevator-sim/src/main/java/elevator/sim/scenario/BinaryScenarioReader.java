@@ -0,0 +1,120 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import elevator.sim.core.Scenario;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Iterates over the {@linkplain Scenario Scenarios} of a stream in the {@linkplain BinaryScenarioFormat binary scenario format}, decoding varints directly out of a large internal buffer. The file header must already have
+ * been consumed (see {@linkplain BinaryScenarioFormat#consumeHeader(InputStream)}).
+ */
+final class BinaryScenarioReader extends AbstractIterator<Scenario>
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream input;
+    private final Path filePath;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long scenarioIndex;
+
+    /**
+     * @param input The stream to read from, positioned after the file header (cannot be null).
+     * @param filePath The Path the stream was opened from, used in error messages (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    BinaryScenarioReader(final InputStream input, final Path filePath)
+    {
+        Preconditions.checkArgument(input != null, "input: null");
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+
+        this.input = input;
+        this.filePath = filePath;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ScenarioLoadingException if the stream cannot be read, ends part-way through a scenario, or holds a move the text format would reject (such as floor 0 or the same floor at both ends).
+     */
+    @Override
+    protected Scenario computeNext()
+    {
+        if (position == limit && !fill())
+        {
+            return endOfData();
+        }
+
+        scenarioIndex++;
+        final int moveCount = readVarint();
+        final Scenario.Builder scenarioBuilder = Scenario.builder();
+        try
+        {
+            for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+            {
+                scenarioBuilder.addMove(readVarint(), readVarint());
+            }
+            return scenarioBuilder.build();
+        }
+        catch (final IllegalArgumentException exception)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (malformed move in scenario " + scenarioIndex + " of " + filePath + ": " + exception.getMessage() + ").", exception);
+        }
+    }
+
+    /**
+     * Decodes an unsigned LEB128 varint.
+     *
+     * @return The decoded value.
+     * @throws ScenarioLoadingException if the stream ends part-way through the value or the value does not fit into an int.
+     */
+    private int readVarint()
+    {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7)
+        {
+            if (position == limit && !fill())
+            {
+                throw new ScenarioLoadingException("Could not load scenario (" + filePath + " ends part-way through scenario " + scenarioIndex + ").");
+            }
+            final byte encoded = buffer[position++];
+            if (shift == 28 && (encoded & 0xf8) != 0)
+            {
+                // The fifth byte may only carry the top 3 bits of a non-negative int, and must be the last.
+                break;
+            }
+            value |= (encoded & 0x7f) << shift;
+            if (encoded >= 0)
+            {
+                return value;
+            }
+        }
+        throw new ScenarioLoadingException("Could not load scenario (malformed value in scenario " + scenarioIndex + " of " + filePath + ").");
+    }
+
+    /**
+     * Refills the buffer from the stream.
+     *
+     * @return False if the stream is exhausted.
+     * @throws ScenarioLoadingException if the stream cannot be read.
+     */
+    private boolean fill()
+    {
+        try
+        {
+            final int read = input.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+    }
+}
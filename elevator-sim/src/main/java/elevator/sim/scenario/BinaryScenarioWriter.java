@@ -0,0 +1,110 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.Scenario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes {@linkplain Scenario Scenarios} in the {@linkplain BinaryScenarioFormat binary scenario format}. The file header is written on construction; scenarios are encoded into an internal buffer that is written to the
+ * underlying stream whenever it fills up, and on {@linkplain #close()}.
+ */
+public final class BinaryScenarioWriter implements Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAXIMUM_VARINT_LENGTH = 5;
+
+    private final OutputStream output;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    /**
+     * Creates a new {@linkplain BinaryScenarioWriter}, writing the file header immediately.
+     *
+     * @param output The stream to write to (cannot be null). It is closed along with the writer.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the header cannot be written.
+     */
+    public BinaryScenarioWriter(final OutputStream output) throws IOException
+    {
+        Preconditions.checkArgument(output != null, "output: null");
+
+        this.output = output;
+        System.arraycopy(BinaryScenarioFormat.MAGIC, 0, buffer, 0, BinaryScenarioFormat.MAGIC.length);
+        buffer[BinaryScenarioFormat.MAGIC.length] = BinaryScenarioFormat.VERSION;
+        position = BinaryScenarioFormat.HEADER_LENGTH;
+    }
+
+    /**
+     * Writes a single {@linkplain Scenario}.
+     *
+     * @param scenario The Scenario to write (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the buffer cannot be written to the underlying stream.
+     */
+    public void write(final Scenario scenario) throws IOException
+    {
+        Preconditions.checkArgument(scenario != null, "scenario: null");
+
+        final int moveCount = scenario.getMoveCount();
+        writeVarint(moveCount);
+        for (int moveIndex = 0; moveIndex < moveCount; moveIndex++)
+        {
+            writeVarint(scenario.getOriginatingFloor(moveIndex));
+            writeVarint(scenario.getDestinationFloor(moveIndex));
+        }
+    }
+
+    /**
+     * Writes any buffered scenarios and closes the underlying stream.
+     *
+     * @throws IOException if the buffer cannot be written or the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            drain();
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+
+    /**
+     * Encodes a non-negative int as an unsigned LEB128 varint.
+     *
+     * @param value The value to encode.
+     * @throws IOException if the buffer must be drained and cannot be written.
+     */
+    private void writeVarint(final int value) throws IOException
+    {
+        if (position > BUFFER_SIZE - MAXIMUM_VARINT_LENGTH)
+        {
+            drain();
+        }
+
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0)
+        {
+            buffer[position++] = (byte) ((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        buffer[position++] = (byte) remaining;
+    }
+
+    /**
+     * Writes the buffer to the underlying stream.
+     *
+     * @throws IOException if the buffer cannot be written.
+     */
+    private void drain() throws IOException
+    {
+        output.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,32 @@
+package elevator.sim.scenario;
+
+/**
+ * Parser that is fed one line of a text scenario file a character at a time, as {@linkplain TextScenarioReader} does, producing one scenario per line.
+ *
+ * @param <T> The type of scenario produced.
+ */
+interface LineParser<T>
+{
+    /**
+     * Resets the parser to begin a new line.
+     *
+     * @param lineNumber The 1-based number of the line within its file, used in error messages.
+     */
+    void begin(long lineNumber);
+
+    /**
+     * Consumes the next character of the current line. Line terminators must not be passed to this method; use {@linkplain #end()} instead.
+     *
+     * @param character The next character (an ASCII char or byte value).
+     * @throws ScenarioLoadingException if the character cannot appear at this point in the line.
+     */
+    void accept(int character);
+
+    /**
+     * Completes the current line.
+     *
+     * @return The non-null scenario from the parsed line.
+     * @throws ScenarioLoadingException if the line ended prematurely.
+     */
+    T end();
+}
@@ -0,0 +1,251 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import elevator.sim.core.Scenario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads a scenario file by memory-mapping it in chunks that end on line boundaries and parsing the chunks concurrently on a {@linkplain ForkJoinPool}. Scenarios are handed out in their original line order. <p />
+ * Chunks are {@value #CHUNK_SIZE} bytes long (plus the rest of their last line), and at most {@value #CHUNKS_PER_THREAD} chunks per pool thread are in flight at any time. Memory use is therefore bounded by the pool
+ * parallelism rather than by the size of the file.
+ */
+final class ParallelScenarioReader implements Closeable
+{
+    private static final int CHUNK_SIZE = 1 << 22;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BOUNDARY_SCAN_SIZE = 1 << 13;
+
+    private final Path filePath;
+    private final FileChannel channel;
+    private final ForkJoinPool pool;
+    private final long fileSize;
+    private final long chunkSize;
+    private final int window;
+    private int peakChunksInFlight;
+
+    /**
+     * Opens the given file for parallel reading.
+     *
+     * @param filePath The Path to the scenario file (cannot be null).
+     * @param pool The pool to parse chunks on (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the file cannot be opened.
+     */
+    ParallelScenarioReader(final Path filePath, final ForkJoinPool pool) throws IOException
+    {
+        this(filePath, pool, CHUNK_SIZE);
+    }
+
+    /**
+     * Opens the given file for parallel reading in chunks of the given size.
+     *
+     * @param filePath The Path to the scenario file (cannot be null).
+     * @param pool The pool to parse chunks on (cannot be null).
+     * @param chunkSize The number of bytes after which a chunk ends at the next line boundary (must be positive).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the file cannot be opened.
+     */
+    ParallelScenarioReader(final Path filePath, final ForkJoinPool pool, final long chunkSize) throws IOException
+    {
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+        Preconditions.checkArgument(pool != null, "pool: null");
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize: <= 0");
+
+        this.filePath = filePath;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.window = pool.getParallelism() * CHUNKS_PER_THREAD;
+    }
+
+    /**
+     * @return The largest number of chunks that may be mapped and awaiting parsing or iteration at once.
+     */
+    int getWindow()
+    {
+        return window;
+    }
+
+    /**
+     * @return The largest number of chunks that have been mapped and awaiting parsing or iteration at once so far. Only meaningful on the thread iterating the Scenarios.
+     */
+    int getPeakChunksInFlight()
+    {
+        return peakChunksInFlight;
+    }
+
+    /**
+     * @return Non-null Iterator over the Scenarios of the file, in line order. Chunks are mapped and submitted for parsing as the Iterator advances.
+     */
+    Iterator<Scenario> iterator()
+    {
+        return new AbstractIterator<Scenario>()
+        {
+            private final Deque<ForkJoinTask<ScenarioChunk>> pendingChunks = new ArrayDeque<>();
+            private Iterator<Scenario> currentChunk = Collections.emptyIterator();
+            private long nextChunkStart;
+            private long linesBeforeCurrentChunk;
+            private ScenarioChunk failedChunk;
+
+            @Override
+            protected Scenario computeNext()
+            {
+                while (!currentChunk.hasNext())
+                {
+                    // The Scenarios ahead of a malformed line are returned before it is reported, as the sequential loader does.
+                    if (failedChunk != null)
+                    {
+                        failedChunk.rethrowFailure(linesBeforeCurrentChunk);
+                    }
+                    submitChunks();
+                    if (pendingChunks.isEmpty())
+                    {
+                        return endOfData();
+                    }
+                    final ScenarioChunk chunk = join(pendingChunks.removeFirst());
+                    if (chunk.hasFailure())
+                    {
+                        failedChunk = chunk;
+                    }
+                    else
+                    {
+                        linesBeforeCurrentChunk += chunk.getLineCount();
+                    }
+                    currentChunk = chunk.getScenarios().iterator();
+                }
+                return currentChunk.next();
+            }
+
+            /**
+             * Keeps the window of in-flight chunks full.
+             */
+            private void submitChunks()
+            {
+                while (pendingChunks.size() < window && nextChunkStart < fileSize)
+                {
+                    final long chunkStart = nextChunkStart;
+                    final long chunkEnd = findChunkEnd(chunkStart);
+                    final MappedByteBuffer buffer = map(chunkStart, chunkEnd);
+                    pendingChunks.addLast(pool.submit(() -> ScenarioChunk.parse(buffer)));
+                    nextChunkStart = chunkEnd;
+                }
+                peakChunksInFlight = Math.max(peakChunksInFlight, pendingChunks.size());
+            }
+        };
+    }
+
+    /**
+     * Closes the underlying file. Chunks that have already been mapped remain readable until they are garbage collected.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        channel.close();
+    }
+
+    /**
+     * Finds the end (exclusive) of the chunk beginning at the given offset: the first line boundary at or after <code>chunkStart + chunkSize</code>, or the end of the file.
+     *
+     * @param chunkStart Offset of the first byte of the chunk.
+     * @return Offset just past the newline that terminates the chunk.
+     */
+    private long findChunkEnd(final long chunkStart)
+    {
+        long position = chunkStart + chunkSize - 1;
+        if (position >= fileSize)
+        {
+            return fileSize;
+        }
+
+        final ByteBuffer scanBuffer = ByteBuffer.allocate(BOUNDARY_SCAN_SIZE);
+        try
+        {
+            while (position < fileSize)
+            {
+                scanBuffer.clear();
+                final int read = channel.read(scanBuffer, position);
+                for (int index = 0; index < read; index++)
+                {
+                    if (scanBuffer.get(index) == '\n')
+                    {
+                        return position + index + 1;
+                    }
+                }
+                position += Math.max(read, 0);
+            }
+            return fileSize;
+        }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+    }
+
+    /**
+     * Maps a region of the file.
+     *
+     * @param start Offset of the first byte of the region.
+     * @param end Offset just past the last byte of the region.
+     * @return Non-null read-only MappedByteBuffer for the region.
+     */
+    private MappedByteBuffer map(final long start, final long end)
+    {
+        if (end - start > Integer.MAX_VALUE)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (line starting at byte " + start + " of " + filePath + " is too long to map).");
+        }
+        try
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown mapping " + filePath + ").", exception);
+        }
+    }
+
+    /**
+     * Waits for a chunk to be parsed.
+     *
+     * @param task The task parsing the chunk.
+     * @return Non-null parsed ScenarioChunk.
+     */
+    private ScenarioChunk join(final ForkJoinTask<ScenarioChunk> task)
+    {
+        try
+        {
+            return task.get();
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new ScenarioLoadingException("Interrupted while loading scenario " + filePath + ".", exception);
+        }
+        catch (final ExecutionException exception)
+        {
+            if (exception.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown parsing " + filePath + ").", exception.getCause());
+        }
+    }
+}
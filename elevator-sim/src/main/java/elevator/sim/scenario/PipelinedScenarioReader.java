@@ -0,0 +1,302 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import elevator.sim.core.Scenario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a scenario stream as a pipeline of bounded stages: a background reader thread cuts the stream into line-aligned batches, a pool of parser threads parses the batches concurrently, and the consumer takes the parsed
+ * batches in their original order. Unlike {@linkplain ParallelScenarioReader}, the stream need not be a regular file, so compressed input (already decoded on its own thread by the {@linkplain ScenarioLoader}) benefits
+ * too. <p />
+ * The reader blocks once <code>queueSize</code> batches are waiting to be consumed, so memory use is bounded by the queue size and batch size rather than by the size of the stream. Streams in the
+ * {@linkplain BinaryScenarioFormat binary format} are cheap to decode and are therefore decoded by the reader thread itself, skipping the parser pool.
+ */
+final class PipelinedScenarioReader implements Closeable
+{
+    private static final int BATCH_SIZE = 1 << 18;
+    private static final int BINARY_BATCH_SCENARIOS = 1 << 12;
+
+    private final InputStream input;
+    private final Path filePath;
+    private final BlockingQueue<Future<ScenarioChunk>> parsedChunks;
+    private final Future<ScenarioChunk> endOfInput = CompletableFuture.completedFuture(ScenarioChunk.of(ImmutableList.of()));
+    private final ExecutorService parsers;
+    private final Thread readerThread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new {@linkplain PipelinedScenarioReader} and starts reading the stream.
+     *
+     * @param input The stream to read, positioned after the binary header if there is one (cannot be null). It is closed along with this reader.
+     * @param binary True if the stream is in the {@linkplain BinaryScenarioFormat binary format}, false if it is text.
+     * @param filePath The Path the stream was opened from, used in error messages (cannot be null).
+     * @param parseThreads Number of threads to parse text batches on (must be positive).
+     * @param queueSize Number of batches that may be read ahead of the consumer (must be positive).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    PipelinedScenarioReader(final InputStream input, final boolean binary, final Path filePath, final int parseThreads, final int queueSize)
+    {
+        Preconditions.checkArgument(input != null, "input: null");
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+        Preconditions.checkArgument(parseThreads > 0, "parseThreads: <= 0");
+        Preconditions.checkArgument(queueSize > 0, "queueSize: <= 0");
+
+        this.input = input;
+        this.filePath = filePath;
+        this.parsedChunks = new ArrayBlockingQueue<>(queueSize);
+        this.parsers = Executors.newFixedThreadPool(parseThreads, new ThreadFactoryBuilder().setNameFormat("scenario-parser-%d").setDaemon(true).build());
+
+        this.readerThread = new Thread(binary ? this::readBinary : this::readText, "scenario-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * @return Non-null Iterator over the Scenarios of the stream, in their original order. It may only be obtained and consumed once.
+     */
+    Iterator<Scenario> iterator()
+    {
+        return new AbstractIterator<Scenario>()
+        {
+            private Iterator<Scenario> currentChunk = Collections.emptyIterator();
+            private long linesBeforeCurrentChunk;
+            private ScenarioChunk failedChunk;
+
+            @Override
+            protected Scenario computeNext()
+            {
+                while (!currentChunk.hasNext())
+                {
+                    // The Scenarios ahead of a malformed line are returned before it is reported, as the sequential loader does.
+                    if (failedChunk != null)
+                    {
+                        failedChunk.rethrowFailure(linesBeforeCurrentChunk);
+                    }
+                    final Future<ScenarioChunk> pendingChunk = take();
+                    if (pendingChunk == endOfInput)
+                    {
+                        return endOfData();
+                    }
+                    final ScenarioChunk chunk = join(pendingChunk);
+                    if (chunk.hasFailure())
+                    {
+                        failedChunk = chunk;
+                    }
+                    else
+                    {
+                        linesBeforeCurrentChunk += chunk.getLineCount();
+                    }
+                    currentChunk = chunk.getScenarios().iterator();
+                }
+                return currentChunk.next();
+            }
+        };
+    }
+
+    /**
+     * Stops the reader and parser threads and closes the stream.
+     *
+     * @throws IOException if the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        readerThread.interrupt();
+        parsers.shutdownNow();
+        input.close();
+    }
+
+    /**
+     * Body of the reader thread for text streams: fills batches from the stream, cuts each one after its last newline, carries the partial line over into the next batch and submits the batch for parsing. A batch that
+     * does not contain a single newline is grown until it does.
+     */
+    private void readText()
+    {
+        try
+        {
+            byte[] batch = new byte[BATCH_SIZE];
+            int length = 0;
+            while (!closed)
+            {
+                if (length == batch.length)
+                {
+                    batch = Arrays.copyOf(batch, batch.length * 2);
+                }
+                final int read = input.read(batch, length, batch.length - length);
+                if (read < 0)
+                {
+                    if (length > 0)
+                    {
+                        // The last line of the stream need not be terminated.
+                        submit(batch, length);
+                    }
+                    parsedChunks.put(endOfInput);
+                    return;
+                }
+                length += read;
+                if (length < batch.length)
+                {
+                    continue;
+                }
+
+                int batchEnd = length;
+                while (batchEnd > 0 && batch[batchEnd - 1] != '\n')
+                {
+                    batchEnd--;
+                }
+                if (batchEnd == 0)
+                {
+                    continue;
+                }
+                final int carriedOver = length - batchEnd;
+                final byte[] nextBatch = new byte[Math.max(BATCH_SIZE, carriedOver * 2)];
+                System.arraycopy(batch, batchEnd, nextBatch, 0, carriedOver);
+                submit(batch, batchEnd);
+                batch = nextBatch;
+                length = carriedOver;
+            }
+        }
+        catch (final IOException | RuntimeException exception)
+        {
+            fail(exception);
+        }
+        catch (final InterruptedException exception)
+        {
+            // Closed by the consumer; nobody is waiting for the remaining batches.
+        }
+    }
+
+    /**
+     * Body of the reader thread for binary streams: decodes Scenarios in batches and queues them directly.
+     */
+    private void readBinary()
+    {
+        try
+        {
+            final Iterator<Scenario> scenarios = new BinaryScenarioReader(input, filePath);
+            while (!closed && scenarios.hasNext())
+            {
+                final ImmutableList.Builder<Scenario> batch = ImmutableList.builder();
+                for (int scenarioIndex = 0; scenarioIndex < BINARY_BATCH_SCENARIOS && scenarios.hasNext(); scenarioIndex++)
+                {
+                    batch.add(scenarios.next());
+                }
+                parsedChunks.put(CompletableFuture.completedFuture(ScenarioChunk.of(batch.build())));
+            }
+            parsedChunks.put(endOfInput);
+        }
+        catch (final RuntimeException exception)
+        {
+            fail(exception);
+        }
+        catch (final InterruptedException exception)
+        {
+            // Closed by the consumer; nobody is waiting for the remaining batches.
+        }
+    }
+
+    /**
+     * Submits a text batch for parsing and queues its pending result, waiting for room in the queue.
+     *
+     * @param batch The bytes of the batch.
+     * @param length Number of bytes of the batch to parse.
+     * @throws InterruptedException if the reader is closed while waiting.
+     */
+    private void submit(final byte[] batch, final int length) throws InterruptedException
+    {
+        final ByteBuffer buffer = ByteBuffer.wrap(batch, 0, length);
+        parsedChunks.put(parsers.submit(() -> ScenarioChunk.parse(buffer)));
+    }
+
+    /**
+     * Queues a failure of the reader thread so that it is rethrown to the consumer once every earlier batch has been consumed. Nothing is queued after a failure.
+     *
+     * @param exception The failure.
+     */
+    private void fail(final Exception exception)
+    {
+        if (closed)
+        {
+            return;
+        }
+        final CompletableFuture<ScenarioChunk> failure = new CompletableFuture<>();
+        failure.completeExceptionally(exception instanceof ScenarioLoadingException ? exception :
+                new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception));
+        try
+        {
+            parsedChunks.put(failure);
+        }
+        catch (final InterruptedException interruptedException)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the next batch to be queued by the reader thread.
+     *
+     * @return Non-null pending batch, or {@linkplain #endOfInput}.
+     */
+    private Future<ScenarioChunk> take()
+    {
+        try
+        {
+            return parsedChunks.take();
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new ScenarioLoadingException("Interrupted while loading scenario " + filePath + ".", exception);
+        }
+    }
+
+    /**
+     * Waits for a batch to be parsed.
+     *
+     * @param pendingChunk The pending batch.
+     * @return Non-null parsed ScenarioChunk.
+     */
+    private ScenarioChunk join(final Future<ScenarioChunk> pendingChunk)
+    {
+        try
+        {
+            return pendingChunk.get();
+        }
+        catch (final InterruptedException exception)
+        {
+            Thread.currentThread().interrupt();
+            throw new ScenarioLoadingException("Interrupted while loading scenario " + filePath + ".", exception);
+        }
+        catch (final ExecutionException exception)
+        {
+            if (exception.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) exception.getCause();
+            }
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown parsing " + filePath + ").", exception.getCause());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream that reads its source on a dedicated background thread, a fixed number of large blocks ahead of the consumer. This lets expensive source streams (such as decompressors) run concurrently with whatever
+ * consumes their output (such as the scenario parser). Blocks are recycled, so no memory is allocated once the stream is running. <p />
+ * Instances are intended to be read by a single thread.
+ */
+final class ReadAheadInputStream extends InputStream
+{
+    private final InputStream source;
+    private final BlockingQueue<Block> freeBlocks;
+    private final BlockingQueue<Block> filledBlocks;
+    private final Block endOfStream = new Block(0);
+    private final Thread readerThread;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private Block currentBlock;
+    private int currentPosition;
+
+    /**
+     * Creates a new {@linkplain ReadAheadInputStream} and starts reading the source.
+     *
+     * @param source The stream to read ahead of the consumer (cannot be null). It is closed along with this stream.
+     * @param blockSize Size of each block in bytes (must be positive).
+     * @param blockCount Number of blocks that may be read ahead of the consumer (must be positive).
+     * @param name Name of the background thread, for diagnostics (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    ReadAheadInputStream(final InputStream source, final int blockSize, final int blockCount, final String name)
+    {
+        Preconditions.checkArgument(source != null, "source: null");
+        Preconditions.checkArgument(blockSize > 0, "blockSize: <= 0");
+        Preconditions.checkArgument(blockCount > 0, "blockCount: <= 0");
+        Preconditions.checkArgument(name != null, "name: null");
+
+        this.source = source;
+        this.freeBlocks = new ArrayBlockingQueue<>(blockCount);
+        // One extra slot guarantees the end-of-stream marker can always be queued.
+        this.filledBlocks = new ArrayBlockingQueue<>(blockCount + 1);
+        for (int blockIndex = 0; blockIndex < blockCount; blockIndex++)
+        {
+            freeBlocks.add(new Block(blockSize));
+        }
+
+        this.readerThread = new Thread(this::readAhead, name);
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read() throws IOException
+    {
+        if (!ensureAvailable())
+        {
+            return -1;
+        }
+        return currentBlock.bytes[currentPosition++] & 0xff;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException
+    {
+        Preconditions.checkArgument(buffer != null, "buffer: null");
+        Preconditions.checkPositionIndexes(offset, offset + length, buffer.length);
+
+        if (length == 0)
+        {
+            return 0;
+        }
+        if (!ensureAvailable())
+        {
+            return -1;
+        }
+        final int count = Math.min(length, currentBlock.length - currentPosition);
+        System.arraycopy(currentBlock.bytes, currentPosition, buffer, offset, count);
+        currentPosition += count;
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int available()
+    {
+        return currentBlock == null || currentBlock == endOfStream ? 0 : currentBlock.length - currentPosition;
+    }
+
+    /**
+     * Stops the background thread and closes the source stream.
+     *
+     * @throws IOException if the source stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        readerThread.interrupt();
+        source.close();
+    }
+
+    /**
+     * Makes sure the current block has unread bytes, waiting for the background thread if necessary.
+     *
+     * @return False if the end of the source stream has been reached.
+     * @throws IOException if the source stream failed, or the wait was interrupted.
+     */
+    private boolean ensureAvailable() throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("Stream closed.");
+        }
+        while (currentBlock == null || currentPosition == currentBlock.length)
+        {
+            if (currentBlock == endOfStream)
+            {
+                if (failure != null)
+                {
+                    throw failure;
+                }
+                return false;
+            }
+            if (currentBlock != null)
+            {
+                freeBlocks.add(currentBlock);
+            }
+            try
+            {
+                currentBlock = filledBlocks.take();
+                currentPosition = 0;
+            }
+            catch (final InterruptedException exception)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for input.");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Body of the background thread: fills free blocks from the source until it is exhausted, fails or this stream is closed. Unless it was closed, the end-of-stream marker is always queued, after recording any
+     * failure.
+     */
+    private void readAhead()
+    {
+        try
+        {
+            while (!closed)
+            {
+                final Block block = freeBlocks.take();
+                final int read = source.read(block.bytes, 0, block.bytes.length);
+                if (read < 0)
+                {
+                    break;
+                }
+                block.length = read;
+                filledBlocks.put(block);
+            }
+        }
+        catch (final InterruptedException exception)
+        {
+            // Closed by the consumer; nobody is waiting for the end-of-stream marker.
+            return;
+        }
+        catch (final Throwable exception)
+        {
+            // Anything the source throws, such as a RuntimeException from a decoder, must reach the consumer rather than leave it waiting for a block that never comes.
+            if (!closed)
+            {
+                failure = exception instanceof IOException ? (IOException) exception : new IOException("Exception thrown reading ahead of the consumer.", exception);
+            }
+        }
+        filledBlocks.add(endOfStream);
+    }
+
+    /**
+     * A reusable block of bytes read from the source.
+     */
+    private static final class Block
+    {
+        private final byte[] bytes;
+        private int length;
+
+        /**
+         * @param size Capacity of the block in bytes.
+         */
+        private Block(final int size)
+        {
+            this.bytes = new byte[size];
+        }
+    }
+}
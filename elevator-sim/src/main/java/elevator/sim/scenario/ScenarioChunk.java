@@ -0,0 +1,133 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.Scenario;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The result of parsing one line-aligned chunk of a text scenario file, as produced by the concurrent readers. Lines are numbered from 1 within the chunk; a failure is recorded rather than thrown so that it can be reported
+ * with its line number in the whole file once the lines of every earlier chunk have been counted, and only after the Scenarios parsed ahead of it in the chunk have been consumed.
+ */
+final class ScenarioChunk
+{
+    private final ByteBuffer buffer;
+    private final int failedLineStart;
+    private final int lineCount;
+    private final ImmutableList<Scenario> scenarios;
+
+    /**
+     * Parses every line of a chunk.
+     *
+     * @param buffer The chunk, from index 0 to its limit (cannot be null). Every line but the last must be terminated by a newline.
+     * @return Non-null parsed ScenarioChunk.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    static ScenarioChunk parse(final ByteBuffer buffer)
+    {
+        Preconditions.checkArgument(buffer != null, "buffer: null");
+
+        final ScenarioLineParser parser = new ScenarioLineParser();
+        final ImmutableList.Builder<Scenario> scenarios = ImmutableList.builder();
+        final int limit = buffer.limit();
+
+        int lineStart = 0;
+        int lineCount = 0;
+        try
+        {
+            while (lineStart < limit)
+            {
+                parser.begin(lineCount + 1);
+                int index = lineStart;
+                byte character;
+                while (index < limit && (character = buffer.get(index)) != '\n')
+                {
+                    parser.accept(character & 0xff);
+                    index++;
+                }
+                scenarios.add(parser.end());
+                lineCount++;
+                lineStart = index + 1;
+            }
+        }
+        catch (final ScenarioLoadingException exception)
+        {
+            return new ScenarioChunk(buffer, lineStart, lineCount, scenarios.build());
+        }
+        return new ScenarioChunk(buffer, -1, lineCount, scenarios.build());
+    }
+
+    /**
+     * Wraps Scenarios that have already been decoded, such as those of a {@linkplain BinaryScenarioFormat binary} file, so that they can travel through the same queues as parsed chunks.
+     *
+     * @param scenarios The decoded Scenarios (cannot be null).
+     * @return Non-null ScenarioChunk counting one line per Scenario.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    static ScenarioChunk of(final ImmutableList<Scenario> scenarios)
+    {
+        Preconditions.checkArgument(scenarios != null, "scenarios: null");
+        return new ScenarioChunk(null, -1, scenarios.size(), scenarios);
+    }
+
+    /**
+     * @param buffer The chunk.
+     * @param failedLineStart Offset within the chunk of the malformed line, or -1 if every line was parsed.
+     * @param lineCount Number of lines parsed successfully.
+     * @param scenarios The parsed Scenarios.
+     */
+    private ScenarioChunk(final ByteBuffer buffer, final int failedLineStart, final int lineCount, final ImmutableList<Scenario> scenarios)
+    {
+        this.buffer = buffer;
+        this.failedLineStart = failedLineStart;
+        this.lineCount = lineCount;
+        this.scenarios = scenarios;
+    }
+
+    /**
+     * @return Number of lines parsed successfully.
+     */
+    int getLineCount()
+    {
+        return lineCount;
+    }
+
+    /**
+     * @return Non-null, possibly empty ImmutableList of the Scenarios parsed, which stops before the malformed line if there is one.
+     */
+    ImmutableList<Scenario> getScenarios()
+    {
+        return scenarios;
+    }
+
+    /**
+     * @return True if this chunk contains a malformed line, which should be {@linkplain #rethrowFailure(long) rethrown} once the Scenarios parsed ahead of it have been consumed.
+     */
+    boolean hasFailure()
+    {
+        return failedLineStart >= 0;
+    }
+
+    /**
+     * Re-parses the malformed line of this chunk, if there is one, so that the resulting exception carries the line's number within the whole file.
+     *
+     * @param linesBeforeChunk Number of lines in the file ahead of this chunk.
+     * @throws ScenarioLoadingException if this chunk contains a malformed line.
+     */
+    void rethrowFailure(final long linesBeforeChunk)
+    {
+        if (failedLineStart < 0)
+        {
+            return;
+        }
+        final ScenarioLineParser parser = new ScenarioLineParser();
+        parser.begin(linesBeforeChunk + lineCount + 1);
+        for (int index = failedLineStart; index < buffer.limit() && buffer.get(index) != '\n'; index++)
+        {
+            parser.accept(buffer.get(index) & 0xff);
+        }
+        parser.end();
+        throw new AssertionError("Malformed line at byte " + failedLineStart + " parsed successfully on the second attempt.");
+    }
+}
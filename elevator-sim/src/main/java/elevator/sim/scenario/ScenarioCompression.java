@@ -0,0 +1,94 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression schemes that scenario files may be stored in. The scheme is detected from the first bytes of the file, so compressed files need no particular name.
+ */
+enum ScenarioCompression
+{
+    /**
+     * The file is not compressed.
+     */
+    NONE,
+
+    /**
+     * The file is gzip-compressed (RFC 1952), possibly as several concatenated members.
+     */
+    GZIP,
+
+    /**
+     * The file is deflate-compressed inside a zlib wrapper (RFC 1950), as produced by {@linkplain java.util.zip.DeflaterOutputStream} or <code>zlib.compress</code>.
+     */
+    DEFLATE;
+
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1f;
+    private static final int GZIP_MAGIC_SECOND_BYTE = 0x8b;
+    private static final int ZLIB_DEFLATE_METHOD = 8;
+    private static final int ZLIB_MAXIMUM_WINDOW_BITS = 7;
+    private static final int ZLIB_CHECK_DIVISOR = 31;
+    private static final int ZLIB_PRESET_DICTIONARY_FLAG = 0x20;
+    private static final int DECODE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Detects the compression of the given stream without consuming any of it.
+     *
+     * @param input The stream to check (cannot be null, must support mark/reset).
+     * @return Non-null compression scheme of the stream.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the stream cannot be read.
+     */
+    static ScenarioCompression detect(final InputStream input) throws IOException
+    {
+        Preconditions.checkArgument(input != null, "input: null");
+        Preconditions.checkArgument(input.markSupported(), "input: mark/reset not supported");
+
+        input.mark(2);
+        final int firstByte = input.read();
+        final int secondByte = input.read();
+        input.reset();
+
+        if (firstByte == GZIP_MAGIC_FIRST_BYTE && secondByte == GZIP_MAGIC_SECOND_BYTE)
+        {
+            return GZIP;
+        }
+        // zlib header: the low nibble of CMF is the method, the high nibble the window size, CMF * 256 + FLG is a multiple of 31, and (for streams we can decode) FLG has no preset dictionary. The only text scenario
+        // start passing the first three checks is "80", which fails the last one.
+        if (firstByte >= 0 && secondByte >= 0 && (firstByte & 0x0f) == ZLIB_DEFLATE_METHOD && (firstByte >> 4) <= ZLIB_MAXIMUM_WINDOW_BITS && ((firstByte << 8) | secondByte) % ZLIB_CHECK_DIVISOR == 0
+                && (secondByte & ZLIB_PRESET_DICTIONARY_FLAG) == 0)
+        {
+            return DEFLATE;
+        }
+        return NONE;
+    }
+
+    /**
+     * Wraps the given stream in a decoder for this compression scheme.
+     *
+     * @param input The compressed stream (cannot be null).
+     * @return Non-null stream of decompressed bytes; the given stream itself for {@linkplain #NONE}.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the compressed header cannot be read.
+     */
+    InputStream decode(final InputStream input) throws IOException
+    {
+        Preconditions.checkArgument(input != null, "input: null");
+
+        switch (this)
+        {
+            case GZIP:
+                return new GZIPInputStream(input, DECODE_BUFFER_SIZE);
+            case DEFLATE:
+                return new InflaterInputStream(input, new Inflater(), DECODE_BUFFER_SIZE);
+            case NONE:
+            default:
+                return input;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+
+/**
+ * Single-pass parser for scenario lines of the form <code>8:3-6,4-6</code>. Characters are pushed into the parser one at a time and floor numbers are accumulated directly into ints and packed into a {@linkplain Scenario.Builder}, so
+ * neither the line nor any of its floors are ever materialized as Strings or boxed. Because it only ever sees one character at a time, the same parser works for input read as chars or as bytes. <p />
+ * Blanks (spaces and tabs) are permitted around floor numbers and separators, and a single trailing comma and carriage return are tolerated. Anything else that does not fit the pattern is reported with the line and
+ * column at which it was found. <p />
+ * Instances hold the state of the line being parsed and are therefore not thread-safe; they may be reused for any number of lines.
+ */
+final class ScenarioLineParser implements LineParser<Scenario>
+{
+    private static final int MAXIMUM_FLOOR = Integer.MAX_VALUE;
+
+    /**
+     * The part of the line the parser expects next.
+     */
+    private enum State
+    {
+        /**
+         * The initial floor of the elevator, terminated by a colon.
+         */
+        INITIAL_FLOOR,
+
+        /**
+         * The originating floor of a rider, terminated by a hyphen.
+         */
+        ORIGINATING_FLOOR,
+
+        /**
+         * The destination floor of a rider, terminated by a comma or the end of the line.
+         */
+        DESTINATION_FLOOR,
+
+        /**
+         * Only a carriage return may follow; the line is otherwise complete.
+         */
+        END_OF_LINE
+    }
+
+    private Scenario.Builder scenarioBuilder;
+    private State state;
+    private long lineNumber;
+    private int column;
+
+    private int initialFloor;
+    private int originatingFloor;
+    private int moveCount;
+
+    private int floor;
+    private int floorDigits;
+    private boolean floorTerminated;
+
+    /**
+     * Parses a complete line into a {@linkplain Scenario}.
+     *
+     * @param line The line to parse, without its line terminator (cannot be null).
+     * @param lineNumber The 1-based number of the line within its file, used in error messages.
+     * @return Non-null Scenario from the parsed line.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if the line is malformed.
+     */
+    Scenario parse(final CharSequence line, final long lineNumber)
+    {
+        Preconditions.checkArgument(line != null, "line: null");
+
+        begin(lineNumber);
+        final int length = line.length();
+        for (int index = 0; index < length; index++)
+        {
+            accept(line.charAt(index));
+        }
+        return end();
+    }
+
+    /**
+     * Resets the parser to begin a new line.
+     *
+     * @param lineNumber The 1-based number of the line within its file, used in error messages.
+     */
+    @Override
+    public void begin(final long lineNumber)
+    {
+        this.scenarioBuilder = Scenario.builder();
+        this.state = State.INITIAL_FLOOR;
+        this.lineNumber = lineNumber;
+        this.column = 0;
+        this.moveCount = 0;
+        resetFloor();
+    }
+
+    /**
+     * Consumes the next character of the current line. Line terminators must not be passed to this method; use {@linkplain #end()} instead.
+     *
+     * @param character The next character (an ASCII char or byte value).
+     * @throws ScenarioLoadingException if the character cannot appear at this point in the line.
+     */
+    @Override
+    public void accept(final int character)
+    {
+        column++;
+        if (character >= '0' && character <= '9' && !floorTerminated && state != State.END_OF_LINE)
+        {
+            final int digit = character - '0';
+            if (floor > (MAXIMUM_FLOOR - digit) / 10)
+            {
+                throw malformed("floor number is larger than " + MAXIMUM_FLOOR);
+            }
+            floor = floor * 10 + digit;
+            floorDigits++;
+            return;
+        }
+
+        if (character == ' ' || character == '\t')
+        {
+            floorTerminated = floorDigits > 0;
+            return;
+        }
+
+        if (character == '\r' && state != State.END_OF_LINE)
+        {
+            // Only valid as the last character of the line; anything after it is rejected by the END_OF_LINE state.
+            completeLine();
+            state = State.END_OF_LINE;
+            return;
+        }
+
+        switch (state)
+        {
+            case INITIAL_FLOOR:
+                expect(character, ':', "':' after the initial floor");
+                initialFloor = takeFloor();
+                state = State.ORIGINATING_FLOOR;
+                break;
+            case ORIGINATING_FLOOR:
+                expect(character, '-', "'-' after an originating floor");
+                originatingFloor = takeFloor();
+                state = State.DESTINATION_FLOOR;
+                break;
+            case DESTINATION_FLOOR:
+                expect(character, ',', "',' after a destination floor");
+                addMove(originatingFloor, takeFloor());
+                state = State.ORIGINATING_FLOOR;
+                break;
+            case END_OF_LINE:
+            default:
+                throw malformed("unexpected " + describe(character) + " after the end of the scenario");
+        }
+    }
+
+    /**
+     * Completes the current line.
+     *
+     * @return Non-null Scenario from the parsed line.
+     * @throws ScenarioLoadingException if the line ended prematurely.
+     * @implNote To simplify the Scenario, a {@linkplain MoveCommand} from the initial floor to the originating floor of the first command is added ahead of the parsed commands.
+     */
+    @Override
+    public Scenario end()
+    {
+        column++;
+        completeLine();
+
+        return scenarioBuilder.build();
+    }
+
+    /**
+     * Validates that the line may end in the current state, adding the final rider's move if one is pending.
+     *
+     * @throws ScenarioLoadingException if the line ended prematurely.
+     */
+    private void completeLine()
+    {
+        switch (state)
+        {
+            case INITIAL_FLOOR:
+                throw malformed("expected ':' after the initial floor but found the end of the line");
+            case ORIGINATING_FLOOR:
+                // A trailing comma (or no riders at all) is accepted, but a dangling floor number is not.
+                if (floorDigits > 0)
+                {
+                    throw malformed("expected '-' after an originating floor but found the end of the line");
+                }
+                break;
+            case DESTINATION_FLOOR:
+                addMove(originatingFloor, takeFloor());
+                break;
+            case END_OF_LINE:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds a rider's move to the Scenario, preceded by the synthetic move from the initial floor if it is the first one.
+     *
+     * @param originatingFloor The rider's originating floor.
+     * @param destinationFloor The rider's destination floor.
+     * @throws ScenarioLoadingException if the rider goes nowhere, or if the first rider starts on the initial floor.
+     */
+    private void addMove(final int originatingFloor, final int destinationFloor)
+    {
+        if (destinationFloor == originatingFloor)
+        {
+            throw malformed("originating and destination floors must be different");
+        }
+        // To simplify algorithm implementations, a MoveCommand is created from the initial floor to the originating floor of the first parsed MoveCommand. This precludes the need to treat the first floor as a special case.
+        if (moveCount++ == 0)
+        {
+            if (originatingFloor == initialFloor)
+            {
+                throw malformed("the first originating floor must be different from the initial floor");
+            }
+            scenarioBuilder.addMove(initialFloor, originatingFloor);
+        }
+        scenarioBuilder.addMove(originatingFloor, destinationFloor);
+    }
+
+    /**
+     * Verifies the given character is the expected separator and that a floor number preceded it.
+     *
+     * @param character The character read.
+     * @param separator The separator expected in the current state.
+     * @param expectation Description of the expected separator for error messages.
+     * @throws ScenarioLoadingException if the expectation is not met.
+     */
+    private void expect(final int character, final char separator, final String expectation)
+    {
+        if (character != separator)
+        {
+            throw malformed((floorDigits == 0 ? "expected a floor number" : "expected " + expectation) + " but found " + describe(character));
+        }
+        if (floorDigits == 0)
+        {
+            throw malformed("expected a floor number but found " + describe(character));
+        }
+    }
+
+    /**
+     * Returns the floor number accumulated so far and prepares for the next one.
+     *
+     * @return The floor number.
+     * @throws ScenarioLoadingException if the floor number is not positive.
+     */
+    private int takeFloor()
+    {
+        if (floorDigits == 0)
+        {
+            throw malformed("expected a floor number but found the end of the line");
+        }
+        if (floor == 0)
+        {
+            throw malformed("floor numbers must be positive");
+        }
+        final int parsedFloor = floor;
+        resetFloor();
+        return parsedFloor;
+    }
+
+    /**
+     * Clears the floor number accumulator.
+     */
+    private void resetFloor()
+    {
+        floor = 0;
+        floorDigits = 0;
+        floorTerminated = false;
+    }
+
+    /**
+     * Creates an exception describing malformed input at the current position.
+     *
+     * @param problem Description of the problem.
+     * @return Non-null ScenarioLoadingException.
+     */
+    private ScenarioLoadingException malformed(final String problem)
+    {
+        return new ScenarioLoadingException("Malformed scenario on line " + lineNumber + ", column " + column + ": " + problem + ".");
+    }
+
+    /**
+     * Describes a character for error messages.
+     *
+     * @param character The character to describe.
+     * @return Non-null description.
+     */
+    private static String describe(final int character)
+    {
+        return character >= 0x20 && character < 0x7f ? "'" + (char) character + "'" : String.format("character 0x%02x", character);
+    }
+}
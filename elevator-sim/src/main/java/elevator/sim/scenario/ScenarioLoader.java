@@ -1,23 +1,38 @@
 package elevator.sim.scenario;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
-import elevator.sim.core.MoveCommand;
 import elevator.sim.core.Scenario;
+import elevator.sim.core.event.TimedScenario;
+import elevator.sim.core.jfr.ScenarioParsedEvent;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
- * Provides functionality for loading {@linkplain Scenario scenarios} from text files.
+ * Provides functionality for loading {@linkplain Scenario scenarios} from files. Files may be in the text format (one scenario per line, e.g. <code>8:3-6,4-6</code>) or the {@linkplain BinaryScenarioFormat binary format};
+ * the format is detected from the file header. Either format may additionally be gzip- or zlib/deflate-compressed, which is likewise detected from the header and decoded on the fly without any temporary files.
+ * {@linkplain TimedScenario Timed scenarios}, whose riders arrive over time, have a text format of their own and are loaded through {@linkplain #streamTimedScenariosFromFile(Path)}. <p />
+ * While the {@linkplain ScenarioParsedEvent} JDK Flight Recorder event is enabled, one is emitted for every Scenario as the consumer takes it from the Stream.
  */
 public final class ScenarioLoader
 {
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+    private static final int DECODED_BLOCK_SIZE = 1 << 20;
+    private static final int DECODED_BLOCK_COUNT = 4;
+
     /**
      * Loads a scenario from a file.
      *
@@ -27,17 +42,148 @@ public final class ScenarioLoader
      * @throws ScenarioLoadingException if an exception occurs while loading the scenario.
      */
     public ImmutableList<Scenario> loadScenariosFromFile(final Path filePath)
+    {
+        try (final Stream<Scenario> scenarios = streamScenariosFromFile(filePath))
+        {
+            return ImmutableList.copyOf(scenarios.iterator());
+        }
+    }
+
+    /**
+     * Lazily loads scenarios from a file. Each scenario is only read and parsed once the returned Stream requests the next {@linkplain Scenario}, so memory use does not depend on the size of the file and the first
+     * Scenario is available as soon as it has been read.
+     *
+     * @param filePath The Path to the scenario file (cannot be null).
+     * @return Non-null, possibly empty, sequential Stream of {@linkplain Scenario Scenarios} from the file. The Stream holds the file open and must be closed by the caller.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if an exception occurs while opening the file, or later while reading it as the Stream is consumed.
+     */
+    public Stream<Scenario> streamScenariosFromFile(final Path filePath)
+    {
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+
+        final InputStream input = openInputStream(filePath);
+        try
+        {
+            final Iterator<Scenario> scenarios = BinaryScenarioFormat.consumeHeader(input) ? new BinaryScenarioReader(input, filePath) : new TextScenarioReader<>(input, filePath, new ScenarioLineParser());
+            return toStream(recordParsing(scenarios), input, filePath);
+        }
+        catch (final IOException | RuntimeException exception)
+        {
+            closeQuietly(input, exception);
+            throw exception instanceof RuntimeException ? (RuntimeException) exception :
+                    new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+    }
+
+    /**
+     * Lazily loads scenarios from a file by memory-mapping it in line-aligned chunks and parsing the chunks concurrently on the given pool. Scenarios are produced in their original line order, and only a bounded number
+     * of chunks is held in memory at once. Compressed files, and files in the {@linkplain BinaryScenarioFormat binary format}, cannot be split on line boundaries and are read
+     * sequentially.
+     *
+     * @param filePath The Path to the scenario file (cannot be null).
+     * @param pool The ForkJoinPool to parse chunks on (cannot be null).
+     * @return Non-null, possibly empty, sequential Stream of {@linkplain Scenario Scenarios} from the file. The Stream holds the file open and must be closed by the caller.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if an exception occurs while opening the file, or later while reading it as the Stream is consumed.
+     */
+    public Stream<Scenario> streamScenariosFromFileInParallel(final Path filePath, final ForkJoinPool pool)
+    {
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+        Preconditions.checkArgument(pool != null, "pool: null");
+
+        if (requiresSequentialRead(filePath))
+        {
+            return streamScenariosFromFile(filePath);
+        }
+
+        final ParallelScenarioReader reader;
+        try
+        {
+            reader = new ParallelScenarioReader(filePath, pool);
+        }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+        return toStream(recordParsing(reader.iterator()), reader, filePath);
+    }
+
+    /**
+     * Lazily loads scenarios from a file through a pipeline of bounded stages: a background thread reads (and, for compressed files, a further thread decodes) the file into line-aligned batches, which are parsed
+     * concurrently on the given number of threads and produced in their original order. Reading and parsing therefore overlap with whatever consumes the Stream, while memory use is bounded by the queue size rather than the
+     * size of the file. Files in the {@linkplain BinaryScenarioFormat binary format} are decoded by the reader thread.
+     *
+     * @param filePath The Path to the scenario file (cannot be null).
+     * @param parseThreads The number of threads to parse batches on (must be positive).
+     * @param queueSize The number of batches that may be read ahead of the consumer (must be positive).
+     * @return Non-null, possibly empty, sequential Stream of {@linkplain Scenario Scenarios} from the file. The Stream holds the file and threads open and must be closed by the caller.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if an exception occurs while opening the file, or later while reading it as the Stream is consumed.
+     */
+    public Stream<Scenario> streamScenariosFromFileInPipeline(final Path filePath, final int parseThreads, final int queueSize)
+    {
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+        Preconditions.checkArgument(parseThreads > 0, "parseThreads: <= 0");
+        Preconditions.checkArgument(queueSize > 0, "queueSize: <= 0");
+
+        final InputStream input = openInputStream(filePath);
+        try
+        {
+            final PipelinedScenarioReader reader = new PipelinedScenarioReader(input, BinaryScenarioFormat.consumeHeader(input), filePath, parseThreads, queueSize);
+            return toStream(recordParsing(reader.iterator()), reader, filePath);
+        }
+        catch (final IOException | RuntimeException exception)
+        {
+            closeQuietly(input, exception);
+            throw exception instanceof RuntimeException ? (RuntimeException) exception :
+                    new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+    }
+
+    /**
+     * Lazily loads {@linkplain TimedScenario timed scenarios} from a file in the timed text format (one scenario per line, e.g. <code>8:0@3-6,1500@4-6</code>), which may be gzip- or zlib/deflate-compressed like any
+     * other scenario file.
+     *
+     * @param filePath The Path to the timed scenario file (cannot be null).
+     * @return Non-null, possibly empty, sequential Stream of TimedScenarios from the file. The Stream holds the file open and must be closed by the caller.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if an exception occurs while opening the file, if it is in the binary format, or later while reading it as the Stream is consumed.
+     */
+    public Stream<TimedScenario> streamTimedScenariosFromFile(final Path filePath)
     {
         Preconditions.checkArgument(filePath != null, "filePath: null");
 
-        final ImmutableList.Builder<Scenario> scenarioBuilder = ImmutableList.builder();
-        try (final BufferedReader reader = Files.newBufferedReader(filePath))
+        final InputStream input = openInputStream(filePath);
+        try
         {
-            String line = null;
-            while ((line = reader.readLine()) != null)
+            if (BinaryScenarioFormat.consumeHeader(input))
             {
-                scenarioBuilder.add(parseLine(line));
+                throw new ScenarioLoadingException("Could not load timed scenario (" + filePath + " is in the binary format, which has no arrival times).");
             }
+            return toStream(new TextScenarioReader<>(input, filePath, new TimedScenarioLineParser()), input, filePath);
+        }
+        catch (final IOException | RuntimeException exception)
+        {
+            closeQuietly(input, exception);
+            throw exception instanceof RuntimeException ? (RuntimeException) exception :
+                    new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+    }
+
+    /**
+     * Opens a buffered stream for the given scenario file. Compressed files are detected by their header and decoded on a background thread, a few blocks ahead of the parser, so that decoding and parsing overlap.
+     *
+     * @param filePath The Path to the scenario file.
+     * @return Non-null InputStream of the (decompressed) file contents, supporting mark/reset.
+     * @throws ScenarioLoadingException if the file cannot be opened.
+     */
+    private static InputStream openInputStream(final Path filePath)
+    {
+        final InputStream input;
+        try
+        {
+            input = new BufferedInputStream(Files.newInputStream(filePath), INPUT_BUFFER_SIZE);
         }
         catch (final FileNotFoundException exception)
         {
@@ -47,39 +193,120 @@ public final class ScenarioLoader
         {
             throw new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
         }
-        return scenarioBuilder.build();
+
+        try
+        {
+            final ScenarioCompression compression = ScenarioCompression.detect(input);
+            if (compression == ScenarioCompression.NONE)
+            {
+                return input;
+            }
+            final InputStream decoded = new ReadAheadInputStream(compression.decode(input), DECODED_BLOCK_SIZE, DECODED_BLOCK_COUNT, "scenario-decoder");
+            return new BufferedInputStream(decoded, INPUT_BUFFER_SIZE);
+        }
+        catch (final IOException exception)
+        {
+            closeQuietly(input, exception);
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown decompressing " + filePath + ").", exception);
+        }
     }
 
     /**
-     * Parses an individual line into a {@linkplain Scenario}.
+     * Checks whether the given file must be read sequentially, i.e. it is compressed or in the {@linkplain BinaryScenarioFormat binary format}.
      *
-     * @param line The line to parse.
-     * @return Non-null Scenario from the parsed line.
-     * @implNote To simplify the Scenario, a {@linkplain MoveCommand} from the initial floor to the originating floor of the first command.
+     * @param filePath The Path to the scenario file.
+     * @return True if the file cannot be split into line-aligned chunks.
+     * @throws ScenarioLoadingException if the file cannot be read.
      */
-    private Scenario parseLine(final String line)
+    private static boolean requiresSequentialRead(final Path filePath)
     {
-        final int colonIndex = line.indexOf(':');
-        final int originalFloor = Integer.valueOf(line.substring(0, colonIndex));
-
-        final ImmutableList.Builder<MoveCommand> travelRequestsBuilder = ImmutableList.builder();
-        final Matcher matcher = Pattern.compile("(\\d+)\\-(\\d+)").matcher(line);
-
-        if (!matcher.find())
+        try (final InputStream input = new BufferedInputStream(Files.newInputStream(filePath), BinaryScenarioFormat.HEADER_LENGTH))
         {
-            return new Scenario(travelRequestsBuilder.build());
+            return ScenarioCompression.detect(input) != ScenarioCompression.NONE || BinaryScenarioFormat.consumeHeader(input);
         }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+    }
 
-        // To simplify algorithm implementations, a MoveCommand is created from the initial floor to the originating floor of the first parsed MoveCommand. This precludes the need to treat the first floor as a special case.
-        travelRequestsBuilder.add(new MoveCommand(originalFloor, Integer.valueOf(matcher.group(1))));
+    /**
+     * Wraps an Iterator of {@linkplain Scenario Scenarios} in one that emits a {@linkplain ScenarioParsedEvent} for each Scenario, timing how long it took to be read and parsed. While the event is not being
+     * recorded the wrapper creates no events.
+     *
+     * @param scenarios The Scenarios.
+     * @return Non-null Iterator of the same Scenarios.
+     */
+    private static Iterator<Scenario> recordParsing(final Iterator<Scenario> scenarios)
+    {
+        return new AbstractIterator<Scenario>()
+        {
+            private long scenarioIndex;
+
+            @Override
+            protected Scenario computeNext()
+            {
+                final ScenarioParsedEvent event = ScenarioParsedEvent.beginIfEnabled();
+                if (!scenarios.hasNext())
+                {
+                    return endOfData();
+                }
+                final Scenario scenario = scenarios.next();
+                if (event != null)
+                {
+                    event.end();
+                }
+                if (event != null && event.shouldCommit())
+                {
+                    event.setScenarioIndex(scenarioIndex);
+                    event.setMoveCount(scenario.getMoveCount());
+                    event.commit();
+                }
+                scenarioIndex++;
+                return scenario;
+            }
+        };
+    }
 
-        // Following the MoveCommand from the initial floor to first originating floor move, the rest of the MoveCommand's are parsed in a simple left-to-right fashion.
-        travelRequestsBuilder.add(new MoveCommand(Integer.valueOf(matcher.group(1)), Integer.valueOf(matcher.group(2))));
-        while (matcher.find())
+    /**
+     * Wraps an Iterator of scenarios in a sequential Stream that closes the given resource when it is closed.
+     *
+     * @param <T> The type of scenario.
+     * @param scenarios The scenarios.
+     * @param resource The resource backing the Iterator.
+     * @param filePath The Path the resource was opened from, used in error messages.
+     * @return Non-null Stream of the scenarios.
+     */
+    private static <T> Stream<T> toStream(final Iterator<T> scenarios, final Closeable resource, final Path filePath)
+    {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(scenarios, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() ->
         {
-            travelRequestsBuilder.add(new MoveCommand(Integer.valueOf(matcher.group(1)), Integer.valueOf(matcher.group(2))));
-        }
+            try
+            {
+                resource.close();
+            }
+            catch (final IOException exception)
+            {
+                throw new ScenarioLoadingException("Could not load scenario (exception thrown closing " + filePath + ").", exception);
+            }
+        });
+    }
 
-        return new Scenario(travelRequestsBuilder.build());
+    /**
+     * Closes a resource after a failure, recording any exception from closing it as suppressed.
+     *
+     * @param resource The resource to close.
+     * @param failure The failure that caused the resource to be abandoned.
+     */
+    private static void closeQuietly(final Closeable resource, final Exception failure)
+    {
+        try
+        {
+            resource.close();
+        }
+        catch (final IOException exception)
+        {
+            failure.addSuppressed(exception);
+        }
     }
 }
@@ -5,6 +5,14 @@ package elevator.sim.scenario;
  */
 public final class ScenarioLoadingException extends RuntimeException
 {
+    /**
+     * {@inheritDoc}
+     */
+    public ScenarioLoadingException(final String message)
+    {
+        super(message);
+    }
+
     /**
      * {@inheritDoc}
      */
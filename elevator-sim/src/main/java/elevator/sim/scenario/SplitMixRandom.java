@@ -0,0 +1,43 @@
+package elevator.sim.scenario;
+
+/**
+ * Small, fast pseudo-random generator implementing SplitMix64, used to generate synthetic scenarios. Unlike {@linkplain java.util.SplittableRandom}, whose algorithm is an implementation detail, the sequence for a
+ * given seed is fixed by this class, so generated files are reproducible on every JVM. <p />
+ * Instances are not thread-safe.
+ */
+final class SplitMixRandom
+{
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long state;
+
+    /**
+     * @param seed The seed of the sequence.
+     */
+    SplitMixRandom(final long seed)
+    {
+        this.state = seed;
+    }
+
+    /**
+     * @return The next 64 pseudo-random bits.
+     */
+    long nextLong()
+    {
+        long bits = (state += GOLDEN_GAMMA);
+        bits = (bits ^ (bits >>> 30)) * 0xBF58476D1CE4E5B9L;
+        bits = (bits ^ (bits >>> 27)) * 0x94D049BB133111EBL;
+        return bits ^ (bits >>> 31);
+    }
+
+    /**
+     * Draws an int between 0 and the bound by scaling 32 random bits, which is faster than rejection sampling and whose bias (below <code>bound / 2<sup>32</sup></code>) is far too small to matter for workloads.
+     *
+     * @param bound The exclusive upper bound (must be positive).
+     * @return A pseudo-random int between 0 (inclusive) and bound (exclusive).
+     */
+    int nextInt(final int bound)
+    {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+}
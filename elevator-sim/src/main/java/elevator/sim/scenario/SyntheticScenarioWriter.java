@@ -0,0 +1,110 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.streaming.OutputSink;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Generates random scenarios following a {@linkplain TrafficProfile} and writes them to an {@linkplain OutputSink} in the text scenario format, e.g. <code>10:8-1,9-1</code>. The initial floor of each scenario is a random
+ * floor other than the originating floor of its first rider. <p />
+ * The scenarios depend only on the seed and the arguments given, so the same seed always produces the same bytes: lines end with <code>\n</code> on every platform, and the random sequence is fixed by
+ * {@linkplain SplitMixRandom}. Each line is formatted as ASCII straight into a reusable byte array, so once the array has grown to fit the longest scenario, generating allocates nothing. <p />
+ * Instances are not thread-safe. The sink is not closed by the writer.
+ */
+public final class SyntheticScenarioWriter
+{
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int MAXIMUM_NUMBER_LENGTH = 10; // Digits of Integer.MAX_VALUE.
+
+    private final OutputSink outputSink;
+    private final TrafficProfile profile;
+    private final int floorCount;
+    private final SplitMixRandom random;
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+    private int length;
+
+    /**
+     * @param outputSink The OutputSink to write the scenarios to (cannot be null).
+     * @param profile The TrafficProfile riders are drawn from (cannot be null).
+     * @param floorCount The number of floors of the building (must be at least {@linkplain TrafficProfile#getMinimumFloorCount() the profile's minimum}).
+     * @param seed The seed of the random sequence.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    public SyntheticScenarioWriter(final OutputSink outputSink, final TrafficProfile profile, final int floorCount, final long seed)
+    {
+        Preconditions.checkArgument(outputSink != null, "outputSink: null");
+        Preconditions.checkArgument(profile != null, "profile: null");
+        Preconditions.checkArgument(floorCount >= profile.getMinimumFloorCount(), "The " + profile + " profile needs at least " + profile.getMinimumFloorCount() + " floors: [" + floorCount + "]");
+
+        this.outputSink = outputSink;
+        this.profile = profile;
+        this.floorCount = floorCount;
+        this.random = new SplitMixRandom(seed);
+    }
+
+    /**
+     * Writes a single scenario whose number of riders is drawn uniformly between the given bounds. No random number is used for the count when the bounds are equal.
+     *
+     * @param minimumRiders The fewest riders of the scenario (must be positive).
+     * @param maximumRiders The most riders of the scenario (must be at least minimumRiders).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws IOException if the sink cannot write the scenario.
+     */
+    public void write(final int minimumRiders, final int maximumRiders) throws IOException
+    {
+        Preconditions.checkArgument(minimumRiders > 0, "minimumRiders: must be positive");
+        Preconditions.checkArgument(maximumRiders >= minimumRiders, "maximumRiders: less than minimumRiders");
+
+        final int riderCount = minimumRiders == maximumRiders ? minimumRiders : minimumRiders + random.nextInt(maximumRiders - minimumRiders + 1);
+        length = 0;
+        for (int riderIndex = 0; riderIndex < riderCount; riderIndex++)
+        {
+            final long rider = profile.nextRider(random, floorCount);
+            final int originatingFloor = (int) (rider >>> 32);
+            if (riderIndex == 0)
+            {
+                appendNumber(TrafficProfile.otherFloor(random, floorCount, originatingFloor));
+                bytes[length++] = ':';
+            }
+            else
+            {
+                bytes[length++] = ',';
+            }
+            appendNumber(originatingFloor);
+            bytes[length++] = '-';
+            appendNumber((int) rider);
+        }
+        bytes[length++] = '\n';
+        outputSink.write(bytes, 0, length);
+    }
+
+    /**
+     * Appends the decimal digits of a non-negative number and reserves room for one more byte.
+     *
+     * @param number The number to append.
+     */
+    private void appendNumber(final int number)
+    {
+        if (length + MAXIMUM_NUMBER_LENGTH + 1 > bytes.length)
+        {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+
+        int digits = 1;
+        for (int remaining = number; remaining >= 10; remaining /= 10)
+        {
+            digits++;
+        }
+        int position = length + digits;
+        int remaining = number;
+        do
+        {
+            bytes[--position] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        while (remaining != 0);
+        length += digits;
+    }
+}
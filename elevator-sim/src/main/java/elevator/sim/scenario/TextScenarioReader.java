@@ -0,0 +1,103 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import elevator.sim.core.Scenario;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Iterates over the scenarios of a text scenario stream, one line at a time. Bytes are fed straight from a large internal buffer into a {@linkplain LineParser}, such as the {@linkplain ScenarioLineParser} for
+ * {@linkplain Scenario Scenarios}, so lines are never decoded into Strings.
+ *
+ * @param <T> The type of scenario produced.
+ */
+final class TextScenarioReader<T> extends AbstractIterator<T>
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream input;
+    private final Path filePath;
+    private final LineParser<T> parser;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long lineNumber;
+
+    /**
+     * @param input The stream to read from (cannot be null).
+     * @param filePath The Path the stream was opened from, used in error messages (cannot be null).
+     * @param parser The parser for the lines (cannot be null).
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     */
+    TextScenarioReader(final InputStream input, final Path filePath, final LineParser<T> parser)
+    {
+        Preconditions.checkArgument(input != null, "input: null");
+        Preconditions.checkArgument(filePath != null, "filePath: null");
+        Preconditions.checkArgument(parser != null, "parser: null");
+
+        this.input = input;
+        this.filePath = filePath;
+        this.parser = parser;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws ScenarioLoadingException if the stream cannot be read or the line is malformed.
+     */
+    @Override
+    protected T computeNext()
+    {
+        if (position == limit && !fill())
+        {
+            return endOfData();
+        }
+
+        parser.begin(++lineNumber);
+        while (true)
+        {
+            final byte[] bytes = buffer;
+            final int end = limit;
+            for (int index = position; index < end; index++)
+            {
+                final byte character = bytes[index];
+                if (character == '\n')
+                {
+                    position = index + 1;
+                    return parser.end();
+                }
+                parser.accept(character & 0xff);
+            }
+            position = end;
+            if (!fill())
+            {
+                // The last line of the file need not be terminated.
+                return parser.end();
+            }
+        }
+    }
+
+    /**
+     * Refills the buffer from the stream.
+     *
+     * @return False if the stream is exhausted.
+     * @throws ScenarioLoadingException if the stream cannot be read.
+     */
+    private boolean fill()
+    {
+        try
+        {
+            final int read = input.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        }
+        catch (final IOException exception)
+        {
+            throw new ScenarioLoadingException("Could not load scenario (exception thrown reading " + filePath + ").", exception);
+        }
+    }
+}
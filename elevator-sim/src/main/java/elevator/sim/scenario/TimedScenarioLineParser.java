@@ -0,0 +1,305 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+import elevator.sim.core.event.TimedScenario;
+
+/**
+ * Single-pass parser for timed scenario lines of the form <code>8:0@3-6,1500@4-6</code>: the car's initial floor, then each rider's arrival time in milliseconds, originating floor and destination floor, in order of
+ * arrival. Like the {@linkplain ScenarioLineParser}, it is fed one character at a time and accumulates numbers straight into primitives and a {@linkplain TimedScenario.Builder}, so it works for chars and bytes alike. <p />
+ * Blanks (spaces and tabs) are permitted around numbers and separators, and a single trailing comma and carriage return are tolerated. Anything else that does not fit the pattern, including arrival times that go
+ * backwards, is reported with the line and column at which it was found. <p />
+ * Instances hold the state of the line being parsed and are therefore not thread-safe; they may be reused for any number of lines.
+ */
+final class TimedScenarioLineParser implements LineParser<TimedScenario>
+{
+    private static final long MAXIMUM_FLOOR = Integer.MAX_VALUE;
+    private static final long MAXIMUM_TIME = Long.MAX_VALUE / 4;
+
+    /**
+     * The part of the line the parser expects next.
+     */
+    private enum State
+    {
+        /**
+         * The initial floor of the car, terminated by a colon.
+         */
+        INITIAL_FLOOR,
+
+        /**
+         * The arrival time of a rider, terminated by an at sign.
+         */
+        ARRIVAL_TIME,
+
+        /**
+         * The originating floor of a rider, terminated by a hyphen.
+         */
+        ORIGINATING_FLOOR,
+
+        /**
+         * The destination floor of a rider, terminated by a comma or the end of the line.
+         */
+        DESTINATION_FLOOR,
+
+        /**
+         * Only a carriage return may follow; the line is otherwise complete.
+         */
+        END_OF_LINE
+    }
+
+    private TimedScenario.Builder scenarioBuilder;
+    private State state;
+    private long lineNumber;
+    private int column;
+
+    private int initialFloor;
+    private long arrivalTime;
+    private long previousArrivalTime;
+    private int originatingFloor;
+
+    private long number;
+    private int numberDigits;
+    private boolean numberTerminated;
+
+    /**
+     * Parses a complete line into a {@linkplain TimedScenario}.
+     *
+     * @param line The line to parse, without its line terminator (cannot be null).
+     * @param lineNumber The 1-based number of the line within its file, used in error messages.
+     * @return Non-null TimedScenario from the parsed line.
+     * @throws IllegalArgumentException if parameter conditions are not met.
+     * @throws ScenarioLoadingException if the line is malformed.
+     */
+    TimedScenario parse(final CharSequence line, final long lineNumber)
+    {
+        Preconditions.checkArgument(line != null, "line: null");
+
+        begin(lineNumber);
+        final int length = line.length();
+        for (int index = 0; index < length; index++)
+        {
+            accept(line.charAt(index));
+        }
+        return end();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void begin(final long lineNumber)
+    {
+        this.scenarioBuilder = null;
+        this.state = State.INITIAL_FLOOR;
+        this.lineNumber = lineNumber;
+        this.column = 0;
+        this.previousArrivalTime = 0;
+        resetNumber();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void accept(final int character)
+    {
+        column++;
+        if (character >= '0' && character <= '9' && !numberTerminated && state != State.END_OF_LINE)
+        {
+            final int digit = character - '0';
+            final long maximum = state == State.ARRIVAL_TIME ? MAXIMUM_TIME : MAXIMUM_FLOOR;
+            if (number > (maximum - digit) / 10)
+            {
+                throw malformed((state == State.ARRIVAL_TIME ? "arrival time" : "floor number") + " is larger than " + maximum);
+            }
+            number = number * 10 + digit;
+            numberDigits++;
+            return;
+        }
+
+        if (character == ' ' || character == '\t')
+        {
+            numberTerminated = numberDigits > 0;
+            return;
+        }
+
+        if (character == '\r' && state != State.END_OF_LINE)
+        {
+            // Only valid as the last character of the line; anything after it is rejected by the END_OF_LINE state.
+            completeLine();
+            state = State.END_OF_LINE;
+            return;
+        }
+
+        switch (state)
+        {
+            case INITIAL_FLOOR:
+                expect(character, ':', "':' after the initial floor");
+                initialFloor = takeFloor();
+                scenarioBuilder = TimedScenario.builder(initialFloor);
+                state = State.ARRIVAL_TIME;
+                break;
+            case ARRIVAL_TIME:
+                expect(character, '@', "'@' after an arrival time");
+                arrivalTime = takeArrivalTime();
+                state = State.ORIGINATING_FLOOR;
+                break;
+            case ORIGINATING_FLOOR:
+                expect(character, '-', "'-' after an originating floor");
+                originatingFloor = takeFloor();
+                state = State.DESTINATION_FLOOR;
+                break;
+            case DESTINATION_FLOOR:
+                expect(character, ',', "',' after a destination floor");
+                addRider(takeFloor());
+                state = State.ARRIVAL_TIME;
+                break;
+            case END_OF_LINE:
+            default:
+                throw malformed("unexpected " + describe(character) + " after the end of the scenario");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public TimedScenario end()
+    {
+        column++;
+        completeLine();
+
+        return scenarioBuilder.build();
+    }
+
+    /**
+     * Validates that the line may end in the current state, adding the final rider if one is pending.
+     *
+     * @throws ScenarioLoadingException if the line ended prematurely.
+     */
+    private void completeLine()
+    {
+        switch (state)
+        {
+            case INITIAL_FLOOR:
+                throw malformed("expected ':' after the initial floor but found the end of the line");
+            case ARRIVAL_TIME:
+                // A trailing comma (or no riders at all) is accepted, but a dangling arrival time is not.
+                if (numberDigits > 0)
+                {
+                    throw malformed("expected '@' after an arrival time but found the end of the line");
+                }
+                break;
+            case ORIGINATING_FLOOR:
+                throw malformed("expected '-' after an originating floor but found the end of the line");
+            case DESTINATION_FLOOR:
+                addRider(takeFloor());
+                break;
+            case END_OF_LINE:
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds the rider whose arrival time and originating floor have been parsed.
+     *
+     * @param destinationFloor The rider's destination floor.
+     * @throws ScenarioLoadingException if the rider goes nowhere.
+     */
+    private void addRider(final int destinationFloor)
+    {
+        if (destinationFloor == originatingFloor)
+        {
+            throw malformed("originating and destination floors must be different");
+        }
+        scenarioBuilder.addRider(arrivalTime, originatingFloor, destinationFloor);
+    }
+
+    /**
+     * Verifies the given character is the expected separator and that a number preceded it.
+     *
+     * @param character The character read.
+     * @param separator The separator expected in the current state.
+     * @param expectation Description of the expected separator for error messages.
+     * @throws ScenarioLoadingException if the expectation is not met.
+     */
+    private void expect(final int character, final char separator, final String expectation)
+    {
+        final String expectedNumber = state == State.ARRIVAL_TIME ? "an arrival time" : "a floor number";
+        if (character != separator || numberDigits == 0)
+        {
+            throw malformed("expected " + (numberDigits == 0 ? expectedNumber : expectation) + " but found " + describe(character));
+        }
+    }
+
+    /**
+     * Returns the arrival time accumulated so far and prepares for the next number.
+     *
+     * @return The arrival time.
+     * @throws ScenarioLoadingException if the arrival time is earlier than the previous rider's.
+     */
+    private long takeArrivalTime()
+    {
+        if (number < previousArrivalTime)
+        {
+            throw malformed("arrival time " + number + " is earlier than the previous rider's (" + previousArrivalTime + ")");
+        }
+        previousArrivalTime = number;
+        final long parsedTime = number;
+        resetNumber();
+        return parsedTime;
+    }
+
+    /**
+     * Returns the floor number accumulated so far and prepares for the next number.
+     *
+     * @return The floor number.
+     * @throws ScenarioLoadingException if the floor number is missing or not positive.
+     */
+    private int takeFloor()
+    {
+        if (numberDigits == 0)
+        {
+            throw malformed("expected a floor number but found the end of the line");
+        }
+        if (number == 0)
+        {
+            throw malformed("floor numbers must be positive");
+        }
+        final int parsedFloor = (int) number;
+        resetNumber();
+        return parsedFloor;
+    }
+
+    /**
+     * Clears the number accumulator.
+     */
+    private void resetNumber()
+    {
+        number = 0;
+        numberDigits = 0;
+        numberTerminated = false;
+    }
+
+    /**
+     * Creates an exception describing malformed input at the current position.
+     *
+     * @param problem Description of the problem.
+     * @return Non-null ScenarioLoadingException.
+     */
+    private ScenarioLoadingException malformed(final String problem)
+    {
+        return new ScenarioLoadingException("Malformed timed scenario on line " + lineNumber + ", column " + column + ": " + problem + ".");
+    }
+
+    /**
+     * Describes a character for error messages.
+     *
+     * @param character The character to describe.
+     * @return Non-null description.
+     */
+    private static String describe(final int character)
+    {
+        return character >= 0x20 && character < 0x7f ? "'" + (char) character + "'" : String.format("character 0x%02x", character);
+    }
+}
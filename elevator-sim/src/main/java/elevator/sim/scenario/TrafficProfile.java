@@ -0,0 +1,176 @@
+package elevator.sim.scenario;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * The traffic patterns synthetic scenarios can be generated with. Floor 1 is the lobby. Each profile draws a rider's originating and destination floors, which always differ, and returns them packed into a long
+ * (originating floor in the high half, destination floor in the low half).
+ */
+public enum TrafficProfile
+{
+    /**
+     * Every rider travels between two uniformly random floors.
+     */
+    UNIFORM("uniform", 2)
+    {
+        @Override
+        long nextRider(final SplitMixRandom random, final int floorCount)
+        {
+            return uniformRider(random, floorCount);
+        }
+    },
+
+    /**
+     * Morning traffic: most riders ({@value #PEAK_PERCENT}%) board in the lobby and go up to a random floor, a few ({@value #COUNTER_PEAK_PERCENT}%) come down to the lobby, and the rest travel between random floors.
+     */
+    UP_PEAK("up-peak", 2)
+    {
+        @Override
+        long nextRider(final SplitMixRandom random, final int floorCount)
+        {
+            final int share = random.nextInt(100);
+            if (share < PEAK_PERCENT)
+            {
+                return pack(LOBBY, upperFloor(random, floorCount));
+            }
+            return share < PEAK_PERCENT + COUNTER_PEAK_PERCENT ? pack(upperFloor(random, floorCount), LOBBY) : uniformRider(random, floorCount);
+        }
+    },
+
+    /**
+     * Evening traffic: most riders ({@value #PEAK_PERCENT}%) come down from a random floor to the lobby, a few ({@value #COUNTER_PEAK_PERCENT}%) go up from the lobby, and the rest travel between random floors.
+     */
+    DOWN_PEAK("down-peak", 2)
+    {
+        @Override
+        long nextRider(final SplitMixRandom random, final int floorCount)
+        {
+            final int share = random.nextInt(100);
+            if (share < PEAK_PERCENT)
+            {
+                return pack(upperFloor(random, floorCount), LOBBY);
+            }
+            return share < PEAK_PERCENT + COUNTER_PEAK_PERCENT ? pack(LOBBY, upperFloor(random, floorCount)) : uniformRider(random, floorCount);
+        }
+    },
+
+    /**
+     * Mid-day traffic between the upper floors: every rider travels between two random floors other than the lobby. Needs at least three floors.
+     */
+    INTER_FLOOR("inter-floor", 3)
+    {
+        @Override
+        long nextRider(final SplitMixRandom random, final int floorCount)
+        {
+            final int originatingFloor = upperFloor(random, floorCount);
+            // Any upper floor but the originating one: step 1 to floorCount - 2 floors further, wrapping around within floors 2 to floorCount.
+            return pack(originatingFloor, LOBBY + 1 + (originatingFloor - LOBBY + random.nextInt(floorCount - 2)) % (floorCount - 1));
+        }
+    };
+
+    private static final int LOBBY = 1;
+    private static final int PEAK_PERCENT = 85;
+    private static final int COUNTER_PEAK_PERCENT = 5;
+
+    private final String name;
+    private final int minimumFloorCount;
+
+    /**
+     * @param name The name of the profile on the command line.
+     * @param minimumFloorCount The fewest floors the profile can generate riders for.
+     */
+    TrafficProfile(final String name, final int minimumFloorCount)
+    {
+        this.name = name;
+        this.minimumFloorCount = minimumFloorCount;
+    }
+
+    /**
+     * Parses a profile name, as given on the command line.
+     *
+     * @param argument The name to parse: <code>uniform</code>, <code>up-peak</code>, <code>down-peak</code> or <code>inter-floor</code> (cannot be null).
+     * @return Non-null TrafficProfile of the given name.
+     * @throws IllegalArgumentException if parameter conditions are not met, or the name is not known.
+     */
+    public static TrafficProfile parse(final String argument)
+    {
+        Preconditions.checkArgument(argument != null, "argument: null");
+
+        for (final TrafficProfile profile : values())
+        {
+            if (profile.name.equalsIgnoreCase(argument))
+            {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Invalid traffic profile: [" + argument + "]. Expected uniform, up-peak, down-peak or inter-floor.");
+    }
+
+    /**
+     * @return The fewest floors the profile can generate riders for.
+     */
+    public int getMinimumFloorCount()
+    {
+        return minimumFloorCount;
+    }
+
+    /**
+     * @return Non-null name of the profile, as given on the command line.
+     */
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
+    /**
+     * Draws the floors of a rider.
+     *
+     * @param random The source of randomness.
+     * @param floorCount The number of floors of the building (at least {@linkplain #getMinimumFloorCount()}).
+     * @return The originating floor shifted into the high 32 bits, or'ed with the destination floor.
+     */
+    abstract long nextRider(final SplitMixRandom random, final int floorCount);
+
+    /**
+     * @param random The source of randomness.
+     * @param floorCount The number of floors of the building.
+     * @return A rider between two uniformly random, different floors.
+     */
+    private static long uniformRider(final SplitMixRandom random, final int floorCount)
+    {
+        final int originatingFloor = 1 + random.nextInt(floorCount);
+        return pack(originatingFloor, otherFloor(random, floorCount, originatingFloor));
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param floorCount The number of floors of the building.
+     * @return A uniformly random floor above the lobby.
+     */
+    private static int upperFloor(final SplitMixRandom random, final int floorCount)
+    {
+        return LOBBY + 1 + random.nextInt(floorCount - 1);
+    }
+
+    /**
+     * @param random The source of randomness.
+     * @param floorCount The number of floors of the building (at least 2).
+     * @param floor A floor of the building.
+     * @return A uniformly random floor of the building other than the given one.
+     */
+    static int otherFloor(final SplitMixRandom random, final int floorCount, final int floor)
+    {
+        return 1 + (floor + random.nextInt(floorCount - 1)) % floorCount;
+    }
+
+    /**
+     * @param originatingFloor The originating floor of a rider.
+     * @param destinationFloor The destination floor of a rider.
+     * @return The floors packed into a long.
+     */
+    private static long pack(final int originatingFloor, final int destinationFloor)
+    {
+        return (long) originatingFloor << 32 | destinationFloor;
+    }
+}
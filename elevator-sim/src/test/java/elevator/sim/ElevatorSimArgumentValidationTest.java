@@ -34,8 +34,8 @@ public final class ElevatorSimArgumentValidationTest
     public void invalidMode()
     {
         exception.expect(IllegalArgumentException.class);
-        exception.expectMessage("Invalid mode specified: [c]. Valid options include [A, a, B, b].");
-        SimRunner.run(new String[]{"foo", "c"});
+        exception.expectMessage("Invalid mode specified: [z]. Valid options include [A, a, B, b, C, c, D, d, E, e, F, f].");
+        SimRunner.run(new String[]{"foo", "z"});
     }
 
     /**
@@ -48,4 +48,125 @@ public final class ElevatorSimArgumentValidationTest
         exception.expectMessage("Could not load scenario (exception thrown reading 123).");
         SimRunner.run(new String[]{"123", "b"});
     }
-}
\ No newline at end of file
+
+    /**
+     * Verifies that passing an unrecognized option causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void unknownOption()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Unknown option: [--foo=1].");
+        SimRunner.run(new String[]{"123", "b", "--foo=1"});
+    }
+
+    /**
+     * Verifies that passing a non-numeric thread count causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void invalidLoadThreads()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Invalid value for --load-threads: [many]. Expected a positive integer.");
+        SimRunner.run(new String[]{"123", "b", "--load-threads=many"});
+    }
+
+    /**
+     * Verifies that the memory-mapped loader and the pipelined loader cannot both be requested.
+     */
+    @Test
+    public void loadThreadsWithParseThreads()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Options --load-threads and --parse-threads cannot be combined.");
+        SimRunner.run(new String[]{"123", "b", "--load-threads=2", "--parse-threads=2"});
+    }
+
+    /**
+     * Verifies that an unrecognized flush policy causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void invalidFlushPolicy()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Invalid value for --flush: [sometimes]. Expected scenario, scenarios:<n>, bytes:<n> or end.");
+        SimRunner.run(new String[]{"123", "b", "--flush=sometimes"});
+    }
+
+    /**
+     * Verifies that an unrecognized assignment policy causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void invalidAssignmentPolicy()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Invalid value for --assignment: [closest]. Expected nearest, zones or round-robin.");
+        SimRunner.run(new String[]{"123", "b", "--cars=2", "--assignment=closest"});
+    }
+
+    /**
+     * Verifies that requesting timed scenarios in a mode without an event-driven counterpart causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void timedScenariosInUnsupportedMode()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Option --timed supports modes C and F only.");
+        SimRunner.run(new String[]{"123", "b", "--timed"});
+    }
+
+    /**
+     * Verifies that caching plans for timed scenarios, which are never planned up front, causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void planCacheWithTimedScenarios()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Options --timed and --plan-cache cannot be combined.");
+        SimRunner.run(new String[]{"123", "c", "--timed", "--plan-cache=100"});
+    }
+
+    /**
+     * Verifies that collecting metrics for timed scenarios, which do not go through the parse, plan and write stages, causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void statsWithTimedScenarios()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Options --timed and --stats or --jmx cannot be combined.");
+        SimRunner.run(new String[]{"123", "c", "--timed", "--stats"});
+    }
+
+    /**
+     * Verifies that listing a mode twice causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void duplicateComparedMode()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Invalid mode specified: [A,c,a]. Each mode may only be listed once.");
+        SimRunner.run(new String[]{"123", "A,c,a"});
+    }
+
+    /**
+     * Verifies that comparing modes together with an option that only applies to a single mode causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void compareWithGroupOfCars()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Option --cars cannot be combined with comparing modes.");
+        SimRunner.run(new String[]{"123", "all", "--cars=2"});
+    }
+
+    /**
+     * Verifies that a summary together with an option that prints every scenario causes the appropriate exception to be thrown.
+     */
+    @Test
+    public void summaryWithTimedScenarios()
+    {
+        exception.expect(IllegalArgumentException.class);
+        exception.expectMessage("Options --summary and --timed cannot be combined.");
+        SimRunner.run(new String[]{"123", "C", "--summary", "--timed"});
+    }
+}
@@ -1,5 +1,6 @@
 package elevator.sim;
 
+import org.junit.Test;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.Theories;
 import org.junit.experimental.theories.Theory;
@@ -7,8 +8,13 @@ import org.junit.runner.RunWith;
 import util.Scenarios;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -40,6 +46,102 @@ public final class ElevatorSimTest
         System.out.print(" Success!" + System.lineSeparator());
     }
 
+    /**
+     * Verifies that comparing every mode reports, for each scenario, the floors travelled in the solution of every mode.
+     */
+    @Test
+    public void compareAllModes()
+    {
+        final String scenario = "examplescenarios.txt";
+        final String[] lines = SimRunner.run(new String[]{Scenarios.getScenarioPath(scenario).toString(), Mode.ALL}).split(System.lineSeparator());
+        for (final Mode mode : modes)
+        {
+            final String[] solutionLines = readSolution(Scenarios.getSolutionPath(scenario, mode)).split(System.lineSeparator());
+            assertThat(lines.length, equalTo(solutionLines.length));
+            for (int line = 0; line < lines.length; line++)
+            {
+                final Matcher floors = Pattern.compile(" \\((\\d+)\\)$").matcher(solutionLines[line]);
+                assertThat(floors.find(), equalTo(true));
+                assertThat(lines[line].contains(mode.name() + " (" + floors.group(1) + ")"), equalTo(true));
+            }
+        }
+    }
+
+    /**
+     * Verifies that the summary of every mode totals the scenarios and floors travelled in the solution of the mode.
+     */
+    @Test
+    public void summarizeEachMode()
+    {
+        final String scenario = "examplescenarios.txt";
+        for (final Mode mode : modes)
+        {
+            final String[] solutionLines = readSolution(Scenarios.getSolutionPath(scenario, mode)).split(System.lineSeparator());
+            long floorsTravelled = 0;
+            for (final String solutionLine : solutionLines)
+            {
+                final Matcher floors = Pattern.compile(" \\((\\d+)\\)$").matcher(solutionLine);
+                assertThat(floors.find(), equalTo(true));
+                floorsTravelled += Long.parseLong(floors.group(1));
+            }
+
+            final String[] lines = SimRunner.run(new String[]{Scenarios.getScenarioPath(scenario).toString(), mode.name(), "--summary"}).split(System.lineSeparator());
+            assertThat(lines.length, equalTo(5));
+            assertThat(lines[0].startsWith("Scenarios: " + solutionLines.length + ", "), equalTo(true));
+            assertThat(lines[0].endsWith(", floors travelled: " + floorsTravelled + "."), equalTo(true));
+        }
+    }
+
+    /**
+     * Verifies that results on standard output are flushed after every scenario by default, and only at the end with <code>--flush=end</code>.
+     */
+    @Test
+    public void flushesStandardOutputPerScenarioByDefault()
+    {
+        final String scenarioPath = Scenarios.getScenarioPath("examplescenarios.txt").toString();
+        assertThat(countFlushes(new String[]{scenarioPath, Mode.C.name()}) >= 6, equalTo(true));
+        assertThat(countFlushes(new String[]{scenarioPath, Mode.C.name(), "--flush=end"}) < 6, equalTo(true));
+    }
+
+    /**
+     * Runs {@linkplain ElevatorSim#main(String[])} with standard output redirected to a stream that discards the results and counts how often it is flushed.
+     *
+     * @param args See {@link ElevatorSim#USAGE}.
+     * @return The number of times standard output was flushed.
+     */
+    private static int countFlushes(final String[] args)
+    {
+        final AtomicInteger flushes = new AtomicInteger();
+        final PrintStream standardOut = System.out;
+        System.setOut(new PrintStream(new OutputStream()
+        {
+            @Override
+            public void write(final int b)
+            {
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len)
+            {
+            }
+
+            @Override
+            public void flush()
+            {
+                flushes.incrementAndGet();
+            }
+        }));
+        try
+        {
+            ElevatorSim.main(args);
+            return flushes.get();
+        }
+        finally
+        {
+            System.setOut(standardOut);
+        }
+    }
+
     /**
      * Reads the solution at the given path.
      *
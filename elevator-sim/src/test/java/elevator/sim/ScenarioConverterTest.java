@@ -0,0 +1,39 @@
+package elevator.sim;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import util.Scenarios;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that {@linkplain ScenarioConverter} produces binary scenario files that {@linkplain ElevatorSim} runs with the same results as the original text files.
+ */
+public final class ScenarioConverterTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that the converted <code>examplescenarios.txt</code> resource produces the same output as the text file in every mode.
+     */
+    @Test
+    public void convertedScenariosProduceSameOutput() throws IOException
+    {
+        final Path textFile = Scenarios.getScenarioPath("examplescenarios.txt");
+        final Path binaryFile = temporaryFolder.newFile("examplescenarios.bin").toPath();
+        ScenarioConverter.main(new String[]{textFile.toString(), binaryFile.toString()});
+
+        for (final Mode mode : Mode.values())
+        {
+            assertThat(SimRunner.run(binaryFile, mode), equalTo(SimRunner.run(textFile, mode)));
+        }
+        assertThat(Files.size(binaryFile) < Files.size(textFile), equalTo(true));
+    }
+}
@@ -0,0 +1,161 @@
+package elevator.sim;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.Scenario;
+import elevator.sim.scenario.ScenarioLoader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Verifies that {@linkplain WorkloadGenerator} produces reproducible scenario files that {@linkplain ScenarioLoader} loads, following the requested options.
+ */
+public final class WorkloadGeneratorTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    /**
+     * Verifies that the generated scenarios have the requested numbers of riders, between the requested floors. Each scenario loads with one move more than it has riders: the move from the initial floor to the
+     * first rider.
+     */
+    @Test
+    public void generatedScenariosLoad() throws IOException
+    {
+        final ImmutableList<Scenario> scenarios = generate("--scenarios=500", "--riders=3-9", "--floors=7", "--seed=42");
+
+        assertThat(scenarios, hasSize(500));
+        for (final Scenario scenario : scenarios)
+        {
+            assertThat(scenario.getMoveCount(), allOf(greaterThanOrEqualTo(4), lessThanOrEqualTo(10)));
+            for (int moveIndex = 0; moveIndex < scenario.getMoveCount(); moveIndex++)
+            {
+                assertThat(scenario.getOriginatingFloor(moveIndex), allOf(greaterThanOrEqualTo(1), lessThanOrEqualTo(7)));
+                assertThat(scenario.getDestinationFloor(moveIndex), allOf(greaterThanOrEqualTo(1), lessThanOrEqualTo(7)));
+            }
+        }
+    }
+
+    /**
+     * Verifies that the same seed produces the same file, and a different seed a different one.
+     */
+    @Test
+    public void sameSeedProducesSameFile() throws IOException
+    {
+        final Path first = generateFile("first.txt", "--seed=7", "--profile=down-peak");
+        final Path second = generateFile("second.txt", "--seed=7", "--profile=down-peak");
+        final Path third = generateFile("third.txt", "--seed=8", "--profile=down-peak");
+
+        assertThat(Files.readAllBytes(second), equalTo(Files.readAllBytes(first)));
+        assertThat(Files.readAllBytes(third), not(equalTo(Files.readAllBytes(first))));
+    }
+
+    /**
+     * Verifies that most riders of the up-peak profile board in the lobby.
+     */
+    @Test
+    public void upPeakStartsInLobby() throws IOException
+    {
+        int riders = 0;
+        int lobbyRiders = 0;
+        for (final Scenario scenario : generate("--scenarios=200", "--riders=50", "--floors=20", "--profile=up-peak"))
+        {
+            for (int moveIndex = 1; moveIndex < scenario.getMoveCount(); moveIndex++)
+            {
+                riders++;
+                lobbyRiders += scenario.getOriginatingFloor(moveIndex) == 1 ? 1 : 0;
+            }
+        }
+        assertThat(lobbyRiders * 100, greaterThan(riders * 80));
+    }
+
+    /**
+     * Verifies that no rider of the inter-floor profile starts or ends in the lobby (only the initial floor of the car may be the lobby).
+     */
+    @Test
+    public void interFloorAvoidsLobby() throws IOException
+    {
+        for (final Scenario scenario : generate("--scenarios=200", "--riders=1-30", "--floors=3", "--profile=inter-floor"))
+        {
+            for (int moveIndex = 0; moveIndex < scenario.getMoveCount(); moveIndex++)
+            {
+                assertThat(scenario.getOriginatingFloor(moveIndex) > 1 || moveIndex == 0, equalTo(true));
+                assertThat(scenario.getDestinationFloor(moveIndex), greaterThan(1));
+            }
+        }
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown for an unknown profile.
+     */
+    @Test
+    public void invalidProfile() throws IOException
+    {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Invalid traffic profile: [rush-hour]");
+        generate("--profile=rush-hour");
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown when the building has too few floors for the profile.
+     */
+    @Test
+    public void tooFewFloors() throws IOException
+    {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Invalid value for --floors: [2]");
+        generate("--floors=2", "--profile=inter-floor");
+    }
+
+    /**
+     * Verifies that an IllegalArgumentException is thrown for a rider range whose minimum exceeds its maximum.
+     */
+    @Test
+    public void invalidRiderRange() throws IOException
+    {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Invalid value for --riders: [9-3]");
+        generate("--riders=9-3");
+    }
+
+    /**
+     * @param options The options to generate the file with.
+     * @return Non-null list of the scenarios of a file generated with the given options.
+     */
+    private ImmutableList<Scenario> generate(final String... options) throws IOException
+    {
+        return new ScenarioLoader().loadScenariosFromFile(generateFile("scenarios.txt", options));
+    }
+
+    /**
+     * @param fileName The name of the file to generate in the temporary folder.
+     * @param options The options to generate the file with.
+     * @return Non-null Path of the generated file.
+     */
+    private Path generateFile(final String fileName, final String... options) throws IOException
+    {
+        final Path file = temporaryFolder.getRoot().toPath().resolve(fileName);
+        final String[] args = new String[options.length + 1];
+        args[0] = file.toString();
+        System.arraycopy(options, 0, args, 1, options.length);
+        WorkloadGenerator.main(args);
+        return file;
+    }
+}
@@ -0,0 +1,170 @@
+package elevator.sim.scenario;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import util.Scenarios;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Verifies that {@linkplain Scenario Scenarios} written by {@linkplain BinaryScenarioWriter} are detected and loaded by {@linkplain ScenarioLoader} unchanged.
+ */
+public final class BinaryScenarioFormatTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that the <code>examplescenarios.txt</code> resource survives a round trip through the binary format, and that the binary file is smaller than the text file.
+     */
+    @Test
+    public void exampleScenariosRoundTrip() throws IOException
+    {
+        final Path textFile = Scenarios.getScenarioPath("examplescenarios.txt");
+        final ImmutableList<Scenario> scenarios = new ScenarioLoader().loadScenariosFromFile(textFile);
+
+        final Path binaryFile = write(scenarios);
+        assertThat(new ScenarioLoader().loadScenariosFromFile(binaryFile), equalTo(scenarios));
+        assertThat(Files.size(binaryFile), lessThan(Files.size(textFile)));
+    }
+
+    /**
+     * Verifies that floors needing multi-byte varints and empty scenarios survive a round trip through the binary format.
+     */
+    @Test
+    public void largeFloorsAndEmptyScenariosRoundTrip() throws IOException
+    {
+        final List<Scenario> scenarios = Arrays.asList(
+                new Scenario(ImmutableList.of(new MoveCommand(127, 128), new MoveCommand(16384, Integer.MAX_VALUE))),
+                new Scenario(ImmutableList.of()),
+                new Scenario(ImmutableList.of(new MoveCommand(1, 2))));
+
+        assertThat(new ScenarioLoader().loadScenariosFromFile(write(scenarios)), equalTo(scenarios));
+    }
+
+    /**
+     * Verifies that a binary file is loaded the same way when parallel loading is requested.
+     */
+    @Test
+    public void binaryFileLoadedByParallelLoader() throws IOException
+    {
+        final List<Scenario> scenarios = Arrays.asList(new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1))));
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            assertThat(new ScenarioLoader().streamScenariosFromFileInParallel(write(scenarios), pool).collect(Collectors.toList()), equalTo(scenarios));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that a binary file with more scenarios than fit into one batch is loaded in order through the pipeline.
+     */
+    @Test
+    public void binaryFileLoadedByPipeline() throws IOException
+    {
+        final List<Scenario> scenarios = new ArrayList<>();
+        for (int scenarioIndex = 0; scenarioIndex < 10_000; scenarioIndex++)
+        {
+            scenarios.add(new Scenario(ImmutableList.of(new MoveCommand(scenarioIndex + 2, 1), new MoveCommand(1, scenarioIndex + 3))));
+        }
+        try (final Stream<Scenario> loadedScenarios = new ScenarioLoader().streamScenariosFromFileInPipeline(write(scenarios), 2, 2))
+        {
+            assertThat(loadedScenarios.collect(Collectors.toList()), equalTo(scenarios));
+        }
+    }
+
+    /**
+     * Verifies that a binary file which ends part-way through a scenario is reported.
+     */
+    @Test
+    public void truncatedFile() throws IOException
+    {
+        final Path binaryFile = write(Arrays.asList(new Scenario(ImmutableList.of(new MoveCommand(10, 8), new MoveCommand(8, 1)))));
+        final byte[] bytes = Files.readAllBytes(binaryFile);
+        Files.write(binaryFile, Arrays.copyOf(bytes, bytes.length - 1));
+
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("ends part-way through scenario 1");
+        new ScenarioLoader().loadScenariosFromFile(binaryFile);
+    }
+
+    /**
+     * Verifies that a move the text format would reject, such as one from floor 0, is reported with the index of its scenario rather than escaping as an IllegalArgumentException.
+     */
+    @Test
+    public void malformedMove() throws IOException
+    {
+        final Path binaryFile = write(Arrays.asList(new Scenario(ImmutableList.of(new MoveCommand(10, 8)))));
+        final byte[] bytes = Files.readAllBytes(binaryFile);
+        final byte[] malformed = Arrays.copyOf(bytes, bytes.length + 3);
+        // A second scenario with a single move from floor 0 to floor 5.
+        malformed[bytes.length] = 1;
+        malformed[bytes.length + 1] = 0;
+        malformed[bytes.length + 2] = 5;
+        Files.write(binaryFile, malformed);
+
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("malformed move in scenario 2 of " + binaryFile);
+        new ScenarioLoader().loadScenariosFromFile(binaryFile);
+    }
+
+    /**
+     * Verifies that a binary file of an unknown version is reported rather than parsed as text.
+     */
+    @Test
+    public void unsupportedVersion() throws IOException
+    {
+        final Path binaryFile = temporaryFolder.newFile("future.bin").toPath();
+        Files.write(binaryFile, new byte[]{(byte) 0x8e, 'E', 'L', 'V', 99});
+
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Unsupported binary scenario format version 99 (expected 1).");
+        new ScenarioLoader().loadScenariosFromFile(binaryFile);
+    }
+
+    /**
+     * Writes the given Scenarios to a new binary file.
+     *
+     * @param scenarios The Scenarios to write.
+     * @return Non-null Path to the written file.
+     * @throws IOException if the file cannot be written.
+     */
+    private Path write(final List<Scenario> scenarios) throws IOException
+    {
+        final Path binaryFile = temporaryFolder.newFile("scenarios.bin").toPath();
+        try (final OutputStream output = Files.newOutputStream(binaryFile);
+             final BinaryScenarioWriter writer = new BinaryScenarioWriter(output))
+        {
+            for (final Scenario scenario : scenarios)
+            {
+                writer.write(scenario);
+            }
+        }
+        return binaryFile;
+    }
+}
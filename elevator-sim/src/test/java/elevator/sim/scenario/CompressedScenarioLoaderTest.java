@@ -0,0 +1,143 @@
+package elevator.sim.scenario;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.Scenario;
+import elevator.sim.core.event.TimedScenario;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import util.Scenarios;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Verifies that {@linkplain ScenarioLoader} transparently decodes gzip- and deflate-compressed scenario files, including timed ones.
+ */
+public final class CompressedScenarioLoaderTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * Verifies that a gzip-compressed text file loads the same Scenarios as the original.
+     */
+    @Test
+    public void gzipText() throws IOException
+    {
+        final Path textFile = Scenarios.getScenarioPath("examplescenarios.txt");
+        final Path compressedFile = temporaryFolder.newFile("examplescenarios.txt.gz").toPath();
+        try (final OutputStream output = new GZIPOutputStream(Files.newOutputStream(compressedFile)))
+        {
+            Files.copy(textFile, output);
+        }
+
+        assertThat(new ScenarioLoader().loadScenariosFromFile(compressedFile), equalTo(new ScenarioLoader().loadScenariosFromFile(textFile)));
+    }
+
+    /**
+     * Verifies that a deflate-compressed text file loads the same Scenarios as the original, including when parallel loading is requested.
+     */
+    @Test
+    public void deflateText() throws IOException
+    {
+        final Path textFile = Scenarios.getScenarioPath("examplescenarios.txt");
+        final Path compressedFile = temporaryFolder.newFile("examplescenarios.txt.z").toPath();
+        try (final OutputStream output = new DeflaterOutputStream(Files.newOutputStream(compressedFile)))
+        {
+            Files.copy(textFile, output);
+        }
+
+        final ImmutableList<Scenario> expected = new ScenarioLoader().loadScenariosFromFile(textFile);
+        assertThat(new ScenarioLoader().loadScenariosFromFile(compressedFile), equalTo(expected));
+
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try
+        {
+            assertThat(new ScenarioLoader().streamScenariosFromFileInParallel(compressedFile, pool).collect(Collectors.toList()), equalTo(expected));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that a gzip-compressed binary file is detected as binary once decompressed.
+     */
+    @Test
+    public void gzipBinary() throws IOException
+    {
+        final ImmutableList<Scenario> expected = new ScenarioLoader().loadScenariosFromFile(Scenarios.getScenarioPath("examplescenarios.txt"));
+        final Path compressedFile = temporaryFolder.newFile("examplescenarios.bin.gz").toPath();
+        try (final BinaryScenarioWriter writer = new BinaryScenarioWriter(new GZIPOutputStream(Files.newOutputStream(compressedFile))))
+        {
+            for (final Scenario scenario : expected)
+            {
+                writer.write(scenario);
+            }
+        }
+
+        assertThat(new ScenarioLoader().loadScenariosFromFile(compressedFile), equalTo(expected));
+    }
+
+    /**
+     * Verifies that a gzip-compressed timed scenario file is decoded and parsed line by line.
+     */
+    @Test
+    public void gzipTimedText() throws IOException
+    {
+        final Path compressedFile = temporaryFolder.newFile("timed.txt.gz").toPath();
+        try (final OutputStream output = new GZIPOutputStream(Files.newOutputStream(compressedFile)))
+        {
+            output.write("1:0@1-10,3000@7-1\n5:\n".getBytes("US-ASCII"));
+        }
+
+        try (final Stream<TimedScenario> scenarios = new ScenarioLoader().streamTimedScenariosFromFile(compressedFile))
+        {
+            assertThat(scenarios.collect(Collectors.toList()), equalTo(ImmutableList.of(
+                    TimedScenario.builder(1).addRider(0, 1, 10).addRider(3000, 7, 1).build(),
+                    TimedScenario.builder(5).build())));
+        }
+    }
+
+    /**
+     * Verifies that a text file starting with floor 80, whose first two bytes resemble a zlib header, is not mistaken for a compressed file.
+     */
+    @Test
+    public void textResemblingZlibHeader() throws IOException
+    {
+        final Path textFile = temporaryFolder.newFile("eighty.txt").toPath();
+        Files.write(textFile, "80:3-6".getBytes("US-ASCII"));
+
+        assertThat(new ScenarioLoader().loadScenariosFromFile(textFile).size(), equalTo(1));
+    }
+
+    /**
+     * Verifies that a corrupt gzip file is reported as a loading failure.
+     */
+    @Test
+    public void corruptGzip() throws IOException
+    {
+        final Path compressedFile = temporaryFolder.newFile("corrupt.gz").toPath();
+        Files.write(compressedFile, new byte[]{0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Could not load scenario (exception thrown reading " + compressedFile + ").");
+        new ScenarioLoader().loadScenariosFromFile(compressedFile);
+    }
+}
@@ -0,0 +1,62 @@
+package elevator.sim.scenario;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that the {@linkplain ReadAheadInputStream} hands over what its background thread reads, including how the source failed.
+ */
+public final class ReadAheadInputStreamTest
+{
+    /**
+     * Verifies that the bytes read ahead of a failure are delivered, and that a RuntimeException thrown by the source then reaches the consumer as an IOException instead of leaving it waiting forever.
+     */
+    @Test(timeout = 10_000)
+    public void runtimeExceptionFromSourceReachesConsumer() throws IOException
+    {
+        final InputStream source = new InputStream()
+        {
+            private int reads;
+
+            @Override
+            public int read()
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length)
+            {
+                if (reads++ > 0)
+                {
+                    throw new IllegalStateException("corrupt input");
+                }
+                buffer[offset] = 'x';
+                return 1;
+            }
+        };
+
+        final ByteArrayOutputStream delivered = new ByteArrayOutputStream();
+        try (final ReadAheadInputStream input = new ReadAheadInputStream(source, 16, 2, "read-ahead-test"))
+        {
+            int character;
+            while ((character = input.read()) >= 0)
+            {
+                delivered.write(character);
+            }
+            throw new AssertionError("Failure of the source was not reported.");
+        }
+        catch (final IOException exception)
+        {
+            assertThat(delivered.toString("ISO-8859-1"), Matchers.equalTo("x"));
+            assertThat(exception.getCause() instanceof IllegalStateException, Matchers.equalTo(true));
+            assertThat(exception.getCause().getMessage(), Matchers.equalTo("corrupt input"));
+        }
+    }
+}
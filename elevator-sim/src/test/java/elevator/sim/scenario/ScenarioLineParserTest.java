@@ -0,0 +1,189 @@
+package elevator.sim.scenario;
+
+import com.google.common.collect.ImmutableList;
+import elevator.sim.core.MoveCommand;
+import elevator.sim.core.Scenario;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that {@linkplain ScenarioLineParser} produces the same {@linkplain Scenario Scenarios} as the original regex-based parsing, and that malformed lines are reported precisely.
+ */
+public final class ScenarioLineParserTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    /**
+     * Verifies that a line with several riders is parsed, including the synthetic move from the initial floor.
+     */
+    @Test
+    public void multipleRiders()
+    {
+        assertThat(parse("9:1-5,1-6,1-5"), equalTo(new Scenario(ImmutableList.of(
+                new MoveCommand(9, 1),
+                new MoveCommand(1, 5),
+                new MoveCommand(1, 6),
+                new MoveCommand(1, 5)))));
+    }
+
+    /**
+     * Verifies that multi-digit floors and a trailing comma are accepted.
+     */
+    @Test
+    public void multiDigitFloorsAndTrailingComma()
+    {
+        assertThat(parse("120:33-71,75-94,"), equalTo(new Scenario(ImmutableList.of(
+                new MoveCommand(120, 33),
+                new MoveCommand(33, 71),
+                new MoveCommand(75, 94)))));
+    }
+
+    /**
+     * Verifies that blanks around floors and separators, and a trailing carriage return, are tolerated.
+     */
+    @Test
+    public void blanksAndCarriageReturn()
+    {
+        assertThat(parse(" 10 : 8 - 1 ,\t3-4\r"), equalTo(new Scenario(ImmutableList.of(
+                new MoveCommand(10, 8),
+                new MoveCommand(8, 1),
+                new MoveCommand(3, 4)))));
+    }
+
+    /**
+     * Verifies that a line with an initial floor but no riders produces an empty Scenario.
+     */
+    @Test
+    public void noRiders()
+    {
+        assertThat(parse("5:"), equalTo(new Scenario(ImmutableList.of())));
+    }
+
+    /**
+     * Verifies that the same parser instance can be reused for several lines.
+     */
+    @Test
+    public void parserIsReusable()
+    {
+        final ScenarioLineParser parser = new ScenarioLineParser();
+        parser.parse("10:8-1", 1);
+        assertThat(parser.parse("2:4-1", 2), equalTo(new Scenario(ImmutableList.of(
+                new MoveCommand(2, 4),
+                new MoveCommand(4, 1)))));
+    }
+
+    /**
+     * Verifies that a line without a colon is reported at the end of the line.
+     */
+    @Test
+    public void missingColon()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 3: expected ':' after the initial floor but found the end of the line.");
+        parse("10");
+    }
+
+    /**
+     * Verifies that an unexpected character is reported at its column.
+     */
+    @Test
+    public void unexpectedCharacter()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 5: expected a floor number but found 'x'.");
+        parse("8:3-x");
+    }
+
+    /**
+     * Verifies that a separator without a preceding floor is reported.
+     */
+    @Test
+    public void missingFloor()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 7: expected a floor number but found ','.");
+        parse("8:3-6,,4-6");
+    }
+
+    /**
+     * Verifies that a rider without a destination floor is reported.
+     */
+    @Test
+    public void missingDestination()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 8: expected '-' after an originating floor but found the end of the line.");
+        parse("8:3-6,4");
+    }
+
+    /**
+     * Verifies that two floor numbers separated only by a blank are rejected.
+     */
+    @Test
+    public void blankWithinFloorNumber()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 5: expected '-' after an originating floor but found '4'.");
+        parse("8:3 4-6");
+    }
+
+    /**
+     * Verifies that a rider who goes nowhere is rejected at the position of the move, rather than by the Scenario.
+     */
+    @Test
+    public void sameOriginatingAndDestinationFloor()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 10: originating and destination floors must be different.");
+        parse("8:3-6,3-3");
+    }
+
+    /**
+     * Verifies that a first rider on the initial floor is rejected at the position of the move, rather than by the Scenario.
+     */
+    @Test
+    public void firstOriginatingFloorIsInitialFloor()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 6: the first originating floor must be different from the initial floor.");
+        parse("8:8-6");
+    }
+
+    /**
+     * Verifies that a floor of zero is rejected.
+     */
+    @Test
+    public void zeroFloor()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 4: floor numbers must be positive.");
+        parse("8:0-6");
+    }
+
+    /**
+     * Verifies that a floor number which does not fit into an int is rejected rather than overflowing.
+     */
+    @Test
+    public void floorOverflow()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed scenario on line 1, column 14: floor number is larger than 2147483647.");
+        parse("8:3-2147483648");
+    }
+
+    /**
+     * Parses a single line as line 1 of a file.
+     *
+     * @param line The line to parse.
+     * @return Non-null parsed Scenario.
+     */
+    private static Scenario parse(final String line)
+    {
+        return new ScenarioLineParser().parse(line, 1);
+    }
+}
@@ -3,10 +3,32 @@ package elevator.sim.scenario;
 import com.google.common.collect.ImmutableList;
 import elevator.sim.core.MoveCommand;
 import elevator.sim.core.Scenario;
+import elevator.sim.core.jfr.ScenarioParsedEvent;
 import org.hamcrest.Matchers;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import util.Scenarios;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.junit.Assert.assertThat;
 
@@ -15,6 +37,12 @@ import static org.junit.Assert.assertThat;
  */
 public final class ScenarioLoaderTest
 {
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     /**
      * Verifies that the <code>emptyscenario.txt</code> resource is loaded and parsed successfully. Since the file is empty, no {@linkplain Scenario Scenarios} should be returned.
      */
@@ -89,6 +117,293 @@ public final class ScenarioLoaderTest
         ));
     }
 
+    /**
+     * Verifies that streaming the <code>multiplescenarios.txt</code> resource produces the same {@linkplain Scenario Scenarios}, in the same order, as loading it eagerly.
+     */
+    @Test
+    public void streamMultipleScenarios()
+    {
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFile(Scenarios.getScenarioPath("multiplescenarios.txt")))
+        {
+            assertThat(scenarios.collect(Collectors.toList()), Matchers.equalTo(loadScenario("multiplescenarios.txt")));
+        }
+    }
+
+    /**
+     * Verifies that streaming the <code>emptyscenario.txt</code> resource produces no {@linkplain Scenario Scenarios}.
+     */
+    @Test
+    public void streamEmptyScenario()
+    {
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFile(Scenarios.getScenarioPath("emptyscenario.txt")))
+        {
+            assertThat(scenarios.count(), Matchers.equalTo(0L));
+        }
+    }
+
+    /**
+     * Verifies that loading the <code>examplescenarios.txt</code> resource in parallel produces the same {@linkplain Scenario Scenarios}, in the same order, as loading it sequentially.
+     */
+    @Test
+    public void parallelLoadMatchesSequentialLoad()
+    {
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInParallel(Scenarios.getScenarioPath("examplescenarios.txt"), pool))
+        {
+            assertThat(scenarios.collect(Collectors.toList()), Matchers.equalTo(loadScenario("examplescenarios.txt")));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that a file large enough to be split into several chunks is loaded in parallel in its original order.
+     */
+    @Test
+    public void parallelLoadPreservesOrderAcrossChunks() throws IOException
+    {
+        final Path scenarioFile = writeNumberedScenarios(400_000, -1);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInParallel(scenarioFile, pool))
+        {
+            assertThat(scenarios.collect(Collectors.toList()), Matchers.equalTo(new ScenarioLoader().loadScenariosFromFile(scenarioFile)));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that a malformed line in a later chunk is reported with its line number within the whole file.
+     */
+    @Test
+    public void parallelLoadReportsLineNumberOfMalformedLine() throws IOException
+    {
+        final Path scenarioFile = writeNumberedScenarios(400_000, 300_000);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInParallel(scenarioFile, pool))
+        {
+            exception.expect(ScenarioLoadingException.class);
+            exception.expectMessage("Malformed scenario on line 300000, column 7: expected a floor number but found 'x'.");
+            scenarios.count();
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that the parallel and pipelined loaders return every Scenario ahead of a malformed line in the middle of a chunk, as the sequential loader does, before reporting the line.
+     */
+    @Test
+    public void concurrentLoadsReturnScenariosAheadOfMalformedLine() throws IOException
+    {
+        final Path scenarioFile = writeNumberedScenarios(400_000, 300_000);
+        final List<Scenario> sequentialScenarios = new ArrayList<>();
+        final String sequentialFailure = readUntilFailure(new ScenarioLoader().streamScenariosFromFile(scenarioFile), sequentialScenarios);
+        assertThat(sequentialScenarios.size(), Matchers.equalTo(299_999));
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try
+        {
+            final List<Scenario> parallelScenarios = new ArrayList<>();
+            assertThat(readUntilFailure(new ScenarioLoader().streamScenariosFromFileInParallel(scenarioFile, pool), parallelScenarios), Matchers.equalTo(sequentialFailure));
+            assertThat(parallelScenarios, Matchers.equalTo(sequentialScenarios));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        final List<Scenario> pipelinedScenarios = new ArrayList<>();
+        assertThat(readUntilFailure(new ScenarioLoader().streamScenariosFromFileInPipeline(scenarioFile, 2, 4), pipelinedScenarios), Matchers.equalTo(sequentialFailure));
+        assertThat(pipelinedScenarios, Matchers.equalTo(sequentialScenarios));
+    }
+
+    /**
+     * Verifies that a file many times larger than the window of in-flight chunks is read in its original order without ever mapping more chunks than the window holds.
+     */
+    @Test
+    public void parallelLoadBoundsChunksInFlight() throws IOException
+    {
+        final Path scenarioFile = writeNumberedScenarios(20_000, -1);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try (final ParallelScenarioReader reader = new ParallelScenarioReader(scenarioFile, pool, 1024))
+        {
+            assertThat(Files.size(scenarioFile), Matchers.greaterThan(10L * reader.getWindow() * 1024));
+            final List<Scenario> scenarios = new ArrayList<>();
+            reader.iterator().forEachRemaining(scenarios::add);
+
+            assertThat(scenarios, Matchers.equalTo(new ScenarioLoader().loadScenariosFromFile(scenarioFile)));
+            assertThat(reader.getPeakChunksInFlight(), Matchers.equalTo(reader.getWindow()));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Verifies that a file large enough to be cut into many batches is loaded through the pipeline in its original order, with fewer queue slots than batches.
+     */
+    @Test
+    public void pipelinedLoadPreservesOrderAcrossBatches() throws IOException
+    {
+        final Path scenarioFile = writeNumberedScenarios(200_000, -1);
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInPipeline(scenarioFile, 3, 2))
+        {
+            assertThat(scenarios.collect(Collectors.toList()), Matchers.equalTo(new ScenarioLoader().loadScenariosFromFile(scenarioFile)));
+        }
+    }
+
+    /**
+     * Verifies that a malformed line in a later batch is reported through the pipeline with its line number within the whole file.
+     */
+    @Test
+    public void pipelinedLoadReportsLineNumberOfMalformedLine() throws IOException
+    {
+        final Path scenarioFile = writeNumberedScenarios(200_000, 150_000);
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInPipeline(scenarioFile, 2, 4))
+        {
+            exception.expect(ScenarioLoadingException.class);
+            exception.expectMessage("Malformed scenario on line 150000, column 7: expected a floor number but found 'x'.");
+            scenarios.count();
+        }
+    }
+
+    /**
+     * Verifies that a line longer than a batch, and an unterminated last line, are loaded through the pipeline.
+     */
+    @Test
+    public void pipelinedLoadHandlesLongAndUnterminatedLines() throws IOException
+    {
+        final Path scenarioFile = temporaryFolder.newFile("long.txt").toPath();
+        final StringBuilder longLine = new StringBuilder("1:");
+        final ImmutableList.Builder<MoveCommand> moveCommands = ImmutableList.<MoveCommand>builder().add(new MoveCommand(1, 2));
+        for (int move = 0; move < 50_000; move++)
+        {
+            longLine.append("2-3,");
+            moveCommands.add(new MoveCommand(2, 3));
+        }
+        Files.write(scenarioFile, (longLine + "\n5:6-7").getBytes(StandardCharsets.US_ASCII));
+
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInPipeline(scenarioFile, 2, 1))
+        {
+            assertThat(scenarios.collect(Collectors.toList()), Matchers.contains(new Scenario(moveCommands.build()),
+                    new Scenario(ImmutableList.of(new MoveCommand(5, 6), new MoveCommand(6, 7)))));
+        }
+    }
+
+    /**
+     * Verifies that closing a pipelined Stream before it has been consumed stops the background reader rather than leaving it blocked on a full queue.
+     */
+    @Test
+    public void pipelinedLoadClosedEarly() throws IOException, InterruptedException
+    {
+        final Path scenarioFile = writeNumberedScenarios(200_000, -1);
+        try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInPipeline(scenarioFile, 1, 1))
+        {
+            assertThat(scenarios.iterator().hasNext(), Matchers.equalTo(true));
+        }
+
+        for (int attempt = 0; attempt < 100 && isThreadAlive("scenario-reader"); attempt++)
+        {
+            Thread.sleep(10);
+        }
+        assertThat(isThreadAlive("scenario-reader"), Matchers.equalTo(false));
+    }
+
+    /**
+     * Verifies that a Flight Recorder recording made with the shipped <code>elevator.jfc</code> settings profile receives a parsed event for every scenario of the <code>multiplescenarios.txt</code> resource, in
+     * order, when the file is loaded through a pipeline.
+     */
+    @Test
+    public void emitsParsedEventsWithShippedProfile() throws IOException, ParseException
+    {
+        final Configuration configuration;
+        try (final Reader profile = new InputStreamReader(ScenarioLoaderTest.class.getResourceAsStream("/elevator.jfc"), StandardCharsets.UTF_8))
+        {
+            configuration = Configuration.create(profile);
+        }
+        final ImmutableList<Scenario> expected = loadScenario("multiplescenarios.txt");
+        final Path recordingFile = temporaryFolder.newFile("scenarios.jfr").toPath();
+        try (final Recording recording = new Recording(configuration))
+        {
+            recording.start();
+            try (final Stream<Scenario> scenarios = new ScenarioLoader().streamScenariosFromFileInPipeline(Scenarios.getScenarioPath("multiplescenarios.txt"), 2, 2))
+            {
+                assertThat(scenarios.count(), Matchers.equalTo((long) expected.size()));
+            }
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .filter(event -> event.getEventType().getName().equals(ScenarioParsedEvent.NAME))
+                .collect(Collectors.toList());
+        assertThat(events.size(), Matchers.equalTo(expected.size()));
+        for (int scenarioIndex = 0; scenarioIndex < expected.size(); scenarioIndex++)
+        {
+            assertThat(events.get(scenarioIndex).getLong("scenarioIndex"), Matchers.equalTo((long) scenarioIndex));
+            assertThat(events.get(scenarioIndex).getInt("moveCount"), Matchers.equalTo(expected.get(scenarioIndex).getMoveCount()));
+        }
+    }
+
+    /**
+     * @param name The name of a thread.
+     * @return True if a live thread with the given name exists.
+     */
+    private static boolean isThreadAlive(final String name)
+    {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> thread.getName().equals(name) && thread.isAlive());
+    }
+
+    /**
+     * Collects Scenarios from a Stream until it fails, then closes it.
+     *
+     * @param scenarios The Stream to read.
+     * @param collected The List to add every Scenario returned before the failure to.
+     * @return The message of the ScenarioLoadingException that ended the Stream.
+     */
+    private static String readUntilFailure(final Stream<Scenario> scenarios, final List<Scenario> collected)
+    {
+        try (final Stream<Scenario> closedScenarios = scenarios)
+        {
+            closedScenarios.iterator().forEachRemaining(collected::add);
+        }
+        catch (final ScenarioLoadingException exception)
+        {
+            return exception.getMessage();
+        }
+        throw new AssertionError("Malformed line was not reported.");
+    }
+
+    /**
+     * Writes a scenario file whose lines vary with their line number.
+     *
+     * @param lines Number of lines to write.
+     * @param malformedLine 1-based number of a line to corrupt, or -1 to write only valid lines.
+     * @return Non-null Path to the written file.
+     * @throws IOException if the file cannot be written.
+     */
+    private Path writeNumberedScenarios(final int lines, final int malformedLine) throws IOException
+    {
+        final Path scenarioFile = temporaryFolder.newFile("scenarios.txt").toPath();
+        try (final BufferedWriter writer = Files.newBufferedWriter(scenarioFile))
+        {
+            for (int line = 1; line <= lines; line++)
+            {
+                writer.write(line == malformedLine ? "1:2-3,x-4" : (line % 97 + 1) + ":" + (line % 89 + 100) + "-" + (line % 83 + 1) + ",3-4");
+                writer.newLine();
+            }
+        }
+        return scenarioFile;
+    }
+
     /**
      * Loads a scenario resource located in the <code>src/resources/scenarios/</code> directory using the {@linkplain ScenarioLoader}.
      *
@@ -0,0 +1,127 @@
+package elevator.sim.scenario;
+
+import elevator.sim.core.event.TimedScenario;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Verifies that {@linkplain TimedScenarioLineParser} parses timed scenario lines into {@linkplain TimedScenario TimedScenarios}, and that malformed lines are reported precisely.
+ */
+public final class TimedScenarioLineParserTest
+{
+    @Rule
+    public ExpectedException exception = ExpectedException.none();
+
+    /**
+     * Verifies that a line with several riders is parsed, without the synthetic move the untimed format adds.
+     */
+    @Test
+    public void multipleRiders()
+    {
+        assertThat(parse("9:0@1-5,0@1-6,2500@12-5"), equalTo(TimedScenario.builder(9)
+                .addRider(0, 1, 5)
+                .addRider(0, 1, 6)
+                .addRider(2500, 12, 5)
+                .build()));
+    }
+
+    /**
+     * Verifies that blanks around numbers and separators, a trailing comma and a trailing carriage return are tolerated.
+     */
+    @Test
+    public void blanksAndTrailingSeparators()
+    {
+        assertThat(parse(" 10 : 100 @ 8 - 1 ,\t86400000@3-4,\r"), equalTo(TimedScenario.builder(10)
+                .addRider(100, 8, 1)
+                .addRider(86400000, 3, 4)
+                .build()));
+    }
+
+    /**
+     * Verifies that a line with an initial floor but no riders produces an empty TimedScenario.
+     */
+    @Test
+    public void noRiders()
+    {
+        assertThat(parse("5:"), equalTo(TimedScenario.builder(5).build()));
+    }
+
+    /**
+     * Verifies that the same parser instance can be reused for several lines, each starting its arrival times afresh.
+     */
+    @Test
+    public void parserIsReusable()
+    {
+        final TimedScenarioLineParser parser = new TimedScenarioLineParser();
+        parser.parse("10:5000@8-1", 1);
+        assertThat(parser.parse("2:0@4-1", 2), equalTo(TimedScenario.builder(2).addRider(0, 4, 1).build()));
+    }
+
+    /**
+     * Verifies that arrival times must not go backwards.
+     */
+    @Test
+    public void decreasingArrivalTime()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed timed scenario on line 1, column 15: arrival time 999 is earlier than the previous rider's (1000).");
+        parse("1:1000@2-3,999@3-4");
+    }
+
+    /**
+     * Verifies that a rider without an arrival time is rejected.
+     */
+    @Test
+    public void missingArrivalTime()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed timed scenario on line 1, column 4: expected '@' after an arrival time but found '-'.");
+        parse("1:2-3");
+    }
+
+    /**
+     * Verifies that a rider who goes nowhere is rejected.
+     */
+    @Test
+    public void sameOriginatingAndDestinationFloor()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed timed scenario on line 1, column 8: originating and destination floors must be different.");
+        parse("1:0@3-3");
+    }
+
+    /**
+     * Verifies that a line ending after an originating floor is rejected.
+     */
+    @Test
+    public void danglingOriginatingFloor()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("Malformed timed scenario on line 1, column 6: expected '-' after an originating floor but found the end of the line.");
+        parse("1:0@3");
+    }
+
+    /**
+     * Verifies that an arrival time too large to simulate is rejected.
+     */
+    @Test
+    public void arrivalTimeTooLarge()
+    {
+        exception.expect(ScenarioLoadingException.class);
+        exception.expectMessage("arrival time is larger than " + Long.MAX_VALUE / 4);
+        parse("1:99999999999999999999@3-4");
+    }
+
+    /**
+     * @param line The line to parse.
+     * @return The parsed TimedScenario.
+     */
+    private static TimedScenario parse(final String line)
+    {
+        return new TimedScenarioLineParser().parse(line, 1);
+    }
+}
@@ -6,7 +6,6 @@ import elevator.sim.Mode;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Properties;
@@ -120,12 +119,13 @@ public final class Scenarios
         for (final String pathComponent : pathComponents)
         {
             Preconditions.checkArgument(pathComponent != null, "pathComponent: null (path so far [" + path.toString() + "].");
-            path.append(FileSystems.getDefault().getSeparator()).append(pathComponent);
+            path.append('/').append(pathComponent);
         }
 
         try
         {
-            final URL resource = ClassLoader.getSystemResource(path.toString());
+            // Resource names are separated by '/' on every platform; the leading '/' makes the name absolute rather than relative to this class's package.
+            final URL resource = Scenarios.class.getResource(path.toString());
             if (resource == null)
             {
                 throw new ResourceLookupException("Failed to lookup resource: " + path.toString());